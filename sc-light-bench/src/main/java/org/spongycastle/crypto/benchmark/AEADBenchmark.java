@@ -0,0 +1,74 @@
+package org.spongycastle.crypto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.spongycastle.crypto.InvalidCipherTextException;
+import org.spongycastle.crypto.engines.AESFastEngine;
+import org.spongycastle.crypto.modes.AEADCipher;
+import org.spongycastle.crypto.modes.ChaCha20Poly1305;
+import org.spongycastle.crypto.modes.GCMBlockCipher;
+import org.spongycastle.crypto.params.AEADParameters;
+import org.spongycastle.crypto.params.KeyParameter;
+
+/**
+ * ChaCha20-Poly1305 against AES-GCM, each processing a full message per operation with a
+ * 96 bit nonce, 128 bit tag and no associated data.
+ */
+public class AEADBenchmark
+    extends PayloadBenchmark
+{
+    @Param({ "GCM-AESFast-128", "GCM-AESFast-256", "ChaCha20Poly1305" })
+    public String algorithm;
+
+    @Param({ "true", "false" })
+    public boolean forEncryption;
+
+    private AEADCipher cipher;
+
+    @Setup
+    public void setup()
+        throws InvalidCipherTextException
+    {
+        AEADParameters params;
+
+        if (algorithm.equals("ChaCha20Poly1305"))
+        {
+            cipher = new ChaCha20Poly1305();
+            params = new AEADParameters(new KeyParameter(key(32)), 128, new byte[12], new byte[0]);
+        }
+        else
+        {
+            cipher = new GCMBlockCipher(new AESFastEngine());
+            params = new AEADParameters(new KeyParameter(key(Algorithms.keySize(algorithm))), 128, new byte[12], new byte[0]);
+        }
+
+        cipher.init(true, params);
+
+        createPayload(cipher.getOutputSize(payloadSize));
+
+        if (!forEncryption)
+        {
+            // replace the payload with a valid ciphertext and tag for decryption.
+            byte[] ct = new byte[output.length];
+            int len = cipher.processBytes(input, 0, input.length, ct, 0);
+            cipher.doFinal(ct, len);
+
+            cipher.init(false, params);
+            input = ct;
+        }
+    }
+
+    @Benchmark
+    public byte[] process()
+        throws InvalidCipherTextException
+    {
+        byte[] out = output;
+
+        int len = cipher.processBytes(input, 0, input.length, out, 0);
+
+        cipher.doFinal(out, len);
+
+        return out;
+    }
+}
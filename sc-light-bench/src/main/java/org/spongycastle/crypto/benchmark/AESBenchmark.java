@@ -0,0 +1,67 @@
+package org.spongycastle.crypto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.spongycastle.crypto.BlockCipher;
+import org.spongycastle.crypto.MultiBlockCipher;
+
+/**
+ * Compares the AES engines, a block at a time through processBlock() and in bulk through
+ * MultiBlockCipher.processBlocks() for the engines that support it.
+ */
+public class AESBenchmark
+    extends PayloadBenchmark
+{
+    @Param({ "AES", "AESFast", "AESLight", "AESBitSlice", "AESIntrinsic" })
+    public String engineName;
+
+    @Param({ "128", "256" })
+    public int keySize;
+
+    @Param({ "true", "false" })
+    public boolean forEncryption;
+
+    private BlockCipher engine;
+    private int blockCount;
+
+    @Setup
+    public void setup()
+    {
+        String algorithm = engineName + "-" + keySize;
+
+        engine = Algorithms.createBlockCipher(algorithm);
+        engine.init(forEncryption, Algorithms.blockCipherParameters(algorithm, key(keySize / 8)));
+
+        createPayload(payloadSize);
+        blockCount = input.length / engine.getBlockSize();
+    }
+
+    @Benchmark
+    public byte[] processBlock()
+    {
+        BlockCipher engine = this.engine;
+        byte[] in = input;
+        byte[] out = output;
+
+        for (int off = 0; off < in.length; off += 16)
+        {
+            engine.processBlock(in, off, out, off);
+        }
+
+        return out;
+    }
+
+    @Benchmark
+    public byte[] processBlocks()
+    {
+        if (engine instanceof MultiBlockCipher)
+        {
+            ((MultiBlockCipher)engine).processBlocks(input, 0, blockCount, output, 0);
+
+            return output;
+        }
+
+        return processBlock();
+    }
+}
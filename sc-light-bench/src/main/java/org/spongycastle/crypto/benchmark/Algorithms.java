@@ -0,0 +1,568 @@
+package org.spongycastle.crypto.benchmark;
+
+import org.spongycastle.crypto.BlockCipher;
+import org.spongycastle.crypto.BufferedBlockCipher;
+import org.spongycastle.crypto.CipherParameters;
+import org.spongycastle.crypto.Digest;
+import org.spongycastle.crypto.Mac;
+import org.spongycastle.crypto.StreamCipher;
+import org.spongycastle.crypto.digests.GOST3411Digest;
+import org.spongycastle.crypto.digests.MD2Digest;
+import org.spongycastle.crypto.digests.MD4Digest;
+import org.spongycastle.crypto.digests.MD5Digest;
+import org.spongycastle.crypto.digests.RIPEMD128Digest;
+import org.spongycastle.crypto.digests.RIPEMD160Digest;
+import org.spongycastle.crypto.digests.RIPEMD256Digest;
+import org.spongycastle.crypto.digests.RIPEMD320Digest;
+import org.spongycastle.crypto.digests.SHA1Digest;
+import org.spongycastle.crypto.digests.SHA224Digest;
+import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.digests.SHA384Digest;
+import org.spongycastle.crypto.digests.SHA512Digest;
+import org.spongycastle.crypto.digests.TigerDigest;
+import org.spongycastle.crypto.digests.WhirlpoolDigest;
+import org.spongycastle.crypto.engines.AESBitSliceEngine;
+import org.spongycastle.crypto.engines.AESEngine;
+import org.spongycastle.crypto.engines.AESFastEngine;
+import org.spongycastle.crypto.engines.AESIntrinsicEngine;
+import org.spongycastle.crypto.engines.AESLightEngine;
+import org.spongycastle.crypto.engines.BlowfishEngine;
+import org.spongycastle.crypto.engines.CAST5Engine;
+import org.spongycastle.crypto.engines.CAST6Engine;
+import org.spongycastle.crypto.engines.CamelliaEngine;
+import org.spongycastle.crypto.engines.CamelliaLightEngine;
+import org.spongycastle.crypto.engines.ChaChaEngine;
+import org.spongycastle.crypto.engines.DESEngine;
+import org.spongycastle.crypto.engines.DESedeEngine;
+import org.spongycastle.crypto.engines.GOST28147Engine;
+import org.spongycastle.crypto.engines.Grain128Engine;
+import org.spongycastle.crypto.engines.Grainv1Engine;
+import org.spongycastle.crypto.engines.HC128Engine;
+import org.spongycastle.crypto.engines.HC256Engine;
+import org.spongycastle.crypto.engines.IDEAEngine;
+import org.spongycastle.crypto.engines.ISAACEngine;
+import org.spongycastle.crypto.engines.NoekeonEngine;
+import org.spongycastle.crypto.engines.NullEngine;
+import org.spongycastle.crypto.engines.RC2Engine;
+import org.spongycastle.crypto.engines.RC4Engine;
+import org.spongycastle.crypto.engines.RC532Engine;
+import org.spongycastle.crypto.engines.RC564Engine;
+import org.spongycastle.crypto.engines.RC6Engine;
+import org.spongycastle.crypto.engines.RijndaelEngine;
+import org.spongycastle.crypto.engines.SEEDEngine;
+import org.spongycastle.crypto.engines.Salsa20Engine;
+import org.spongycastle.crypto.engines.SerpentEngine;
+import org.spongycastle.crypto.engines.SkipjackEngine;
+import org.spongycastle.crypto.engines.TEAEngine;
+import org.spongycastle.crypto.engines.TwofishEngine;
+import org.spongycastle.crypto.engines.VMPCEngine;
+import org.spongycastle.crypto.engines.VMPCKSA3Engine;
+import org.spongycastle.crypto.engines.XTEAEngine;
+import org.spongycastle.crypto.macs.CBCBlockCipherMac;
+import org.spongycastle.crypto.macs.CFBBlockCipherMac;
+import org.spongycastle.crypto.macs.CMac;
+import org.spongycastle.crypto.macs.GOST28147Mac;
+import org.spongycastle.crypto.macs.HMac;
+import org.spongycastle.crypto.macs.ISO9797Alg3Mac;
+import org.spongycastle.crypto.macs.OldHMac;
+import org.spongycastle.crypto.macs.Poly1305;
+import org.spongycastle.crypto.macs.VMPCMac;
+import org.spongycastle.crypto.modes.AEADBlockCipher;
+import org.spongycastle.crypto.modes.CBCBlockCipher;
+import org.spongycastle.crypto.modes.CCMBlockCipher;
+import org.spongycastle.crypto.modes.CFBBlockCipher;
+import org.spongycastle.crypto.modes.CTSBlockCipher;
+import org.spongycastle.crypto.modes.EAXBlockCipher;
+import org.spongycastle.crypto.modes.GCMBlockCipher;
+import org.spongycastle.crypto.modes.GOFBBlockCipher;
+import org.spongycastle.crypto.modes.OFBBlockCipher;
+import org.spongycastle.crypto.modes.OpenPGPCFBBlockCipher;
+import org.spongycastle.crypto.modes.PGPCFBBlockCipher;
+import org.spongycastle.crypto.modes.SICBlockCipher;
+import org.spongycastle.crypto.params.AEADParameters;
+import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.crypto.params.ParametersWithIV;
+import org.spongycastle.crypto.params.RC5Parameters;
+
+/**
+ * Name based factory for the primitives exercised by the benchmarks.
+ * <p>
+ * Block cipher names take the form "Name-keyBits", so a single JMH parameter carries both
+ * the implementation and the key size, for example "AESFast-256" or "DESede-192".
+ */
+public final class Algorithms
+{
+    private Algorithms()
+    {
+    }
+
+    /**
+     * Implementations of the same algorithm which should be compared against each other,
+     * the first entry in each group being the baseline.
+     */
+    public static final String[][] COMPARISON_GROUPS =
+    {
+        { "AES-128", "AESFast-128", "AESLight-128", "AESBitSlice-128", "AESIntrinsic-128" },
+        { "AES-256", "AESFast-256", "AESLight-256", "AESBitSlice-256", "AESIntrinsic-256" },
+        { "Camellia-128", "CamelliaLight-128" },
+        { "Camellia-256", "CamelliaLight-256" },
+        { "AES-128", "Rijndael-128" }
+    };
+
+    public static BlockCipher createBlockCipher(String name)
+    {
+        String base = baseName(name);
+
+        if (base.equals("AES"))
+        {
+            return new AESEngine();
+        }
+        if (base.equals("AESFast"))
+        {
+            return new AESFastEngine();
+        }
+        if (base.equals("AESLight"))
+        {
+            return new AESLightEngine();
+        }
+        if (base.equals("AESBitSlice"))
+        {
+            return new AESBitSliceEngine();
+        }
+        if (base.equals("AESIntrinsic"))
+        {
+            return new AESIntrinsicEngine();
+        }
+        if (base.equals("Blowfish"))
+        {
+            return new BlowfishEngine();
+        }
+        if (base.equals("CAST5"))
+        {
+            return new CAST5Engine();
+        }
+        if (base.equals("CAST6"))
+        {
+            return new CAST6Engine();
+        }
+        if (base.equals("Camellia"))
+        {
+            return new CamelliaEngine();
+        }
+        if (base.equals("CamelliaLight"))
+        {
+            return new CamelliaLightEngine();
+        }
+        if (base.equals("DES"))
+        {
+            return new DESEngine();
+        }
+        if (base.equals("DESede"))
+        {
+            return new DESedeEngine();
+        }
+        if (base.equals("GOST28147"))
+        {
+            return new GOST28147Engine();
+        }
+        if (base.equals("IDEA"))
+        {
+            return new IDEAEngine();
+        }
+        if (base.equals("Noekeon"))
+        {
+            return new NoekeonEngine();
+        }
+        if (base.equals("Null"))
+        {
+            return new NullEngine();
+        }
+        if (base.equals("RC2"))
+        {
+            return new RC2Engine();
+        }
+        if (base.equals("RC532"))
+        {
+            return new RC532Engine();
+        }
+        if (base.equals("RC564"))
+        {
+            return new RC564Engine();
+        }
+        if (base.equals("RC6"))
+        {
+            return new RC6Engine();
+        }
+        if (base.equals("Rijndael"))
+        {
+            return new RijndaelEngine(128);
+        }
+        if (base.equals("SEED"))
+        {
+            return new SEEDEngine();
+        }
+        if (base.equals("Serpent"))
+        {
+            return new SerpentEngine();
+        }
+        if (base.equals("Skipjack"))
+        {
+            return new SkipjackEngine();
+        }
+        if (base.equals("TEA"))
+        {
+            return new TEAEngine();
+        }
+        if (base.equals("Twofish"))
+        {
+            return new TwofishEngine();
+        }
+        if (base.equals("XTEA"))
+        {
+            return new XTEAEngine();
+        }
+
+        throw new IllegalArgumentException("unknown block cipher: " + name);
+    }
+
+    /**
+     * Return initialisation parameters for the named block cipher using the passed in key.
+     */
+    public static CipherParameters blockCipherParameters(String name, byte[] key)
+    {
+        if (baseName(name).equals("RC564"))
+        {
+            return new RC5Parameters(key, 12);
+        }
+
+        return new KeyParameter(key);
+    }
+
+    /**
+     * Return the key size in bytes encoded in a block cipher name.
+     */
+    public static int keySize(String name)
+    {
+        int dash = name.lastIndexOf('-');
+
+        if (dash < 0)
+        {
+            throw new IllegalArgumentException("no key size in: " + name);
+        }
+
+        return Integer.parseInt(name.substring(dash + 1)) / 8;
+    }
+
+    /**
+     * Create a mode of operation over the passed in engine, as a buffered cipher ready for
+     * initialisation with modeParameters().
+     */
+    public static BufferedBlockCipher createMode(String mode, BlockCipher engine)
+    {
+        if (mode.equals("CBC"))
+        {
+            return new BufferedBlockCipher(new CBCBlockCipher(engine));
+        }
+        if (mode.equals("CFB8"))
+        {
+            return new BufferedBlockCipher(new CFBBlockCipher(engine, 8));
+        }
+        if (mode.equals("CFB128"))
+        {
+            return new BufferedBlockCipher(new CFBBlockCipher(engine, engine.getBlockSize() * 8));
+        }
+        if (mode.equals("OFB"))
+        {
+            return new BufferedBlockCipher(new OFBBlockCipher(engine, engine.getBlockSize() * 8));
+        }
+        if (mode.equals("SIC"))
+        {
+            return new BufferedBlockCipher(new SICBlockCipher(engine));
+        }
+        if (mode.equals("CTS"))
+        {
+            return new CTSBlockCipher(new CBCBlockCipher(engine));
+        }
+        if (mode.equals("OpenPGPCFB"))
+        {
+            return new BufferedBlockCipher(new OpenPGPCFBBlockCipher(engine));
+        }
+        if (mode.equals("PGPCFB"))
+        {
+            return new BufferedBlockCipher(new PGPCFBBlockCipher(engine, false));
+        }
+        if (mode.equals("GOFB"))
+        {
+            return new BufferedBlockCipher(new GOFBBlockCipher(engine));
+        }
+
+        throw new IllegalArgumentException("unknown mode: " + mode);
+    }
+
+    public static boolean isAEADMode(String mode)
+    {
+        return mode.equals("CCM") || mode.equals("EAX") || mode.equals("GCM");
+    }
+
+    public static AEADBlockCipher createAEADMode(String mode, BlockCipher engine)
+    {
+        if (mode.equals("CCM"))
+        {
+            return new CCMBlockCipher(engine);
+        }
+        if (mode.equals("EAX"))
+        {
+            return new EAXBlockCipher(engine);
+        }
+        if (mode.equals("GCM"))
+        {
+            return new GCMBlockCipher(engine);
+        }
+
+        throw new IllegalArgumentException("unknown AEAD mode: " + mode);
+    }
+
+    /**
+     * Return suitable initialisation parameters for the passed in mode.
+     */
+    public static CipherParameters modeParameters(String mode, byte[] key, int blockSize)
+    {
+        if (mode.equals("CCM"))
+        {
+            return new AEADParameters(new KeyParameter(key), 128, new byte[13], new byte[0]);
+        }
+        if (isAEADMode(mode))
+        {
+            return new AEADParameters(new KeyParameter(key), 128, new byte[12], new byte[0]);
+        }
+        if (mode.equals("PGPCFB") || mode.equals("OpenPGPCFB"))
+        {
+            return new KeyParameter(key);
+        }
+
+        return new ParametersWithIV(new KeyParameter(key), new byte[blockSize]);
+    }
+
+    public static StreamCipher createStreamCipher(String name)
+    {
+        if (name.equals("ChaCha"))
+        {
+            return new ChaChaEngine();
+        }
+        if (name.equals("Grain128"))
+        {
+            return new Grain128Engine();
+        }
+        if (name.equals("Grainv1"))
+        {
+            return new Grainv1Engine();
+        }
+        if (name.equals("HC128"))
+        {
+            return new HC128Engine();
+        }
+        if (name.equals("HC256"))
+        {
+            return new HC256Engine();
+        }
+        if (name.equals("ISAAC"))
+        {
+            return new ISAACEngine();
+        }
+        if (name.equals("RC4"))
+        {
+            return new RC4Engine();
+        }
+        if (name.equals("Salsa20"))
+        {
+            return new Salsa20Engine();
+        }
+        if (name.equals("VMPC"))
+        {
+            return new VMPCEngine();
+        }
+        if (name.equals("VMPCKSA3"))
+        {
+            return new VMPCKSA3Engine();
+        }
+
+        throw new IllegalArgumentException("unknown stream cipher: " + name);
+    }
+
+    /**
+     * Return initialisation parameters with key and IV lengths the named stream cipher accepts.
+     */
+    public static CipherParameters streamCipherParameters(String name)
+    {
+        if (name.equals("ChaCha"))
+        {
+            return new ParametersWithIV(new KeyParameter(new byte[32]), new byte[8]);
+        }
+        if (name.equals("Grain128"))
+        {
+            return new ParametersWithIV(new KeyParameter(new byte[16]), new byte[12]);
+        }
+        if (name.equals("Grainv1"))
+        {
+            return new ParametersWithIV(new KeyParameter(new byte[10]), new byte[8]);
+        }
+        if (name.equals("HC128"))
+        {
+            return new ParametersWithIV(new KeyParameter(new byte[16]), new byte[16]);
+        }
+        if (name.equals("HC256"))
+        {
+            return new ParametersWithIV(new KeyParameter(new byte[32]), new byte[32]);
+        }
+        if (name.equals("Salsa20"))
+        {
+            return new ParametersWithIV(new KeyParameter(new byte[32]), new byte[8]);
+        }
+        if (name.startsWith("VMPC"))
+        {
+            return new ParametersWithIV(new KeyParameter(new byte[16]), new byte[16]);
+        }
+
+        return new KeyParameter(new byte[16]);
+    }
+
+    public static Digest createDigest(String name)
+    {
+        if (name.equals("GOST3411"))
+        {
+            return new GOST3411Digest();
+        }
+        if (name.equals("MD2"))
+        {
+            return new MD2Digest();
+        }
+        if (name.equals("MD4"))
+        {
+            return new MD4Digest();
+        }
+        if (name.equals("MD5"))
+        {
+            return new MD5Digest();
+        }
+        if (name.equals("RIPEMD128"))
+        {
+            return new RIPEMD128Digest();
+        }
+        if (name.equals("RIPEMD160"))
+        {
+            return new RIPEMD160Digest();
+        }
+        if (name.equals("RIPEMD256"))
+        {
+            return new RIPEMD256Digest();
+        }
+        if (name.equals("RIPEMD320"))
+        {
+            return new RIPEMD320Digest();
+        }
+        if (name.equals("SHA1"))
+        {
+            return new SHA1Digest();
+        }
+        if (name.equals("SHA224"))
+        {
+            return new SHA224Digest();
+        }
+        if (name.equals("SHA256"))
+        {
+            return new SHA256Digest();
+        }
+        if (name.equals("SHA384"))
+        {
+            return new SHA384Digest();
+        }
+        if (name.equals("SHA512"))
+        {
+            return new SHA512Digest();
+        }
+        if (name.equals("Tiger"))
+        {
+            return new TigerDigest();
+        }
+        if (name.equals("Whirlpool"))
+        {
+            return new WhirlpoolDigest();
+        }
+
+        throw new IllegalArgumentException("unknown digest: " + name);
+    }
+
+    public static Mac createMac(String name)
+    {
+        if (name.startsWith("HMac-"))
+        {
+            return new HMac(createDigest(name.substring(5)));
+        }
+        if (name.startsWith("OldHMac-"))
+        {
+            return new OldHMac(createDigest(name.substring(8)));
+        }
+        if (name.equals("CMac-AES"))
+        {
+            return new CMac(new AESFastEngine());
+        }
+        if (name.equals("CBCMac-AES"))
+        {
+            return new CBCBlockCipherMac(new AESFastEngine());
+        }
+        if (name.equals("CFBMac-AES"))
+        {
+            return new CFBBlockCipherMac(new AESFastEngine());
+        }
+        if (name.equals("GOST28147Mac"))
+        {
+            return new GOST28147Mac();
+        }
+        if (name.equals("ISO9797Alg3Mac"))
+        {
+            return new ISO9797Alg3Mac(new DESEngine());
+        }
+        if (name.equals("Poly1305"))
+        {
+            return new Poly1305();
+        }
+        if (name.equals("VMPCMac"))
+        {
+            return new VMPCMac();
+        }
+
+        throw new IllegalArgumentException("unknown mac: " + name);
+    }
+
+    /**
+     * Return initialisation parameters with a key (and IV where required) the named MAC accepts.
+     */
+    public static CipherParameters macParameters(String name)
+    {
+        if (name.equals("GOST28147Mac"))
+        {
+            return new KeyParameter(new byte[32]);
+        }
+        if (name.equals("ISO9797Alg3Mac"))
+        {
+            return new KeyParameter(new byte[16]);
+        }
+        if (name.equals("Poly1305"))
+        {
+            return new KeyParameter(new byte[32]);
+        }
+        if (name.equals("VMPCMac"))
+        {
+            return new ParametersWithIV(new KeyParameter(new byte[16]), new byte[16]);
+        }
+
+        return new KeyParameter(new byte[16]);
+    }
+
+    private static String baseName(String name)
+    {
+        int dash = name.lastIndexOf('-');
+
+        return (dash < 0) ? name : name.substring(0, dash);
+    }
+}
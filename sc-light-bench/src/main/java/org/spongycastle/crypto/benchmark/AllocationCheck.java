@@ -0,0 +1,65 @@
+package org.spongycastle.crypto.benchmark;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs CipherSpiBenchmark.process() with the GC profiler attached and exits with a non-zero
+ * status if any configuration allocates on the int returning update()/doFinal() path.
+ * <pre>
+ * AllocationCheck [payloadSize...]
+ * </pre>
+ * The GC profiler works from allocation counters sampled around each iteration, so an
+ * allocation free operation still reports a small fraction of a byte per op - anything at
+ * or over MAX_BYTES_PER_OP means real per call garbage.
+ */
+public class AllocationCheck
+{
+    private static final double MAX_BYTES_PER_OP = 1.0;
+
+    public static void main(
+        String[] args)
+        throws RunnerException
+    {
+        String[] payloadSizes = (args.length != 0) ? args : new String[] { "64", "1024", "16384" };
+
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+            .include(CipherSpiBenchmark.class.getSimpleName() + ".process$")
+            .param(PayloadBenchmark.PAYLOAD_SIZE, payloadSizes)
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+
+        int failures = 0;
+
+        System.out.println();
+
+        for (Iterator<RunResult> it = results.iterator(); it.hasNext();)
+        {
+            RunResult run = it.next();
+            double allocated = BenchmarkRunner.allocatedPerOp(run);
+            boolean ok = allocated < MAX_BYTES_PER_OP;
+
+            System.out.println(String.format("%-6s %-70s %10.3f B/op", ok ? "ok" : "FAILED",
+                run.getParams().getParam("transformation") + ", forEncryption=" + run.getParams().getParam("forEncryption")
+                    + ", " + PayloadBenchmark.PAYLOAD_SIZE + "=" + run.getParams().getParam(PayloadBenchmark.PAYLOAD_SIZE),
+                allocated));
+
+            if (!ok)
+            {
+                failures++;
+            }
+        }
+
+        if (results.isEmpty() || failures != 0)
+        {
+            System.out.println(results.isEmpty() ? "no results" : failures + " configuration(s) allocated per call");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package org.spongycastle.crypto.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler attached and reports MB/s, ns/op and bytes
+ * allocated per op for each result.
+ * <pre>
+ * BenchmarkRunner [-compare] [regexp [payloadSize...]]
+ * </pre>
+ * With -compare the implementation groups in Algorithms.COMPARISON_GROUPS are run through
+ * BlockCipherBenchmark and each implementation is reported relative to the first in its group.
+ */
+public class BenchmarkRunner
+{
+    private static final double MB = 1024 * 1024;
+
+    public static void main(
+        String[] args)
+        throws RunnerException
+    {
+        boolean compare = args.length > 0 && args[0].equals("-compare");
+        int argOff = compare ? 1 : 0;
+
+        String include = (args.length > argOff) ? args[argOff] : (compare ? BlockCipherBenchmark.class.getSimpleName() : ".*Benchmark");
+        String[] payloadSizes = new String[Math.max(0, args.length - argOff - 1)];
+
+        System.arraycopy(args, args.length - payloadSizes.length, payloadSizes, 0, payloadSizes.length);
+
+        if (compare)
+        {
+            for (int i = 0; i != Algorithms.COMPARISON_GROUPS.length; i++)
+            {
+                String[] group = Algorithms.COMPARISON_GROUPS[i];
+                ChainedOptionsBuilder builder = options(include, payloadSizes)
+                    .param(BlockCipherBenchmark.ALGORITHM, group)
+                    .param("forEncryption", "true");
+
+                report(new Runner(builder.build()).run(), group);
+            }
+        }
+        else
+        {
+            report(new Runner(options(include, payloadSizes).build()).run(), null);
+        }
+    }
+
+    private static ChainedOptionsBuilder options(String include, String[] payloadSizes)
+    {
+        ChainedOptionsBuilder builder = new OptionsBuilder()
+            .include(include)
+            .addProfiler(GCProfiler.class);
+
+        if (payloadSizes.length != 0)
+        {
+            builder = builder.param(PayloadBenchmark.PAYLOAD_SIZE, payloadSizes);
+        }
+
+        return builder;
+    }
+
+    /**
+     * Print a line per result. If group is not null the results are compared against the
+     * result for group[0] with the same payload size.
+     */
+    private static void report(Collection<RunResult> results, String[] group)
+    {
+        List<RunResult> runs = new ArrayList<RunResult>(results);
+
+        System.out.println();
+        System.out.println(format("benchmark", "params", "MB/s", "ns/op", "B/op", group != null ? "relative" : ""));
+
+        for (Iterator<RunResult> it = runs.iterator(); it.hasNext();)
+        {
+            RunResult run = it.next();
+            double nsPerOp = run.getPrimaryResult().getScore();
+            int payloadSize = Integer.parseInt(run.getParams().getParam(PayloadBenchmark.PAYLOAD_SIZE));
+            String relative = "";
+
+            if (group != null)
+            {
+                RunResult baseline = find(runs, group[0], payloadSize);
+
+                if (baseline != null)
+                {
+                    relative = String.format("%.2fx", baseline.getPrimaryResult().getScore() / nsPerOp);
+                }
+            }
+
+            System.out.println(format(
+                shortName(run.getParams().getBenchmark()),
+                paramString(run),
+                String.format("%.2f", throughput(payloadSize, nsPerOp)),
+                String.format("%.1f", nsPerOp),
+                String.format("%.1f", allocatedPerOp(run)),
+                relative));
+        }
+    }
+
+    private static RunResult find(List<RunResult> runs, String algorithm, int payloadSize)
+    {
+        for (Iterator<RunResult> it = runs.iterator(); it.hasNext();)
+        {
+            RunResult run = it.next();
+
+            if (algorithm.equals(run.getParams().getParam(BlockCipherBenchmark.ALGORITHM))
+                && payloadSize == Integer.parseInt(run.getParams().getParam(PayloadBenchmark.PAYLOAD_SIZE)))
+            {
+                return run;
+            }
+        }
+
+        return null;
+    }
+
+    static double throughput(int payloadSize, double nsPerOp)
+    {
+        return (payloadSize / MB) / (nsPerOp / 1e9);
+    }
+
+    static double allocatedPerOp(RunResult run)
+    {
+        Map<String, Result> secondary = run.getSecondaryResults();
+
+        // the key is prefixed with a separator character that has varied between JMH releases.
+        for (Iterator<Map.Entry<String, Result>> it = secondary.entrySet().iterator(); it.hasNext();)
+        {
+            Map.Entry<String, Result> entry = it.next();
+
+            if (entry.getKey().endsWith("gc.alloc.rate.norm"))
+            {
+                return entry.getValue().getScore();
+            }
+        }
+
+        return Double.NaN;
+    }
+
+    private static String paramString(RunResult run)
+    {
+        StringBuilder buf = new StringBuilder();
+
+        for (Iterator<String> it = run.getParams().getParamsKeys().iterator(); it.hasNext();)
+        {
+            String key = it.next();
+
+            if (buf.length() != 0)
+            {
+                buf.append(',');
+            }
+            buf.append(key).append('=').append(run.getParams().getParam(key));
+        }
+
+        return buf.toString();
+    }
+
+    private static String shortName(String benchmark)
+    {
+        int dot = benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1);
+
+        return benchmark.substring(dot + 1);
+    }
+
+    private static String format(String name, String params, String mbs, String ns, String alloc, String relative)
+    {
+        return String.format("%-36s %-56s %12s %16s %10s %9s", name, params, mbs, ns, alloc, relative);
+    }
+}
@@ -0,0 +1,60 @@
+package org.spongycastle.crypto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.spongycastle.crypto.BlockCipher;
+
+/**
+ * Raw (ECB) throughput of every block cipher engine, measured through processBlock().
+ */
+public class BlockCipherBenchmark
+    extends PayloadBenchmark
+{
+    public static final String ALGORITHM = "algorithm";
+
+    @Param({
+        "AES-128", "AES-192", "AES-256",
+        "AESFast-128", "AESFast-192", "AESFast-256",
+        "AESLight-128", "AESLight-192", "AESLight-256",
+        "AESBitSlice-128", "AESBitSlice-192", "AESBitSlice-256",
+        "AESIntrinsic-128", "AESIntrinsic-192", "AESIntrinsic-256",
+        "Blowfish-128", "CAST5-128", "CAST6-256",
+        "Camellia-128", "Camellia-256", "CamelliaLight-128", "CamelliaLight-256",
+        "DES-64", "DESede-128", "DESede-192", "GOST28147-256", "IDEA-128",
+        "Noekeon-128", "Null-128", "RC2-128", "RC532-128", "RC564-128", "RC6-128", "RC6-256",
+        "Rijndael-128", "Rijndael-256", "SEED-128", "Serpent-128", "Serpent-256",
+        "Skipjack-80", "TEA-128", "Twofish-128", "Twofish-256", "XTEA-128" })
+    public String algorithm;
+
+    @Param({ "true", "false" })
+    public boolean forEncryption;
+
+    private BlockCipher engine;
+    private int blockSize;
+
+    @Setup
+    public void setup()
+    {
+        engine = Algorithms.createBlockCipher(algorithm);
+        engine.init(forEncryption, Algorithms.blockCipherParameters(algorithm, key(Algorithms.keySize(algorithm))));
+        blockSize = engine.getBlockSize();
+
+        createPayload(payloadSize);
+    }
+
+    @Benchmark
+    public byte[] processBlocks()
+    {
+        BlockCipher engine = this.engine;
+        byte[] in = input;
+        byte[] out = output;
+
+        for (int off = 0; off < in.length; off += blockSize)
+        {
+            engine.processBlock(in, off, out, off);
+        }
+
+        return out;
+    }
+}
@@ -0,0 +1,79 @@
+package org.spongycastle.crypto.benchmark;
+
+import java.security.GeneralSecurityException;
+import java.security.Security;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.spongycastle.jce.provider.BouncyCastleProvider;
+
+/**
+ * Throughput and allocation of the provider's block cipher SPI through javax.crypto.Cipher.
+ * <p>
+ * process() uses the int returning update() and doFinal() which write into the caller's
+ * array, and should allocate nothing - see AllocationCheck. processToArray() uses the byte[]
+ * returning doFinal() which allocates its result, and nothing else.
+ */
+public class CipherSpiBenchmark
+    extends PayloadBenchmark
+{
+    @Param({ "AES/CBC/PKCS5Padding", "AES/CTR/NoPadding", "AES/GCM/NoPadding" })
+    public String transformation;
+
+    @Param({ "true", "false" })
+    public boolean forEncryption;
+
+    private Cipher cipher;
+
+    @Setup
+    public void setup()
+        throws GeneralSecurityException
+    {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null)
+        {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+
+        SecretKeySpec key = new SecretKeySpec(key(16), "AES");
+        IvParameterSpec iv = new IvParameterSpec(key(transformation.indexOf("/GCM/") > 0 ? 12 : 16));
+
+        cipher = Cipher.getInstance(transformation, BouncyCastleProvider.PROVIDER_NAME);
+        cipher.init(Cipher.ENCRYPT_MODE, key, iv);
+
+        createPayload(cipher.getOutputSize(payloadSize));
+
+        if (!forEncryption)
+        {
+            // replace the payload with a valid ciphertext for decryption.
+            input = cipher.doFinal(input);
+
+            cipher.init(Cipher.DECRYPT_MODE, key, iv);
+        }
+    }
+
+    @Benchmark
+    public byte[] process()
+        throws GeneralSecurityException
+    {
+        byte[] out = output;
+        int half = input.length / 2;
+
+        int len = cipher.update(input, 0, half, out, 0);
+
+        cipher.doFinal(input, half, input.length - half, out, len);
+
+        return out;
+    }
+
+    @Benchmark
+    public byte[] processToArray()
+        throws GeneralSecurityException
+    {
+        return cipher.doFinal(input);
+    }
+}
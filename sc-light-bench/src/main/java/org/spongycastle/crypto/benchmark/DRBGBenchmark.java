@@ -0,0 +1,125 @@
+package org.spongycastle.crypto.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.engines.AESFastEngine;
+import org.spongycastle.crypto.macs.HMac;
+import org.spongycastle.crypto.prng.DigestRandomGenerator;
+import org.spongycastle.crypto.prng.EntropySource;
+import org.spongycastle.crypto.prng.drbg.BufferedDRBG;
+import org.spongycastle.crypto.prng.drbg.CTRSP800DRBG;
+import org.spongycastle.crypto.prng.drbg.HMacSP800DRBG;
+import org.spongycastle.crypto.prng.drbg.HashSP800DRBG;
+import org.spongycastle.crypto.prng.drbg.SP80090DRBG;
+
+/**
+ * IV/nonce sized requests from the SP 800-90A DRBGs, direct and through a BufferedDRBG, with
+ * DigestRandomGenerator as the baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DRBGBenchmark
+{
+    @Param({ "Hash", "HMAC", "CTR" })
+    public String drbgType;
+
+    @Param({ "false", "true" })
+    public boolean buffered;
+
+    @Param({ "8", "16", "64" })
+    public int requestSize;
+
+    private SP80090DRBG drbg;
+    private DigestRandomGenerator digestRandom;
+    private byte[] output;
+
+    @Setup
+    public void setup()
+    {
+        EntropySource entropy = new FixedEntropySource();
+
+        if (drbgType.equals("Hash"))
+        {
+            drbg = new HashSP800DRBG(new SHA256Digest(), 256, entropy, null, null);
+        }
+        else if (drbgType.equals("HMAC"))
+        {
+            drbg = new HMacSP800DRBG(new HMac(new SHA256Digest()), 256, entropy, null, null);
+        }
+        else
+        {
+            drbg = new CTRSP800DRBG(new AESFastEngine(), 256, 256, entropy, null, null);
+        }
+
+        if (buffered)
+        {
+            drbg = new BufferedDRBG(drbg);
+        }
+
+        digestRandom = new DigestRandomGenerator(new SHA256Digest());
+        digestRandom.addSeedMaterial(entropy.getEntropy());
+
+        output = new byte[requestSize];
+    }
+
+    @Benchmark
+    public byte[] generate()
+    {
+        drbg.generate(output, null, false);
+
+        return output;
+    }
+
+    @Benchmark
+    public byte[] digestRandomGenerator()
+    {
+        digestRandom.nextBytes(output);
+
+        return output;
+    }
+
+    /**
+     * entropy doesn't affect the cost of generation, so a constant will do.
+     */
+    private static class FixedEntropySource
+        implements EntropySource
+    {
+        public boolean isPredictionResistant()
+        {
+            return false;
+        }
+
+        public byte[] getEntropy()
+        {
+            byte[] entropy = new byte[32];
+
+            for (int i = 0; i != entropy.length; i++)
+            {
+                entropy[i] = (byte)i;
+            }
+
+            return entropy;
+        }
+
+        public int entropySize()
+        {
+            return 256;
+        }
+    }
+}
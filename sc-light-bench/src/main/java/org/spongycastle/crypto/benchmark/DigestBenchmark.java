@@ -0,0 +1,36 @@
+package org.spongycastle.crypto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.spongycastle.crypto.Digest;
+
+/**
+ * Throughput of the message digests, one complete hash of the payload per operation.
+ */
+public class DigestBenchmark
+    extends PayloadBenchmark
+{
+    @Param({ "GOST3411", "MD2", "MD4", "MD5", "RIPEMD128", "RIPEMD160", "RIPEMD256", "RIPEMD320",
+        "SHA1", "SHA224", "SHA256", "SHA384", "SHA512", "Tiger", "Whirlpool" })
+    public String algorithm;
+
+    private Digest digest;
+
+    @Setup
+    public void setup()
+    {
+        digest = Algorithms.createDigest(algorithm);
+
+        createPayload(digest.getDigestSize());
+    }
+
+    @Benchmark
+    public byte[] digest()
+    {
+        digest.update(input, 0, input.length);
+        digest.doFinal(output, 0);
+
+        return output;
+    }
+}
@@ -0,0 +1,143 @@
+package org.spongycastle.crypto.benchmark;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongycastle.asn1.sec.SECNamedCurves;
+import org.spongycastle.asn1.x9.X9ECParameters;
+import org.spongycastle.crypto.AsymmetricCipherKeyPair;
+import org.spongycastle.crypto.generators.ECKeyPairGenerator;
+import org.spongycastle.crypto.params.ECDomainParameters;
+import org.spongycastle.crypto.params.ECKeyGenerationParameters;
+import org.spongycastle.crypto.params.ECPublicKeyParameters;
+import org.spongycastle.crypto.params.ParametersWithRandom;
+import org.spongycastle.crypto.signers.ECDSABatchVerifier;
+import org.spongycastle.crypto.signers.ECDSASigner;
+import org.spongycastle.math.ec.ECPointPreCompCache;
+
+/**
+ * ECDSA signature generation and verification, and EC key pair generation, over the named
+ * prime curves. verifyBatch checks BATCH_SIZE signatures, from BATCH_KEYS different keys,
+ * per operation. verifyCachedKey rebuilds the public key from its encoding each time, as
+ * happens for keys taken from certificates, and looks it up in an ECPointPreCompCache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ECDSABenchmark
+{
+    private static final int BATCH_SIZE = 64;
+    private static final int BATCH_KEYS = 8;
+
+    @Param({ "secp256r1", "secp384r1", "secp521r1", "secp256k1" })
+    public String curve;
+
+    private ECKeyPairGenerator kpGen;
+    private ECDSASigner        signer;
+    private ECDSASigner        verifier;
+    private byte[]             message;
+    private BigInteger[]       signature;
+
+    private ECDomainParameters domain;
+    private byte[]             encodedKey;
+    private ECDSASigner        cachedVerifier;
+
+    private ECDSABatchVerifier      batchVerifier;
+    private ECPublicKeyParameters[] batchKeys;
+    private byte[][]                batchMessages;
+    private BigInteger[][]          batchSignatures;
+
+    @Setup
+    public void setup()
+    {
+        SecureRandom       random = new SecureRandom();
+        X9ECParameters     x9 = SECNamedCurves.getByName(curve);
+        domain = new ECDomainParameters(x9.getCurve(), x9.getG(), x9.getN(), x9.getH());
+
+        kpGen = new ECKeyPairGenerator();
+        kpGen.init(new ECKeyGenerationParameters(domain, random));
+
+        AsymmetricCipherKeyPair kp = kpGen.generateKeyPair();
+
+        signer = new ECDSASigner();
+        signer.init(true, new ParametersWithRandom(kp.getPrivate(), random));
+        verifier = new ECDSASigner();
+        verifier.init(false, kp.getPublic());
+        encodedKey = ((ECPublicKeyParameters)kp.getPublic()).getQ().getEncoded();
+        cachedVerifier = new ECDSASigner(new ECPointPreCompCache());
+
+        message = new byte[32];
+        random.nextBytes(message);
+        signature = signer.generateSignature(message);
+
+        AsymmetricCipherKeyPair[] batchPairs = new AsymmetricCipherKeyPair[BATCH_KEYS];
+        ECDSASigner               batchSigner = new ECDSASigner();
+
+        for (int i = 0; i != BATCH_KEYS; i++)
+        {
+            batchPairs[i] = kpGen.generateKeyPair();
+        }
+
+        batchVerifier = new ECDSABatchVerifier();
+        batchKeys = new ECPublicKeyParameters[BATCH_SIZE];
+        batchMessages = new byte[BATCH_SIZE][32];
+        batchSignatures = new BigInteger[BATCH_SIZE][];
+
+        for (int i = 0; i != BATCH_SIZE; i++)
+        {
+            AsymmetricCipherKeyPair pair = batchPairs[i % BATCH_KEYS];
+
+            random.nextBytes(batchMessages[i]);
+            batchSigner.init(true, new ParametersWithRandom(pair.getPrivate(), random));
+            batchKeys[i] = (ECPublicKeyParameters)pair.getPublic();
+            batchSignatures[i] = batchSigner.generateSignature(batchMessages[i]);
+        }
+    }
+
+    @Benchmark
+    public BigInteger[] sign()
+    {
+        return signer.generateSignature(message);
+    }
+
+    @Benchmark
+    public boolean verify()
+    {
+        return verifier.verifySignature(message, signature[0], signature[1]);
+    }
+
+    @Benchmark
+    public boolean verifyCachedKey()
+    {
+        cachedVerifier.init(false, new ECPublicKeyParameters(domain.getCurve().decodePoint(encodedKey), domain));
+
+        return cachedVerifier.verifySignature(message, signature[0], signature[1]);
+    }
+
+    @Benchmark
+    public boolean[] verifyBatch()
+    {
+        return batchVerifier.verifySignatures(batchKeys, batchMessages, batchSignatures);
+    }
+
+    @Benchmark
+    public AsymmetricCipherKeyPair generateKeyPair()
+    {
+        return kpGen.generateKeyPair();
+    }
+}
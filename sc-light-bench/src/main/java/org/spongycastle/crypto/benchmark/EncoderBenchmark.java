@@ -0,0 +1,61 @@
+package org.spongycastle.crypto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.spongycastle.util.encoders.Base64Encoder;
+import org.spongycastle.util.encoders.HexEncoder;
+import org.spongycastle.util.encoders.Translator;
+import org.spongycastle.util.encoders.UrlBase64Encoder;
+
+/**
+ * Base 64 and Hex conversion of a whole payload per operation using the array to array
+ * encoder methods, so the figures exclude any stream overhead.
+ */
+public class EncoderBenchmark
+    extends PayloadBenchmark
+{
+    @Param({ "Base64", "UrlBase64", "Hex" })
+    public String algorithm;
+
+    @Param({ "true", "false" })
+    public boolean forEncryption;
+
+    private Translator translator;
+    private byte[]     encoded;
+
+    @Setup
+    public void setup()
+    {
+        if (algorithm.equals("Base64"))
+        {
+            translator = new Base64Encoder();
+        }
+        else if (algorithm.equals("UrlBase64"))
+        {
+            translator = new UrlBase64Encoder();
+        }
+        else
+        {
+            translator = new HexEncoder();
+        }
+
+        int blocks = (payloadSize + translator.getDecodedBlockSize() - 1) / translator.getDecodedBlockSize();
+
+        createPayload(blocks * translator.getEncodedBlockSize());
+
+        encoded = new byte[output.length];
+        translator.encode(input, 0, input.length, encoded, 0);
+    }
+
+    @Benchmark
+    public int process()
+    {
+        if (forEncryption)
+        {
+            return translator.encode(input, 0, input.length, output, 0);
+        }
+
+        return translator.decode(encoded, 0, encoded.length, input, 0);
+    }
+}
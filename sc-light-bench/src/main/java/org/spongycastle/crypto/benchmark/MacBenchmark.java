@@ -0,0 +1,37 @@
+package org.spongycastle.crypto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.spongycastle.crypto.Mac;
+
+/**
+ * Throughput of the MACs, one complete MAC calculation over the payload per operation.
+ */
+public class MacBenchmark
+    extends PayloadBenchmark
+{
+    @Param({ "HMac-MD5", "HMac-SHA1", "HMac-SHA256", "HMac-SHA512", "OldHMac-SHA1",
+        "CMac-AES", "CBCMac-AES", "CFBMac-AES", "GOST28147Mac", "ISO9797Alg3Mac", "Poly1305", "VMPCMac" })
+    public String algorithm;
+
+    private Mac mac;
+
+    @Setup
+    public void setup()
+    {
+        mac = Algorithms.createMac(algorithm);
+        mac.init(Algorithms.macParameters(algorithm));
+
+        createPayload(mac.getMacSize());
+    }
+
+    @Benchmark
+    public byte[] mac()
+    {
+        mac.update(input, 0, input.length);
+        mac.doFinal(output, 0);
+
+        return output;
+    }
+}
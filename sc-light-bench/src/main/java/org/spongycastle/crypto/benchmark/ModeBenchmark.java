@@ -0,0 +1,88 @@
+package org.spongycastle.crypto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.spongycastle.crypto.BlockCipher;
+import org.spongycastle.crypto.BufferedBlockCipher;
+import org.spongycastle.crypto.InvalidCipherTextException;
+import org.spongycastle.crypto.modes.AEADBlockCipher;
+
+/**
+ * Throughput of the modes of operation, each processing a full message per operation.
+ * <p>
+ * GOFB is only defined for 64 bit block ciphers, so it is always run over GOST 28147.
+ */
+public class ModeBenchmark
+    extends PayloadBenchmark
+{
+    @Param({ "CBC", "CFB8", "CFB128", "OFB", "SIC", "CTS", "OpenPGPCFB", "PGPCFB", "GOFB", "CCM", "EAX", "GCM" })
+    public String mode;
+
+    @Param({ "AESFast-128" })
+    public String engine;
+
+    @Param({ "true", "false" })
+    public boolean forEncryption;
+
+    private BufferedBlockCipher cipher;
+    private AEADBlockCipher aeadCipher;
+
+    @Setup
+    public void setup()
+        throws InvalidCipherTextException
+    {
+        String engineName = mode.equals("GOFB") ? "GOST28147-256" : engine;
+        BlockCipher blockCipher = Algorithms.createBlockCipher(engineName);
+        byte[] key = key(Algorithms.keySize(engineName));
+
+        if (Algorithms.isAEADMode(mode))
+        {
+            aeadCipher = Algorithms.createAEADMode(mode, blockCipher);
+            aeadCipher.init(true, Algorithms.modeParameters(mode, key, blockCipher.getBlockSize()));
+
+            createPayload(aeadCipher.getOutputSize(payloadSize));
+
+            if (!forEncryption)
+            {
+                // replace the payload with a valid ciphertext and tag for decryption.
+                byte[] ct = new byte[output.length];
+                int len = aeadCipher.processBytes(input, 0, input.length, ct, 0);
+                aeadCipher.doFinal(ct, len);
+
+                aeadCipher.init(false, Algorithms.modeParameters(mode, key, blockCipher.getBlockSize()));
+                input = ct;
+            }
+        }
+        else
+        {
+            cipher = Algorithms.createMode(mode, blockCipher);
+            cipher.init(forEncryption, Algorithms.modeParameters(mode, key, blockCipher.getBlockSize()));
+
+            // the PGP CFB modes add an encrypted IV and check bytes, so allow some slack.
+            createPayload(cipher.getOutputSize(payloadSize) + 4 * blockCipher.getBlockSize());
+        }
+    }
+
+    @Benchmark
+    public byte[] process()
+        throws InvalidCipherTextException
+    {
+        byte[] out = output;
+
+        if (aeadCipher != null)
+        {
+            int len = aeadCipher.processBytes(input, 0, input.length, out, 0);
+
+            aeadCipher.doFinal(out, len);
+        }
+        else
+        {
+            int len = cipher.processBytes(input, 0, input.length, out, 0);
+
+            cipher.doFinal(out, len);
+        }
+
+        return out;
+    }
+}
@@ -0,0 +1,80 @@
+package org.spongycastle.crypto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.spongycastle.crypto.Digest;
+import org.spongycastle.crypto.MultiDigest;
+import org.spongycastle.crypto.digests.SHA1Digest;
+import org.spongycastle.crypto.digests.SHA1MultiDigest;
+import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.digests.SHA256MultiDigest;
+
+/**
+ * Hashing a payload split into independent messages of messageSize bytes, one at a time with
+ * the standard digest and as a batch with the multi-buffer digest.
+ */
+public class MultiDigestBenchmark
+    extends PayloadBenchmark
+{
+    @Param({ "SHA1", "SHA256" })
+    public String algorithm;
+
+    @Param({ "64", "1024", "4096", "8192" })
+    public int messageSize;
+
+    private Digest digest;
+    private MultiDigest multiDigest;
+    private byte[][] messages;
+
+    @Setup
+    public void setup()
+    {
+        if (algorithm.equals("SHA1"))
+        {
+            digest = new SHA1Digest();
+            multiDigest = new SHA1MultiDigest();
+        }
+        else
+        {
+            digest = new SHA256Digest();
+            multiDigest = new SHA256MultiDigest();
+        }
+
+        int count = (payloadSize + messageSize - 1) / messageSize;
+
+        createPayload(count * digest.getDigestSize());
+
+        messages = new byte[count][];
+
+        for (int i = 0; i != count; i++)
+        {
+            int off = i * messageSize;
+
+            messages[i] = new byte[Math.min(messageSize, payloadSize - off)];
+            System.arraycopy(input, off, messages[i], 0, messages[i].length);
+        }
+    }
+
+    @Benchmark
+    public byte[] digestEach()
+    {
+        int outOff = 0;
+
+        for (int i = 0; i != messages.length; i++)
+        {
+            digest.update(messages[i], 0, messages[i].length);
+            outOff += digest.doFinal(output, outOff);
+        }
+
+        return output;
+    }
+
+    @Benchmark
+    public byte[] digestAll()
+    {
+        multiDigest.digestAll(messages, output, 0);
+
+        return output;
+    }
+}
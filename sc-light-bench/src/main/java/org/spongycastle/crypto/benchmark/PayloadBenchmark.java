@@ -0,0 +1,57 @@
+package org.spongycastle.crypto.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Base state for the throughput benchmarks - one operation processes a whole payload of
+ * payloadSize bytes, so the reported ns/op converts directly to MB/s (see BenchmarkRunner).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class PayloadBenchmark
+{
+    public static final String PAYLOAD_SIZE = "payloadSize";
+
+    @Param({ "64", "1024", "16384", "1048576", "16777216" })
+    public int payloadSize;
+
+    protected byte[] input;
+    protected byte[] output;
+
+    protected void createPayload(int outputSize)
+    {
+        Random rand = new Random(payloadSize);
+
+        input = new byte[payloadSize];
+        output = new byte[outputSize];
+
+        rand.nextBytes(input);
+    }
+
+    protected static byte[] key(int size)
+    {
+        byte[] key = new byte[size];
+
+        for (int i = 0; i != key.length; i++)
+        {
+            key[i] = (byte)(0xa5 ^ i);
+        }
+
+        return key;
+    }
+}
@@ -0,0 +1,76 @@
+package org.spongycastle.crypto.benchmark;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spongycastle.crypto.AsymmetricCipherKeyPair;
+import org.spongycastle.crypto.engines.RSABlindedEngine;
+import org.spongycastle.crypto.engines.RSAEngine;
+import org.spongycastle.crypto.generators.RSAKeyPairGenerator;
+import org.spongycastle.crypto.params.RSAKeyGenerationParameters;
+
+/**
+ * RSA private key operations on a single CRT key, blinded (with the blinding factors cached on
+ * the key between operations) and unblinded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RSABenchmark
+{
+    @Param({ "1024", "2048" })
+    public int keySize;
+
+    @Param({ "true", "false" })
+    public boolean blinded;
+
+    private RSAEngine        plainEngine;
+    private RSABlindedEngine blindedEngine;
+    private byte[]           input;
+
+    @Setup
+    public void setup()
+    {
+        SecureRandom         random = new SecureRandom();
+        RSAKeyPairGenerator  kpGen = new RSAKeyPairGenerator();
+
+        kpGen.init(new RSAKeyGenerationParameters(BigInteger.valueOf(0x10001), random, keySize, 12));
+
+        AsymmetricCipherKeyPair kp = kpGen.generateKeyPair();
+
+        plainEngine = new RSAEngine();
+        plainEngine.init(false, kp.getPrivate());
+        blindedEngine = new RSABlindedEngine();
+        blindedEngine.init(false, kp.getPrivate());
+
+        input = new byte[keySize / 8];
+        random.nextBytes(input);
+        input[0] &= 0x7f;
+    }
+
+    @Benchmark
+    public byte[] privateOp()
+    {
+        if (blinded)
+        {
+            return blindedEngine.processBlock(input, 0, input.length);
+        }
+
+        return plainEngine.processBlock(input, 0, input.length);
+    }
+}
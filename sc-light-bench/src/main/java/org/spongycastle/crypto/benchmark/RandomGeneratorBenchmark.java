@@ -0,0 +1,120 @@
+package org.spongycastle.crypto.benchmark;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.prng.DigestRandomGenerator;
+import org.spongycastle.crypto.prng.PooledRandomGenerator;
+import org.spongycastle.crypto.prng.RandomGenerator;
+
+/**
+ * IV/nonce sized requests against a single generator shared by every benchmark thread, for a
+ * plain DigestRandomGenerator and a PooledRandomGenerator of DigestRandomGenerators.
+ * <p>
+ * Run through main() to measure the scaling from 1 to 64 threads:
+ * <pre>
+ * RandomGeneratorBenchmark [threads...]
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomGeneratorBenchmark
+{
+    private static final int POOL_SIZE = 64;
+
+    @Param({ "Digest", "Pooled" })
+    public String generator;
+
+    @Param({ "16" })
+    public int requestSize;
+
+    private RandomGenerator random;
+
+    @Setup
+    public void setup()
+    {
+        RandomGenerator root = new DigestRandomGenerator(new SHA256Digest());
+
+        root.addSeedMaterial(System.nanoTime());
+
+        if (generator.equals("Digest"))
+        {
+            random = root;
+        }
+        else
+        {
+            RandomGenerator[] children = new RandomGenerator[POOL_SIZE];
+
+            for (int i = 0; i != children.length; i++)
+            {
+                children[i] = new DigestRandomGenerator(new SHA256Digest());
+            }
+
+            random = new PooledRandomGenerator(root, children);
+        }
+    }
+
+    /**
+     * per thread output buffer, so the threads only share the generator.
+     */
+    @State(Scope.Thread)
+    public static class Output
+    {
+        byte[] bytes = new byte[64];
+    }
+
+    @Benchmark
+    public byte[] nextBytes(Output output)
+    {
+        random.nextBytes(output.bytes, 0, requestSize);
+
+        return output.bytes;
+    }
+
+    public static void main(
+        String[] args)
+        throws RunnerException
+    {
+        String[] threadCounts = (args.length != 0) ? args : new String[] { "1", "2", "4", "8", "16", "32", "64" };
+
+        System.out.println();
+        System.out.println(String.format("%-10s %8s %16s", "generator", "threads", "ops/s"));
+
+        for (int i = 0; i != threadCounts.length; i++)
+        {
+            Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(RandomGeneratorBenchmark.class.getSimpleName())
+                .threads(Integer.parseInt(threadCounts[i]))
+                .build()).run();
+
+            for (Iterator<RunResult> it = results.iterator(); it.hasNext();)
+            {
+                RunResult run = it.next();
+
+                System.out.println(String.format("%-10s %8d %16.0f", run.getParams().getParam("generator"),
+                    run.getParams().getThreads(), run.getPrimaryResult().getScore()));
+            }
+        }
+    }
+}
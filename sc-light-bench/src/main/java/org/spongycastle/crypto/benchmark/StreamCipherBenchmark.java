@@ -0,0 +1,35 @@
+package org.spongycastle.crypto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.spongycastle.crypto.StreamCipher;
+
+/**
+ * Keystream throughput of the stream cipher engines.
+ */
+public class StreamCipherBenchmark
+    extends PayloadBenchmark
+{
+    @Param({ "ChaCha", "Grain128", "Grainv1", "HC128", "HC256", "ISAAC", "RC4", "Salsa20", "VMPC", "VMPCKSA3" })
+    public String algorithm;
+
+    private StreamCipher engine;
+
+    @Setup
+    public void setup()
+    {
+        engine = Algorithms.createStreamCipher(algorithm);
+        engine.init(true, Algorithms.streamCipherParameters(algorithm));
+
+        createPayload(payloadSize);
+    }
+
+    @Benchmark
+    public byte[] processBytes()
+    {
+        engine.processBytes(input, 0, input.length, output, 0);
+
+        return output;
+    }
+}
@@ -218,6 +218,23 @@ public class BufferedBlockCipher
             len -= gapLen;
             inOff += gapLen;
 
+            if (cipher instanceof MultiBlockCipher)
+            {
+                //
+                // process all but the last complete block in one call, as the loop below does.
+                //
+                int blockCount = (len - 1) / blockSize;
+
+                if (blockCount > 0)
+                {
+                    int bulkLen = ((MultiBlockCipher)cipher).processBlocks(in, inOff, blockCount, out, outOff + resultLen);
+
+                    resultLen += bulkLen;
+                    len -= bulkLen;
+                    inOff += bulkLen;
+                }
+            }
+
             while (len > buf.length)
             {
                 resultLen += cipher.processBlock(in, inOff, out, outOff + resultLen);
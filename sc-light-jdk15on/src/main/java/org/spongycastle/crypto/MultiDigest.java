@@ -0,0 +1,45 @@
+package org.spongycastle.crypto;
+
+/**
+ * Message digests which can hash a batch of independent messages together.
+ * <p>
+ * Each result is the same as running the message through the equivalent Digest on its own,
+ * the batch form allowing an implementation to interleave the work on several messages.
+ */
+public interface MultiDigest
+{
+    /**
+     * return the algorithm name
+     *
+     * @return the algorithm name
+     */
+    public String getAlgorithmName();
+
+    /**
+     * return the size, in bytes, of each digest produced by this message digest.
+     *
+     * @return the size, in bytes, of the digests produced by this message digest.
+     */
+    public int getDigestSize();
+
+    /**
+     * Calculate the digest of each message in inputs.
+     *
+     * @param inputs the messages to be hashed.
+     * @return an array holding the digest of each message, in the same order as inputs.
+     */
+    public byte[][] digestAll(byte[][] inputs);
+
+    /**
+     * Calculate the digest of each message in inputs, writing the digests one after another
+     * in the same order as inputs.
+     *
+     * @param inputs the messages to be hashed.
+     * @param out the array the digests are to be copied into.
+     * @param outOff the offset into the out array the first digest is to start at.
+     * @exception DataLengthException if there isn't room in out for all the digests.
+     * @return the number of bytes written to out.
+     */
+    public int digestAll(byte[][] inputs, byte[] out, int outOff)
+        throws DataLengthException;
+}
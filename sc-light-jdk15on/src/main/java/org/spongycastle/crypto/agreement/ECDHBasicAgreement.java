@@ -3,6 +3,7 @@ package org.spongycastle.crypto.agreement;
 import java.math.BigInteger;
 
 import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.math.ec.ECPointPreCompCache;
 
 import org.spongycastle.crypto.BasicAgreement;
 import org.spongycastle.crypto.CipherParameters;
@@ -28,6 +29,28 @@ public class ECDHBasicAgreement
 {
     private ECPrivateKeyParameters key;
 
+    private final ECPointPreCompCache publicKeyCache;
+
+    /**
+     * Default constructor.
+     */
+    public ECDHBasicAgreement()
+    {
+        this(null);
+    }
+
+    /**
+     * Constructor for parties which agree with the same public keys again and again. Each
+     * public key is looked up in the passed in cache, so the precomputation for it is only
+     * done once.
+     *
+     * @param publicKeyCache the cache to look public keys up in, null for no caching.
+     */
+    public ECDHBasicAgreement(ECPointPreCompCache publicKeyCache)
+    {
+        this.publicKeyCache = publicKeyCache;
+    }
+
     public void init(
         CipherParameters key)
     {
@@ -38,10 +61,20 @@ public class ECDHBasicAgreement
         CipherParameters pubKey)
     {
         ECPublicKeyParameters pub = (ECPublicKeyParameters)pubKey;
-        ECPoint P = pub.getQ().multiply(key.getD());
+        ECPoint P = publicKey(pub).multiply(key.getD());
 
         // if (p.isInfinity()) throw new RuntimeException("d*Q == infinity");
 
         return P.getX().toBigInteger();
     }
+
+    private ECPoint publicKey(ECPublicKeyParameters pub)
+    {
+        if (publicKeyCache != null)
+        {
+            return publicKeyCache.getPoint(pub.getQ());
+        }
+
+        return pub.getQ();
+    }
 }
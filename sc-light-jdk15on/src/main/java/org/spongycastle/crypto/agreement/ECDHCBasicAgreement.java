@@ -3,6 +3,7 @@ package org.spongycastle.crypto.agreement;
 import java.math.BigInteger;
 
 import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.math.ec.ECPointPreCompCache;
 
 import org.spongycastle.crypto.BasicAgreement;
 import org.spongycastle.crypto.CipherParameters;
@@ -34,6 +35,28 @@ public class ECDHCBasicAgreement
 {
     ECPrivateKeyParameters key;
 
+    private final ECPointPreCompCache publicKeyCache;
+
+    /**
+     * Default constructor.
+     */
+    public ECDHCBasicAgreement()
+    {
+        this(null);
+    }
+
+    /**
+     * Constructor for parties which agree with the same public keys again and again. Each
+     * public key is looked up in the passed in cache, so the precomputation for it is only
+     * done once.
+     *
+     * @param publicKeyCache the cache to look public keys up in, null for no caching.
+     */
+    public ECDHCBasicAgreement(ECPointPreCompCache publicKeyCache)
+    {
+        this.publicKeyCache = publicKeyCache;
+    }
+
     public void init(
         CipherParameters key)
     {
@@ -45,10 +68,20 @@ public class ECDHCBasicAgreement
     {
         ECPublicKeyParameters   pub = (ECPublicKeyParameters)pubKey;
         ECDomainParameters      params = pub.getParameters();
-        ECPoint P = pub.getQ().multiply(params.getH().multiply(key.getD()));
+        ECPoint P = publicKey(pub).multiply(params.getH().multiply(key.getD()));
 
         // if (p.isInfinity()) throw new RuntimeException("Invalid public key");
 
         return P.getX().toBigInteger();
     }
+
+    private ECPoint publicKey(ECPublicKeyParameters pub)
+    {
+        if (publicKeyCache != null)
+        {
+            return publicKeyCache.getPoint(pub.getQ());
+        }
+
+        return pub.getQ();
+    }
 }
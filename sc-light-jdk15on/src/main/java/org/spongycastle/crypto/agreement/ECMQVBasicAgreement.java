@@ -12,6 +12,7 @@ import org.spongycastle.crypto.params.MQVPublicParameters;
 import org.spongycastle.math.ec.ECAlgorithms;
 import org.spongycastle.math.ec.ECConstants;
 import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.math.ec.FixedPointCombMultiplier;
 
 public class ECMQVBasicAgreement
     implements BasicAgreement
@@ -54,7 +55,7 @@ public class ECMQVBasicAgreement
         ECPoint q;
         if (Q2U == null)
         {
-            q = parameters.getG().multiply(d2U.getD());
+            q = new FixedPointCombMultiplier().multiply(parameters.getG(), d2U.getD());
         }
         else
         {
@@ -7,12 +7,13 @@ import org.spongycastle.crypto.params.KeyParameter;
 import org.spongycastle.crypto.params.ParametersWithSBox;
 import org.spongycastle.crypto.util.Pack;
 import org.spongycastle.util.Arrays;
+import org.spongycastle.util.Memoable;
 
 /**
  * implementation of GOST R 34.11-94
  */
 public class GOST3411Digest
-    implements ExtendedDigest
+    implements ExtendedDigest, Memoable
 {
     private static final int    DIGEST_LENGTH = 32;
 
@@ -55,6 +56,11 @@ public class GOST3411Digest
      * message digest.
      */
     public GOST3411Digest(GOST3411Digest t)
+    {
+        copyIn(t);
+    }
+
+    private void copyIn(GOST3411Digest t)
     {
         this.sBox = t.sBox;
         cipher.init(true, new ParametersWithSBox(null, sBox));
@@ -344,6 +350,16 @@ public class GOST3411Digest
    {
       return 32;
    }
-}
 
+    public Memoable copy()
+    {
+        return new GOST3411Digest(this);
+    }
+
+    public void reset(Memoable other)
+    {
+        GOST3411Digest d = (GOST3411Digest)other;
 
+        copyIn(d);
+    }
+}
@@ -0,0 +1,210 @@
+package org.spongycastle.crypto.digests;
+
+import org.spongycastle.crypto.DataLengthException;
+import org.spongycastle.crypto.MultiDigest;
+import org.spongycastle.crypto.util.Pack;
+
+/**
+ * base implementation for batch versions of the MD4 family style digests with big endian
+ * words and a 64 byte block - SHA-1 and SHA-256.
+ * <p>
+ * Messages are assigned to LANES lanes and hashed a block at a time in lock-step. The state
+ * and message schedule are held lane by lane, so word i of lane l is at [i * LANES + l], and
+ * subclasses run each step of the compression function as a fixed length loop over all the
+ * lanes, which the JIT is free to unroll and turn into vector instructions. When a message
+ * finishes the next one waiting takes over its lane. Lanes with nothing left to do are still
+ * computed, the results just aren't used, so batches work best when they are much larger
+ * than LANES or the messages are of similar lengths.
+ * <p>
+ * Instances are not thread safe, but may be reused for any number of batches.
+ */
+public abstract class GeneralMultiDigest
+    implements MultiDigest
+{
+    protected static final int LANES = 8;
+
+    private static final int BLOCK_SIZE = 64;
+
+    private final int[]     iv;
+    private final int       digestSize;
+
+    // the chaining values and the message schedule, lane by lane.
+    private final int[]     state;
+    private final int[]     W;
+
+    // per lane progress - the message (-1 if the lane is idle), the blocks of it processed,
+    // and the padded final block(s).
+    private final int[]     message = new int[LANES];
+    private final int[]     block = new int[LANES];
+    private final int[]     fullBlocks = new int[LANES];
+    private final int[]     totalBlocks = new int[LANES];
+    private final byte[][]  finalBlocks = new byte[LANES][2 * BLOCK_SIZE];
+
+    /**
+     * Base constructor.
+     *
+     * @param iv the initial chaining values.
+     * @param digestSize the size of the digest in bytes, taken from the start of the final chaining values.
+     * @param scheduleWords the number of words in the expanded message schedule.
+     */
+    protected GeneralMultiDigest(int[] iv, int digestSize, int scheduleWords)
+    {
+        this.iv = iv;
+        this.digestSize = digestSize;
+        this.state = new int[iv.length * LANES];
+        this.W = new int[scheduleWords * LANES];
+    }
+
+    public int getDigestSize()
+    {
+        return digestSize;
+    }
+
+    public byte[][] digestAll(byte[][] inputs)
+    {
+        byte[] out = new byte[inputs.length * digestSize];
+        byte[][] digests = new byte[inputs.length][];
+
+        digestAll(inputs, out, 0);
+
+        for (int i = 0; i != inputs.length; i++)
+        {
+            digests[i] = new byte[digestSize];
+            System.arraycopy(out, i * digestSize, digests[i], 0, digestSize);
+        }
+
+        return digests;
+    }
+
+    public int digestAll(byte[][] inputs, byte[] out, int outOff)
+        throws DataLengthException
+    {
+        int count = inputs.length;
+
+        if ((outOff + count * digestSize) > out.length)
+        {
+            throw new DataLengthException("output buffer too short");
+        }
+
+        int next = 0;
+        int active = 0;
+
+        for (int l = 0; l != LANES; l++)
+        {
+            if (next < count)
+            {
+                startLane(l, inputs, next++);
+                active++;
+            }
+            else
+            {
+                message[l] = -1;
+            }
+        }
+
+        while (active > 0)
+        {
+            for (int l = 0; l != LANES; l++)
+            {
+                if (message[l] >= 0)
+                {
+                    loadBlock(l, inputs[message[l]]);
+                }
+            }
+
+            processBlocks(state, W);
+
+            for (int l = 0; l != LANES; l++)
+            {
+                if (message[l] < 0 || ++block[l] != totalBlocks[l])
+                {
+                    continue;
+                }
+
+                writeDigest(l, out, outOff + message[l] * digestSize);
+
+                if (next < count)
+                {
+                    startLane(l, inputs, next++);
+                }
+                else
+                {
+                    message[l] = -1;
+                    active--;
+                }
+            }
+        }
+
+        return count * digestSize;
+    }
+
+    /**
+     * Run the compression function over the block in W in every lane, updating the chaining
+     * values in state. Only the first 16 words of the schedule are filled in, the rest is free
+     * for the subclass to expand the message into.
+     */
+    protected abstract void processBlocks(int[] state, int[] W);
+
+    private void startLane(int lane, byte[][] inputs, int index)
+    {
+        byte[] input = inputs[index];
+        int length = input.length;
+        int full = length / BLOCK_SIZE;
+        int rem = length - full * BLOCK_SIZE;
+        int padBlocks = (rem < BLOCK_SIZE - 8) ? 1 : 2;
+        byte[] pad = finalBlocks[lane];
+
+        // the trailing partial block, the 0x80 pad byte, zeroes, then the bit length.
+        System.arraycopy(input, full * BLOCK_SIZE, pad, 0, rem);
+        pad[rem] = (byte)0x80;
+        for (int i = rem + 1; i < padBlocks * BLOCK_SIZE - 8; i++)
+        {
+            pad[i] = 0;
+        }
+
+        long bitLength = (long)length << 3;
+        Pack.intToBigEndian((int)(bitLength >>> 32), pad, padBlocks * BLOCK_SIZE - 8);
+        Pack.intToBigEndian((int)bitLength, pad, padBlocks * BLOCK_SIZE - 4);
+
+        message[lane] = index;
+        block[lane] = 0;
+        fullBlocks[lane] = full;
+        totalBlocks[lane] = full + padBlocks;
+
+        for (int i = 0; i != iv.length; i++)
+        {
+            state[i * LANES + lane] = iv[i];
+        }
+    }
+
+    private void loadBlock(int lane, byte[] input)
+    {
+        int b = block[lane];
+        byte[] src;
+        int srcOff;
+
+        if (b < fullBlocks[lane])
+        {
+            src = input;
+            srcOff = b * BLOCK_SIZE;
+        }
+        else
+        {
+            src = finalBlocks[lane];
+            srcOff = (b - fullBlocks[lane]) * BLOCK_SIZE;
+        }
+
+        for (int t = 0; t != 16; t++)
+        {
+            W[t * LANES + lane] = Pack.bigEndianToInt(src, srcOff + t * 4);
+        }
+    }
+
+    private void writeDigest(int lane, byte[] out, int outOff)
+    {
+        for (int i = 0; i * 4 < digestSize; i++)
+        {
+            Pack.intToBigEndian(state[i * LANES + lane], out, outOff + i * 4);
+        }
+    }
+}
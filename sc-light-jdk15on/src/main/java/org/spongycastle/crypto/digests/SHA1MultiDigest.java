@@ -0,0 +1,159 @@
+package org.spongycastle.crypto.digests;
+
+/**
+ * SHA-1, hashing batches of messages in lock-step - see GeneralMultiDigest.
+ * <p>
+ * Each digest is identical to the one SHA1Digest gives for the same message.
+ */
+public class SHA1MultiDigest
+    extends GeneralMultiDigest
+{
+    private static final int    DIGEST_LENGTH = 20;
+
+    //
+    // Additive constants
+    //
+    private static final int    Y1 = 0x5a827999;
+    private static final int    Y2 = 0x6ed9eba1;
+    private static final int    Y3 = 0x8f1bbcdc;
+    private static final int    Y4 = 0xca62c1d6;
+
+    // offsets of the working variables in v
+    private static final int A = 0, B = LANES, C = 2 * LANES, D = 3 * LANES, E = 4 * LANES;
+
+    // the working variables, lane by lane like the state
+    private final int[] v = new int[5 * LANES];
+
+    public SHA1MultiDigest()
+    {
+        super(new int[] { 0x67452301, 0xefcdab89, 0x98badcfe, 0x10325476, 0xc3d2e1f0 }, DIGEST_LENGTH, 80);
+    }
+
+    public String getAlgorithmName()
+    {
+        return "SHA-1";
+    }
+
+    protected void processBlocks(int[] state, int[] W)
+    {
+        //
+        // expand 16 word block into 80 word block.
+        //
+        for (int i = 16; i < 80; i++)
+        {
+            int off = i * LANES;
+
+            for (int l = 0; l < LANES; l++)
+            {
+                int t = W[off - 3 * LANES + l] ^ W[off - 8 * LANES + l] ^ W[off - 14 * LANES + l] ^ W[off - 16 * LANES + l];
+                W[off + l] = t << 1 | t >>> 31;
+            }
+        }
+
+        //
+        // set up working variables.
+        //
+        int[] v = this.v;
+
+        System.arraycopy(state, 0, v, 0, v.length);
+
+        int idx = 0;
+
+        //
+        // round 1
+        //
+        for (int j = 0; j < 4; j++)
+        {
+            f(v, A, B, C, D, E, W, idx++);
+            f(v, E, A, B, C, D, W, idx++);
+            f(v, D, E, A, B, C, W, idx++);
+            f(v, C, D, E, A, B, W, idx++);
+            f(v, B, C, D, E, A, W, idx++);
+        }
+
+        //
+        // round 2
+        //
+        for (int j = 0; j < 4; j++)
+        {
+            h(v, A, B, C, D, E, W, idx++, Y2);
+            h(v, E, A, B, C, D, W, idx++, Y2);
+            h(v, D, E, A, B, C, W, idx++, Y2);
+            h(v, C, D, E, A, B, W, idx++, Y2);
+            h(v, B, C, D, E, A, W, idx++, Y2);
+        }
+
+        //
+        // round 3
+        //
+        for (int j = 0; j < 4; j++)
+        {
+            g(v, A, B, C, D, E, W, idx++);
+            g(v, E, A, B, C, D, W, idx++);
+            g(v, D, E, A, B, C, W, idx++);
+            g(v, C, D, E, A, B, W, idx++);
+            g(v, B, C, D, E, A, W, idx++);
+        }
+
+        //
+        // round 4
+        //
+        for (int j = 0; j < 4; j++)
+        {
+            h(v, A, B, C, D, E, W, idx++, Y4);
+            h(v, E, A, B, C, D, W, idx++, Y4);
+            h(v, D, E, A, B, C, W, idx++, Y4);
+            h(v, C, D, E, A, B, W, idx++, Y4);
+            h(v, B, C, D, E, A, W, idx++, Y4);
+        }
+
+        for (int i = 0; i < v.length; i++)
+        {
+            state[i] += v[i];
+        }
+    }
+
+    //
+    // one step in every lane, as in SHA1Digest:
+    // E = rotateLeft(A, 5) + F(B, C, D) + E + X[idx] + Y
+    // B = rotateLeft(B, 30)
+    //
+    private static void f(int[] v, int A, int B, int C, int D, int E, int[] W, int idx)
+    {
+        int off = idx * LANES;
+
+        for (int l = 0; l < LANES; l++)
+        {
+            int a = v[A + l], b = v[B + l];
+
+            v[E + l] += (a << 5 | a >>> 27) + ((b & v[C + l]) | ((~b) & v[D + l])) + W[off + l] + Y1;
+            v[B + l] = b << 30 | b >>> 2;
+        }
+    }
+
+    private static void h(int[] v, int A, int B, int C, int D, int E, int[] W, int idx, int y)
+    {
+        int off = idx * LANES;
+
+        for (int l = 0; l < LANES; l++)
+        {
+            int a = v[A + l], b = v[B + l];
+
+            v[E + l] += (a << 5 | a >>> 27) + (b ^ v[C + l] ^ v[D + l]) + W[off + l] + y;
+            v[B + l] = b << 30 | b >>> 2;
+        }
+    }
+
+    private static void g(int[] v, int A, int B, int C, int D, int E, int[] W, int idx)
+    {
+        int off = idx * LANES;
+
+        for (int l = 0; l < LANES; l++)
+        {
+            int a = v[A + l], b = v[B + l], c = v[C + l], d = v[D + l];
+
+            v[E + l] += (a << 5 | a >>> 27) + ((b & c) | (b & d) | (c & d)) + W[off + l] + Y3;
+            v[B + l] = b << 30 | b >>> 2;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.spongycastle.crypto.digests;
+
+/**
+ * FIPS 180-2 SHA-256, hashing batches of messages in lock-step - see GeneralMultiDigest.
+ * <p>
+ * Each digest is identical to the one SHA256Digest gives for the same message.
+ */
+public class SHA256MultiDigest
+    extends GeneralMultiDigest
+{
+    private static final int    DIGEST_LENGTH = 32;
+
+    // offsets of the working variables in v
+    private static final int A = 0, B = LANES, C = 2 * LANES, D = 3 * LANES, E = 4 * LANES, F = 5 * LANES,
+        G = 6 * LANES, H = 7 * LANES;
+
+    // the working variables, lane by lane like the state
+    private final int[] v = new int[8 * LANES];
+
+    public SHA256MultiDigest()
+    {
+        super(new int[] { 0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a, 0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19 },
+            DIGEST_LENGTH, 64);
+    }
+
+    public String getAlgorithmName()
+    {
+        return "SHA-256";
+    }
+
+    protected void processBlocks(int[] state, int[] W)
+    {
+        //
+        // expand 16 word block into 64 word blocks.
+        //
+        for (int t = 16; t <= 63; t++)
+        {
+            int off = t * LANES;
+
+            for (int l = 0; l < LANES; l++)
+            {
+                W[off + l] = Theta1(W[off - 2 * LANES + l]) + W[off - 7 * LANES + l]
+                    + Theta0(W[off - 15 * LANES + l]) + W[off - 16 * LANES + l];
+            }
+        }
+
+        //
+        // set up working variables.
+        //
+        int[] v = this.v;
+
+        System.arraycopy(state, 0, v, 0, v.length);
+
+        int t = 0;
+        for (int i = 0; i < 8; i++)
+        {
+            round(v, A, B, C, D, E, F, G, H, W, t++);
+            round(v, H, A, B, C, D, E, F, G, W, t++);
+            round(v, G, H, A, B, C, D, E, F, W, t++);
+            round(v, F, G, H, A, B, C, D, E, W, t++);
+            round(v, E, F, G, H, A, B, C, D, W, t++);
+            round(v, D, E, F, G, H, A, B, C, W, t++);
+            round(v, C, D, E, F, G, H, A, B, W, t++);
+            round(v, B, C, D, E, F, G, H, A, W, t++);
+        }
+
+        for (int i = 0; i < v.length; i++)
+        {
+            state[i] += v[i];
+        }
+    }
+
+    /**
+     * one step of the compression function in every lane, in the same form as the unrolled
+     * loop in SHA256Digest - h and d are updated, the caller rotates the roles of the variables.
+     */
+    private static void round(int[] v, int a, int b, int c, int d, int e, int f, int g, int h, int[] W, int t)
+    {
+        int k = SHA256Digest.K[t];
+        int off = t * LANES;
+
+        for (int l = 0; l < LANES; l++)
+        {
+            int el = v[e + l];
+            int hl = v[h + l] + Sum1(el) + ((el & v[f + l]) ^ ((~el) & v[g + l])) + k + W[off + l];
+
+            v[d + l] += hl;
+
+            int al = v[a + l];
+            int bl = v[b + l];
+            int cl = v[c + l];
+
+            v[h + l] = hl + Sum0(al) + ((al & bl) ^ (al & cl) ^ (bl & cl));
+        }
+    }
+
+    /* SHA-256 functions */
+    private static int Sum0(
+        int    x)
+    {
+        return ((x >>> 2) | (x << 30)) ^ ((x >>> 13) | (x << 19)) ^ ((x >>> 22) | (x << 10));
+    }
+
+    private static int Sum1(
+        int    x)
+    {
+        return ((x >>> 6) | (x << 26)) ^ ((x >>> 11) | (x << 21)) ^ ((x >>> 25) | (x << 7));
+    }
+
+    private static int Theta0(
+        int    x)
+    {
+        return ((x >>> 7) | (x << 25)) ^ ((x >>> 18) | (x << 14)) ^ (x >>> 3);
+    }
+
+    private static int Theta1(
+        int    x)
+    {
+        return ((x >>> 17) | (x << 15)) ^ ((x >>> 19) | (x << 13)) ^ (x >>> 10);
+    }
+}
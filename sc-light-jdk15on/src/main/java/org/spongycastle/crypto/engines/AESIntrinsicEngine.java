@@ -0,0 +1,209 @@
+package org.spongycastle.crypto.engines;
+
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.spongycastle.crypto.CipherParameters;
+import org.spongycastle.crypto.DataLengthException;
+import org.spongycastle.crypto.MultiBlockCipher;
+import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.util.Arrays;
+import org.spongycastle.util.encoders.Hex;
+
+/**
+ * an implementation of the AES (Rijndael), from FIPS-197, which hands bulk work to the
+ * JDK's own AES where the JVM compiles it to hardware AES instructions.
+ * <p>
+ * Availability is checked once, on the first call to init() or isJceAvailable(): the SunJCE
+ * "AES/ECB/NoPadding" cipher must be present and pass a known answer test. The system property
+ * "org.spongycastle.aes.jce" can be set to "false" to never use it, for example on JVMs where
+ * the JDK's AES is not hardware accelerated.
+ * <p>
+ * Runs of blocks passed to processBlocks() go to the JDK cipher, so modes which batch
+ * their work, such as SICBlockCipher, GCMBlockCipher and CBC decryption, pick up the
+ * acceleration. Single blocks, and everything when the JDK cipher is not available or
+ * rejects the key, are handled by an AESFastEngine.
+ */
+public class AESIntrinsicEngine
+    implements MultiBlockCipher
+{
+    /**
+     * smallest run of blocks worth the overhead of a call into the JDK cipher.
+     */
+    private static final int MIN_JCE_BLOCKS = 4;
+
+    private static final int BLOCK_SIZE = 16;
+
+    private static final String JCE_PROPERTY = "org.spongycastle.aes.jce";
+
+    private final AESFastEngine fallback = new AESFastEngine();
+
+    private Cipher      jceCipher;
+    private boolean     initialised;
+
+    /**
+     * default constructor - 128 bit block size.
+     */
+    public AESIntrinsicEngine()
+    {
+    }
+
+    /**
+     * Return true if instances of this class will use the JDK's AES for bulk processing.
+     *
+     * @return true if a working JDK AES was found and is enabled, false otherwise.
+     */
+    public static boolean isJceAvailable()
+    {
+        return JceCheck.AVAILABLE;
+    }
+
+    /**
+     * initialise an AES cipher.
+     *
+     * @param forEncryption whether or not we are for encryption.
+     * @param params the parameters required to set up the cipher.
+     * @exception IllegalArgumentException if the params argument is
+     * inappropriate.
+     */
+    public void init(
+        boolean           forEncryption,
+        CipherParameters  params)
+    {
+        fallback.init(forEncryption, params);
+
+        jceCipher = null;
+
+        if (JceCheck.AVAILABLE)
+        {
+            try
+            {
+                Cipher c = Cipher.getInstance("AES/ECB/NoPadding", "SunJCE");
+
+                c.init(forEncryption ? Cipher.ENCRYPT_MODE : Cipher.DECRYPT_MODE,
+                    new SecretKeySpec(((KeyParameter)params).getKey(), "AES"));
+
+                jceCipher = c;
+            }
+            catch (GeneralSecurityException e)
+            {
+                // most likely a restricted jurisdiction policy rejecting the key size - use the fallback.
+            }
+        }
+
+        initialised = true;
+    }
+
+    public String getAlgorithmName()
+    {
+        return "AES";
+    }
+
+    public int getBlockSize()
+    {
+        return BLOCK_SIZE;
+    }
+
+    public int processBlock(
+        byte[] in,
+        int inOff,
+        byte[] out,
+        int outOff)
+    {
+        return fallback.processBlock(in, inOff, out, outOff);
+    }
+
+    public int processBlocks(
+        byte[] in,
+        int inOff,
+        int blockCount,
+        byte[] out,
+        int outOff)
+    {
+        if (!initialised)
+        {
+            throw new IllegalStateException("AES engine not initialised");
+        }
+
+        if (jceCipher == null || blockCount < MIN_JCE_BLOCKS)
+        {
+            return fallback.processBlocks(in, inOff, blockCount, out, outOff);
+        }
+
+        int len = blockCount * BLOCK_SIZE;
+
+        if ((inOff + len) > in.length)
+        {
+            throw new DataLengthException("input buffer too short");
+        }
+
+        if ((outOff + len) > out.length)
+        {
+            throw new DataLengthException("output buffer too short");
+        }
+
+        // overlapping but offset input and output need the input taken out of the way first.
+        if (in == out && inOff != outOff && inOff < outOff + len && outOff < inOff + len)
+        {
+            in = Arrays.copyOfRange(in, inOff, inOff + len);
+            inOff = 0;
+        }
+
+        try
+        {
+            // ECB with no padding keeps no state between calls, so update() is all we need.
+            return jceCipher.update(in, inOff, len, out, outOff);
+        }
+        catch (GeneralSecurityException e)
+        {
+            throw new IllegalStateException("JCE AES failed: " + e.getMessage());
+        }
+    }
+
+    public void reset()
+    {
+    }
+
+    /**
+     * holder so the JCE probe runs on first use rather than when the engine class is loaded.
+     */
+    private static class JceCheck
+    {
+        static final boolean AVAILABLE = checkJce();
+
+        private static boolean checkJce()
+        {
+            try
+            {
+                if ("false".equals(System.getProperty(JCE_PROPERTY)))
+                {
+                    return false;
+                }
+            }
+            catch (SecurityException e)
+            {
+                // ignore - treat as unset.
+            }
+
+            try
+            {
+                // FIPS-197 C.1 with an all zero key and plaintext
+                Cipher c = Cipher.getInstance("AES/ECB/NoPadding", "SunJCE");
+
+                c.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(new byte[16], "AES"));
+
+                return Arrays.areEqual(Hex.decode("66e94bd4ef8a2c3b884cfa59ca342b2e"), c.doFinal(new byte[16]));
+            }
+            catch (GeneralSecurityException e)
+            {
+                return false;
+            }
+            catch (RuntimeException e)
+            {
+                return false;
+            }
+        }
+    }
+}
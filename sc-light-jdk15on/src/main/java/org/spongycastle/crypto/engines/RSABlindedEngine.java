@@ -4,6 +4,7 @@ import org.spongycastle.crypto.AsymmetricBlockCipher;
 import org.spongycastle.crypto.CipherParameters;
 import org.spongycastle.crypto.DataLengthException;
 import org.spongycastle.crypto.params.ParametersWithRandom;
+import org.spongycastle.crypto.params.RSABlindingFactors;
 import org.spongycastle.crypto.params.RSAKeyParameters;
 import org.spongycastle.crypto.params.RSAPrivateCrtKeyParameters;
 import org.spongycastle.util.BigIntegers;
@@ -19,6 +20,9 @@ public class RSABlindedEngine
 {
     private static BigInteger ONE = BigInteger.valueOf(1);
 
+    // number of operations a blinding value is squared through before a new one is chosen.
+    private static final int BLINDING_REFRESH = 32;
+
     private RSACoreEngine    core = new RSACoreEngine();
     private RSAKeyParameters key;
     private SecureRandom     random;
@@ -103,13 +107,28 @@ public class RSABlindedEngine
             if (e != null)   // can't do blinding without a public exponent
             {
                 BigInteger m = k.getModulus();
-                BigInteger r = BigIntegers.createRandomInRange(ONE, m.subtract(ONE), random);
+                RSABlindingFactors factors = k.takeBlindingFactors();
+
+                if (factors == null || factors.getUseCount() >= BLINDING_REFRESH)
+                {
+                    BigInteger r = BigIntegers.createRandomInRange(ONE, m.subtract(ONE), random);
 
-                BigInteger blindedInput = r.modPow(e, m).multiply(input).mod(m);
+                    factors = new RSABlindingFactors(r.modPow(e, m), r.modInverse(m), 0);
+                }
+
+                BigInteger blindedInput = factors.getBlind().multiply(input).mod(m);
                 BigInteger blindedResult = core.processBlock(blindedInput);
 
-                BigInteger rInv = r.modInverse(m);
-                result = blindedResult.multiply(rInv).mod(m);
+                result = blindedResult.multiply(factors.getUnblind()).mod(m);
+
+                //
+                // squaring both factors gives a fresh pair for r^2, which is far cheaper than
+                // a new modPow and modInverse for every operation.
+                //
+                k.putBlindingFactors(new RSABlindingFactors(
+                    factors.getBlind().multiply(factors.getBlind()).mod(m),
+                    factors.getUnblind().multiply(factors.getUnblind()).mod(m),
+                    factors.getUseCount() + 1));
             }
             else
             {
@@ -1,5 +1,12 @@
 package org.spongycastle.crypto.generators;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import org.spongycastle.crypto.CipherParameters;
 import org.spongycastle.crypto.Digest;
 import org.spongycastle.crypto.Mac;
@@ -20,7 +27,8 @@ import org.spongycastle.crypto.params.ParametersWithIV;
 public class PKCS5S2ParametersGenerator
     extends PBEParametersGenerator
 {
-    private Mac hMac;
+    private final Mac[]             hMacs;
+    private final ExecutorService   executor;
 
     /**
      * construct a PKCS5 Scheme 2 Parameters generator.
@@ -32,41 +40,80 @@ public class PKCS5S2ParametersGenerator
 
     public PKCS5S2ParametersGenerator(Digest digest)
     {
-        hMac = new HMac(digest);
+        this.hMacs = new Mac[] { new HMac(digest) };
+        this.executor = null;
+    }
+
+    /**
+     * Construct a generator which calculates the blocks of longer derived keys concurrently.
+     * <p>
+     * Each block of the derived key is a separate run of iterationCount HMACs, so keys longer
+     * than the digest size can be split between workers. Each worker needs its own instance of
+     * the digest, passed in as an array of digests of the same algorithm - the number of
+     * digests sets the number of workers. The first digest is always used on the calling thread.
+     *
+     * @param digests one instance of the digest for each worker.
+     * @param executor the executor the extra workers are run on.
+     */
+    public PKCS5S2ParametersGenerator(Digest[] digests, ExecutorService executor)
+    {
+        if (digests.length < 1)
+        {
+            throw new IllegalArgumentException("at least one digest required");
+        }
+
+        this.hMacs = new Mac[digests.length];
+        this.executor = executor;
+
+        for (int i = 0; i != digests.length; i++)
+        {
+            if (digests[i].getDigestSize() != digests[0].getDigestSize())
+            {
+                throw new IllegalArgumentException("all digests must have the same size");
+            }
+
+            for (int j = 0; j != i; j++)
+            {
+                if (digests[j] == digests[i])
+                {
+                    throw new IllegalArgumentException("each worker requires its own digest instance");
+                }
+            }
+
+            hMacs[i] = new HMac(digests[i]);
+        }
     }
 
+    /**
+     * Calculate block i of the derived key. hMac must have been initialised with the password,
+     * and is left ready for the next message - HMac restores its precomputed pad states at the
+     * end of each MAC, so there is no need to initialise it again for every iteration.
+     */
     private void F(
-        byte[]  P,
+        Mac     hMac,
         byte[]  S,
         int     c,
-        byte[]  iBuf,
+        int     i,
+        byte[]  state,
         byte[]  out,
         int     outOff)
     {
-        byte[]              state = new byte[hMac.getMacSize()];
-        CipherParameters    param = new KeyParameter(P);
-
-        hMac.init(param);
-
         if (S != null)
         {
             hMac.update(S, 0, S.length);
         }
 
-        hMac.update(iBuf, 0, iBuf.length);
+        hMac.update((byte)(i >>> 24));
+        hMac.update((byte)(i >>> 16));
+        hMac.update((byte)(i >>> 8));
+        hMac.update((byte)i);
 
         hMac.doFinal(state, 0);
 
         System.arraycopy(state, 0, out, outOff, state.length);
 
-        if (c == 0)
-        {
-            throw new IllegalArgumentException("iteration count must be at least 1.");
-        }
-        
         for (int count = 1; count < c; count++)
         {
-            hMac.init(param);
             hMac.update(state, 0, state.length);
             hMac.doFinal(state, 0);
 
@@ -77,34 +124,121 @@ public class PKCS5S2ParametersGenerator
         }
     }
 
-    private void intToOctet(
-        byte[]  buf,
-        int     i)
+    /**
+     * Calculate blocks first, first + step, ... up to and including l using hMac.
+     */
+    private void calculateBlocks(
+        Mac     hMac,
+        int     first,
+        int     step,
+        int     l,
+        byte[]  out)
     {
-        buf[0] = (byte)(i >>> 24);
-        buf[1] = (byte)(i >>> 16);
-        buf[2] = (byte)(i >>> 8);
-        buf[3] = (byte)i;
+        int     hLen = hMac.getMacSize();
+        byte[]  state = new byte[hLen];
+
+        hMac.init(new KeyParameter(password));
+
+        for (int i = first; i <= l; i += step)
+        {
+            F(hMac, salt, iterationCount, i, state, out, (i - 1) * hLen);
+        }
     }
 
     private byte[] generateDerivedKey(
         int dkLen)
     {
-        int     hLen = hMac.getMacSize();
+        if (iterationCount == 0)
+        {
+            throw new IllegalArgumentException("iteration count must be at least 1.");
+        }
+
+        int     hLen = hMacs[0].getMacSize();
         int     l = (dkLen + hLen - 1) / hLen;
-        byte[]  iBuf = new byte[4];
         byte[]  out = new byte[l * hLen];
+        int     workers = (executor == null) ? 1 : Math.min(hMacs.length, l);
 
-        for (int i = 1; i <= l; i++)
+        if (workers == 1)
         {
-            intToOctet(iBuf, i);
-
-            F(password, salt, iterationCount, iBuf, out, (i - 1) * hLen);
+            calculateBlocks(hMacs[0], 1, 1, l, out);
+        }
+        else
+        {
+            calculateBlocksParallel(workers, l, out);
         }
 
         return out;
     }
 
+    /**
+     * Deal the blocks out round robin, worker w taking blocks w + 1, w + 1 + workers, ...
+     */
+    private void calculateBlocksParallel(
+        final int       workers,
+        final int       l,
+        final byte[]    out)
+    {
+        List<Future<Object>> tasks = new ArrayList<Future<Object>>(workers - 1);
+
+        for (int w = 1; w != workers; w++)
+        {
+            final Mac hMac = hMacs[w];
+            final int first = w + 1;
+
+            tasks.add(executor.submit(new Callable<Object>()
+            {
+                public Object call()
+                {
+                    calculateBlocks(hMac, first, workers, l, out);
+
+                    return null;
+                }
+            }));
+        }
+
+        RuntimeException failure = null;
+
+        try
+        {
+            calculateBlocks(hMacs[0], 1, workers, l, out);
+        }
+        catch (RuntimeException e)
+        {
+            failure = e;
+        }
+
+        // always wait for every task, the digests can't be reused until they are finished.
+        for (int i = 0; i != tasks.size(); i++)
+        {
+            try
+            {
+                tasks.get(i).get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                if (failure == null)
+                {
+                    failure = new IllegalStateException("interrupted waiting for PBKDF2 worker");
+                }
+            }
+            catch (ExecutionException e)
+            {
+                if (failure == null)
+                {
+                    Throwable cause = e.getCause();
+
+                    failure = (cause instanceof RuntimeException) ? (RuntimeException)cause : new IllegalStateException(e);
+                }
+            }
+        }
+
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+
     /**
      * Generate a key parameter derived from the password, salt, and iteration
      * count we are currently initialised with.
@@ -1,5 +1,13 @@
 package org.spongycastle.crypto.generators;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
 import org.spongycastle.crypto.PBEParametersGenerator;
 import org.spongycastle.crypto.digests.SHA256Digest;
 import org.spongycastle.crypto.engines.Salsa20Engine;
@@ -7,16 +15,180 @@ import org.spongycastle.crypto.params.KeyParameter;
 import org.spongycastle.crypto.util.Pack;
 import org.spongycastle.util.Arrays;
 
+/**
+ * Implementation of the scrypt password based key derivation function from
+ * "Stronger Key Derivation Via Sequential Memory-hard Functions" (Colin Percival).
+ * <p>
+ * The p independent SMix calculations can be run concurrently on an ExecutorService, and the
+ * N * 128 * r bytes of working memory each one needs can be held in a Workspace which is
+ * reused from one derivation to the next.
+ */
 public class SCrypt
 {
+    /**
+     * Reusable working memory for derivations with a given N and r.
+     * <p>
+     * A workspace holds the memory for a fixed number of SMix calculations running at once, so
+     * it also bounds the memory a derivation uses - lanes * N * 128 * r bytes - whatever the
+     * value of p. The memory is cleared after each use. A workspace must only be used for one
+     * derivation at a time.
+     */
+    public static class Workspace
+    {
+        private final int     N;
+        private final int     r;
+        private final Lane[]  lanes;
+
+        /**
+         * Create a workspace.
+         *
+         * @param N the CPU/memory cost parameter, a power of 2 greater than 1.
+         * @param r the block size parameter.
+         * @param lanes the number of SMix calculations which may run at once.
+         */
+        public Workspace(int N, int r, int lanes)
+        {
+            if (N < 2 || (N & (N - 1)) != 0)
+            {
+                throw new IllegalArgumentException("N must be a power of 2 greater than 1");
+            }
+            if (r < 1)
+            {
+                throw new IllegalArgumentException("r must be at least 1");
+            }
+            if (N > Integer.MAX_VALUE / 32 / r)
+            {
+                throw new IllegalArgumentException("N * r too large");
+            }
+            if (lanes < 1)
+            {
+                throw new IllegalArgumentException("lanes must be at least 1");
+            }
+
+            this.N = N;
+            this.r = r;
+            this.lanes = new Lane[lanes];
+
+            for (int i = 0; i != lanes; i++)
+            {
+                this.lanes[i] = new Lane(N, r);
+            }
+        }
+
+        public int getN()
+        {
+            return N;
+        }
+
+        public int getR()
+        {
+            return r;
+        }
+
+        public int getLaneCount()
+        {
+            return lanes.length;
+        }
+    }
+
+    /**
+     * the working memory for one SMix - V is held as a single array of N blocks.
+     */
+    private static class Lane
+    {
+        final int[] V;
+        final int[] X;
+        final int[] X1 = new int[16];
+        final int[] X2 = new int[16];
+        final int[] Y;
+
+        Lane(int N, int r)
+        {
+            int BCount = r * 32;
+
+            V = new int[N * BCount];
+            X = new int[BCount];
+            Y = new int[BCount];
+        }
+
+        void clear()
+        {
+            Clear(V);
+            Clear(X);
+            Clear(X1);
+            Clear(X2);
+            Clear(Y);
+        }
+    }
+
     // TODO Validate arguments
     public static byte[] generate(byte[] P, byte[] S, int N, int r, int p, int dkLen)
     {
-        return MFcrypt(P, S, N, r, p, dkLen);
+        return MFcrypt(P, S, p, dkLen, new Workspace(N, r, 1), null);
+    }
+
+    /**
+     * Generate a key, running the p SMix calculations concurrently. The number running at once,
+     * and so the number of N * 128 * r byte buffers allocated, is limited to the number of
+     * available processors and, for a ThreadPoolExecutor, to one more than its maximum pool size.
+     *
+     * @param executor the executor to run the SMix calculations on.
+     */
+    public static byte[] generate(byte[] P, byte[] S, int N, int r, int p, int dkLen, ExecutorService executor)
+    {
+        return generate(P, S, N, r, p, dkLen, executor, getDefaultLaneCount(executor));
+    }
+
+    /**
+     * Generate a key, running up to maxLanes of the p SMix calculations concurrently. Each one
+     * running at once needs its own N * 128 * r bytes of memory.
+     *
+     * @param executor the executor to run the SMix calculations on.
+     * @param maxLanes the maximum number of SMix calculations to run at once.
+     */
+    public static byte[] generate(byte[] P, byte[] S, int N, int r, int p, int dkLen, ExecutorService executor, int maxLanes)
+    {
+        if (maxLanes < 1)
+        {
+            throw new IllegalArgumentException("maxLanes must be at least 1");
+        }
+
+        return MFcrypt(P, S, p, dkLen, new Workspace(N, r, Math.max(1, Math.min(p, maxLanes))), executor);
+    }
+
+    /**
+     * Generate a key using the N and r of, and the memory in, a previously created workspace.
+     *
+     * @param workspace the workspace providing N, r and the working memory.
+     * @param executor if not null, the executor to run SMix calculations on, as many at a time
+     * as the workspace has lanes.
+     */
+    public static byte[] generate(byte[] P, byte[] S, int p, int dkLen, Workspace workspace, ExecutorService executor)
+    {
+        return MFcrypt(P, S, p, dkLen, workspace, executor);
+    }
+
+    private static int getDefaultLaneCount(ExecutorService executor)
+    {
+        int lanes = Runtime.getRuntime().availableProcessors();
+
+        if (executor instanceof ThreadPoolExecutor)
+        {
+            // the calling thread runs a lane of its own
+            int poolSize = ((ThreadPoolExecutor)executor).getMaximumPoolSize();
+
+            if (poolSize < Integer.MAX_VALUE)
+            {
+                lanes = Math.min(lanes, poolSize + 1);
+            }
+        }
+
+        return Math.max(1, lanes);
     }
 
-    private static byte[] MFcrypt(byte[] P, byte[] S, int N, int r, int p, int dkLen)
+    private static byte[] MFcrypt(byte[] P, byte[] S, int p, int dkLen, Workspace workspace, ExecutorService executor)
     {
+        int r = workspace.r;
         int MFLenBytes = r * 128;
         byte[] bytes = SingleIterationPBKDF2(P, S, p * MFLenBytes);
 
@@ -29,11 +201,15 @@ public class SCrypt
 
             Pack.littleEndianToInt(bytes, 0, B);
 
-            int MFLenWords = MFLenBytes >>> 2;
-            for (int BOff = 0; BOff < BLen; BOff += MFLenWords)
+            int workers = (executor == null) ? 1 : Math.min(workspace.lanes.length, p);
+
+            if (workers <= 1)
+            {
+                SMixAll(B, workspace, 0, 1, p);
+            }
+            else
             {
-                // TODO These can be done in parallel threads
-                SMix(B, BOff, N, r);
+                SMixParallel(B, workspace, workers, p, executor);
             }
 
             Pack.intToLittleEndian(B, bytes, 0);
@@ -55,24 +231,101 @@ public class SCrypt
         return key.getKey();
     }
 
-    private static void SMix(int[] B, int BOff, int N, int r)
+    /**
+     * Run SMix on blocks first, first + step, ... below p of B, using lane first of the workspace.
+     */
+    private static void SMixAll(int[] B, Workspace workspace, int first, int step, int p)
+    {
+        int MFLenWords = workspace.r * 32;
+        Lane lane = workspace.lanes[first];
+
+        for (int i = first; i < p; i += step)
+        {
+            SMix(B, i * MFLenWords, workspace.N, workspace.r, lane);
+        }
+    }
+
+    private static void SMixParallel(final int[] B, final Workspace workspace, final int workers, final int p,
+        ExecutorService executor)
+    {
+        List<Future<Object>> tasks = new ArrayList<Future<Object>>(workers - 1);
+
+        for (int w = 1; w != workers; w++)
+        {
+            final int first = w;
+
+            tasks.add(executor.submit(new Callable<Object>()
+            {
+                public Object call()
+                {
+                    SMixAll(B, workspace, first, workers, p);
+
+                    return null;
+                }
+            }));
+        }
+
+        RuntimeException failure = null;
+
+        try
+        {
+            SMixAll(B, workspace, 0, workers, p);
+        }
+        catch (RuntimeException e)
+        {
+            failure = e;
+        }
+
+        // always wait for every task, the workspace can't be reused until they are finished.
+        for (int i = 0; i != tasks.size(); i++)
+        {
+            try
+            {
+                tasks.get(i).get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                if (failure == null)
+                {
+                    failure = new IllegalStateException("interrupted waiting for SMix worker");
+                }
+            }
+            catch (ExecutionException e)
+            {
+                if (failure == null)
+                {
+                    Throwable cause = e.getCause();
+
+                    failure = (cause instanceof RuntimeException) ? (RuntimeException)cause : new IllegalStateException(e);
+                }
+            }
+        }
+
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+
+    private static void SMix(int[] B, int BOff, int N, int r, Lane lane)
     {
         int BCount = r * 32;
 
-        int[] blockX1 = new int[16];
-        int[] blockX2 = new int[16];
-        int[] blockY = new int[BCount];
+        int[] blockX1 = lane.X1;
+        int[] blockX2 = lane.X2;
+        int[] blockY = lane.Y;
 
-        int[] X = new int[BCount];
-        int[][] V = new int[N][];
+        int[] X = lane.X;
+        int[] V = lane.V;
 
         try
         {
             System.arraycopy(B, BOff, X, 0, BCount);
 
-            for (int i = 0; i < N; ++i)
+            for (int i = 0, VOff = 0; i < N; ++i, VOff += BCount)
             {
-                V[i] = Arrays.clone(X);
+                System.arraycopy(X, 0, V, VOff, BCount);
                 BlockMix(X, blockX1, blockX2, blockY, r);
             }
 
@@ -80,7 +333,7 @@ public class SCrypt
             for (int i = 0; i < N; ++i)
             {
                 int j = X[BCount - 16] & mask;
-                Xor(X, V[j], 0, X);
+                Xor(X, V, j * BCount, X);
                 BlockMix(X, blockX1, blockX2, blockY, r);
             }
 
@@ -88,8 +341,7 @@ public class SCrypt
         }
         finally
         {
-            ClearAll(V);
-            ClearAll(new int[][]{ X, blockX1, blockX2, blockY });
+            lane.clear();
         }
     }
 
@@ -136,12 +388,4 @@ public class SCrypt
             Arrays.fill(array, 0);
         }
     }
-
-    private static void ClearAll(int[][] arrays)
-    {
-        for (int i = 0; i < arrays.length; ++i)
-        {
-            Clear(arrays[i]);
-        }
-    }
 }
@@ -7,11 +7,15 @@ import org.spongycastle.crypto.Digest;
 import org.spongycastle.crypto.ExtendedDigest;
 import org.spongycastle.crypto.Mac;
 import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.util.Memoable;
 
 /**
  * HMAC implementation based on RFC2104
  *
  * H(K XOR opad, H(K XOR ipad, text))
+ * <p>
+ * If the digest is Memoable its state after each pad is saved by init(), and restored for
+ * each message, saving a compression of the inner and outer pad per MAC.
  */
 public class HMac
     implements Mac
@@ -26,6 +30,13 @@ public class HMac
     private byte[] inputPad;
     private byte[] outputPad;
 
+    // the digest state after the inner and outer pads, null if the digest isn't Memoable
+    private Memoable ipadState;
+    private Memoable opadState;
+
+    // the inner hash, passed on to the outer one
+    private byte[] innerHash;
+
     private static Hashtable blockLengths;
     
     static
@@ -92,6 +103,7 @@ public class HMac
 
         inputPad = new byte[blockLength];
         outputPad = new byte[blockLength];
+        innerHash = new byte[digestSize];
     }
     
     public String getAlgorithmName()
@@ -142,7 +154,19 @@ public class HMac
             outputPad[i] ^= OPAD;
         }
 
-        digest.update(inputPad, 0, inputPad.length);
+        if (digest instanceof Memoable)
+        {
+            digest.update(outputPad, 0, outputPad.length);
+            opadState = ((Memoable)digest).copy();
+
+            digest.reset();
+            digest.update(inputPad, 0, inputPad.length);
+            ipadState = ((Memoable)digest).copy();
+        }
+        else
+        {
+            digest.update(inputPad, 0, inputPad.length);
+        }
     }
 
     public int getMacSize()
@@ -168,11 +192,18 @@ public class HMac
         byte[] out,
         int outOff)
     {
-        byte[] tmp = new byte[digestSize];
-        digest.doFinal(tmp, 0);
+        digest.doFinal(innerHash, 0);
 
-        digest.update(outputPad, 0, outputPad.length);
-        digest.update(tmp, 0, tmp.length);
+        if (opadState != null)
+        {
+            ((Memoable)digest).reset(opadState);
+        }
+        else
+        {
+            digest.update(outputPad, 0, outputPad.length);
+        }
+
+        digest.update(innerHash, 0, innerHash.length);
 
         int     len = digest.doFinal(out, outOff);
 
@@ -186,6 +217,15 @@ public class HMac
      */
     public void reset()
     {
+        if (ipadState != null)
+        {
+            /*
+             * restore the digest to its state after the inner pad.
+             */
+            ((Memoable)digest).reset(ipadState);
+            return;
+        }
+
         /*
          * reset the underlying digest.
          */
@@ -0,0 +1,277 @@
+package org.spongycastle.crypto.macs;
+
+import org.spongycastle.crypto.CipherParameters;
+import org.spongycastle.crypto.DataLengthException;
+import org.spongycastle.crypto.Mac;
+import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.crypto.util.Pack;
+
+/**
+ * Poly1305 message authentication code, as described in RFC 7539.
+ * <p>
+ * The key is the 32 byte one-time key r || s, r being clamped as the algorithm requires, so
+ * a key must never be used for more than one message. The accumulator is held as five 26 bit
+ * limbs which lets the multiplication modulo 2^130 - 5 be done with 64 bit products and no
+ * data dependent branches.
+ */
+public class Poly1305
+    implements Mac
+{
+    private static final int BLOCK_SIZE = 16;
+
+    private final byte[] singleByte = new byte[1];
+
+    // Initialised state
+
+    /** Polynomial key */
+    private int r0, r1, r2, r3, r4;
+
+    /** Precomputed 5 * r[1..4] */
+    private int s1, s2, s3, s4;
+
+    /** Encrypted nonce */
+    private int k0, k1, k2, k3;
+
+    // Accumulating state
+
+    /** Current block of buffered input */
+    private final byte[] currentBlock = new byte[BLOCK_SIZE];
+
+    /** Current offset in input buffer */
+    private int currentBlockOffset = 0;
+
+    /** Polynomial accumulator */
+    private int h0, h1, h2, h3, h4;
+
+    private boolean initialised = false;
+
+    public Poly1305()
+    {
+    }
+
+    /**
+     * Initialise the MAC.
+     *
+     * @param params a KeyParameter containing the 32 byte one-time key.
+     */
+    public void init(CipherParameters params)
+        throws IllegalArgumentException
+    {
+        if (!(params instanceof KeyParameter))
+        {
+            throw new IllegalArgumentException("Poly1305 requires a key.");
+        }
+
+        byte[] key = ((KeyParameter)params).getKey();
+
+        if (key.length != 32)
+        {
+            throw new IllegalArgumentException("Poly1305 key must be 256 bits.");
+        }
+
+        setKey(key);
+        reset();
+        initialised = true;
+    }
+
+    private void setKey(byte[] key)
+    {
+        // Extract r portion of key, clamping as we go
+        int t0 = Pack.littleEndianToInt(key, 0);
+        int t1 = Pack.littleEndianToInt(key, 4);
+        int t2 = Pack.littleEndianToInt(key, 8);
+        int t3 = Pack.littleEndianToInt(key, 12);
+
+        r0 = t0 & 0x3ffffff;
+        r1 = ((t0 >>> 26) | (t1 << 6)) & 0x3ffff03;
+        r2 = ((t1 >>> 20) | (t2 << 12)) & 0x3ffc0ff;
+        r3 = ((t2 >>> 14) | (t3 << 18)) & 0x3f03fff;
+        r4 = (t3 >>> 8) & 0x00fffff;
+
+        // Precompute multipliers
+        s1 = r1 * 5;
+        s2 = r2 * 5;
+        s3 = r3 * 5;
+        s4 = r4 * 5;
+
+        // s portion of the key
+        k0 = Pack.littleEndianToInt(key, 16);
+        k1 = Pack.littleEndianToInt(key, 20);
+        k2 = Pack.littleEndianToInt(key, 24);
+        k3 = Pack.littleEndianToInt(key, 28);
+    }
+
+    public String getAlgorithmName()
+    {
+        return "Poly1305";
+    }
+
+    public int getMacSize()
+    {
+        return BLOCK_SIZE;
+    }
+
+    public void update(byte in)
+        throws IllegalStateException
+    {
+        singleByte[0] = in;
+        update(singleByte, 0, 1);
+    }
+
+    public void update(byte[] in, int inOff, int len)
+        throws DataLengthException, IllegalStateException
+    {
+        if (!initialised)
+        {
+            throw new IllegalStateException("Poly1305 not initialised");
+        }
+
+        if ((inOff + len) > in.length)
+        {
+            throw new DataLengthException("input buffer too short");
+        }
+
+        // finish any partial block first
+        if (currentBlockOffset > 0)
+        {
+            int fill = Math.min(BLOCK_SIZE - currentBlockOffset, len);
+
+            System.arraycopy(in, inOff, currentBlock, currentBlockOffset, fill);
+            currentBlockOffset += fill;
+            inOff += fill;
+            len -= fill;
+
+            // only process the block once more input arrives, doFinal handles a full last block.
+            if (len == 0)
+            {
+                return;
+            }
+
+            processBlock(currentBlock, 0, 1 << 24);
+            currentBlockOffset = 0;
+        }
+
+        // whole blocks straight from the input, keeping the last one back
+        while (len > BLOCK_SIZE)
+        {
+            processBlock(in, inOff, 1 << 24);
+            inOff += BLOCK_SIZE;
+            len -= BLOCK_SIZE;
+        }
+
+        System.arraycopy(in, inOff, currentBlock, 0, len);
+        currentBlockOffset = len;
+    }
+
+    private void processBlock(byte[] block, int off, int hibit)
+    {
+        long t0 = Pack.littleEndianToInt(block, off) & 0xffffffffL;
+        long t1 = Pack.littleEndianToInt(block, off + 4) & 0xffffffffL;
+        long t2 = Pack.littleEndianToInt(block, off + 8) & 0xffffffffL;
+        long t3 = Pack.littleEndianToInt(block, off + 12) & 0xffffffffL;
+
+        h0 += (int)(t0 & 0x3ffffff);
+        h1 += (int)((((t1 << 32) | t0) >>> 26) & 0x3ffffff);
+        h2 += (int)((((t2 << 32) | t1) >>> 20) & 0x3ffffff);
+        h3 += (int)((((t3 << 32) | t2) >>> 14) & 0x3ffffff);
+        h4 += (int)(t3 >>> 8) | hibit;
+
+        long tp0 = mul32x32_64(h0, r0) + mul32x32_64(h1, s4) + mul32x32_64(h2, s3) + mul32x32_64(h3, s2) + mul32x32_64(h4, s1);
+        long tp1 = mul32x32_64(h0, r1) + mul32x32_64(h1, r0) + mul32x32_64(h2, s4) + mul32x32_64(h3, s3) + mul32x32_64(h4, s2);
+        long tp2 = mul32x32_64(h0, r2) + mul32x32_64(h1, r1) + mul32x32_64(h2, r0) + mul32x32_64(h3, s4) + mul32x32_64(h4, s3);
+        long tp3 = mul32x32_64(h0, r3) + mul32x32_64(h1, r2) + mul32x32_64(h2, r1) + mul32x32_64(h3, r0) + mul32x32_64(h4, s4);
+        long tp4 = mul32x32_64(h0, r4) + mul32x32_64(h1, r3) + mul32x32_64(h2, r2) + mul32x32_64(h3, r1) + mul32x32_64(h4, r0);
+
+        h0 = (int)tp0 & 0x3ffffff; tp1 += (tp0 >>> 26);
+        h1 = (int)tp1 & 0x3ffffff; tp2 += (tp1 >>> 26);
+        h2 = (int)tp2 & 0x3ffffff; tp3 += (tp2 >>> 26);
+        h3 = (int)tp3 & 0x3ffffff; tp4 += (tp3 >>> 26);
+        h4 = (int)tp4 & 0x3ffffff;
+        h0 += (int)(tp4 >>> 26) * 5;
+        h1 += (h0 >>> 26); h0 &= 0x3ffffff;
+    }
+
+    public int doFinal(byte[] out, int outOff)
+        throws DataLengthException, IllegalStateException
+    {
+        if (!initialised)
+        {
+            throw new IllegalStateException("Poly1305 not initialised");
+        }
+
+        if (outOff + BLOCK_SIZE > out.length)
+        {
+            throw new DataLengthException("output buffer too short");
+        }
+
+        if (currentBlockOffset == BLOCK_SIZE)
+        {
+            processBlock(currentBlock, 0, 1 << 24);
+        }
+        else if (currentBlockOffset > 0)
+        {
+            // a partial last block is padded with a 1 byte and zeros, in place of the high bit
+            currentBlock[currentBlockOffset] = 1;
+            for (int i = currentBlockOffset + 1; i < BLOCK_SIZE; i++)
+            {
+                currentBlock[i] = 0;
+            }
+            processBlock(currentBlock, 0, 0);
+        }
+
+        // fully carry h
+        h2 += (h1 >>> 26); h1 &= 0x3ffffff;
+        h3 += (h2 >>> 26); h2 &= 0x3ffffff;
+        h4 += (h3 >>> 26); h3 &= 0x3ffffff;
+        h0 += (h4 >>> 26) * 5; h4 &= 0x3ffffff;
+        h1 += (h0 >>> 26); h0 &= 0x3ffffff;
+
+        // compute h - p, and select it if it doesn't go negative
+        int g0, g1, g2, g3, g4, b;
+        g0 = h0 + 5; b = g0 >>> 26; g0 &= 0x3ffffff;
+        g1 = h1 + b; b = g1 >>> 26; g1 &= 0x3ffffff;
+        g2 = h2 + b; b = g2 >>> 26; g2 &= 0x3ffffff;
+        g3 = h3 + b; b = g3 >>> 26; g3 &= 0x3ffffff;
+        g4 = h4 + b - (1 << 26);
+
+        b = (g4 >>> 31) - 1;
+        int nb = ~b;
+        h0 = (h0 & nb) | (g0 & b);
+        h1 = (h1 & nb) | (g1 & b);
+        h2 = (h2 & nb) | (g2 & b);
+        h3 = (h3 & nb) | (g3 & b);
+        h4 = (h4 & nb) | (g4 & b);
+
+        // tag = (h + s) mod 2^128
+        long f0, f1, f2, f3;
+        f0 = ((h0       ) | (h1 << 26)) & 0xffffffffL;
+        f1 = ((h1 >>>  6) | (h2 << 20)) & 0xffffffffL;
+        f2 = ((h2 >>> 12) | (h3 << 14)) & 0xffffffffL;
+        f3 = ((h3 >>> 18) | (h4 <<  8)) & 0xffffffffL;
+
+        f0 += k0 & 0xffffffffL;
+        f1 += (k1 & 0xffffffffL) + (f0 >>> 32);
+        f2 += (k2 & 0xffffffffL) + (f1 >>> 32);
+        f3 += (k3 & 0xffffffffL) + (f2 >>> 32);
+
+        Pack.intToLittleEndian((int)f0, out, outOff);
+        Pack.intToLittleEndian((int)f1, out, outOff + 4);
+        Pack.intToLittleEndian((int)f2, out, outOff + 8);
+        Pack.intToLittleEndian((int)f3, out, outOff + 12);
+
+        reset();
+        return BLOCK_SIZE;
+    }
+
+    public void reset()
+    {
+        currentBlockOffset = 0;
+
+        h0 = h1 = h2 = h3 = h4 = 0;
+    }
+
+    private static final long mul32x32_64(int i1, int i2)
+    {
+        return ((long)i1) * i2;
+    }
+}
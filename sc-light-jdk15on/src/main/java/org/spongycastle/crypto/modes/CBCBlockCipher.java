@@ -3,6 +3,7 @@ package org.spongycastle.crypto.modes;
 import org.spongycastle.crypto.BlockCipher;
 import org.spongycastle.crypto.CipherParameters;
 import org.spongycastle.crypto.DataLengthException;
+import org.spongycastle.crypto.MultiBlockCipher;
 import org.spongycastle.crypto.params.ParametersWithIV;
 import org.spongycastle.util.Arrays;
 
@@ -10,11 +11,15 @@ import org.spongycastle.util.Arrays;
  * implements Cipher-Block-Chaining (CBC) mode on top of a simple cipher.
  */
 public class CBCBlockCipher
-    implements BlockCipher
+    implements MultiBlockCipher
 {
+    // number of blocks handed to a MultiBlockCipher at a time when decrypting.
+    private static final int BATCH_BLOCKS = 16;
+
     private byte[]          IV;
     private byte[]          cbcV;
     private byte[]          cbcNextV;
+    private byte[]          cbcBatch;
 
     private int             blockSize;
     private BlockCipher     cipher = null;
@@ -148,6 +153,89 @@ public class CBCBlockCipher
         return (encrypting) ? encryptBlock(in, inOff, out, outOff) : decryptBlock(in, inOff, out, outOff);
     }
 
+    /**
+     * Process blockCount blocks of input. Encryption is inherently serial, but
+     * decryption is passed to the underlying cipher in runs of blocks if it is
+     * a MultiBlockCipher.
+     *
+     * @param in the array containing the input data.
+     * @param inOff offset into the in array the data starts at.
+     * @param blockCount the number of blocks to process.
+     * @param out the array the output data will be copied into.
+     * @param outOff the offset into the out array the output will start at.
+     * @exception DataLengthException if there isn't enough data in in, or
+     * space in out.
+     * @exception IllegalStateException if the cipher isn't initialised.
+     * @return the number of bytes processed and produced.
+     */
+    public int processBlocks(
+        byte[]      in,
+        int         inOff,
+        int         blockCount,
+        byte[]      out,
+        int         outOff)
+        throws DataLengthException, IllegalStateException
+    {
+        int len = blockCount * blockSize;
+
+        if (blockCount < 0 || (inOff + len) > in.length)
+        {
+            throw new DataLengthException("input buffer too short");
+        }
+
+        if ((outOff + len) > out.length)
+        {
+            throw new DataLengthException("output buffer too short");
+        }
+
+        if (encrypting || !(cipher instanceof MultiBlockCipher))
+        {
+            for (int i = 0; i != len; i += blockSize)
+            {
+                processBlock(in, inOff + i, out, outOff + i);
+            }
+
+            return len;
+        }
+
+        if (cbcBatch == null)
+        {
+            cbcBatch = new byte[BATCH_BLOCKS * blockSize];
+        }
+
+        MultiBlockCipher multiCipher = (MultiBlockCipher)cipher;
+
+        for (int done = 0; done < len;)
+        {
+            int chunk = Math.min(len - done, cbcBatch.length);
+            int chunkOutOff = outOff + done;
+
+            // keep a copy of the cipher text - it's needed for chaining and in may be out.
+            System.arraycopy(in, inOff + done, cbcBatch, 0, chunk);
+
+            multiCipher.processBlocks(cbcBatch, 0, chunk / blockSize, out, chunkOutOff);
+
+            /*
+             * XOR the first block with cbcV and each later block with its predecessor's cipher text
+             */
+            for (int i = 0; i < blockSize; i++)
+            {
+                out[chunkOutOff + i] ^= cbcV[i];
+            }
+
+            for (int i = blockSize; i < chunk; i++)
+            {
+                out[chunkOutOff + i] ^= cbcBatch[i - blockSize];
+            }
+
+            System.arraycopy(cbcBatch, chunk - blockSize, cbcV, 0, blockSize);
+
+            done += chunk;
+        }
+
+        return len;
+    }
+
     /**
      * reset the chaining vector back to the IV and reset the underlying
      * cipher.
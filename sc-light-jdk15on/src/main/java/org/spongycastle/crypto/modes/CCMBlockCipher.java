@@ -25,10 +25,11 @@ public class CCMBlockCipher
     private int                   blockSize;
     private boolean               forEncryption;
     private byte[]                nonce;
-    private byte[]                associatedText;
+    private byte[]                initialAssociatedText;
     private int                   macSize;
     private CipherParameters      keyParam;
     private byte[]                macBlock;
+    private ByteArrayOutputStream associatedText = new ByteArrayOutputStream();
     private ByteArrayOutputStream data = new ByteArrayOutputStream();
 
     /**
@@ -69,7 +70,7 @@ public class CCMBlockCipher
             AEADParameters param = (AEADParameters)params;
 
             nonce = param.getNonce();
-            associatedText = param.getAssociatedText();
+            initialAssociatedText = param.getAssociatedText();
             macSize = param.getMacSize() / 8;
             keyParam = param.getKey();
         }
@@ -78,7 +79,7 @@ public class CCMBlockCipher
             ParametersWithIV param = (ParametersWithIV)params;
 
             nonce = param.getIV();
-            associatedText = null;
+            initialAssociatedText = null;
             macSize = macBlock.length / 2;
             keyParam = param.getParameters();
         }
@@ -86,6 +87,8 @@ public class CCMBlockCipher
         {
             throw new IllegalArgumentException("invalid parameters passed to CCM");
         }
+
+        reset();
     }
 
     public String getAlgorithmName()
@@ -93,6 +96,17 @@ public class CCMBlockCipher
         return cipher.getAlgorithmName() + "/CCM";
     }
 
+    public void processAADByte(byte in)
+    {
+        associatedText.write(in);
+    }
+
+    public void processAADBytes(byte[] in, int inOff, int len)
+    {
+        // all data is buffered, so the associated data can be added at any point before doFinal
+        associatedText.write(in, inOff, len);
+    }
+
     public int processByte(byte in, byte[] out, int outOff)
         throws DataLengthException, IllegalStateException
     {
@@ -125,6 +139,7 @@ public class CCMBlockCipher
     public void reset()
     {
         cipher.reset();
+        associatedText.reset();
         data.reset();
     }
 
@@ -262,8 +277,9 @@ public class CCMBlockCipher
         // build b0
         //
         byte[] b0 = new byte[16];
+        byte[] aad = getAssociatedText();
     
-        if (hasAssociatedText())
+        if (aad.length != 0)
         {
             b0[0] |= 0x40;
         }
@@ -288,14 +304,14 @@ public class CCMBlockCipher
         //
         // process associated text
         //
-        if (hasAssociatedText())
+        if (aad.length != 0)
         {
             int extra;
             
-            if (associatedText.length < ((1 << 16) - (1 << 8)))
+            if (aad.length < ((1 << 16) - (1 << 8)))
             {
-                cMac.update((byte)(associatedText.length >> 8));
-                cMac.update((byte)associatedText.length);
+                cMac.update((byte)(aad.length >> 8));
+                cMac.update((byte)aad.length);
                 
                 extra = 2;
             }
@@ -303,17 +319,17 @@ public class CCMBlockCipher
             {
                 cMac.update((byte)0xff);
                 cMac.update((byte)0xfe);
-                cMac.update((byte)(associatedText.length >> 24));
-                cMac.update((byte)(associatedText.length >> 16));
-                cMac.update((byte)(associatedText.length >> 8));
-                cMac.update((byte)associatedText.length);
+                cMac.update((byte)(aad.length >> 24));
+                cMac.update((byte)(aad.length >> 16));
+                cMac.update((byte)(aad.length >> 8));
+                cMac.update((byte)aad.length);
                 
                 extra = 6;
             }
             
-            cMac.update(associatedText, 0, associatedText.length);
+            cMac.update(aad, 0, aad.length);
             
-            extra = (extra + associatedText.length) % 16;
+            extra = (extra + aad.length) % 16;
             if (extra != 0)
             {
                 for (int i = 0; i != 16 - extra; i++)
@@ -331,8 +347,24 @@ public class CCMBlockCipher
         return cMac.doFinal(macBlock, 0);
     }
 
-    private boolean hasAssociatedText()
+    /*
+     * the associated text from the parameters followed by any passed to processAADBytes().
+     */
+    private byte[] getAssociatedText()
     {
-        return associatedText != null && associatedText.length != 0;
+        byte[] initial = (initialAssociatedText == null) ? new byte[0] : initialAssociatedText;
+
+        if (associatedText.size() == 0)
+        {
+            return initial;
+        }
+
+        byte[] extra = associatedText.toByteArray();
+        byte[] all = new byte[initial.length + extra.length];
+
+        System.arraycopy(initial, 0, all, 0, initial.length);
+        System.arraycopy(extra, 0, all, initial.length, extra.length);
+
+        return all;
     }
 }
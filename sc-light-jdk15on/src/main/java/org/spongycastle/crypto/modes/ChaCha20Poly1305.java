@@ -0,0 +1,372 @@
+package org.spongycastle.crypto.modes;
+
+import org.spongycastle.crypto.CipherParameters;
+import org.spongycastle.crypto.DataLengthException;
+import org.spongycastle.crypto.InvalidCipherTextException;
+import org.spongycastle.crypto.engines.ChaChaEngine;
+import org.spongycastle.crypto.macs.Poly1305;
+import org.spongycastle.crypto.params.AEADParameters;
+import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.crypto.params.ParametersWithIV;
+import org.spongycastle.crypto.util.Pack;
+import org.spongycastle.util.Arrays;
+
+/**
+ * The ChaCha20-Poly1305 AEAD construction from RFC 7539.
+ * <p>
+ * The first ChaCha20 key stream block for the nonce provides the one-time Poly1305 key and the
+ * data is encrypted with the key stream that follows it. The MAC covers the associated data and
+ * the ciphertext, each zero padded to 16 bytes, followed by their lengths.
+ * <p>
+ * Reusing a key and nonce for a second encryption gives away the plaintexts and the one-time MAC
+ * key, so once an encryption has completed the instance refuses further use until it is
+ * initialised again, and init rejects the nonce that was just used with the same key.
+ */
+public class ChaCha20Poly1305
+    implements AEADCipher
+{
+    private static final int KEY_SIZE = 32;
+    private static final int NONCE_SIZE = 12;
+    private static final int MAC_SIZE = 16;
+    private static final byte[] ZEROES = new byte[MAC_SIZE];
+
+    private final ChaChaEngine chacha20;
+    private final Poly1305 poly1305;
+
+    // These fields are set by init and not modified by processing
+    private boolean     forEncryption;
+    private byte[]      A;
+    private byte[]      lastKey;
+    private byte[]      lastNonce;
+
+    // These fields are modified during processing
+    private final byte[] bufBlock = new byte[MAC_SIZE];
+    private final byte[] polyKey = new byte[64];
+    private final byte[] lengths = new byte[16];
+    private final byte[] singleByte = new byte[1];
+    private byte[]      macBlock;
+    private int         bufOff;
+    private long        dataLength;
+    private long        aadLength;
+    private boolean     aadFinished;
+    private boolean     initialised;
+
+    public ChaCha20Poly1305()
+    {
+        this.chacha20 = new ChaChaEngine();
+        this.poly1305 = new Poly1305();
+    }
+
+    public String getAlgorithmName()
+    {
+        return "ChaCha20-Poly1305";
+    }
+
+    public void init(boolean forEncryption, CipherParameters params)
+        throws IllegalArgumentException
+    {
+        KeyParameter keyParam;
+        byte[] nonce;
+
+        if (params instanceof AEADParameters)
+        {
+            AEADParameters param = (AEADParameters)params;
+
+            if (param.getMacSize() != MAC_SIZE * 8)
+            {
+                throw new IllegalArgumentException("Invalid value for MAC size: " + param.getMacSize());
+            }
+
+            nonce = param.getNonce();
+            A = param.getAssociatedText();
+            keyParam = param.getKey();
+        }
+        else if (params instanceof ParametersWithIV)
+        {
+            ParametersWithIV param = (ParametersWithIV)params;
+
+            nonce = param.getIV();
+            A = null;
+            keyParam = (KeyParameter)param.getParameters();
+        }
+        else
+        {
+            throw new IllegalArgumentException("invalid parameters passed to ChaCha20-Poly1305");
+        }
+
+        if (nonce == null || nonce.length != NONCE_SIZE)
+        {
+            throw new IllegalArgumentException("ChaCha20-Poly1305 requires a " + NONCE_SIZE + " byte nonce");
+        }
+
+        if (keyParam == null || keyParam.getKey().length != KEY_SIZE)
+        {
+            throw new IllegalArgumentException("ChaCha20-Poly1305 requires a " + (KEY_SIZE * 8) + " bit key");
+        }
+
+        if (A == null)
+        {
+            // Avoid lots of null checks
+            A = new byte[0];
+        }
+
+        if (forEncryption)
+        {
+            if (Arrays.areEqual(nonce, lastNonce) && Arrays.areEqual(keyParam.getKey(), lastKey))
+            {
+                throw new IllegalArgumentException("cannot reuse nonce for ChaCha20-Poly1305 encryption");
+            }
+
+            lastKey = Arrays.clone(keyParam.getKey());
+            lastNonce = Arrays.clone(nonce);
+        }
+
+        this.forEncryption = forEncryption;
+        this.macBlock = null;
+
+        chacha20.init(true, new ParametersWithIV(keyParam, nonce));
+        initialised = true;
+
+        reset(false);
+    }
+
+    public byte[] getMac()
+    {
+        return Arrays.clone(macBlock);
+    }
+
+    public int getOutputSize(int len)
+    {
+        if (forEncryption)
+        {
+            return len + MAC_SIZE;
+        }
+
+        return Math.max(0, len + bufOff - MAC_SIZE);
+    }
+
+    public int getUpdateOutputSize(int len)
+    {
+        if (forEncryption)
+        {
+            return len;
+        }
+
+        return Math.max(0, len + bufOff - MAC_SIZE);
+    }
+
+    public void processAADByte(byte in)
+    {
+        singleByte[0] = in;
+
+        processAADBytes(singleByte, 0, 1);
+    }
+
+    public void processAADBytes(byte[] in, int inOff, int len)
+    {
+        checkInitialised();
+
+        if (aadFinished)
+        {
+            throw new IllegalStateException("associated data must be added before any data is processed");
+        }
+
+        poly1305.update(in, inOff, len);
+        aadLength += len;
+    }
+
+    public int processByte(byte in, byte[] out, int outOff)
+        throws DataLengthException
+    {
+        singleByte[0] = in;
+
+        return processBytes(singleByte, 0, 1, out, outOff);
+    }
+
+    public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
+        throws DataLengthException
+    {
+        checkInitialised();
+
+        if ((inOff + len) > in.length)
+        {
+            throw new DataLengthException("input buffer too short");
+        }
+
+        finishAAD();
+
+        if (forEncryption)
+        {
+            if ((outOff + len) > out.length)
+            {
+                throw new DataLengthException("output buffer too short");
+            }
+
+            chacha20.processBytes(in, inOff, len, out, outOff);
+            poly1305.update(out, outOff, len);
+            dataLength += len;
+
+            return len;
+        }
+
+        // when decrypting the last MAC_SIZE bytes are always held back as they may be the tag
+        int total = bufOff + len;
+
+        if (total <= MAC_SIZE)
+        {
+            System.arraycopy(in, inOff, bufBlock, bufOff, len);
+            bufOff = total;
+
+            return 0;
+        }
+
+        int resultLen = total - MAC_SIZE;
+
+        if ((outOff + resultLen) > out.length)
+        {
+            throw new DataLengthException("output buffer too short");
+        }
+
+        // buffered bytes which can no longer be part of the tag
+        int fromBuf = Math.min(bufOff, resultLen);
+
+        if (fromBuf > 0)
+        {
+            decrypt(bufBlock, 0, fromBuf, out, outOff);
+            bufOff -= fromBuf;
+            System.arraycopy(bufBlock, fromBuf, bufBlock, 0, bufOff);
+        }
+
+        int fromIn = resultLen - fromBuf;
+
+        if (fromIn > 0)
+        {
+            decrypt(in, inOff, fromIn, out, outOff + fromBuf);
+        }
+
+        System.arraycopy(in, inOff + fromIn, bufBlock, bufOff, len - fromIn);
+        bufOff += len - fromIn;
+
+        return resultLen;
+    }
+
+    private void decrypt(byte[] in, int inOff, int len, byte[] out, int outOff)
+    {
+        poly1305.update(in, inOff, len);
+        chacha20.processBytes(in, inOff, len, out, outOff);
+        dataLength += len;
+    }
+
+    public int doFinal(byte[] out, int outOff)
+        throws IllegalStateException, InvalidCipherTextException
+    {
+        checkInitialised();
+
+        if (!forEncryption && bufOff < MAC_SIZE)
+        {
+            throw new InvalidCipherTextException("data too short");
+        }
+
+        if (forEncryption && (outOff + MAC_SIZE) > out.length)
+        {
+            throw new DataLengthException("output buffer too short");
+        }
+
+        finishAAD();
+        padMac(dataLength);
+        Pack.longToLittleEndian(aadLength, lengths, 0);
+        Pack.longToLittleEndian(dataLength, lengths, 8);
+        poly1305.update(lengths, 0, lengths.length);
+
+        if (macBlock == null)
+        {
+            macBlock = new byte[MAC_SIZE];
+        }
+        poly1305.doFinal(macBlock, 0);
+
+        int resultLen = 0;
+
+        if (forEncryption)
+        {
+            // Append T to the message
+            System.arraycopy(macBlock, 0, out, outOff, MAC_SIZE);
+            resultLen = MAC_SIZE;
+
+            // the key stream for this nonce is used up, a new nonce is needed before going on
+            initialised = false;
+        }
+        else
+        {
+            // Compare the tag at the end of the message to the calculated one, in constant time
+            if (!Arrays.constantTimeAreEqual(macBlock, bufBlock))
+            {
+                reset(false);
+                throw new InvalidCipherTextException("mac check in ChaCha20-Poly1305 failed");
+            }
+        }
+
+        reset(false);
+
+        return resultLen;
+    }
+
+    public void reset()
+    {
+        reset(true);
+    }
+
+    private void reset(boolean clearMac)
+    {
+        if (clearMac)
+        {
+            macBlock = null;
+        }
+
+        bufOff = 0;
+        dataLength = 0;
+        aadLength = 0;
+        aadFinished = false;
+
+        if (!initialised)
+        {
+            return;
+        }
+
+        // block 0 of the key stream gives the Poly1305 key, the data starts at block 1.
+        chacha20.reset();
+        Arrays.fill(polyKey, (byte)0);
+        chacha20.processBytes(polyKey, 0, polyKey.length, polyKey, 0);
+        poly1305.init(new KeyParameter(polyKey, 0, KEY_SIZE));
+        Arrays.fill(polyKey, (byte)0);
+
+        poly1305.update(A, 0, A.length);
+        aadLength = A.length;
+    }
+
+    private void checkInitialised()
+    {
+        if (!initialised)
+        {
+            throw new IllegalStateException("ChaCha20-Poly1305 needs to be initialised with a new nonce");
+        }
+    }
+
+    private void finishAAD()
+    {
+        if (!aadFinished)
+        {
+            padMac(aadLength);
+            aadFinished = true;
+        }
+    }
+
+    private void padMac(long length)
+    {
+        int partial = (int)length & (MAC_SIZE - 1);
+
+        if (partial != 0)
+        {
+            poly1305.update(ZEROES, 0, MAC_SIZE - partial);
+        }
+    }
+}
@@ -39,10 +39,17 @@ public class EAXBlockCipher
     private int blockSize;
 
     private Mac mac;
+    private Mac aadMac;
 
     private byte[] nonceMac;
     private byte[] associatedTextMac;
     private byte[] macBlock;
+
+    // associated text from the parameters, and its MAC, restored by reset()
+    private byte[] initialAssociatedText;
+    private byte[] initialAssociatedTextMac;
+    private boolean aadStreamed;
+    private boolean aadFinished;
     
     private int macSize;
     private byte[] bufBlock;
@@ -57,9 +64,11 @@ public class EAXBlockCipher
     {
         blockSize = cipher.getBlockSize();
         mac = new CMac(cipher);
+        aadMac = new CMac(cipher);
         macBlock = new byte[blockSize];
         bufBlock = new byte[blockSize * 2];
         associatedTextMac = new byte[mac.getMacSize()];
+        initialAssociatedTextMac = new byte[mac.getMacSize()];
         nonceMac = new byte[mac.getMacSize()];
         this.cipher = new SICBlockCipher(cipher);
     }
@@ -116,7 +125,9 @@ public class EAXBlockCipher
         tag[blockSize - 1] = hTAG;
         mac.update(tag, 0, blockSize);
         mac.update(associatedText, 0, associatedText.length);
-        mac.doFinal(associatedTextMac, 0);
+        mac.doFinal(initialAssociatedTextMac, 0);
+        initialAssociatedText = associatedText;
+        aadMac.init(keyParam);
 
         tag[blockSize - 1] = nTAG;
         mac.update(tag, 0, blockSize);
@@ -127,6 +138,55 @@ public class EAXBlockCipher
         mac.update(tag, 0, blockSize);
 
         cipher.init(true, new ParametersWithIV(keyParam, nonceMac));
+
+        reset(true);
+    }
+
+    public void processAADByte(byte in)
+    {
+        startAAD();
+        aadMac.update(in);
+    }
+
+    public void processAADBytes(byte[] in, int inOff, int len)
+    {
+        startAAD();
+        aadMac.update(in, inOff, len);
+    }
+
+    /*
+     * the first streamed associated data means the MAC of the initial text no longer applies,
+     * so start again with the tag and the initial text and carry on from there.
+     */
+    private void startAAD()
+    {
+        if (aadFinished)
+        {
+            throw new IllegalStateException("associated data must be added before any data is processed");
+        }
+
+        if (!aadStreamed)
+        {
+            byte[] tag = new byte[blockSize];
+
+            tag[blockSize - 1] = hTAG;
+            aadMac.reset();
+            aadMac.update(tag, 0, blockSize);
+            aadMac.update(initialAssociatedText, 0, initialAssociatedText.length);
+            aadStreamed = true;
+        }
+    }
+
+    private void finishAAD()
+    {
+        if (!aadFinished)
+        {
+            if (aadStreamed)
+            {
+                aadMac.doFinal(associatedTextMac, 0);
+            }
+            aadFinished = true;
+        }
     }
 
     private void calculateMac()
@@ -159,6 +219,10 @@ public class EAXBlockCipher
             Arrays.fill(macBlock, (byte)0);
         }
 
+        System.arraycopy(initialAssociatedTextMac, 0, associatedTextMac, 0, associatedTextMac.length);
+        aadStreamed = false;
+        aadFinished = false;
+
         byte[] tag = new byte[blockSize];
         tag[blockSize - 1] = cTAG;
         mac.update(tag, 0, blockSize);
@@ -186,6 +250,8 @@ public class EAXBlockCipher
     public int doFinal(byte[] out, int outOff)
         throws IllegalStateException, InvalidCipherTextException
     {
+        finishAAD();
+
         int extra = bufOff;
         byte[] tmp = new byte[bufBlock.length];
 
@@ -261,6 +327,8 @@ public class EAXBlockCipher
 
     private int process(byte b, byte[] out, int outOff)
     {
+        finishAAD();
+
         bufBlock[bufOff++] = b;
 
         if (bufOff == bufBlock.length)
@@ -1,11 +1,22 @@
 package org.spongycastle.crypto.modes;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import org.spongycastle.crypto.BlockCipher;
 import org.spongycastle.crypto.CipherParameters;
 import org.spongycastle.crypto.DataLengthException;
 import org.spongycastle.crypto.InvalidCipherTextException;
+import org.spongycastle.crypto.MultiBlockCipher;
+import org.spongycastle.crypto.modes.gcm.BasicGCMMultiplier;
+import org.spongycastle.crypto.modes.gcm.GCMExponentiator;
 import org.spongycastle.crypto.modes.gcm.GCMMultiplier;
-import org.spongycastle.crypto.modes.gcm.Tables8kGCMMultiplier;
+import org.spongycastle.crypto.modes.gcm.GCMMultiplierPolicy;
+import org.spongycastle.crypto.modes.gcm.Tables1kGCMExponentiator;
 import org.spongycastle.crypto.params.AEADParameters;
 import org.spongycastle.crypto.params.KeyParameter;
 import org.spongycastle.crypto.params.ParametersWithIV;
@@ -15,17 +26,32 @@ import org.spongycastle.util.Arrays;
 /**
  * Implements the Galois/Counter mode (GCM) detailed in
  * NIST Special Publication 800-38D.
+ * <p>
+ * If constructed with an ExecutorService and several cipher instances, large
+ * processBytes() calls are split into chunks which are encrypted and hashed
+ * concurrently. Each chunk's partial GHASH is then folded into the running
+ * hash by multiplying by the appropriate power of H, so the output is the
+ * same as the serial mode.
  */
 public class GCMBlockCipher
     implements AEADBlockCipher
 {
     private static final int BLOCK_SIZE = 16;
     private static final byte[] ZEROES = new byte[BLOCK_SIZE];
+    // number of counter blocks encrypted together on the bulk path.
+    private static final int BATCH_BLOCKS = 16;
+    // minimum number of blocks handed to a single worker on the parallel path.
+    private static final int MIN_BLOCKS_PER_TASK = 4096;
 
     // not final due to a compiler bug 
     private BlockCipher   cipher;
     private GCMMultiplier multiplier;
 
+    // only set for parallel processing - workerCiphers[0] is cipher
+    private BlockCipher[]       workerCiphers;
+    private ExecutorService     executor;
+    private GCMExponentiator    exponentiator;
+
     // These fields are set by init and not modified by processing
     private boolean             forEncryption;
     private int                 macSize;
@@ -39,10 +65,22 @@ public class GCMBlockCipher
     private byte[]      bufBlock;
     private byte[]      macBlock;
     private byte[]      S;
+    private byte[]      atBlock;
+    private int         atBlockPos;
+    private long        atLength;
+    private boolean     aadFinished;
     private byte[]      counter;
     private int         bufOff;
     private long        totalLength;
 
+    // scratch space for the bulk path, allocated on first use
+    private byte[]      counterBatch;
+    private byte[]      keyStreamBatch;
+
+    // scratch space for single blocks and the final block, so processing doesn't allocate
+    private final byte[] keyStreamBlock = new byte[BLOCK_SIZE];
+    private final byte[] finalBlock = new byte[BLOCK_SIZE];
+
     public GCMBlockCipher(BlockCipher c)
     {
         this(c, null);
@@ -58,14 +96,49 @@ public class GCMBlockCipher
 
         if (m == null)
         {
-            // TODO Consider a static property specifying default multiplier
-            m = new Tables8kGCMMultiplier();
+            m = GCMMultiplierPolicy.createDefault();
         }
 
         this.cipher = c;
         this.multiplier = m;
     }
 
+    /**
+     * Create a GCM cipher which processes large inputs on several threads.
+     * <p>
+     * The multiplier must support concurrent calls to multiplyH() once initialised,
+     * as all the multipliers in org.spongycastle.crypto.modes.gcm do.
+     *
+     * @param ciphers one instance of the block cipher for each worker, the first is
+     * also used for all serial processing.
+     * @param m the GHASH multiplier, may be null for the default.
+     * @param executor the executor the chunks are run on.
+     */
+    public GCMBlockCipher(BlockCipher[] ciphers, GCMMultiplier m, ExecutorService executor)
+    {
+        this(ciphers[0], m);
+
+        for (int i = 1; i < ciphers.length; i++)
+        {
+            if (ciphers[i].getBlockSize() != BLOCK_SIZE)
+            {
+                throw new IllegalArgumentException(
+                    "cipher required with a block size of " + BLOCK_SIZE + ".");
+            }
+
+            for (int j = 0; j != i; j++)
+            {
+                if (ciphers[j] == ciphers[i])
+                {
+                    throw new IllegalArgumentException("each worker requires its own cipher instance");
+                }
+            }
+        }
+
+        this.workerCiphers = (BlockCipher[])ciphers.clone();
+        this.executor = executor;
+    }
+
     public BlockCipher getUnderlyingCipher()
     {
         return cipher;
@@ -133,17 +206,34 @@ public class GCMBlockCipher
         if (keyParam != null)
         {
             cipher.init(true, keyParam);
+
+            if (workerCiphers != null)
+            {
+                for (int i = 1; i < workerCiphers.length; i++)
+                {
+                    workerCiphers[i].init(true, keyParam);
+                }
+            }
         }
 
         // TODO This should be configurable by init parameters
         // (but must be 16 if nonce length not 12) (BLOCK_SIZE?)
 //        this.tagLength = 16;
 
-        this.H = new byte[BLOCK_SIZE];
-        cipher.processBlock(ZEROES, 0, H, 0);
-        multiplier.init(H);
+        byte[] newH = new byte[BLOCK_SIZE];
+        cipher.processBlock(ZEROES, 0, newH, 0);
+
+        // rebuilding the multiplier tables is expensive, only do it if the hash key has changed.
+        if (H == null || !Arrays.constantTimeAreEqual(H, newH))
+        {
+            this.H = newH;
+            multiplier.init(H);
+            this.exponentiator = null;
+        }
 
-        this.initS = gHASH(A);
+        // the whole blocks of A are hashed now, the rest is picked up by reset() as more
+        // associated data may follow it.
+        this.initS = gHASH(A, A.length - (A.length % BLOCK_SIZE));
 
         if (nonce.length == 12)
         {
@@ -162,8 +252,9 @@ public class GCMBlockCipher
 
         this.S = Arrays.clone(initS);
         this.counter = Arrays.clone(J0);
-        this.bufOff = 0;
-        this.totalLength = 0;
+        this.atBlock = new byte[BLOCK_SIZE];
+
+        reset(true);
     }
 
     public byte[] getMac()
@@ -186,36 +277,111 @@ public class GCMBlockCipher
         return ((len + bufOff) / BLOCK_SIZE) * BLOCK_SIZE;
     }
 
+    public void processAADByte(byte in)
+    {
+        if (aadFinished)
+        {
+            throw new IllegalStateException("associated data must be added before any data is processed");
+        }
+
+        atBlock[atBlockPos++] = in;
+        if (atBlockPos == BLOCK_SIZE)
+        {
+            xor(S, atBlock);
+            multiplier.multiplyH(S);
+            atBlockPos = 0;
+        }
+        atLength++;
+    }
+
+    public void processAADBytes(byte[] in, int inOff, int len)
+    {
+        for (int i = 0; i < len; ++i)
+        {
+            processAADByte(in[inOff + i]);
+        }
+    }
+
+    private void finishAAD()
+    {
+        if (!aadFinished)
+        {
+            // the partial block is hashed zero padded
+            if (atBlockPos > 0)
+            {
+                System.arraycopy(ZEROES, atBlockPos, atBlock, atBlockPos, BLOCK_SIZE - atBlockPos);
+                xor(S, atBlock);
+                multiplier.multiplyH(S);
+            }
+            aadFinished = true;
+        }
+    }
+
     public int processByte(byte in, byte[] out, int outOff)
         throws DataLengthException
     {
+        finishAAD();
+
         return process(in, out, outOff);
     }
 
     public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
         throws DataLengthException
     {
-        int resultLen = 0;
+        finishAAD();
+
+        int total = bufOff + len;
 
-        for (int i = 0; i != len; i++)
+        if (total < bufBlock.length)
         {
-//            resultLen += process(in[inOff + i], out, outOff + resultLen);
-            bufBlock[bufOff++] = in[inOff + i];
+            System.arraycopy(in, inOff, bufBlock, bufOff, len);
+            bufOff = total;
 
-            if (bufOff == bufBlock.length)
+            return 0;
+        }
+
+        // when decrypting the last macSize bytes are always held back as they may be the tag
+        int blockCount = (total - (bufBlock.length - BLOCK_SIZE)) / BLOCK_SIZE;
+        int resultLen = 0;
+
+        // blocks which start with buffered data
+        while (bufOff > 0 && blockCount > 0)
+        {
+            if (bufOff >= BLOCK_SIZE)
             {
                 gCTRBlock(bufBlock, BLOCK_SIZE, out, outOff + resultLen);
-                if (!forEncryption)
-                {
-                    System.arraycopy(bufBlock, BLOCK_SIZE, bufBlock, 0, macSize);
-                }
-//              bufOff = 0;
-                bufOff = bufBlock.length - BLOCK_SIZE;
-//              return bufBlock.Length;
-                resultLen += BLOCK_SIZE;
+                bufOff -= BLOCK_SIZE;
+                System.arraycopy(bufBlock, BLOCK_SIZE, bufBlock, 0, bufOff);
+            }
+            else
+            {
+                int fill = BLOCK_SIZE - bufOff;
+
+                System.arraycopy(in, inOff, bufBlock, bufOff, fill);
+                gCTRBlock(bufBlock, BLOCK_SIZE, out, outOff + resultLen);
+                inOff += fill;
+                len -= fill;
+                bufOff = 0;
             }
+
+            resultLen += BLOCK_SIZE;
+            blockCount--;
         }
 
+        // the rest come straight from the input
+        if (blockCount > 0)
+        {
+            int bulkLen = blockCount * BLOCK_SIZE;
+
+            gCTRBlocks(in, inOff, blockCount, out, outOff + resultLen);
+            inOff += bulkLen;
+            len -= bulkLen;
+            resultLen += bulkLen;
+        }
+
+        System.arraycopy(in, inOff, bufBlock, bufOff, len);
+        bufOff += len;
+
         return resultLen;
     }
 
@@ -253,31 +419,37 @@ public class GCMBlockCipher
             extra -= macSize;
         }
 
+        finishAAD();
+
         if (extra > 0)
         {
-            byte[] tmp = new byte[BLOCK_SIZE];
-            System.arraycopy(bufBlock, 0, tmp, 0, extra);
-            gCTRBlock(tmp, extra, out, outOff);
+            // the partial block is hashed zero padded
+            System.arraycopy(bufBlock, 0, finalBlock, 0, extra);
+            System.arraycopy(ZEROES, extra, finalBlock, extra, BLOCK_SIZE - extra);
+            gCTRBlock(finalBlock, extra, out, outOff);
         }
 
         // Final gHASH
-        byte[] X = new byte[16];
-        packLength((long)A.length * 8, X, 0);
-        packLength(totalLength * 8, X, 8);
+        packLength(atLength * 8, finalBlock, 0);
+        packLength(totalLength * 8, finalBlock, 8);
 
-        xor(S, X);
+        xor(S, finalBlock);
         multiplier.multiplyH(S);
 
         // TODO Fix this if tagLength becomes configurable
         // T = MSBt(GCTRk(J0,S))
-        byte[] tag = new byte[BLOCK_SIZE];
+        byte[] tag = finalBlock;
         cipher.processBlock(J0, 0, tag, 0);
         xor(tag, S);
 
         int resultLen = extra;
 
-        // We place into macBlock our calculated value for T
-        this.macBlock = new byte[macSize];
+        // We place into macBlock our calculated value for T - getMac() returns a copy, so
+        // the array can be reused from one message to the next.
+        if (macBlock == null || macBlock.length != macSize)
+        {
+            this.macBlock = new byte[macSize];
+        }
         System.arraycopy(tag, 0, macBlock, 0, macSize);
 
         if (forEncryption)
@@ -288,10 +460,14 @@ public class GCMBlockCipher
         }
         else
         {
-            // Retrieve the T value from the message and compare to calculated one
-            byte[] msgMac = new byte[macSize];
-            System.arraycopy(bufBlock, extra, msgMac, 0, macSize);
-            if (!Arrays.constantTimeAreEqual(this.macBlock, msgMac))
+            // Compare the T value at the end of the message to the calculated one, in constant time
+            int nonEqual = 0;
+            for (int i = 0; i != macSize; i++)
+            {
+                nonEqual |= macBlock[i] ^ bufBlock[extra + i];
+            }
+
+            if (nonEqual != 0)
             {
                 throw new InvalidCipherTextException("mac check in GCM failed");
             }
@@ -310,11 +486,23 @@ public class GCMBlockCipher
     private void reset(
         boolean clearMac)
     {
-        S = Arrays.clone(initS);
-        counter = Arrays.clone(J0);
+        if (S != null)
+        {
+            System.arraycopy(initS, 0, S, 0, BLOCK_SIZE);
+            System.arraycopy(J0, 0, counter, 0, BLOCK_SIZE);
+        }
         bufOff = 0;
         totalLength = 0;
 
+        if (atBlock != null)
+        {
+            // the tail of the associated text from the parameters is the start of the next block
+            atBlockPos = A.length % BLOCK_SIZE;
+            System.arraycopy(A, A.length - atBlockPos, atBlock, 0, atBlockPos);
+            atLength = A.length;
+            aadFinished = false;
+        }
+
         if (bufBlock != null)
         {
             Arrays.fill(bufBlock, (byte)0);
@@ -330,19 +518,9 @@ public class GCMBlockCipher
 
     private void gCTRBlock(byte[] buf, int bufCount, byte[] out, int outOff)
     {
-//        inc(counter);
-        for (int i = 15; i >= 12; --i)
-        {
-            byte b = (byte)((counter[i] + 1) & 0xff);
-            counter[i] = b;
+        inc(counter);
 
-            if (b != 0)
-            {
-                break;
-            }
-        }
-
-        byte[] tmp = new byte[BLOCK_SIZE];
+        byte[] tmp = keyStreamBlock;
         cipher.processBlock(counter, 0, tmp, 0);
 
         byte[] hashBytes;
@@ -369,14 +547,274 @@ public class GCMBlockCipher
         totalLength += bufCount;
     }
 
+    /**
+     * Process blockCount complete blocks, in parallel if an executor is available and
+     * there is enough work to make it worthwhile.
+     */
+    private void gCTRBlocks(byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+    {
+        int taskCount = (executor == null) ? 1 : Math.min(workerCiphers.length, blockCount / MIN_BLOCKS_PER_TASK);
+
+        // chunks can only run concurrently if they cannot overwrite each other's input
+        if (taskCount > 1 && !(in == out && inOff != outOff))
+        {
+            gCTRBlocksParallel(taskCount, in, inOff, blockCount, out, outOff);
+        }
+        else
+        {
+            if (counterBatch == null)
+            {
+                counterBatch = new byte[BATCH_BLOCKS * BLOCK_SIZE];
+                keyStreamBatch = new byte[BATCH_BLOCKS * BLOCK_SIZE];
+            }
+
+            gCTRBlocks(cipher, multiplier, forEncryption, counter, S, counterBatch, keyStreamBatch,
+                in, inOff, blockCount, out, outOff);
+        }
+
+        totalLength += blockCount * BLOCK_SIZE;
+    }
+
+    /**
+     * Split blockCount blocks into taskCount chunks, each of which is encrypted and hashed
+     * from a zero GHASH state on its own worker. The partial hashes are then combined in order
+     * using S = S * H^n + P, where n is the number of blocks in the chunk and P its partial hash.
+     */
+    private void gCTRBlocksParallel(int taskCount, byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+    {
+        int blocksPerTask = blockCount / taskCount;
+        int firstBlocks = blockCount - blocksPerTask * (taskCount - 1);
+        List<Future<byte[]>> tasks = new ArrayList<Future<byte[]>>(taskCount - 1);
+
+        for (int i = 1; i != taskCount; i++)
+        {
+            int startBlock = firstBlocks + (i - 1) * blocksPerTask;
+            byte[] chunkCounter = Arrays.clone(counter);
+
+            addToCounter(chunkCounter, startBlock);
+
+            tasks.add(executor.submit(new GCTRTask(workerCiphers[i], multiplier, forEncryption, chunkCounter,
+                in, inOff + startBlock * BLOCK_SIZE, blocksPerTask, out, outOff + startBlock * BLOCK_SIZE)));
+        }
+
+        RuntimeException failure = null;
+        byte[] firstHash = null;
+
+        try
+        {
+            firstHash = new GCTRTask(cipher, multiplier, forEncryption, Arrays.clone(counter),
+                in, inOff, firstBlocks, out, outOff).call();
+        }
+        catch (RuntimeException e)
+        {
+            failure = e;
+        }
+
+        // always wait for every task, the workers can't be reused until they are finished.
+        byte[][] hashes = new byte[taskCount][];
+
+        hashes[0] = firstHash;
+
+        for (int i = 0; i != tasks.size(); i++)
+        {
+            try
+            {
+                hashes[i + 1] = tasks.get(i).get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                if (failure == null)
+                {
+                    failure = new IllegalStateException("interrupted waiting for GCM worker");
+                }
+            }
+            catch (ExecutionException e)
+            {
+                if (failure == null)
+                {
+                    Throwable cause = e.getCause();
+
+                    failure = (cause instanceof RuntimeException) ? (RuntimeException)cause : new IllegalStateException(e);
+                }
+            }
+        }
+
+        if (failure != null)
+        {
+            throw failure;
+        }
+
+        multiplyHPow(S, firstBlocks);
+        xor(S, hashes[0]);
+
+        if (taskCount > 1)
+        {
+            GCMMultiplier chunkMultiplier = hPowMultiplier(blocksPerTask);
+
+            for (int i = 1; i != taskCount; i++)
+            {
+                chunkMultiplier.multiplyH(S);
+                xor(S, hashes[i]);
+            }
+        }
+
+        addToCounter(counter, blockCount);
+    }
+
+    private void multiplyHPow(byte[] x, long pow)
+    {
+        hPowMultiplier(pow).multiplyH(x);
+    }
+
+    private GCMMultiplier hPowMultiplier(long pow)
+    {
+        if (exponentiator == null)
+        {
+            exponentiator = new Tables1kGCMExponentiator();
+            exponentiator.init(H);
+        }
+
+        byte[] hPow = new byte[BLOCK_SIZE];
+        exponentiator.exponentiateX(pow, hPow);
+
+        GCMMultiplier m = new BasicGCMMultiplier();
+        m.init(hPow);
+
+        return m;
+    }
+
+    /**
+     * Process blockCount complete blocks, encrypting the counter blocks in batches
+     * (as a single call if the cipher is a MultiBlockCipher) and accumulating the
+     * GHASH of the cipher text into S.
+     */
+    private static void gCTRBlocks(
+        BlockCipher     cipher,
+        GCMMultiplier   multiplier,
+        boolean         forEncryption,
+        byte[]          counter,
+        byte[]          S,
+        byte[]          counterBatch,
+        byte[]          keyStreamBatch,
+        byte[]          in,
+        int             inOff,
+        int             blockCount,
+        byte[]          out,
+        int             outOff)
+    {
+        int len = blockCount * BLOCK_SIZE;
+
+        for (int done = 0; done < len;)
+        {
+            int chunk = Math.min(len - done, counterBatch.length);
+
+            for (int off = 0; off != chunk; off += BLOCK_SIZE)
+            {
+                inc(counter);
+                System.arraycopy(counter, 0, counterBatch, off, BLOCK_SIZE);
+            }
+
+            if (cipher instanceof MultiBlockCipher)
+            {
+                ((MultiBlockCipher)cipher).processBlocks(counterBatch, 0, chunk / BLOCK_SIZE, keyStreamBatch, 0);
+            }
+            else
+            {
+                for (int off = 0; off != chunk; off += BLOCK_SIZE)
+                {
+                    cipher.processBlock(counterBatch, off, keyStreamBatch, off);
+                }
+            }
+
+            for (int off = 0; off != chunk; off += BLOCK_SIZE)
+            {
+                int inPos = inOff + done + off;
+                int outPos = outOff + done + off;
+
+                if (forEncryption)
+                {
+                    for (int i = 0; i != BLOCK_SIZE; i++)
+                    {
+                        out[outPos + i] = (byte)(keyStreamBatch[off + i] ^ in[inPos + i]);
+                    }
+
+                    xor(S, out, outPos);
+                }
+                else
+                {
+                    // hash the cipher text first, in case in and out are the same
+                    xor(S, in, inPos);
+
+                    for (int i = 0; i != BLOCK_SIZE; i++)
+                    {
+                        out[outPos + i] = (byte)(keyStreamBatch[off + i] ^ in[inPos + i]);
+                    }
+                }
+
+                multiplier.multiplyH(S);
+            }
+
+            done += chunk;
+        }
+    }
+
+    /**
+     * Encrypts and hashes one chunk of a parallel call, returning the chunk's GHASH
+     * calculated from a zero starting value.
+     */
+    private static class GCTRTask
+        implements Callable<byte[]>
+    {
+        private final BlockCipher cipher;
+        private final GCMMultiplier multiplier;
+        private final boolean forEncryption;
+        private final byte[] counter;
+        private final byte[] in;
+        private final int inOff;
+        private final int blockCount;
+        private final byte[] out;
+        private final int outOff;
+
+        GCTRTask(BlockCipher cipher, GCMMultiplier multiplier, boolean forEncryption, byte[] counter,
+            byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+        {
+            this.cipher = cipher;
+            this.multiplier = multiplier;
+            this.forEncryption = forEncryption;
+            this.counter = counter;
+            this.in = in;
+            this.inOff = inOff;
+            this.blockCount = blockCount;
+            this.out = out;
+            this.outOff = outOff;
+        }
+
+        public byte[] call()
+        {
+            byte[] hash = new byte[BLOCK_SIZE];
+
+            gCTRBlocks(cipher, multiplier, forEncryption, counter, hash,
+                new byte[BATCH_BLOCKS * BLOCK_SIZE], new byte[BATCH_BLOCKS * BLOCK_SIZE],
+                in, inOff, blockCount, out, outOff);
+
+            return hash;
+        }
+    }
+
     private byte[] gHASH(byte[] b)
+    {
+        return gHASH(b, b.length);
+    }
+
+    private byte[] gHASH(byte[] b, int len)
     {
         byte[] Y = new byte[16];
 
-        for (int pos = 0; pos < b.length; pos += 16)
+        for (int pos = 0; pos < len; pos += 16)
         {
             byte[] X = new byte[16];
-            int num = Math.min(b.length - pos, 16);
+            int num = Math.min(len - pos, 16);
             System.arraycopy(b, pos, X, 0, num);
             xor(Y, X);
             multiplier.multiplyH(Y);
@@ -391,19 +829,27 @@ public class GCMBlockCipher
 //        multiplier.multiplyH(S);
 //    }
 
-//    private static void inc(byte[] block)
-//    {
-//        for (int i = 15; i >= 12; --i)
-//        {
-//            byte b = (byte)((block[i] + 1) & 0xff);
-//            block[i] = b;
-//
-//            if (b != 0)
-//            {
-//                break;
-//            }
-//        }
-//    }
+    private static void inc(byte[] block)
+    {
+        for (int i = 15; i >= 12; --i)
+        {
+            byte b = (byte)((block[i] + 1) & 0xff);
+            block[i] = b;
+
+            if (b != 0)
+            {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Add n to the 32 bit counter held in the last 4 bytes of block, as repeated calls to inc() would.
+     */
+    private static void addToCounter(byte[] block, int n)
+    {
+        Pack.intToBigEndian(Pack.bigEndianToInt(block, 12) + n, block, 12);
+    }
 
     private static void xor(byte[] block, byte[] val)
     {
@@ -413,6 +859,14 @@ public class GCMBlockCipher
         }
     }
 
+    private static void xor(byte[] block, byte[] val, int valOff)
+    {
+        for (int i = 15; i >= 0; --i)
+        {
+            block[i] ^= val[valOff + i];
+        }
+    }
+
     private static void packLength(long count, byte[] bs, int off)
     {
         Pack.intToBigEndian((int)(count >>> 32), bs, off); 
@@ -0,0 +1,312 @@
+package org.spongycastle.crypto.modes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.spongycastle.crypto.BlockCipher;
+import org.spongycastle.crypto.CipherParameters;
+import org.spongycastle.crypto.DataLengthException;
+import org.spongycastle.crypto.MultiBlockCipher;
+import org.spongycastle.crypto.params.ParametersWithIV;
+
+/**
+ * Implements the Segmented Integer Counter (SIC) mode, splitting large runs of
+ * blocks into counter aligned chunks which are processed concurrently on an
+ * ExecutorService. The output is identical to SICBlockCipher.
+ * <p>
+ * Each worker needs its own instance of the underlying block cipher, so the
+ * cipher is passed in as an array of (uninitialised) engines of the same
+ * algorithm - the number of engines sets the maximum number of chunks a call
+ * is split into. The first engine is always used on the calling thread.
+ * <p>
+ * Like the other modes, instances of this class must not be shared between
+ * threads.
+ */
+public class ParallelSICBlockCipher
+    implements MultiBlockCipher
+{
+    /**
+     * default minimum number of blocks given to a single worker.
+     */
+    public static final int DEFAULT_MIN_BLOCKS_PER_TASK = 4096;
+
+    private final SICBlockCipher[]  workers;
+    private final ExecutorService   executor;
+    private final int               blockSize;
+    private final int               minBlocksPerTask;
+
+    private byte[]                  IV;
+    private byte[]                  counter;
+
+    /**
+     * Basic constructor.
+     *
+     * @param ciphers one instance of the block cipher for each worker.
+     * @param executor the executor the chunks are run on.
+     */
+    public ParallelSICBlockCipher(BlockCipher[] ciphers, ExecutorService executor)
+    {
+        this(ciphers, executor, DEFAULT_MIN_BLOCKS_PER_TASK);
+    }
+
+    /**
+     * Constructor specifying the smallest amount of work worth handing to another thread.
+     *
+     * @param ciphers one instance of the block cipher for each worker.
+     * @param executor the executor the chunks are run on.
+     * @param minBlocksPerTask the minimum number of blocks processed by a single worker.
+     */
+    public ParallelSICBlockCipher(BlockCipher[] ciphers, ExecutorService executor, int minBlocksPerTask)
+    {
+        if (ciphers.length < 1)
+        {
+            throw new IllegalArgumentException("at least one cipher required");
+        }
+        if (minBlocksPerTask < 1)
+        {
+            throw new IllegalArgumentException("minBlocksPerTask must be at least 1");
+        }
+
+        this.workers = new SICBlockCipher[ciphers.length];
+        this.executor = executor;
+        this.blockSize = ciphers[0].getBlockSize();
+        this.minBlocksPerTask = minBlocksPerTask;
+
+        for (int i = 0; i != ciphers.length; i++)
+        {
+            if (ciphers[i].getBlockSize() != blockSize)
+            {
+                throw new IllegalArgumentException("all ciphers must have the same block size");
+            }
+
+            for (int j = 0; j != i; j++)
+            {
+                if (ciphers[j] == ciphers[i])
+                {
+                    throw new IllegalArgumentException("each worker requires its own cipher instance");
+                }
+            }
+
+            workers[i] = new SICBlockCipher(ciphers[i]);
+        }
+
+        this.IV = new byte[blockSize];
+        this.counter = new byte[blockSize];
+    }
+
+    /**
+     * return the underlying block cipher used on the calling thread.
+     *
+     * @return the underlying block cipher used on the calling thread.
+     */
+    public BlockCipher getUnderlyingCipher()
+    {
+        return workers[0].getUnderlyingCipher();
+    }
+
+    public void init(
+        boolean             forEncryption, //ignored by this CTR mode
+        CipherParameters    params)
+        throws IllegalArgumentException
+    {
+        if (params instanceof ParametersWithIV)
+        {
+            ParametersWithIV ivParam = (ParametersWithIV)params;
+            byte[]           iv      = ivParam.getIV();
+
+            System.arraycopy(iv, 0, IV, 0, IV.length);
+
+            for (int i = 0; i != workers.length; i++)
+            {
+                workers[i].init(true, params);
+            }
+
+            reset();
+        }
+        else
+        {
+            throw new IllegalArgumentException("SIC mode requires ParametersWithIV");
+        }
+    }
+
+    public String getAlgorithmName()
+    {
+        return workers[0].getAlgorithmName();
+    }
+
+    public int getBlockSize()
+    {
+        return blockSize;
+    }
+
+    public int processBlock(byte[] in, int inOff, byte[] out, int outOff)
+        throws DataLengthException, IllegalStateException
+    {
+        return processBlocks(in, inOff, 1, out, outOff);
+    }
+
+    public int processBlocks(byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+        throws DataLengthException, IllegalStateException
+    {
+        int len = blockCount * blockSize;
+
+        if (blockCount < 0 || (inOff + len) > in.length)
+        {
+            throw new DataLengthException("input buffer too short");
+        }
+
+        if ((outOff + len) > out.length)
+        {
+            throw new DataLengthException("output buffer too short");
+        }
+
+        int taskCount = Math.min(workers.length, blockCount / minBlocksPerTask);
+
+        // chunks can only run concurrently if they cannot overwrite each other's input
+        if (in == out && inOff != outOff)
+        {
+            taskCount = 1;
+        }
+
+        if (taskCount <= 1)
+        {
+            processChunk(workers[0], counter, in, inOff, blockCount, out, outOff);
+        }
+        else
+        {
+            processParallel(taskCount, in, inOff, blockCount, out, outOff);
+        }
+
+        addToCounter(counter, blockCount);
+
+        return len;
+    }
+
+    public void reset()
+    {
+        System.arraycopy(IV, 0, counter, 0, counter.length);
+
+        for (int i = 0; i != workers.length; i++)
+        {
+            workers[i].reset();
+        }
+    }
+
+    private void processParallel(int taskCount, byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+    {
+        int blocksPerTask = blockCount / taskCount;
+        List<Future<Integer>> tasks = new ArrayList<Future<Integer>>(taskCount - 1);
+
+        // the first chunk is left for the calling thread, the rest go to the executor
+        int firstBlocks = blockCount - blocksPerTask * (taskCount - 1);
+
+        for (int i = 1; i != taskCount; i++)
+        {
+            int startBlock = firstBlocks + (i - 1) * blocksPerTask;
+            byte[] chunkCounter = new byte[blockSize];
+
+            System.arraycopy(counter, 0, chunkCounter, 0, blockSize);
+            addToCounter(chunkCounter, startBlock);
+
+            tasks.add(executor.submit(new ChunkTask(workers[i], chunkCounter,
+                in, inOff + startBlock * blockSize, blocksPerTask, out, outOff + startBlock * blockSize)));
+        }
+
+        RuntimeException failure = null;
+
+        try
+        {
+            processChunk(workers[0], counter, in, inOff, firstBlocks, out, outOff);
+        }
+        catch (RuntimeException e)
+        {
+            failure = e;
+        }
+
+        // always wait for every task, the workers can't be reused until they are finished.
+        for (int i = 0; i != tasks.size(); i++)
+        {
+            try
+            {
+                tasks.get(i).get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                if (failure == null)
+                {
+                    failure = new IllegalStateException("interrupted waiting for SIC worker");
+                }
+            }
+            catch (ExecutionException e)
+            {
+                if (failure == null)
+                {
+                    Throwable cause = e.getCause();
+
+                    failure = (cause instanceof RuntimeException) ? (RuntimeException)cause : new IllegalStateException(e);
+                }
+            }
+        }
+
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+
+    private static void processChunk(SICBlockCipher worker, byte[] chunkCounter, byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+    {
+        // a null key parameter changes the counter only
+        worker.init(true, new ParametersWithIV(null, chunkCounter));
+        worker.processBlocks(in, inOff, blockCount, out, outOff);
+    }
+
+    /**
+     * Add n to the big endian counter ctr, carrying across the full block as SICBlockCipher does.
+     */
+    private static void addToCounter(byte[] ctr, long n)
+    {
+        for (int i = ctr.length - 1; i >= 0 && n != 0; i--)
+        {
+            long x = (ctr[i] & 0xff) + (n & 0xff);
+
+            ctr[i] = (byte)x;
+            n = (n >>> 8) + (x >>> 8);
+        }
+    }
+
+    private static class ChunkTask
+        implements Callable<Integer>
+    {
+        private final SICBlockCipher worker;
+        private final byte[] chunkCounter;
+        private final byte[] in;
+        private final int inOff;
+        private final int blockCount;
+        private final byte[] out;
+        private final int outOff;
+
+        ChunkTask(SICBlockCipher worker, byte[] chunkCounter, byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+        {
+            this.worker = worker;
+            this.chunkCounter = chunkCounter;
+            this.in = in;
+            this.inOff = inOff;
+            this.blockCount = blockCount;
+            this.out = out;
+            this.outOff = outOff;
+        }
+
+        public Integer call()
+        {
+            processChunk(worker, chunkCounter, in, inOff, blockCount, out, outOff);
+
+            return Integer.valueOf(blockCount);
+        }
+    }
+}
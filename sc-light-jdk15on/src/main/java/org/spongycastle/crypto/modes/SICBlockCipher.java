@@ -3,20 +3,26 @@ package org.spongycastle.crypto.modes;
 import org.spongycastle.crypto.BlockCipher;
 import org.spongycastle.crypto.CipherParameters;
 import org.spongycastle.crypto.DataLengthException;
+import org.spongycastle.crypto.MultiBlockCipher;
 import org.spongycastle.crypto.params.ParametersWithIV;
 
 /**
  * Implements the Segmented Integer Counter (SIC) mode on top of a simple
  * block cipher. This mode is also known as CTR mode.
  */
-public class SICBlockCipher implements BlockCipher
+public class SICBlockCipher implements MultiBlockCipher
 {
+    // number of counter blocks handed to a MultiBlockCipher at a time.
+    private static final int BATCH_BLOCKS = 16;
+
     private final BlockCipher     cipher;
     private final int             blockSize;
     
     private byte[]          IV;
     private byte[]          counter;
     private byte[]          counterOut;
+    private byte[]          counterBatch;
+    private byte[]          keyStreamBatch;
 
 
     /**
@@ -94,6 +100,73 @@ public class SICBlockCipher implements BlockCipher
           out[outOff + i] = (byte)(counterOut[i] ^ in[inOff + i]);
         }
 
+        incrementCounter();
+
+        return counter.length;
+    }
+
+    /**
+     * Process blockCount blocks, generating the key stream for up to BATCH_BLOCKS
+     * blocks at a time if the underlying cipher is a MultiBlockCipher.
+     */
+    public int processBlocks(byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+        throws DataLengthException, IllegalStateException
+    {
+        int len = blockCount * blockSize;
+
+        if (blockCount < 0 || (inOff + len) > in.length)
+        {
+            throw new DataLengthException("input buffer too short");
+        }
+
+        if ((outOff + len) > out.length)
+        {
+            throw new DataLengthException("output buffer too short");
+        }
+
+        if (!(cipher instanceof MultiBlockCipher))
+        {
+            for (int i = 0; i != len; i += blockSize)
+            {
+                processBlock(in, inOff + i, out, outOff + i);
+            }
+
+            return len;
+        }
+
+        if (counterBatch == null)
+        {
+            counterBatch = new byte[BATCH_BLOCKS * blockSize];
+            keyStreamBatch = new byte[BATCH_BLOCKS * blockSize];
+        }
+
+        MultiBlockCipher multiCipher = (MultiBlockCipher)cipher;
+
+        for (int done = 0; done < len;)
+        {
+            int chunk = Math.min(len - done, counterBatch.length);
+
+            for (int off = 0; off != chunk; off += blockSize)
+            {
+                System.arraycopy(counter, 0, counterBatch, off, blockSize);
+                incrementCounter();
+            }
+
+            multiCipher.processBlocks(counterBatch, 0, chunk / blockSize, keyStreamBatch, 0);
+
+            for (int i = 0; i != chunk; i++)
+            {
+                out[outOff + done + i] = (byte)(keyStreamBatch[i] ^ in[inOff + done + i]);
+            }
+
+            done += chunk;
+        }
+
+        return len;
+    }
+
+    private void incrementCounter()
+    {
         int    carry = 1;
         
         for (int i = counter.length - 1; i >= 0; i--)
@@ -111,8 +184,6 @@ public class SICBlockCipher implements BlockCipher
             
             counter[i] = (byte)x;
         }
-
-        return counter.length;
     }
 
 
@@ -0,0 +1,138 @@
+package org.spongycastle.crypto.modes.gcm;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.spongycastle.util.Arrays;
+
+/**
+ * A GCMMultiplier which shares initialised multipliers between instances through a
+ * bounded, least recently used cache keyed by H.
+ * <p>
+ * The multipliers in this package only read their tables in multiplyH(), so once
+ * initialised they can be used by any number of threads. Cached instances are never
+ * initialised again - a new H always results in a new instance.
+ */
+public class CachingGCMMultiplier
+    implements GCMMultiplier
+{
+    private static final Map cache = new LinkedHashMap(16, 0.75f, true);
+
+    private final String type;
+
+    private GCMMultiplier multiplier;
+
+    /**
+     * Create a caching multiplier for tables of the passed in type.
+     *
+     * @param type the type of multiplier, as given to GCMMultiplierPolicy.create().
+     */
+    public CachingGCMMultiplier(String type)
+    {
+        this.type = type;
+
+        // check the type early rather than on init
+        GCMMultiplierPolicy.create(type);
+    }
+
+    public void init(byte[] H)
+    {
+        int maxSize = GCMMultiplierPolicy.getTableCacheSize();
+        CacheKey key = new CacheKey(type, H);
+
+        if (maxSize > 0)
+        {
+            synchronized (cache)
+            {
+                GCMMultiplier m = (GCMMultiplier)cache.get(key);
+
+                if (m != null)
+                {
+                    multiplier = m;
+                    return;
+                }
+            }
+        }
+
+        // build the tables outside the lock - a race just means one of the copies is discarded.
+        GCMMultiplier m = GCMMultiplierPolicy.create(type);
+
+        m.init(H);
+
+        if (maxSize > 0)
+        {
+            synchronized (cache)
+            {
+                GCMMultiplier existing = (GCMMultiplier)cache.get(key);
+
+                if (existing != null)
+                {
+                    m = existing;
+                }
+                else
+                {
+                    cache.put(key, m);
+                    trim(maxSize);
+                }
+            }
+        }
+
+        multiplier = m;
+    }
+
+    public void multiplyH(byte[] x)
+    {
+        multiplier.multiplyH(x);
+    }
+
+    static void trimCache(int maxSize)
+    {
+        synchronized (cache)
+        {
+            trim(maxSize);
+        }
+    }
+
+    private static void trim(int maxSize)
+    {
+        Iterator it = cache.entrySet().iterator();
+
+        for (int excess = cache.size() - maxSize; excess > 0; excess--)
+        {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private static class CacheKey
+    {
+        private final String type;
+        private final byte[] H;
+        private final int hashCode;
+
+        CacheKey(String type, byte[] H)
+        {
+            this.type = type;
+            this.H = Arrays.clone(H);
+            this.hashCode = type.hashCode() ^ Arrays.hashCode(H);
+        }
+
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof CacheKey))
+            {
+                return false;
+            }
+
+            CacheKey other = (CacheKey)o;
+
+            return type.equals(other.type) && Arrays.constantTimeAreEqual(H, other.H);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.spongycastle.crypto.modes.gcm;
+
+/**
+ * Selects the GCMMultiplier used by GCMBlockCipher when none is passed in.
+ * <p>
+ * The multiplier type can be set with the system property "org.spongycastle.gcm.multiplier",
+ * which may be one of "basic" (no tables), "8k" (the default) or "64k". Setting the system property
+ * "org.spongycastle.gcm.table_cache_size" to a positive value enables a VM wide cache of that
+ * many initialised multipliers, keyed by the hash subkey H, so repeated initialisation of GCM with
+ * the same key does not rebuild the tables. Note that cached tables are derived from the key and
+ * stay in memory until evicted, so only enable the cache where that is acceptable.
+ * <p>
+ * Both settings can also be changed at run time, affecting GCM ciphers created afterwards.
+ */
+public final class GCMMultiplierPolicy
+{
+    public static final String BASIC = "basic";
+    public static final String TABLES_8K = "8k";
+    public static final String TABLES_64K = "64k";
+
+    public static final String MULTIPLIER_PROPERTY = "org.spongycastle.gcm.multiplier";
+    public static final String TABLE_CACHE_SIZE_PROPERTY = "org.spongycastle.gcm.table_cache_size";
+
+    private static volatile String defaultType = TABLES_8K;
+    private static volatile int tableCacheSize = 0;
+
+    static
+    {
+        try
+        {
+            String type = System.getProperty(MULTIPLIER_PROPERTY);
+
+            if (type != null)
+            {
+                defaultType = checkType(type.trim());
+            }
+
+            String size = System.getProperty(TABLE_CACHE_SIZE_PROPERTY);
+
+            if (size != null)
+            {
+                tableCacheSize = Math.max(0, Integer.parseInt(size.trim()));
+            }
+        }
+        catch (SecurityException e)
+        {
+            // no access to the properties - use the defaults.
+        }
+        catch (IllegalArgumentException e)
+        {
+            // badly formed property - use the defaults.
+        }
+    }
+
+    private GCMMultiplierPolicy()
+    {
+    }
+
+    /**
+     * Return a new multiplier as specified by the current policy.
+     *
+     * @return an uninitialised GCMMultiplier.
+     */
+    public static GCMMultiplier createDefault()
+    {
+        String type = defaultType;
+
+        if (tableCacheSize > 0)
+        {
+            return new CachingGCMMultiplier(type);
+        }
+
+        return create(type);
+    }
+
+    /**
+     * Return a new multiplier of the passed in type.
+     *
+     * @param type one of BASIC, TABLES_8K or TABLES_64K.
+     * @return an uninitialised GCMMultiplier.
+     */
+    public static GCMMultiplier create(String type)
+    {
+        if (type.equals(BASIC))
+        {
+            return new BasicGCMMultiplier();
+        }
+        if (type.equals(TABLES_8K))
+        {
+            return new Tables8kGCMMultiplier();
+        }
+        if (type.equals(TABLES_64K))
+        {
+            return new Tables64kGCMMultiplier();
+        }
+
+        throw new IllegalArgumentException("unknown GCM multiplier type: " + type);
+    }
+
+    public static String getDefaultType()
+    {
+        return defaultType;
+    }
+
+    /**
+     * Set the type of multiplier created by default.
+     *
+     * @param type one of BASIC, TABLES_8K or TABLES_64K.
+     */
+    public static void setDefaultType(String type)
+    {
+        defaultType = checkType(type);
+    }
+
+    public static int getTableCacheSize()
+    {
+        return tableCacheSize;
+    }
+
+    /**
+     * Set the maximum number of initialised multipliers kept in the VM wide cache,
+     * 0 disables (and empties) the cache.
+     *
+     * @param size the number of entries to keep.
+     */
+    public static void setTableCacheSize(int size)
+    {
+        if (size < 0)
+        {
+            throw new IllegalArgumentException("cache size cannot be negative");
+        }
+
+        tableCacheSize = size;
+        CachingGCMMultiplier.trimCache(size);
+    }
+
+    private static String checkType(String type)
+    {
+        if (!type.equals(BASIC) && !type.equals(TABLES_8K) && !type.equals(TABLES_64K))
+        {
+            throw new IllegalArgumentException("unknown GCM multiplier type: " + type);
+        }
+
+        return type;
+    }
+}
@@ -56,17 +56,22 @@ public class Tables64kGCMMultiplier
     {
 //      assert x.Length == 16;
 
-        int[] z = new int[4];
+        // accumulate in locals - this is called per block, and instances may be shared (see
+        // CachingGCMMultiplier), so there is no per call array or shared scratch space.
+        int z0 = 0, z1 = 0, z2 = 0, z3 = 0;
         for (int i = 15; i >= 0; --i)
         {
 //            GCMUtil.xor(z, M[i][x[i] & 0xff]);
             int[] m = M[i][x[i] & 0xff];
-            z[0] ^= m[0];
-            z[1] ^= m[1];
-            z[2] ^= m[2];
-            z[3] ^= m[3];
+            z0 ^= m[0];
+            z1 ^= m[1];
+            z2 ^= m[2];
+            z3 ^= m[3];
         }
 
-        Pack.intToBigEndian(z, x, 0);
+        Pack.intToBigEndian(z0, x, 0);
+        Pack.intToBigEndian(z1, x, 4);
+        Pack.intToBigEndian(z2, x, 8);
+        Pack.intToBigEndian(z3, x, 12);
     }
 }
@@ -0,0 +1,45 @@
+package org.spongycastle.crypto.params;
+
+import java.math.BigInteger;
+
+/**
+ * A pair of blinding factors for an RSA private key operation: r^e mod n, applied to the input,
+ * and r^-1 mod n, applied to the result. Instances are cached on an RSAPrivateCrtKeyParameters
+ * between operations by RSABlindedEngine.
+ */
+public class RSABlindingFactors
+{
+    private final BigInteger blind;
+    private final BigInteger unblind;
+    private final int        useCount;
+
+    /**
+     * @param blind r^e mod n.
+     * @param unblind r^-1 mod n.
+     * @param useCount number of operations the pair has been derived through since r was chosen.
+     */
+    public RSABlindingFactors(
+        BigInteger blind,
+        BigInteger unblind,
+        int        useCount)
+    {
+        this.blind = blind;
+        this.unblind = unblind;
+        this.useCount = useCount;
+    }
+
+    public BigInteger getBlind()
+    {
+        return blind;
+    }
+
+    public BigInteger getUnblind()
+    {
+        return unblind;
+    }
+
+    public int getUseCount()
+    {
+        return useCount;
+    }
+}
@@ -1,6 +1,7 @@
 package org.spongycastle.crypto.params;
 
 import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class RSAPrivateCrtKeyParameters
     extends RSAKeyParameters
@@ -12,6 +13,8 @@ public class RSAPrivateCrtKeyParameters
     private BigInteger  dQ;
     private BigInteger  qInv;
 
+    private final AtomicReference<RSABlindingFactors> blindingFactors = new AtomicReference<RSABlindingFactors>();
+
     /**
      * 
      */
@@ -64,4 +67,26 @@ public class RSAPrivateCrtKeyParameters
     {
         return qInv;
     }
+
+    /**
+     * Remove and return the blinding factors cached against this key. Only one caller can hold
+     * them at a time, others get null and have to create their own.
+     *
+     * @return the cached blinding factors, null if there are none available.
+     */
+    public RSABlindingFactors takeBlindingFactors()
+    {
+        return blindingFactors.getAndSet(null);
+    }
+
+    /**
+     * Cache blinding factors for the next private key operation with this key. The factors
+     * passed in must not have been used already.
+     *
+     * @param factors the factors to cache.
+     */
+    public void putBlindingFactors(RSABlindingFactors factors)
+    {
+        blindingFactors.set(factors);
+    }
 }
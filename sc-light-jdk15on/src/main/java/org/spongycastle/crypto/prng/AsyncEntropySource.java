@@ -0,0 +1,140 @@
+package org.spongycastle.crypto.prng;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An entropy source which gathers its next block of entropy from another source in the
+ * background, so a slow or blocking source (a seed generator at startup, for example) is
+ * waited on at most once, and usually not at all.
+ * <p>
+ * Gathering starts when the object is created and again each time getEntropy() hands a block
+ * out, so one block is held ready at a time. getReadyFuture() returns the future for the block
+ * the next call will return, so callers can check on, or wait for, seeding without consuming
+ * it. Unless an executor is given, the gathering is done by a single daemon worker thread
+ * belonging to this object, which exits after a minute with nothing to do and is started
+ * again when next needed. As the entropy is gathered before it is asked for this source is
+ * not regarded as prediction resistant.
+ * </p>
+ */
+public class AsyncEntropySource
+    implements EntropySource
+{
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 60;
+
+    private final EntropySource     source;
+    private final ExecutorService   executor;
+
+    private Future<byte[]>          next;
+
+    /**
+     * Base constructor - gather entropy on a background daemon worker thread.
+     *
+     * @param source the source to gather entropy from.
+     */
+    public AsyncEntropySource(EntropySource source)
+    {
+        this(source, null);
+    }
+
+    /**
+     * Constructor specifying where the gathering is run.
+     *
+     * @param source the source to gather entropy from.
+     * @param executor the executor to run the gathering on, null for a background daemon worker thread.
+     */
+    public AsyncEntropySource(EntropySource source, ExecutorService executor)
+    {
+        this.source = source;
+        this.executor = (executor != null) ? executor : createWorker();
+        this.next = start();
+    }
+
+    /**
+     * Return the future for the entropy the next call to getEntropy() will return.
+     *
+     * @return a future which completes when the next block of entropy is ready.
+     */
+    public synchronized Future<byte[]> getReadyFuture()
+    {
+        return next;
+    }
+
+    public boolean isPredictionResistant()
+    {
+        return false;
+    }
+
+    /**
+     * Return the entropy gathered in the background, waiting for it if it is not ready yet,
+     * and start gathering the next block.
+     *
+     * @return entropy bytes.
+     */
+    public byte[] getEntropy()
+    {
+        Future<byte[]> current;
+
+        synchronized (this)
+        {
+            current = next;
+            next = start();
+        }
+
+        try
+        {
+            return current.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted waiting for entropy");
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+
+            throw (cause instanceof RuntimeException) ? (RuntimeException)cause : new IllegalStateException(e);
+        }
+    }
+
+    public int entropySize()
+    {
+        return source.entropySize();
+    }
+
+    private Future<byte[]> start()
+    {
+        Callable<byte[]> gather = new Callable<byte[]>()
+        {
+            public byte[] call()
+            {
+                return source.getEntropy();
+            }
+        };
+
+        return executor.submit(gather);
+    }
+
+    private static ExecutorService createWorker()
+    {
+        return new ThreadPoolExecutor(0, 1, WORKER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+            {
+                public Thread newThread(Runnable r)
+                {
+                    Thread t = new Thread(r, "entropy gatherer");
+
+                    t.setDaemon(true);
+
+                    return t;
+                }
+            });
+    }
+}
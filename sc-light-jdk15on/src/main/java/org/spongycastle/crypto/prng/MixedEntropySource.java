@@ -0,0 +1,82 @@
+package org.spongycastle.crypto.prng;
+
+import org.spongycastle.crypto.Digest;
+import org.spongycastle.util.Arrays;
+
+/**
+ * An entropy source which hashes together the output of several other sources, so the
+ * result is at least as good as the best of them - for example /dev/urandom mixed with
+ * the JDK's SecureRandom seed generator.
+ * <p>
+ * Each call to getEntropy() returns one digest output, so the entropy size is the smaller of
+ * the digest size and the total entropy of the sources. Access to the digest is synchronized
+ * so a single one of these can be shared.
+ * </p>
+ */
+public class MixedEntropySource
+    implements EntropySource
+{
+    private final Digest            digest;
+    private final EntropySource[]   sources;
+    private final int               entropySize;
+    private final boolean           predictionResistant;
+
+    /**
+     * Base constructor.
+     *
+     * @param digest the digest used to combine the sources.
+     * @param sources the entropy sources to combine.
+     */
+    public MixedEntropySource(Digest digest, EntropySource[] sources)
+    {
+        if (sources.length < 1)
+        {
+            throw new IllegalArgumentException("at least one entropy source required");
+        }
+
+        int total = 0;
+        boolean anyPredictionResistant = false;
+
+        for (int i = 0; i != sources.length; i++)
+        {
+            total += sources[i].entropySize();
+            anyPredictionResistant |= sources[i].isPredictionResistant();
+        }
+
+        this.digest = digest;
+        this.sources = (EntropySource[])sources.clone();
+        this.entropySize = Math.min(total, digest.getDigestSize() * 8);
+        this.predictionResistant = anyPredictionResistant;
+    }
+
+    public boolean isPredictionResistant()
+    {
+        return predictionResistant;
+    }
+
+    public byte[] getEntropy()
+    {
+        byte[] rv = new byte[digest.getDigestSize()];
+
+        synchronized (digest)
+        {
+            for (int i = 0; i != sources.length; i++)
+            {
+                byte[] entropy = sources[i].getEntropy();
+
+                digest.update(entropy, 0, entropy.length);
+
+                Arrays.fill(entropy, (byte)0);
+            }
+
+            digest.doFinal(rv, 0);
+        }
+
+        return rv;
+    }
+
+    public int entropySize()
+    {
+        return entropySize;
+    }
+}
@@ -0,0 +1,162 @@
+package org.spongycastle.crypto.prng;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.spongycastle.util.Arrays;
+
+/**
+ * A RandomGenerator which spreads its callers over a pool of child generators so a single
+ * instance can be shared by many threads without them queuing on one lock.
+ * <p>
+ * Each calling thread is mapped to a fixed child (stripe) by its thread id, so with at least
+ * as many children as active threads each thread effectively has a generator to itself. Every
+ * child is seeded from the root generator when the pool is created and is reseeded from it
+ * after each reseedInterval requests, and seed material added to the pool goes to the root and
+ * is passed on to every child straight away. The root is only touched when seeding, so it is
+ * not a point of contention.
+ * <p>
+ * The root and child generators must be safe for concurrent use, as the generators in this
+ * package are, and the children must be distinct instances.
+ * </p>
+ */
+public class PooledRandomGenerator
+    implements RandomGenerator
+{
+    /**
+     * default number of requests served by a child between reseeds.
+     */
+    public static final long DEFAULT_RESEED_INTERVAL = 1L << 16;
+
+    private static final int SEED_LENGTH = 32;
+
+    private final RandomGenerator   root;
+    private final Stripe[]          stripes;
+    private final long              reseedInterval;
+
+    /**
+     * Basic constructor.
+     *
+     * @param root the generator the children are seeded from.
+     * @param children the child generators, normally at least one per expected concurrent caller.
+     */
+    public PooledRandomGenerator(RandomGenerator root, RandomGenerator[] children)
+    {
+        this(root, children, DEFAULT_RESEED_INTERVAL);
+    }
+
+    /**
+     * Constructor specifying how often the children are reseeded.
+     *
+     * @param root the generator the children are seeded from.
+     * @param children the child generators, normally at least one per expected concurrent caller.
+     * @param reseedInterval the number of requests a child serves between reseeds from the root.
+     */
+    public PooledRandomGenerator(RandomGenerator root, RandomGenerator[] children, long reseedInterval)
+    {
+        if (root == null)
+        {
+            throw new IllegalArgumentException("root generator cannot be null");
+        }
+        if (children.length < 1)
+        {
+            throw new IllegalArgumentException("at least one child generator required");
+        }
+        if (reseedInterval < 1)
+        {
+            throw new IllegalArgumentException("reseedInterval must be at least 1");
+        }
+
+        this.root = root;
+        this.stripes = new Stripe[children.length];
+        this.reseedInterval = reseedInterval;
+
+        for (int i = 0; i != children.length; i++)
+        {
+            if (children[i] == null || children[i] == root)
+            {
+                throw new IllegalArgumentException("each child must be a separate generator");
+            }
+            for (int j = 0; j != i; j++)
+            {
+                if (children[j] == children[i])
+                {
+                    throw new IllegalArgumentException("each child must be a separate generator");
+                }
+            }
+
+            stripes[i] = new Stripe(children[i]);
+
+            // distinguish the children even if the root hands out repeated output.
+            children[i].addSeedMaterial(i);
+            reseed(stripes[i]);
+        }
+    }
+
+    /**
+     * Return the number of child generators in the pool.
+     *
+     * @return the pool size.
+     */
+    public int getPoolSize()
+    {
+        return stripes.length;
+    }
+
+    public void addSeedMaterial(byte[] seed)
+    {
+        root.addSeedMaterial(seed);
+        reseedAll();
+    }
+
+    public void addSeedMaterial(long seed)
+    {
+        root.addSeedMaterial(seed);
+        reseedAll();
+    }
+
+    public void nextBytes(byte[] bytes)
+    {
+        nextBytes(bytes, 0, bytes.length);
+    }
+
+    public void nextBytes(byte[] bytes, int start, int len)
+    {
+        Stripe stripe = stripes[(int)(Thread.currentThread().getId() % stripes.length)];
+
+        if (stripe.requests.incrementAndGet() % reseedInterval == 0)
+        {
+            reseed(stripe);
+        }
+
+        stripe.generator.nextBytes(bytes, start, len);
+    }
+
+    private void reseedAll()
+    {
+        for (int i = 0; i != stripes.length; i++)
+        {
+            reseed(stripes[i]);
+        }
+    }
+
+    private void reseed(Stripe stripe)
+    {
+        byte[] seed = new byte[SEED_LENGTH];
+
+        root.nextBytes(seed);
+        stripe.generator.addSeedMaterial(seed);
+
+        Arrays.fill(seed, (byte)0);
+    }
+
+    private static class Stripe
+    {
+        final RandomGenerator   generator;
+        final AtomicLong        requests = new AtomicLong();
+
+        Stripe(RandomGenerator generator)
+        {
+            this.generator = generator;
+        }
+    }
+}
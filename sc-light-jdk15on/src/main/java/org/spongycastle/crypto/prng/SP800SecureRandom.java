@@ -0,0 +1,160 @@
+package org.spongycastle.crypto.prng;
+
+import java.security.SecureRandom;
+
+import org.spongycastle.crypto.prng.drbg.SP80090DRBG;
+
+/**
+ * A SecureRandom driven by a SP 800-90A DRBG.
+ * <p>
+ * The DRBG is reseeded from its entropy source whenever it reports that a reseed is due, and
+ * also after every reseedInterval calls to nextBytes() if a reseed interval is given. Seed
+ * material passed to setSeed() is used as additional input to an immediate reseed, and
+ * generateSeed() returns bytes straight from the entropy source. Access to the DRBG is
+ * synchronized so a single one of these can be shared - see PooledRandomGenerator for
+ * spreading heavy use over several generators.
+ * </p>
+ */
+public class SP800SecureRandom
+    extends SecureRandom
+{
+    // largest request handed to the DRBG in one go - the DRBGs limit requests to 2^18 bits or more.
+    private static final int MAX_REQUEST = 1 << 15;
+
+    private final SP80090DRBG   drbg;
+    private final EntropySource entropySource;
+    private final boolean       predictionResistant;
+    private final long          reseedInterval;
+
+    private long                requests;
+    private byte[]              chunk;
+
+    /**
+     * Base constructor - the DRBG is only reseeded when it reports a reseed is required.
+     *
+     * @param drbg the DRBG to generate the output with.
+     * @param entropySource the source of entropy for generateSeed().
+     * @param predictionResistant true if every request should reseed the DRBG from its entropy source.
+     */
+    public SP800SecureRandom(SP80090DRBG drbg, EntropySource entropySource, boolean predictionResistant)
+    {
+        this(drbg, entropySource, predictionResistant, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructor specifying a reseed interval.
+     *
+     * @param drbg the DRBG to generate the output with.
+     * @param entropySource the source of entropy for generateSeed().
+     * @param predictionResistant true if every request should reseed the DRBG from its entropy source.
+     * @param reseedInterval the maximum number of nextBytes() calls between reseeds of the DRBG.
+     */
+    public SP800SecureRandom(SP80090DRBG drbg, EntropySource entropySource, boolean predictionResistant, long reseedInterval)
+    {
+        super(null, null);
+
+        if (reseedInterval < 1)
+        {
+            throw new IllegalArgumentException("reseedInterval must be at least 1");
+        }
+
+        this.drbg = drbg;
+        this.entropySource = entropySource;
+        this.predictionResistant = predictionResistant;
+        this.reseedInterval = reseedInterval;
+    }
+
+    public void setSeed(byte[] seed)
+    {
+        synchronized (this)
+        {
+            drbg.reseed(seed);
+            requests = 0;
+        }
+    }
+
+    public void setSeed(long seed)
+    {
+        synchronized (this)
+        {
+            // this will happen when SecureRandom() is created
+            if (drbg != null)
+            {
+                byte[] bytes = new byte[8];
+
+                for (int i = 7; i >= 0; i--)
+                {
+                    bytes[i] = (byte)seed;
+                    seed >>>= 8;
+                }
+
+                drbg.reseed(bytes);
+                requests = 0;
+            }
+        }
+    }
+
+    public void nextBytes(byte[] bytes)
+    {
+        synchronized (this)
+        {
+            if (++requests > reseedInterval)
+            {
+                drbg.reseed(null);
+                requests = 1;
+            }
+
+            if (bytes.length <= MAX_REQUEST)
+            {
+                generate(bytes);
+                return;
+            }
+
+            if (chunk == null)
+            {
+                chunk = new byte[MAX_REQUEST];
+            }
+
+            for (int off = 0; off < bytes.length; off += MAX_REQUEST)
+            {
+                int len = Math.min(MAX_REQUEST, bytes.length - off);
+                byte[] out = (len == MAX_REQUEST) ? chunk : new byte[len];
+
+                generate(out);
+                System.arraycopy(out, 0, bytes, off, len);
+            }
+
+            for (int i = 0; i != chunk.length; i++)
+            {
+                chunk[i] = 0;
+            }
+        }
+    }
+
+    public byte[] generateSeed(int numBytes)
+    {
+        byte[] seed = new byte[numBytes];
+        int off = 0;
+
+        while (off < numBytes)
+        {
+            byte[] entropy = entropySource.getEntropy();
+            int len = Math.min(entropy.length, numBytes - off);
+
+            System.arraycopy(entropy, 0, seed, off, len);
+            off += len;
+        }
+
+        return seed;
+    }
+
+    private void generate(byte[] out)
+    {
+        // check if a reseed is required...
+        if (drbg.generate(out, null, predictionResistant) < 0)
+        {
+            drbg.reseed(null);
+            drbg.generate(out, null, predictionResistant);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.spongycastle.crypto.prng;
+
+import java.security.SecureRandom;
+
+/**
+ * An entropy source taking its seed material from SecureRandom.generateSeed(), which for
+ * the JDK's providers is the platform's own seed source.
+ * <p>
+ * On some platforms generateSeed() can block until the system has gathered enough entropy -
+ * wrap this in an AsyncEntropySource, or mix it with a URandomEntropySource, where that matters.
+ * </p>
+ */
+public class SecureRandomEntropySource
+    implements EntropySource
+{
+    private final SecureRandom  random;
+    private final boolean       predictionResistant;
+    private final int           entropySize;
+
+    /**
+     * Base constructor.
+     *
+     * @param random the SecureRandom to take the seed material from.
+     * @param predictionResistant true if the random's seed source is regarded as prediction resistant.
+     * @param entropySize the number of bits of entropy returned by each call to getEntropy().
+     */
+    public SecureRandomEntropySource(SecureRandom random, boolean predictionResistant, int entropySize)
+    {
+        if (entropySize < 1)
+        {
+            throw new IllegalArgumentException("entropySize must be at least 1");
+        }
+
+        this.random = random;
+        this.predictionResistant = predictionResistant;
+        this.entropySize = entropySize;
+    }
+
+    public boolean isPredictionResistant()
+    {
+        return predictionResistant;
+    }
+
+    public byte[] getEntropy()
+    {
+        return random.generateSeed((entropySize + 7) / 8);
+    }
+
+    public int entropySize()
+    {
+        return entropySize;
+    }
+}
@@ -0,0 +1,112 @@
+package org.spongycastle.crypto.prng;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An entropy source which reads the operating system's non-blocking random device,
+ * /dev/urandom, through a FileChannel. Each call opens the device afresh, so an instance
+ * holds no file descriptor between calls and can be shared freely.
+ */
+public class URandomEntropySource
+    implements EntropySource
+{
+    private static final String DEVICE = "/dev/urandom";
+
+    private final int entropySize;
+
+    /**
+     * Base constructor.
+     *
+     * @param entropySize the number of bits of entropy returned by each call to getEntropy().
+     */
+    public URandomEntropySource(int entropySize)
+    {
+        if (entropySize < 1)
+        {
+            throw new IllegalArgumentException("entropySize must be at least 1");
+        }
+
+        this.entropySize = entropySize;
+    }
+
+    /**
+     * Return true if the random device can be read on this platform.
+     *
+     * @return true if /dev/urandom is present and readable, false otherwise.
+     */
+    public static boolean isAvailable()
+    {
+        try
+        {
+            File device = new File(DEVICE);
+
+            return device.exists() && device.canRead();
+        }
+        catch (SecurityException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * /dev/urandom carries on returning output without waiting for the kernel to reseed, so
+     * successive calls are not guaranteed fresh entropy.
+     *
+     * @return false
+     */
+    public boolean isPredictionResistant()
+    {
+        return false;
+    }
+
+    public byte[] getEntropy()
+    {
+        byte[] entropy = new byte[(entropySize + 7) / 8];
+        FileInputStream fIn = null;
+
+        try
+        {
+            fIn = new FileInputStream(DEVICE);
+
+            FileChannel channel = fIn.getChannel();
+            ByteBuffer buf = ByteBuffer.wrap(entropy);
+
+            while (buf.hasRemaining())
+            {
+                if (channel.read(buf) < 0)
+                {
+                    throw new IllegalStateException("unexpected end of file reading " + DEVICE);
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("unable to read " + DEVICE + ": " + e.getMessage());
+        }
+        finally
+        {
+            if (fIn != null)
+            {
+                try
+                {
+                    fIn.close();
+                }
+                catch (IOException e)
+                {
+                    // ignore
+                }
+            }
+        }
+
+        return entropy;
+    }
+
+    public int entropySize()
+    {
+        return entropySize;
+    }
+}
@@ -0,0 +1,122 @@
+package org.spongycastle.crypto.prng.drbg;
+
+/**
+ * A wrapper for a DRBG which serves small requests from a block of pre-generated output,
+ * so the fixed cost of a generate call (the state update, and for the CTR DRBG a key
+ * schedule) is paid once per buffer rather than once per IV or nonce.
+ * <p>
+ * Requests larger than the buffer, and requests carrying additional input or asking for
+ * prediction resistance, go straight to the underlying DRBG, as does a reseed - in each case
+ * any buffered output is discarded first. Bytes are wiped from the buffer as they are handed
+ * out, so only output that has not been returned yet is ever held. As the buffered output
+ * was generated before any later seeding, reseed or pass through requests when the effect of
+ * new seed material must be immediate.
+ * </p>
+ */
+public class BufferedDRBG
+    implements SP80090DRBG
+{
+    /**
+     * default size, in bytes, of the output buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private final SP80090DRBG   drbg;
+    private final byte[]        buffer;
+
+    private int                 bufOff;
+
+    /**
+     * Base constructor - use the default buffer size.
+     *
+     * @param drbg the DRBG to take the output from.
+     */
+    public BufferedDRBG(SP80090DRBG drbg)
+    {
+        this(drbg, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor specifying the buffer size.
+     *
+     * @param drbg the DRBG to take the output from.
+     * @param bufferSize the number of bytes generated by each call to the DRBG.
+     */
+    public BufferedDRBG(SP80090DRBG drbg, int bufferSize)
+    {
+        if (bufferSize < 1)
+        {
+            throw new IllegalArgumentException("bufferSize must be at least 1");
+        }
+
+        this.drbg = drbg;
+        this.buffer = new byte[bufferSize];
+        this.bufOff = bufferSize;       // empty
+    }
+
+    public int getBlockSize()
+    {
+        return drbg.getBlockSize();
+    }
+
+    public int generate(byte[] output, byte[] additionalInput, boolean predictionResistant)
+    {
+        if (predictionResistant || Utils.isPresent(additionalInput) || output.length > buffer.length)
+        {
+            discard();
+
+            return drbg.generate(output, additionalInput, predictionResistant);
+        }
+
+        int available = buffer.length - bufOff;
+
+        if (output.length > available)
+        {
+            // take what is left, then refill.
+            System.arraycopy(buffer, bufOff, output, 0, available);
+            discard();
+
+            if (drbg.generate(buffer, null, false) < 0)
+            {
+                wipe(output, 0, available);
+
+                return -1;
+            }
+
+            bufOff = 0;
+        }
+        else
+        {
+            available = 0;
+        }
+
+        int len = output.length - available;
+
+        System.arraycopy(buffer, bufOff, output, available, len);
+        wipe(buffer, bufOff, bufOff + len);
+        bufOff += len;
+
+        return output.length * 8;
+    }
+
+    public void reseed(byte[] additionalInput)
+    {
+        discard();
+
+        drbg.reseed(additionalInput);
+    }
+
+    private void discard()
+    {
+        wipe(buffer, bufOff, buffer.length);
+        bufOff = buffer.length;
+    }
+
+    private static void wipe(byte[] buf, int from, int to)
+    {
+        for (int i = from; i < to; i++)
+        {
+            buf[i] = 0;
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package org.spongycastle.crypto.prng.drbg;
+
+import org.spongycastle.crypto.BlockCipher;
+import org.spongycastle.crypto.MultiBlockCipher;
+import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.crypto.prng.EntropySource;
+import org.spongycastle.util.Arrays;
+import org.spongycastle.util.encoders.Hex;
+
+/**
+ * A SP800-90A CTR DRBG, using the block cipher derivation function.
+ * <p>
+ * The output for a request is produced by filling it with successive counter values and
+ * encrypting the lot in place, so a cipher implementing MultiBlockCipher gets whole requests
+ * in a single call.
+ * </p>
+ */
+public class CTRSP800DRBG
+    implements SP80090DRBG
+{
+    private static final long       AES_MAX_BITS_REQUEST = 1 << 19;
+    private static final long       AES_RESEED_MAX = 1L << 48;
+
+    private static final byte[]     K_BITS = Hex.decode("000102030405060708090A0B0C0D0E0F101112131415161718191A1B1C1D1E1F");
+
+    private final BlockCipher   engine;
+    private final int           keySizeInBits;
+    private final int           seedLength;
+    private final int           securityStrength;
+    private final EntropySource entropySource;
+    private final byte[]        block;
+
+    private byte[]              Key;
+    private byte[]              V;
+    private long                reseedCounter;
+
+    /**
+     * Construct a SP800-90A CTR DRBG.
+     * <p>
+     * Minimum entropy requirement is the security strength requested.
+     * </p>
+     * @param engine underlying block cipher to use to support DRBG
+     * @param keySizeInBits size of the key to use with the block cipher.
+     * @param securityStrength security strength required (in bits)
+     * @param entropySource source of entropy to use for seeding/reseeding.
+     * @param personalizationString personalization string to distinguish this DRBG (may be null).
+     * @param nonce nonce to further distinguish this DRBG (may be null).
+     */
+    public CTRSP800DRBG(BlockCipher engine, int keySizeInBits, int securityStrength, EntropySource entropySource, byte[] personalizationString, byte[] nonce)
+    {
+        if (securityStrength > 256)
+        {
+            throw new IllegalArgumentException("Requested security strength is not supported by the derivation function");
+        }
+
+        if (securityStrength > keySizeInBits)
+        {
+            throw new IllegalArgumentException("Requested security strength is not supported by block cipher and key size");
+        }
+
+        if (keySizeInBits % 8 != 0 || keySizeInBits > K_BITS.length * 8)
+        {
+            throw new IllegalArgumentException("Unsupported key size");
+        }
+
+        if (entropySource.entropySize() < securityStrength)
+        {
+            throw new IllegalArgumentException("Not enough entropy for security strength required");
+        }
+
+        this.engine = engine;
+        this.keySizeInBits = keySizeInBits;
+        this.seedLength = keySizeInBits + engine.getBlockSize() * 8;
+        this.securityStrength = securityStrength;
+        this.entropySource = entropySource;
+        this.block = new byte[engine.getBlockSize()];
+
+        // 1. seed_material = entropy_input || nonce || personalization_string.
+        // 2. seed_material = Block_Cipher_df (seed_material, seedlen).
+        // 3. Key = 0^keylen.
+        // 4. V = 0^outlen.
+        // 5. (Key, V) = CTR_DRBG_Update (seed_material, Key, V).
+        // 6. reseed_counter = 1.
+        byte[] entropy = getEntropy();
+        byte[] seedMaterial = Utils.concatenate(entropy, nonce, personalizationString, null);
+        byte[] seed = Block_Cipher_df(seedMaterial, seedLength);
+
+        Key = new byte[keySizeInBits / 8];
+        V = new byte[engine.getBlockSize()];
+
+        engine.init(true, new KeyParameter(Key));
+
+        CTR_DRBG_Update(seed);
+
+        Arrays.fill(entropy, (byte)0);
+        Arrays.fill(seedMaterial, (byte)0);
+        Arrays.fill(seed, (byte)0);
+
+        reseedCounter = 1;
+    }
+
+    /**
+     * Return the block size (in bits) of the DRBG.
+     *
+     * @return the number of bits produced on each internal round of the DRBG.
+     */
+    public int getBlockSize()
+    {
+        return V.length * 8;
+    }
+
+    /**
+     * Populate a passed in array with random data.
+     *
+     * @param output output array for generated bits.
+     * @param additionalInput additional input to be added to the DRBG in this step.
+     * @param predictionResistant true if a reseed should be forced, false otherwise.
+     *
+     * @return number of bits generated, -1 if a reseed required.
+     */
+    public int generate(byte[] output, byte[] additionalInput, boolean predictionResistant)
+    {
+        if (output.length * 8L > AES_MAX_BITS_REQUEST)
+        {
+            throw new IllegalArgumentException("Number of bits per request limited to " + AES_MAX_BITS_REQUEST);
+        }
+
+        if (reseedCounter > AES_RESEED_MAX)
+        {
+            return -1;
+        }
+
+        if (predictionResistant)
+        {
+            reseed(additionalInput);
+            additionalInput = null;
+        }
+
+        // 2. If (additional_input != Null), then
+        // 2.1 additional_input = Block_Cipher_df (additional_input, seedlen).
+        // 2.2 (Key, V) = CTR_DRBG_Update (additional_input, Key, V).
+        byte[] seed = null;
+
+        if (Utils.isPresent(additionalInput))
+        {
+            seed = Block_Cipher_df(additionalInput, seedLength);
+
+            CTR_DRBG_Update(seed);
+        }
+
+        // 3. temp = Null.
+        // 4. While (len (temp) < requested_number_of_bits) do:
+        // 4.1 V = (V + 1) mod 2^outlen.
+        // 4.2 output_block = Block_Encrypt (Key, V).
+        // 4.3 temp = temp || output_block.
+        // 5. returned_bits = Leftmost requested_number_of_bits of temp.
+        int blockSize = V.length;
+        int blocks = output.length / blockSize;
+
+        for (int i = 0; i != blocks; i++)
+        {
+            addOneTo(V);
+            System.arraycopy(V, 0, output, i * blockSize, blockSize);
+        }
+
+        if (engine instanceof MultiBlockCipher)
+        {
+            ((MultiBlockCipher)engine).processBlocks(output, 0, blocks, output, 0);
+        }
+        else
+        {
+            for (int i = 0; i != blocks; i++)
+            {
+                engine.processBlock(output, i * blockSize, output, i * blockSize);
+            }
+        }
+
+        int remaining = output.length - blocks * blockSize;
+
+        if (remaining != 0)
+        {
+            addOneTo(V);
+            engine.processBlock(V, 0, block, 0);
+            System.arraycopy(block, 0, output, blocks * blockSize, remaining);
+            Arrays.fill(block, (byte)0);
+        }
+
+        // 6. (Key, V) = CTR_DRBG_Update (additional_input, Key, V).
+        // 7. reseed_counter = reseed_counter + 1.
+        CTR_DRBG_Update(seed);
+
+        if (seed != null)
+        {
+            Arrays.fill(seed, (byte)0);
+        }
+
+        reseedCounter++;
+
+        return output.length * 8;
+    }
+
+    /**
+     * Reseed the DRBG.
+     *
+     * @param additionalInput additional input to be added to the DRBG in this step.
+     */
+    public void reseed(byte[] additionalInput)
+    {
+        // 1. seed_material = entropy_input || additional_input.
+        // 2. seed_material = Block_Cipher_df (seed_material, seedlen).
+        // 3. (Key, V) = CTR_DRBG_Update (seed_material, Key, V).
+        // 4. reseed_counter = 1.
+        byte[] entropy = getEntropy();
+        byte[] seedMaterial = Utils.concatenate(entropy, additionalInput, null, null);
+        byte[] seed = Block_Cipher_df(seedMaterial, seedLength);
+
+        CTR_DRBG_Update(seed);
+
+        Arrays.fill(entropy, (byte)0);
+        Arrays.fill(seedMaterial, (byte)0);
+        Arrays.fill(seed, (byte)0);
+
+        reseedCounter = 1;
+    }
+
+    /**
+     * CTR_DRBG_Update - on entry and exit the engine is initialised with Key. A null seed is
+     * treated as seedlen zero bits.
+     */
+    private void CTR_DRBG_Update(byte[] seed)
+    {
+        // 1. temp = Null.
+        // 2. While (len (temp) < seedlen) do
+        // 2.1 V = (V + 1) mod 2^outlen.
+        // 2.2 output_block = Block_Encrypt (Key, V).
+        // 2.3 temp = temp || output_block.
+        // 3. temp = Leftmost seedlen bits of temp.
+        // 4. temp = temp XOR provided_data.
+        // 5. Key = Leftmost keylen bits of temp.
+        // 6. V = Rightmost outlen bits of temp.
+        byte[] temp = new byte[seedLength / 8];
+        int outLen = V.length;
+
+        for (int off = 0; off < temp.length; off += outLen)
+        {
+            addOneTo(V);
+            engine.processBlock(V, 0, block, 0);
+
+            System.arraycopy(block, 0, temp, off, Math.min(outLen, temp.length - off));
+        }
+
+        if (seed != null)
+        {
+            for (int i = 0; i != temp.length; i++)
+            {
+                temp[i] ^= seed[i];
+            }
+        }
+
+        System.arraycopy(temp, 0, Key, 0, Key.length);
+        System.arraycopy(temp, Key.length, V, 0, V.length);
+
+        engine.init(true, new KeyParameter(Key));
+
+        Arrays.fill(temp, (byte)0);
+        Arrays.fill(block, (byte)0);
+    }
+
+    /*
+     * Block_Cipher_df from SP 800-90A 10.3.2.
+     *
+     * 4. S = L || N || input_string || 0x80, padded with zeros to a multiple of outlen.
+     * 8. K = Leftmost keylen bits of 0x00010203...1D1E1F.
+     * 9. While len (temp) < keylen + outlen, do
+     * 9.1 IV = i || 0^(outlen - len (i)), temp = temp || BCC (K, (IV || S)).
+     * 9.2 i = i + 1.
+     * 10. K = Leftmost keylen bits of temp.
+     * 11. X = Next outlen bits of temp.
+     * 13. While len (temp) < number_of_bits_to_return, do
+     * 13.1 X = Block_Encrypt (K, X).
+     * 13.2 temp = temp || X.
+     * 14. requested_bits = Leftmost number_of_bits_to_return of temp.
+     *
+     * On exit the engine is initialised with Key again, if there is one.
+     */
+    private byte[] Block_Cipher_df(byte[] inputString, int bitLength)
+    {
+        int outLen = engine.getBlockSize();
+        int L = inputString.length; // already in bytes
+        int N = bitLength / 8;
+
+        // 4 S = L || N || inputstring || 0x80
+        int sLen = 4 + 4 + L + 1;
+        int blockLen = ((sLen + outLen - 1) / outLen) * outLen;
+        byte[] S = new byte[blockLen];
+
+        copyIntToByteArray(S, L, 0);
+        copyIntToByteArray(S, N, 4);
+        System.arraycopy(inputString, 0, S, 8, L);
+        S[8 + L] = (byte)0x80;
+        // S already padded with zeros
+
+        byte[] temp = new byte[keySizeInBits / 8 + outLen];
+        byte[] IV = new byte[outLen];
+
+        byte[] K = new byte[keySizeInBits / 8];
+        System.arraycopy(K_BITS, 0, K, 0, K.length);
+
+        engine.init(true, new KeyParameter(K));
+
+        for (int i = 0; i * outLen < temp.length; i++)
+        {
+            copyIntToByteArray(IV, i, 0);
+            BCC(IV, S);
+
+            System.arraycopy(block, 0, temp, i * outLen, Math.min(outLen, temp.length - i * outLen));
+        }
+
+        byte[] X = new byte[outLen];
+        System.arraycopy(temp, 0, K, 0, K.length);
+        System.arraycopy(temp, K.length, X, 0, X.length);
+
+        byte[] rv = new byte[N];
+
+        engine.init(true, new KeyParameter(K));
+
+        for (int off = 0; off < rv.length; off += outLen)
+        {
+            engine.processBlock(X, 0, X, 0);
+
+            System.arraycopy(X, 0, rv, off, Math.min(outLen, rv.length - off));
+        }
+
+        if (Key != null)
+        {
+            engine.init(true, new KeyParameter(Key));
+        }
+
+        Arrays.fill(S, (byte)0);
+        Arrays.fill(temp, (byte)0);
+        Arrays.fill(K, (byte)0);
+        Arrays.fill(X, (byte)0);
+        Arrays.fill(block, (byte)0);
+
+        return rv;
+    }
+
+    /*
+     * 1. chaining_value = 0^outlen
+     *    . Comment: Set the first chaining value to outlen zeros.
+     * 2. n = len (data)/outlen.
+     * 3. Starting with the leftmost bits of data, split the data into n blocks of outlen bits
+     *    each, forming block(1) to block(n).
+     * 4. For i = 1 to n do
+     * 4.1 input_block = chaining_value XOR block(i).
+     * 4.2 chaining_value = Block_Encrypt (Key, input_block).
+     * 5. output_block = chaining_value.
+     * 6. Return output_block.
+     *
+     * The data is iV || S, and the output is left in block.
+     */
+    private void BCC(byte[] iV, byte[] S)
+    {
+        int outLen = block.length;
+
+        engine.processBlock(iV, 0, block, 0);
+
+        for (int off = 0; off != S.length; off += outLen)
+        {
+            for (int i = 0; i != outLen; i++)
+            {
+                block[i] ^= S[off + i];
+            }
+
+            engine.processBlock(block, 0, block, 0);
+        }
+    }
+
+    private void copyIntToByteArray(byte[] buf, int value, int offSet)
+    {
+        buf[offSet + 0] = ((byte)(value >> 24));
+        buf[offSet + 1] = ((byte)(value >> 16));
+        buf[offSet + 2] = ((byte)(value >> 8));
+        buf[offSet + 3] = ((byte)(value));
+    }
+
+    private void addOneTo(byte[] longer)
+    {
+        for (int i = longer.length - 1; i >= 0; i--)
+        {
+            if (++longer[i] != 0)
+            {
+                break;
+            }
+        }
+    }
+
+    private byte[] getEntropy()
+    {
+        byte[] entropy = entropySource.getEntropy();
+
+        if (entropy.length < (securityStrength + 7) / 8)
+        {
+            throw new IllegalStateException("Insufficient entropy provided by entropy source");
+        }
+
+        return entropy;
+    }
+}
@@ -0,0 +1,200 @@
+package org.spongycastle.crypto.prng.drbg;
+
+import org.spongycastle.crypto.Mac;
+import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.crypto.prng.EntropySource;
+import org.spongycastle.util.Arrays;
+
+/**
+ * A SP800-90A HMAC DRBG.
+ */
+public class HMacSP800DRBG
+    implements SP80090DRBG
+{
+    private static final long       RESEED_MAX = 1L << (48 - 1);
+    private static final int        MAX_BITS_REQUEST = 1 << (19 - 1);
+
+    private final Mac           hMac;
+    private final EntropySource entropySource;
+    private final int           securityStrength;
+
+    private byte[]              K;
+    private byte[]              V;
+    private long                reseedCounter;
+
+    /**
+     * Construct a SP800-90A HMAC DRBG.
+     * <p>
+     * Minimum entropy requirement is the security strength requested.
+     * </p>
+     * @param hMac Hash MAC to base the DRBG on.
+     * @param securityStrength security strength required (in bits)
+     * @param entropySource source of entropy to use for seeding/reseeding.
+     * @param personalizationString personalization string to distinguish this DRBG (may be null).
+     * @param nonce nonce to further distinguish this DRBG (may be null).
+     */
+    public HMacSP800DRBG(Mac hMac, int securityStrength, EntropySource entropySource, byte[] personalizationString, byte[] nonce)
+    {
+        if (securityStrength > Utils.getMaxSecurityStrength(hMac))
+        {
+            throw new IllegalArgumentException("Requested security strength is not supported by the derivation function");
+        }
+
+        if (entropySource.entropySize() < securityStrength)
+        {
+            throw new IllegalArgumentException("Not enough entropy for security strength required");
+        }
+
+        this.hMac = hMac;
+        this.entropySource = entropySource;
+        this.securityStrength = securityStrength;
+
+        // 1. seed_material = entropy_input || nonce || personalization_string.
+        // 2. Key = 0x00 00...00.
+        // 3. V = 0x01 01...01.
+        // 4. (Key, V) = HMAC_DRBG_Update (seed_material, Key, V).
+        // 5. reseed_counter = 1.
+        byte[] entropy = getEntropy();
+        byte[] seedMaterial = Utils.concatenate(entropy, nonce, personalizationString, null);
+
+        K = new byte[hMac.getMacSize()];
+        V = new byte[K.length];
+        Arrays.fill(V, (byte)1);
+
+        hmac_DRBG_Update(seedMaterial);
+
+        Arrays.fill(entropy, (byte)0);
+        Arrays.fill(seedMaterial, (byte)0);
+
+        reseedCounter = 1;
+    }
+
+    /**
+     * Return the block size (in bits) of the DRBG.
+     *
+     * @return the number of bits produced on each round of the DRBG.
+     */
+    public int getBlockSize()
+    {
+        return V.length * 8;
+    }
+
+    /**
+     * Populate a passed in array with random data.
+     *
+     * @param output output array for generated bits.
+     * @param additionalInput additional input to be added to the DRBG in this step.
+     * @param predictionResistant true if a reseed should be forced, false otherwise.
+     *
+     * @return number of bits generated, -1 if a reseed required.
+     */
+    public int generate(byte[] output, byte[] additionalInput, boolean predictionResistant)
+    {
+        int numberOfBits = output.length * 8;
+
+        if (numberOfBits > MAX_BITS_REQUEST)
+        {
+            throw new IllegalArgumentException("Number of bits per request limited to " + MAX_BITS_REQUEST);
+        }
+
+        if (reseedCounter > RESEED_MAX)
+        {
+            return -1;
+        }
+
+        if (predictionResistant)
+        {
+            reseed(additionalInput);
+            additionalInput = null;
+        }
+
+        // 2.
+        if (Utils.isPresent(additionalInput))
+        {
+            hmac_DRBG_Update(additionalInput);
+        }
+
+        // 3.
+        hMac.init(new KeyParameter(K));
+
+        for (int off = 0; off < output.length; off += V.length)
+        {
+            hMac.update(V, 0, V.length);
+            hMac.doFinal(V, 0);
+
+            System.arraycopy(V, 0, output, off, Math.min(V.length, output.length - off));
+        }
+
+        // 4.
+        hmac_DRBG_Update(additionalInput);
+
+        reseedCounter++;
+
+        return numberOfBits;
+    }
+
+    /**
+     * Reseed the DRBG.
+     *
+     * @param additionalInput additional input to be added to the DRBG in this step.
+     */
+    public void reseed(byte[] additionalInput)
+    {
+        // 1. seed_material = entropy_input || additional_input.
+        // 2. (Key, V) = HMAC_DRBG_Update (seed_material, Key, V).
+        // 3. reseed_counter = 1.
+        byte[] entropy = getEntropy();
+        byte[] seedMaterial = Utils.concatenate(entropy, additionalInput, null, null);
+
+        hmac_DRBG_Update(seedMaterial);
+
+        Arrays.fill(entropy, (byte)0);
+        Arrays.fill(seedMaterial, (byte)0);
+
+        reseedCounter = 1;
+    }
+
+    private void hmac_DRBG_Update(byte[] seedMaterial)
+    {
+        hmac_DRBG_Update_Func(seedMaterial, (byte)0x00);
+
+        if (Utils.isPresent(seedMaterial))
+        {
+            hmac_DRBG_Update_Func(seedMaterial, (byte)0x01);
+        }
+    }
+
+    // 1. K = HMAC (K, V || value || provided_data).
+    // 2. V = HMAC (K, V).
+    private void hmac_DRBG_Update_Func(byte[] seedMaterial, byte vValue)
+    {
+        hMac.init(new KeyParameter(K));
+
+        hMac.update(V, 0, V.length);
+        hMac.update(vValue);
+
+        if (seedMaterial != null)
+        {
+            hMac.update(seedMaterial, 0, seedMaterial.length);
+        }
+
+        hMac.doFinal(K, 0);
+
+        hMac.init(new KeyParameter(K));
+        hMac.update(V, 0, V.length);
+
+        hMac.doFinal(V, 0);
+    }
+
+    private byte[] getEntropy()
+    {
+        byte[] entropy = entropySource.getEntropy();
+
+        if (entropy.length < (securityStrength + 7) / 8)
+        {
+            throw new IllegalStateException("Insufficient entropy provided by entropy source");
+        }
+
+        return entropy;
+    }
+}
@@ -0,0 +1,290 @@
+package org.spongycastle.crypto.prng.drbg;
+
+import java.util.Hashtable;
+
+import org.spongycastle.crypto.Digest;
+import org.spongycastle.crypto.prng.EntropySource;
+import org.spongycastle.util.Arrays;
+
+/**
+ * A DRBG (Deterministic Random Bit Generator) based on a digest - Hash_DRBG from NIST SP 800-90A.
+ */
+public class HashSP800DRBG
+    implements SP80090DRBG
+{
+    private static final byte[]     ONE = { 0x01 };
+
+    private static final long       RESEED_MAX = 1L << (48 - 1);
+    private static final int        MAX_BITS_REQUEST = 1 << (19 - 1);
+
+    private static final Hashtable  seedlens = new Hashtable();
+
+    static
+    {
+        seedlens.put("SHA-1", new Integer(440));
+        seedlens.put("SHA-224", new Integer(440));
+        seedlens.put("SHA-256", new Integer(440));
+        seedlens.put("SHA-384", new Integer(888));
+        seedlens.put("SHA-512", new Integer(888));
+    }
+
+    private final Digest        digest;
+    private final EntropySource entropySource;
+    private final int           securityStrength;
+    private final int           seedLength;
+    private final byte[]        dig;
+    private final byte[]        data;
+
+    private byte[]              V;
+    private byte[]              C;
+    private long                reseedCounter;
+
+    /**
+     * Construct a SP800-90A Hash DRBG.
+     * <p>
+     * Minimum entropy requirement is the security strength requested.
+     * </p>
+     * @param digest  source digest to use for DRB stream.
+     * @param securityStrength security strength required (in bits)
+     * @param entropySource source of entropy to use for seeding/reseeding.
+     * @param personalizationString personalization string to distinguish this DRBG (may be null).
+     * @param nonce nonce to further distinguish this DRBG (may be null).
+     */
+    public HashSP800DRBG(Digest digest, int securityStrength, EntropySource entropySource, byte[] personalizationString, byte[] nonce)
+    {
+        if (securityStrength > Utils.getMaxSecurityStrength(digest))
+        {
+            throw new IllegalArgumentException("Requested security strength is not supported by the derivation function");
+        }
+
+        if (entropySource.entropySize() < securityStrength)
+        {
+            throw new IllegalArgumentException("Not enough entropy for security strength required");
+        }
+
+        this.digest = digest;
+        this.entropySource = entropySource;
+        this.securityStrength = securityStrength;
+        this.seedLength = ((Integer)seedlens.get(digest.getAlgorithmName())).intValue();
+        this.dig = new byte[digest.getDigestSize()];
+        this.data = new byte[seedLength / 8];
+
+        // 1. seed_material = entropy_input || nonce || personalization_string.
+        // 2. seed = Hash_df (seed_material, seedlen).
+        // 3. V = seed.
+        // 4. C = Hash_df ((0x00 || V), seedlen).
+        // 5. Initial reseed_counter = 1.
+        byte[] entropy = getEntropy();
+        byte[] seedMaterial = Utils.concatenate(entropy, nonce, personalizationString, null);
+
+        updateSeed(Utils.hash_df(digest, seedMaterial, seedLength));
+
+        Arrays.fill(entropy, (byte)0);
+        Arrays.fill(seedMaterial, (byte)0);
+    }
+
+    /**
+     * Return the block size (in bits) of the DRBG.
+     *
+     * @return the number of bits produced on each internal round of the DRBG.
+     */
+    public int getBlockSize()
+    {
+        return digest.getDigestSize() * 8;
+    }
+
+    /**
+     * Populate a passed in array with random data.
+     *
+     * @param output output array for generated bits.
+     * @param additionalInput additional input to be added to the DRBG in this step.
+     * @param predictionResistant true if a reseed should be forced, false otherwise.
+     *
+     * @return number of bits generated, -1 if a reseed required.
+     */
+    public int generate(byte[] output, byte[] additionalInput, boolean predictionResistant)
+    {
+        // 1. If reseed_counter > reseed_interval, then return an indication that a
+        // reseed is required.
+        // 2. If (additional_input != Null), then do
+        // 2.1 w = Hash (0x02 || V || additional_input).
+        // 2.2 V = (V + w) mod 2^seedlen
+        // .
+        // 3. (returned_bits) = Hashgen (requested_number_of_bits, V).
+        // 4. H = Hash (0x03 || V).
+        // 5. V = (V + H + C + reseed_counter) mod 2^seedlen
+        // .
+        // 6. reseed_counter = reseed_counter + 1.
+        // 7. Return SUCCESS, returned_bits, and the new values of V, C, and
+        // reseed_counter for the new_working_state.
+        int numberOfBits = output.length * 8;
+
+        if (numberOfBits > MAX_BITS_REQUEST)
+        {
+            throw new IllegalArgumentException("Number of bits per request limited to " + MAX_BITS_REQUEST);
+        }
+
+        if (reseedCounter > RESEED_MAX)
+        {
+            return -1;
+        }
+
+        if (predictionResistant)
+        {
+            reseed(additionalInput);
+            additionalInput = null;
+        }
+
+        // 2.
+        if (Utils.isPresent(additionalInput))
+        {
+            digest.update((byte)0x02);
+            digest.update(V, 0, V.length);
+            digest.update(additionalInput, 0, additionalInput.length);
+            digest.doFinal(dig, 0);
+
+            addTo(V, dig);
+        }
+
+        // 3.
+        hashgen(output);
+
+        // 4.
+        digest.update((byte)0x03);
+        digest.update(V, 0, V.length);
+        digest.doFinal(dig, 0);
+
+        // 5.
+        addTo(V, dig);
+        addTo(V, C);
+        addCounter(V, reseedCounter);
+
+        reseedCounter++;
+
+        return numberOfBits;
+    }
+
+    /**
+     * Reseed the DRBG.
+     *
+     * @param additionalInput additional input to be added to the DRBG in this step.
+     */
+    public void reseed(byte[] additionalInput)
+    {
+        // 1. seed_material = 0x01 || V || entropy_input || additional_input.
+        //
+        // 2. seed = Hash_df (seed_material, seedlen).
+        //
+        // 3. V = seed.
+        //
+        // 4. C = Hash_df ((0x00 || V), seedlen).
+        //
+        // 5. reseed_counter = 1.
+        //
+        // 6. Return V, C, and reseed_counter for the new_working_state.
+        byte[] entropy = getEntropy();
+        byte[] seedMaterial = Utils.concatenate(ONE, V, entropy, additionalInput);
+
+        updateSeed(Utils.hash_df(digest, seedMaterial, seedLength));
+
+        Arrays.fill(entropy, (byte)0);
+        Arrays.fill(seedMaterial, (byte)0);
+    }
+
+    private void updateSeed(byte[] seed)
+    {
+        byte[] subV = new byte[seed.length + 1];
+
+        System.arraycopy(seed, 0, subV, 1, seed.length);
+
+        if (V != null)
+        {
+            Arrays.fill(V, (byte)0);
+            Arrays.fill(C, (byte)0);
+        }
+
+        V = seed;
+        C = Utils.hash_df(digest, subV, seedLength);
+
+        Arrays.fill(subV, (byte)0);
+
+        reseedCounter = 1;
+    }
+
+    private byte[] getEntropy()
+    {
+        byte[] entropy = entropySource.getEntropy();
+
+        if (entropy.length < (securityStrength + 7) / 8)
+        {
+            throw new IllegalStateException("Insufficient entropy provided by entropy source");
+        }
+
+        return entropy;
+    }
+
+    // 1. m = [requested_number_of_bits / outlen]
+    // 2. data = V.
+    // 3. W = the Null string.
+    // 4. For i = 1 to m
+    // 4.1 wi = Hash (data).
+    // 4.2 W = W || wi.
+    // 4.3 data = (data + 1) mod 2^seedlen
+    // .
+    // 5. returned_bits = Leftmost (requested_no_of_bits) bits of W.
+    private void hashgen(byte[] output)
+    {
+        System.arraycopy(V, 0, data, 0, V.length);
+
+        for (int off = 0; off < output.length; off += dig.length)
+        {
+            digest.update(data, 0, data.length);
+            digest.doFinal(dig, 0);
+
+            System.arraycopy(dig, 0, output, off, Math.min(dig.length, output.length - off));
+
+            addTo(data, ONE);
+        }
+
+        Arrays.fill(data, (byte)0);
+    }
+
+    // add the big endian value in shorter to longer, modulo 2^(8 * longer.length).
+    private static void addTo(byte[] longer, byte[] shorter)
+    {
+        int off = longer.length - shorter.length;
+        int carry = 0;
+
+        for (int i = shorter.length - 1; i >= 0; i--)
+        {
+            carry += (longer[off + i] & 0xff) + (shorter[i] & 0xff);
+            longer[off + i] = (byte)carry;
+            carry >>>= 8;
+        }
+
+        for (int i = off - 1; i >= 0 && carry != 0; i--)
+        {
+            carry += longer[i] & 0xff;
+            longer[i] = (byte)carry;
+            carry >>>= 8;
+        }
+    }
+
+    private static void addCounter(byte[] longer, long counter)
+    {
+        int carry = 0;
+
+        for (int i = longer.length - 1; i >= 0; i--)
+        {
+            carry += (longer[i] & 0xff) + (int)(counter & 0xff);
+            longer[i] = (byte)carry;
+            carry >>>= 8;
+            counter >>>= 8;
+
+            if (counter == 0 && carry == 0)
+            {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.spongycastle.crypto.prng.drbg;
+
+import java.util.Hashtable;
+
+import org.spongycastle.crypto.Digest;
+import org.spongycastle.crypto.Mac;
+
+class Utils
+{
+    static final Hashtable maxSecurityStrengths = new Hashtable();
+
+    static
+    {
+        maxSecurityStrengths.put("SHA-1", new Integer(128));
+        maxSecurityStrengths.put("SHA-224", new Integer(192));
+        maxSecurityStrengths.put("SHA-256", new Integer(256));
+        maxSecurityStrengths.put("SHA-384", new Integer(256));
+        maxSecurityStrengths.put("SHA-512", new Integer(256));
+    }
+
+    static int getMaxSecurityStrength(Digest d)
+    {
+        return getMaxSecurityStrength(d.getAlgorithmName());
+    }
+
+    static int getMaxSecurityStrength(Mac m)
+    {
+        String name = m.getAlgorithmName();
+
+        return getMaxSecurityStrength(name.substring(0, name.indexOf("/")));
+    }
+
+    private static int getMaxSecurityStrength(String digestName)
+    {
+        Integer strength = (Integer)maxSecurityStrengths.get(digestName);
+
+        if (strength == null)
+        {
+            throw new IllegalArgumentException("digest " + digestName + " not supported by SP 800-90A DRBGs");
+        }
+
+        return strength.intValue();
+    }
+
+    /**
+     * Hash_df from SP 800-90A 10.4.1 - seedLength is in bits and must be a multiple of 8.
+     */
+    static byte[] hash_df(Digest digest, byte[] seedMaterial, int seedLength)
+    {
+        byte[] temp = new byte[seedLength / 8];
+
+        int len = temp.length / digest.getDigestSize();
+        int counter = 1;
+
+        byte[] dig = new byte[digest.getDigestSize()];
+
+        for (int i = 0; i <= len; i++)
+        {
+            digest.update((byte)counter);
+
+            digest.update((byte)(seedLength >> 24));
+            digest.update((byte)(seedLength >> 16));
+            digest.update((byte)(seedLength >> 8));
+            digest.update((byte)seedLength);
+
+            digest.update(seedMaterial, 0, seedMaterial.length);
+
+            digest.doFinal(dig, 0);
+
+            int bytesToCopy = Math.min(dig.length, temp.length - i * dig.length);
+
+            System.arraycopy(dig, 0, temp, i * dig.length, bytesToCopy);
+
+            counter++;
+        }
+
+        return temp;
+    }
+
+    /**
+     * Return the concatenation of the non-null arrays passed in.
+     */
+    static byte[] concatenate(byte[] a, byte[] b, byte[] c, byte[] d)
+    {
+        byte[] rv = new byte[length(a) + length(b) + length(c) + length(d)];
+        int off = 0;
+
+        off = append(a, rv, off);
+        off = append(b, rv, off);
+        off = append(c, rv, off);
+        append(d, rv, off);
+
+        return rv;
+    }
+
+    /**
+     * Treat a null or empty additional input as not being there.
+     */
+    static boolean isPresent(byte[] input)
+    {
+        return input != null && input.length != 0;
+    }
+
+    private static int length(byte[] a)
+    {
+        return (a == null) ? 0 : a.length;
+    }
+
+    private static int append(byte[] a, byte[] rv, int off)
+    {
+        if (a == null)
+        {
+            return off;
+        }
+
+        System.arraycopy(a, 0, rv, off, a.length);
+
+        return off + a.length;
+    }
+}
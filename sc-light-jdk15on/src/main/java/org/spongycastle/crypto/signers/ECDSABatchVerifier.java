@@ -0,0 +1,392 @@
+package org.spongycastle.crypto.signers;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.spongycastle.crypto.params.ECDomainParameters;
+import org.spongycastle.crypto.params.ECPublicKeyParameters;
+import org.spongycastle.math.ec.ECConstants;
+import org.spongycastle.math.ec.ECCurve;
+import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.math.ec.FixedPointCombMultiplier;
+
+/**
+ * Verifies a batch of EC-DSA signatures (X9.62), each with its own message digest and public
+ * key, giving a result per signature identical to ECDSASigner.verifySignature().
+ * <p>
+ * Work is shared across the batch: the s values are inverted together using a single modular
+ * inversion per group order, u1 * G uses the comb table of the generator, the table for
+ * u2 * Q is built once for each distinct public key in the batch, and the resulting points
+ * are normalized together using a single field inversion per curve.
+ * <p>
+ * Given an ExecutorService the batch is split into chunks which are verified concurrently,
+ * the first chunk always being done on the calling thread. Instances hold no per-batch state
+ * and may be shared between threads.
+ */
+public class ECDSABatchVerifier
+    implements ECConstants
+{
+    /**
+     * default minimum number of signatures given to a single task.
+     */
+    public static final int DEFAULT_MIN_SIGNATURES_PER_TASK = 16;
+
+    private final ExecutorService executor;
+    private final int             maxTasks;
+    private final int             minSignaturesPerTask;
+
+    /**
+     * Create a verifier which does all the work on the calling thread.
+     */
+    public ECDSABatchVerifier()
+    {
+        this.executor = null;
+        this.maxTasks = 1;
+        this.minSignaturesPerTask = DEFAULT_MIN_SIGNATURES_PER_TASK;
+    }
+
+    /**
+     * Create a verifier which splits batches across an executor.
+     *
+     * @param executor the executor the chunks are run on.
+     * @param maxTasks the maximum number of chunks a batch is split into.
+     */
+    public ECDSABatchVerifier(ExecutorService executor, int maxTasks)
+    {
+        this(executor, maxTasks, DEFAULT_MIN_SIGNATURES_PER_TASK);
+    }
+
+    /**
+     * Constructor specifying the smallest amount of work worth handing to another thread.
+     *
+     * @param executor the executor the chunks are run on.
+     * @param maxTasks the maximum number of chunks a batch is split into.
+     * @param minSignaturesPerTask the minimum number of signatures verified by a single task.
+     */
+    public ECDSABatchVerifier(ExecutorService executor, int maxTasks, int minSignaturesPerTask)
+    {
+        if (maxTasks < 1)
+        {
+            throw new IllegalArgumentException("maxTasks must be at least 1");
+        }
+        if (minSignaturesPerTask < 1)
+        {
+            throw new IllegalArgumentException("minSignaturesPerTask must be at least 1");
+        }
+
+        this.executor = executor;
+        this.maxTasks = maxTasks;
+        this.minSignaturesPerTask = minSignaturesPerTask;
+    }
+
+    /**
+     * Verify a batch of signatures. Entry i of each array describes one signature.
+     *
+     * @param keys the public key for each signature.
+     * @param messages the message digest each signature is over.
+     * @param signatures the signatures, each a two element array {r, s} as returned by
+     * ECDSASigner.generateSignature().
+     * @return an array holding true at index i if signature i is valid, false otherwise.
+     */
+    public boolean[] verifySignatures(
+        ECPublicKeyParameters[] keys,
+        byte[][]                messages,
+        BigInteger[][]          signatures)
+    {
+        if (keys.length != messages.length || keys.length != signatures.length)
+        {
+            throw new IllegalArgumentException("keys, messages and signatures must be the same length");
+        }
+
+        int       count = keys.length;
+        boolean[] results = new boolean[count];
+        int       taskCount = (executor == null) ? 1 : Math.max(1, Math.min(maxTasks, count / minSignaturesPerTask));
+
+        if (taskCount == 1)
+        {
+            verifyChunk(keys, messages, signatures, 0, count, results);
+        }
+        else
+        {
+            verifyParallel(taskCount, keys, messages, signatures, results);
+        }
+
+        return results;
+    }
+
+    private void verifyParallel(int taskCount, ECPublicKeyParameters[] keys, byte[][] messages, BigInteger[][] signatures, boolean[] results)
+    {
+        int perTask = keys.length / taskCount;
+        List<Future<Integer>> tasks = new ArrayList<Future<Integer>>(taskCount - 1);
+
+        // the first chunk is left for the calling thread, the rest go to the executor
+        int first = keys.length - perTask * (taskCount - 1);
+
+        for (int i = 1; i != taskCount; i++)
+        {
+            int start = first + (i - 1) * perTask;
+
+            tasks.add(executor.submit(new ChunkTask(keys, messages, signatures, start, start + perTask, results)));
+        }
+
+        RuntimeException failure = null;
+
+        try
+        {
+            verifyChunk(keys, messages, signatures, 0, first, results);
+        }
+        catch (RuntimeException e)
+        {
+            failure = e;
+        }
+
+        // always wait for every task, results is written to until they are finished.
+        for (int i = 0; i != tasks.size(); i++)
+        {
+            try
+            {
+                tasks.get(i).get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                if (failure == null)
+                {
+                    failure = new IllegalStateException("interrupted waiting for verification task");
+                }
+            }
+            catch (ExecutionException e)
+            {
+                if (failure == null)
+                {
+                    Throwable cause = e.getCause();
+
+                    failure = (cause instanceof RuntimeException) ? (RuntimeException)cause : new IllegalStateException(e);
+                }
+            }
+        }
+
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+
+    /**
+     * verify signatures [from, to), writing the outcomes into results.
+     */
+    private static int verifyChunk(
+        ECPublicKeyParameters[] keys,
+        byte[][]                messages,
+        BigInteger[][]          signatures,
+        int                     from,
+        int                     to,
+        boolean[]               results)
+    {
+        int          len = to - from;
+        BigInteger[] c = new BigInteger[len];
+        BigInteger[] orders = new BigInteger[len];
+
+        // 5.4.2 step 1, s and r in the range [1,n-1], anything else fails now.
+        for (int i = 0; i != len; i++)
+        {
+            BigInteger n = keys[from + i].getParameters().getN();
+            BigInteger r = signatures[from + i][0];
+            BigInteger s = signatures[from + i][1];
+
+            if (r.compareTo(ONE) >= 0 && r.compareTo(n) < 0 && s.compareTo(ONE) >= 0 && s.compareTo(n) < 0)
+            {
+                c[i] = s;
+                orders[i] = n;
+            }
+        }
+
+        invertAll(c, orders);
+
+        // the public keys are copied so the precomputation built for each one stays local to
+        // this chunk, repeated keys within the chunk share their copy.
+        Map          localKeys = new HashMap();
+        ECPoint[]    points = new ECPoint[len];
+        List         curves = new ArrayList();
+
+        for (int i = 0; i != len; i++)
+        {
+            if (c[i] == null)
+            {
+                continue;
+            }
+
+            ECDomainParameters params = keys[from + i].getParameters();
+            BigInteger         n = orders[i];
+            BigInteger         e = calculateE(n, messages[from + i]);
+            BigInteger         u1 = e.multiply(c[i]).mod(n);
+            BigInteger         u2 = signatures[from + i][0].multiply(c[i]).mod(n);
+
+            ECPoint Q = keys[from + i].getQ();
+            ECPoint localQ = (ECPoint)localKeys.get(Q);
+
+            if (localQ == null)
+            {
+                Q = Q.normalize();
+                localQ = Q.getCurve().createPoint(Q.getX().toBigInteger(), Q.getY().toBigInteger(), false);
+                localKeys.put(Q, localQ);
+            }
+
+            points[i] = new FixedPointCombMultiplier().multiply(params.getG(), u1).add(localQ.multiply(u2));
+
+            if (!curves.contains(points[i].getCurve()))
+            {
+                curves.add(points[i].getCurve());
+            }
+        }
+
+        normalizeAll(points, curves);
+
+        int valid = 0;
+
+        for (int i = 0; i != len; i++)
+        {
+            ECPoint point = points[i];
+
+            if (point != null && !point.isInfinity())
+            {
+                BigInteger v = point.getX().toBigInteger().mod(orders[i]);
+
+                results[from + i] = v.equals(signatures[from + i][0]);
+                if (results[from + i])
+                {
+                    valid++;
+                }
+            }
+        }
+
+        return valid;
+    }
+
+    /**
+     * Replace each non-null values[i] by its inverse modulo moduli[i], using one modular
+     * inversion for each distinct modulus (Montgomery's trick).
+     */
+    private static void invertAll(BigInteger[] values, BigInteger[] moduli)
+    {
+        boolean[]    done = new boolean[values.length];
+        BigInteger[] products = new BigInteger[values.length];
+        int[]        index = new int[values.length];
+
+        for (int start = 0; start != values.length; start++)
+        {
+            if (values[start] == null || done[start])
+            {
+                continue;
+            }
+
+            BigInteger n = moduli[start];
+            int        count = 0;
+
+            for (int i = start; i != values.length; i++)
+            {
+                if (values[i] != null && !done[i] && moduli[i].equals(n))
+                {
+                    products[count] = (count == 0) ? values[i] : products[count - 1].multiply(values[i]).mod(n);
+                    index[count++] = i;
+                    done[i] = true;
+                }
+            }
+
+            // products[j] is the product of the first j + 1 values, inv its inverse.
+            BigInteger inv = products[count - 1].modInverse(n);
+
+            for (int j = count - 1; j > 0; j--)
+            {
+                BigInteger v = values[index[j]];
+
+                values[index[j]] = inv.multiply(products[j - 1]).mod(n);
+                inv = inv.multiply(v).mod(n);
+            }
+
+            values[index[0]] = inv;
+        }
+    }
+
+    /**
+     * Normalize the points of each curve together.
+     */
+    private static void normalizeAll(ECPoint[] points, List curves)
+    {
+        for (int c = 0; c != curves.size(); c++)
+        {
+            ECCurve   curve = (ECCurve)curves.get(c);
+            ECPoint[] group = new ECPoint[points.length];
+
+            for (int i = 0; i != points.length; i++)
+            {
+                if (points[i] != null && points[i].getCurve().equals(curve))
+                {
+                    group[i] = points[i];
+                }
+            }
+
+            curve.normalizeAll(group);
+
+            for (int i = 0; i != points.length; i++)
+            {
+                if (group[i] != null)
+                {
+                    points[i] = group[i];
+                }
+            }
+        }
+    }
+
+    private static BigInteger calculateE(BigInteger n, byte[] message)
+    {
+        int log2n = n.bitLength();
+        int messageBitLength = message.length * 8;
+
+        if (log2n >= messageBitLength)
+        {
+            return new BigInteger(1, message);
+        }
+        else
+        {
+            BigInteger trunc = new BigInteger(1, message);
+
+            trunc = trunc.shiftRight(messageBitLength - log2n);
+
+            return trunc;
+        }
+    }
+
+    private static class ChunkTask
+        implements Callable<Integer>
+    {
+        private final ECPublicKeyParameters[] keys;
+        private final byte[][] messages;
+        private final BigInteger[][] signatures;
+        private final int from;
+        private final int to;
+        private final boolean[] results;
+
+        ChunkTask(ECPublicKeyParameters[] keys, byte[][] messages, BigInteger[][] signatures, int from, int to, boolean[] results)
+        {
+            this.keys = keys;
+            this.messages = messages;
+            this.signatures = signatures;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+        }
+
+        public Integer call()
+        {
+            return Integer.valueOf(verifyChunk(keys, messages, signatures, from, to, results));
+        }
+    }
+}
@@ -12,6 +12,8 @@ import org.spongycastle.crypto.params.ParametersWithRandom;
 import org.spongycastle.math.ec.ECAlgorithms;
 import org.spongycastle.math.ec.ECConstants;
 import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.math.ec.ECPointPreCompCache;
+import org.spongycastle.math.ec.FixedPointCombMultiplier;
 
 /**
  * EC-DSA as described in X9.62
@@ -23,6 +25,27 @@ public class ECDSASigner
 
     SecureRandom    random;
 
+    private final ECPointPreCompCache publicKeyCache;
+
+    /**
+     * Default constructor.
+     */
+    public ECDSASigner()
+    {
+        this(null);
+    }
+
+    /**
+     * Constructor for verifiers which see the same public keys again and again. Each public
+     * key is looked up in the passed in cache, so the precomputation for it is only done once.
+     *
+     * @param publicKeyCache the cache to look public keys up in, null for no caching.
+     */
+    public ECDSASigner(ECPointPreCompCache publicKeyCache)
+    {
+        this.publicKeyCache = publicKeyCache;
+    }
+
     public void init(
         boolean                 forSigning,
         CipherParameters        param)
@@ -78,7 +101,7 @@ public class ECDSASigner
                 }
                 while (k.equals(ZERO) || k.compareTo(n) >= 0);
 
-                ECPoint p = key.getParameters().getG().multiply(k);
+                ECPoint p = new FixedPointCombMultiplier().multiply(key.getParameters().getG(), k);
 
                 // 5.3.3
                 BigInteger x = p.getX().toBigInteger();
@@ -135,7 +158,22 @@ public class ECDSASigner
         ECPoint G = key.getParameters().getG();
         ECPoint Q = ((ECPublicKeyParameters)key).getQ();
 
-        ECPoint point = ECAlgorithms.sumOfTwoMultiplies(G, u1, Q, u2);
+        ECPoint point;
+
+        if (publicKeyCache != null)
+        {
+            // the cached Q carries its window table, G its comb table
+            point = new FixedPointCombMultiplier().multiply(G, u1).add(publicKeyCache.getPoint(Q).multiply(u2));
+        }
+        else
+        {
+            point = ECAlgorithms.sumOfTwoMultiplies(G, u1, Q, u2);
+        }
+
+        if (point.isInfinity())
+        {
+            return false;
+        }
 
         BigInteger v = point.getX().toBigInteger().mod(n);
 
@@ -9,6 +9,7 @@ import org.spongycastle.crypto.params.ParametersWithRandom;
 import org.spongycastle.math.ec.ECAlgorithms;
 import org.spongycastle.math.ec.ECConstants;
 import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.math.ec.FixedPointCombMultiplier;
 
 import java.math.BigInteger;
 import java.security.SecureRandom;
@@ -82,7 +83,7 @@ public class ECGOST3410Signer
                 }
                 while (k.equals(ECConstants.ZERO));
 
-                ECPoint p = key.getParameters().getG().multiply(k);
+                ECPoint p = new FixedPointCombMultiplier().multiply(key.getParameters().getG(), k);
 
                 BigInteger x = p.getX().toBigInteger();
 
@@ -12,7 +12,10 @@ import java.util.Vector;
 
 import org.spongycastle.asn1.ASN1Primitive;
 import org.spongycastle.asn1.x500.X500Name;
-import org.spongycastle.crypto.prng.ThreadedSeedGenerator;
+import org.spongycastle.crypto.prng.AsyncEntropySource;
+import org.spongycastle.crypto.prng.EntropySource;
+import org.spongycastle.crypto.prng.SecureRandomEntropySource;
+import org.spongycastle.crypto.prng.URandomEntropySource;
 import org.spongycastle.util.Arrays;
 
 /**
@@ -76,26 +79,56 @@ public class TlsProtocolHandler
 
     private short connection_state = 0;
 
-    private static SecureRandom createSecureRandom()
+    /*
+     * Seed material for createSecureRandom(), created on the first handshake which needs it and
+     * then gathered in the background so later handshakes don't wait on the system's entropy source.
+     */
+    private static AsyncEntropySource seedSource = null;
+
+    private static synchronized AsyncEntropySource getSeedSource()
+    {
+        if (seedSource == null)
+        {
+            seedSource = new AsyncEntropySource(createSeedSource());
+        }
+
+        return seedSource;
+    }
+
+    private static EntropySource createSeedSource()
     {
         /*
-         * We use our threaded seed generator to generate a good random seed. If the user
-         * has a better random seed, he should use the constructor with a SecureRandom.
+         * /dev/urandom never blocks once the system is up, so prefer it where we have it and fall
+         * back to the JDK's seed generator elsewhere.
          */
-        ThreadedSeedGenerator tsg = new ThreadedSeedGenerator();
-        SecureRandom random = new SecureRandom();
+        if (URandomEntropySource.isAvailable())
+        {
+            return new URandomEntropySource(256);
+        }
 
+        return new SecureRandomEntropySource(new SecureRandom(), false, 256);
+    }
+
+    private static SecureRandom createSecureRandom()
+    {
         /*
-         * Hopefully, 20 bytes in fast mode are good enough.
+         * We seed from the system entropy source. If the user has a better random seed, he should
+         * use the constructor with a SecureRandom.
          */
-        random.setSeed(tsg.generateSeed(20, true));
+        SecureRandom random = new SecureRandom();
+
+        random.setSeed(getSeedSource().getEntropy());
 
         return random;
     }
 
+    /**
+     * Constructor for a handler which creates and seeds its own SecureRandom when it connects.
+     */
     public TlsProtocolHandler(InputStream is, OutputStream os)
     {
-        this(is, os, createSecureRandom());
+        this.rs = new RecordStream(this, is, os);
+        this.random = null;
     }
 
     public TlsProtocolHandler(InputStream is, OutputStream os, SecureRandom sr)
@@ -865,6 +898,11 @@ public class TlsProtocolHandler
          * 
          * First, generate some random data.
          */
+        if (random == null)
+        {
+            random = createSecureRandom();
+        }
+
         this.securityParameters = new SecurityParameters();
         this.securityParameters.clientRandom = new byte[32];
         random.nextBytes(securityParameters.clientRandom);
@@ -0,0 +1,446 @@
+package org.spongycastle.crypto.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.spongycastle.crypto.BufferedBlockCipher;
+import org.spongycastle.crypto.DataLengthException;
+import org.spongycastle.crypto.Digest;
+import org.spongycastle.crypto.InvalidCipherTextException;
+import org.spongycastle.crypto.Mac;
+import org.spongycastle.crypto.StreamCipher;
+import org.spongycastle.crypto.modes.AEADBlockCipher;
+
+/**
+ * java.nio.ByteBuffer versions of the processing methods on the lightweight cipher, digest
+ * and MAC interfaces.
+ * <p>
+ * Input is consumed from the buffer's position up to its limit and output is written at the
+ * output buffer's position, with both positions advanced past the bytes used, as in
+ * javax.crypto.Cipher. Buffers backed by an accessible array are passed straight to the
+ * byte[] methods. Direct and read-only buffers are moved through a small per thread scratch
+ * array instead, so no per call garbage is created. The scratch is zeroed after every call,
+ * so no data is left on the thread. If the output buffer is too small a DataLengthException
+ * is thrown before anything is consumed.
+ * <p>
+ * This is a standalone helper: the lightweight cipher, digest and MAC classes don't call it.
+ * <p>
+ * The input and output may share a backing array in any arrangement. If the regions overlap,
+ * the input is copied before processing, as javax.crypto.CipherSpi does. Overlap between
+ * two direct buffers cannot be detected, so direct views of the same memory must not overlap.
+ */
+public abstract class ByteBuffers
+{
+    private static final int CHUNK_SIZE = 4096;
+
+    // room for a chunk plus any buffered blocks and MAC released with it.
+    private static final int SCRATCH_SIZE = CHUNK_SIZE + 256;
+
+    // holds only byte arrays, so a thread's entry never pins the class loader.
+    private static final ThreadLocal scratch = new ThreadLocal();
+
+    /**
+     * Update the digest with the remaining bytes in the buffer.
+     */
+    public static void update(Digest digest, ByteBuffer in)
+    {
+        if (in.hasArray())
+        {
+            digest.update(in.array(), in.arrayOffset() + in.position(), in.remaining());
+            in.position(in.limit());
+            return;
+        }
+
+        byte[] buf = scratch(0, CHUNK_SIZE);
+
+        try
+        {
+            while (in.hasRemaining())
+            {
+                int chunk = Math.min(in.remaining(), CHUNK_SIZE);
+
+                in.get(buf, 0, chunk);
+                digest.update(buf, 0, chunk);
+            }
+        }
+        finally
+        {
+            wipe(buf, CHUNK_SIZE);
+        }
+    }
+
+    /**
+     * Complete the digest, writing the result to out.
+     *
+     * @return the number of bytes written.
+     */
+    public static int doFinal(Digest digest, ByteBuffer out)
+    {
+        int len = digest.getDigestSize();
+
+        checkOutput(out, len);
+
+        if (hasWritableArray(out))
+        {
+            digest.doFinal(out.array(), out.arrayOffset() + out.position());
+            out.position(out.position() + len);
+        }
+        else
+        {
+            byte[] buf = scratch(1, len);
+
+            try
+            {
+                digest.doFinal(buf, 0);
+                out.put(buf, 0, len);
+            }
+            finally
+            {
+                wipe(buf, len);
+            }
+        }
+
+        return len;
+    }
+
+    /**
+     * Update the MAC with the remaining bytes in the buffer.
+     */
+    public static void update(Mac mac, ByteBuffer in)
+    {
+        if (in.hasArray())
+        {
+            mac.update(in.array(), in.arrayOffset() + in.position(), in.remaining());
+            in.position(in.limit());
+            return;
+        }
+
+        byte[] buf = scratch(0, CHUNK_SIZE);
+
+        try
+        {
+            while (in.hasRemaining())
+            {
+                int chunk = Math.min(in.remaining(), CHUNK_SIZE);
+
+                in.get(buf, 0, chunk);
+                mac.update(buf, 0, chunk);
+            }
+        }
+        finally
+        {
+            wipe(buf, CHUNK_SIZE);
+        }
+    }
+
+    /**
+     * Complete the MAC, writing the result to out.
+     *
+     * @return the number of bytes written.
+     */
+    public static int doFinal(Mac mac, ByteBuffer out)
+    {
+        int len = mac.getMacSize();
+
+        checkOutput(out, len);
+
+        if (hasWritableArray(out))
+        {
+            mac.doFinal(out.array(), out.arrayOffset() + out.position());
+            out.position(out.position() + len);
+        }
+        else
+        {
+            byte[] buf = scratch(1, len);
+
+            try
+            {
+                mac.doFinal(buf, 0);
+                out.put(buf, 0, len);
+            }
+            finally
+            {
+                wipe(buf, len);
+            }
+        }
+
+        return len;
+    }
+
+    /**
+     * Process the remaining bytes in in, writing the result to out.
+     *
+     * @return the number of bytes written.
+     */
+    public static int processBytes(StreamCipher cipher, ByteBuffer in, ByteBuffer out)
+    {
+        checkOutput(out, in.remaining());
+
+        return process(cipher, in, out);
+    }
+
+    /**
+     * Process the remaining bytes in in, writing any output produced to out.
+     *
+     * @return the number of bytes written.
+     */
+    public static int processBytes(BufferedBlockCipher cipher, ByteBuffer in, ByteBuffer out)
+    {
+        checkOutput(out, cipher.getUpdateOutputSize(in.remaining()));
+
+        return process(cipher, in, out);
+    }
+
+    /**
+     * Process the last block in the buffer, writing any output produced to out.
+     *
+     * @return the number of bytes written.
+     */
+    public static int doFinal(BufferedBlockCipher cipher, ByteBuffer out)
+        throws InvalidCipherTextException
+    {
+        int len = cipher.getOutputSize(0);
+
+        checkOutput(out, len);
+
+        if (hasWritableArray(out))
+        {
+            len = cipher.doFinal(out.array(), out.arrayOffset() + out.position());
+            out.position(out.position() + len);
+        }
+        else
+        {
+            int    bufLen = len;
+            byte[] buf = scratch(1, bufLen);
+
+            try
+            {
+                len = cipher.doFinal(buf, 0);
+                out.put(buf, 0, len);
+            }
+            finally
+            {
+                wipe(buf, bufLen);
+            }
+        }
+
+        return len;
+    }
+
+    /**
+     * Process the remaining bytes in in, writing any output produced to out.
+     *
+     * @return the number of bytes written.
+     */
+    public static int processBytes(AEADBlockCipher cipher, ByteBuffer in, ByteBuffer out)
+    {
+        checkOutput(out, cipher.getUpdateOutputSize(in.remaining()));
+
+        return process(cipher, in, out);
+    }
+
+    /**
+     * Finish the operation, writing any remaining output and, for encryption, the MAC to out.
+     *
+     * @return the number of bytes written.
+     */
+    public static int doFinal(AEADBlockCipher cipher, ByteBuffer out)
+        throws InvalidCipherTextException
+    {
+        int len = cipher.getOutputSize(0);
+
+        checkOutput(out, len);
+
+        if (hasWritableArray(out))
+        {
+            len = cipher.doFinal(out.array(), out.arrayOffset() + out.position());
+            out.position(out.position() + len);
+        }
+        else
+        {
+            int    bufLen = len;
+            byte[] buf = scratch(1, bufLen);
+
+            try
+            {
+                len = cipher.doFinal(buf, 0);
+                out.put(buf, 0, len);
+            }
+            finally
+            {
+                wipe(buf, bufLen);
+            }
+        }
+
+        return len;
+    }
+
+    private static int process(Object cipher, ByteBuffer in, ByteBuffer out)
+    {
+        if (in.hasArray() && hasWritableArray(out))
+        {
+            byte[] inArray = in.array();
+            int inOff = in.arrayOffset() + in.position();
+            int inLen = in.remaining();
+            int outOff = out.arrayOffset() + out.position();
+
+            // ciphers buffer input, so output written into a region overlapping the input
+            // can overwrite bytes not read yet - work from a copy.
+            byte[] copy = null;
+
+            if (inArray == out.array() && inOff < outOff + out.remaining() && outOff < inOff + inLen)
+            {
+                copy = scratch(0, inLen);
+
+                System.arraycopy(inArray, inOff, copy, 0, inLen);
+                inArray = copy;
+                inOff = 0;
+            }
+
+            try
+            {
+                int len = processBytes(cipher, inArray, inOff, inLen, out.array(), outOff);
+
+                in.position(in.limit());
+                out.position(out.position() + len);
+
+                return len;
+            }
+            finally
+            {
+                if (copy != null)
+                {
+                    wipe(copy, inLen);
+                }
+            }
+        }
+
+        byte[] inBuf = scratch(0, CHUNK_SIZE);
+        byte[] outBuf = null;
+        int outBufLen = 0;
+        int total = 0;
+
+        try
+        {
+            while (in.hasRemaining())
+            {
+                int chunk = Math.min(in.remaining(), CHUNK_SIZE);
+                byte[] src;
+                int srcOff;
+
+                if (in.hasArray())
+                {
+                    src = in.array();
+                    srcOff = in.arrayOffset() + in.position();
+                    in.position(in.position() + chunk);
+                }
+                else
+                {
+                    src = inBuf;
+                    srcOff = 0;
+                    in.get(inBuf, 0, chunk);
+                }
+
+                int len;
+
+                if (hasWritableArray(out))
+                {
+                    len = processBytes(cipher, src, srcOff, chunk, out.array(), out.arrayOffset() + out.position());
+                    out.position(out.position() + len);
+                }
+                else
+                {
+                    int size = updateOutputSize(cipher, chunk);
+
+                    outBuf = scratch(1, size);
+                    outBufLen = Math.max(outBufLen, size);
+
+                    len = processBytes(cipher, src, srcOff, chunk, outBuf, 0);
+                    out.put(outBuf, 0, len);
+                }
+
+                total += len;
+            }
+
+            return total;
+        }
+        finally
+        {
+            wipe(inBuf, CHUNK_SIZE);
+            if (outBuf != null)
+            {
+                wipe(outBuf, Math.min(outBufLen, outBuf.length));
+            }
+        }
+    }
+
+    private static int processBytes(Object cipher, byte[] in, int inOff, int len, byte[] out, int outOff)
+    {
+        if (cipher instanceof BufferedBlockCipher)
+        {
+            return ((BufferedBlockCipher)cipher).processBytes(in, inOff, len, out, outOff);
+        }
+        if (cipher instanceof AEADBlockCipher)
+        {
+            return ((AEADBlockCipher)cipher).processBytes(in, inOff, len, out, outOff);
+        }
+
+        ((StreamCipher)cipher).processBytes(in, inOff, len, out, outOff);
+
+        return len;
+    }
+
+    private static int updateOutputSize(Object cipher, int len)
+    {
+        if (cipher instanceof BufferedBlockCipher)
+        {
+            return ((BufferedBlockCipher)cipher).getUpdateOutputSize(len);
+        }
+        if (cipher instanceof AEADBlockCipher)
+        {
+            return ((AEADBlockCipher)cipher).getUpdateOutputSize(len);
+        }
+
+        return len;
+    }
+
+    private static boolean hasWritableArray(ByteBuffer buf)
+    {
+        return buf.hasArray();     // hasArray() is false for read-only buffers
+    }
+
+    private static void checkOutput(ByteBuffer out, int len)
+    {
+        if (out.remaining() < len)
+        {
+            throw new DataLengthException("output buffer too short");
+        }
+    }
+
+    /**
+     * Return the per thread scratch array at index, or a new array if more than the scratch
+     * size is needed - large one off outputs (e.g. CCM decryption) are not kept around.
+     */
+    private static byte[] scratch(int index, int size)
+    {
+        if (size > SCRATCH_SIZE)
+        {
+            return new byte[size];
+        }
+
+        byte[][] bufs = (byte[][])scratch.get();
+
+        if (bufs == null)
+        {
+            bufs = new byte[][] { new byte[SCRATCH_SIZE], new byte[SCRATCH_SIZE] };
+            scratch.set(bufs);
+        }
+
+        return bufs[index];
+    }
+
+    private static void wipe(byte[] buf, int len)
+    {
+        Arrays.fill(buf, 0, len, (byte)0);
+    }
+}
@@ -60,7 +60,15 @@ public class ECAlgorithms
         ECPoint Q, BigInteger l)
     {
         int m = Math.max(k.bitLength(), l.bitLength());
-        ECPoint Z = P.add(Q);
+        ECPoint[] points = new ECPoint[]{ P, Q, P.add(Q) };
+
+        // one inversion here saves the cost of adding non-affine points in the loop
+        P.getCurve().normalizeAll(points);
+
+        P = points[0];
+        Q = points[1];
+
+        ECPoint Z = points[2];
         ECPoint R = P.getCurve().getInfinity();
 
         for (int i = m - 1; i >= 0; --i)
@@ -31,19 +31,45 @@ public abstract class ECCurve
     }
 
     /**
-     * Elliptic curve over Fp
+     * Replace each point in the passed in array by its affine form (see ECPoint.normalize()).
+     * Infinity and null entries are left as they are.
+     *
+     * @param points the points to normalize, which must all be on this curve.
+     */
+    public void normalizeAll(ECPoint[] points)
+    {
+        for (int i = 0; i != points.length; i++)
+        {
+            if (points[i] != null)
+            {
+                points[i] = points[i].normalize();
+            }
+        }
+    }
+
+    /**
+     * Elliptic curve over Fp. When q is one of the primes used by NIST P-256, P-384, P-521 or
+     * secp256k1 the field elements of the curve use dedicated fixed width arithmetic.
      */
     public static class Fp extends ECCurve
     {
         BigInteger q;
         ECPoint.Fp infinity;
+        FixedFpField field;
+
+        // the common choices of a allow a cheaper point doubling
+        boolean aIsZero;
+        boolean aIsMinusThree;
 
         public Fp(BigInteger q, BigInteger a, BigInteger b)
         {
             this.q = q;
+            this.field = FixedFpField.getInstance(q);
             this.a = fromBigInteger(a);
             this.b = fromBigInteger(b);
             this.infinity = new ECPoint.Fp(this, null, null);
+            this.aIsZero = (this.a.toBigInteger().signum() == 0);
+            this.aIsMinusThree = this.a.toBigInteger().add(BigInteger.valueOf(3)).equals(q);
         }
 
         public BigInteger getQ()
@@ -58,9 +84,28 @@ public abstract class ECCurve
 
         public ECFieldElement fromBigInteger(BigInteger x)
         {
+            if (field != null)
+            {
+                return field.createElement(x);
+            }
+
             return new ECFieldElement.Fp(this.q, x);
         }
 
+        /**
+         * Return x in this curve's own representation, converting elements of the same field
+         * created elsewhere (for instance directly as ECFieldElement.Fp).
+         */
+        ECFieldElement importFieldElement(ECFieldElement x)
+        {
+            if (field != null && !(x instanceof FixedFpFieldElement))
+            {
+                return field.createElement(x.toBigInteger());
+            }
+
+            return x;
+        }
+
         public ECPoint createPoint(BigInteger x, BigInteger y, boolean withCompression)
         {
             return new ECPoint.Fp(this, fromBigInteger(x), fromBigInteger(y), withCompression);
@@ -94,7 +139,7 @@ public abstract class ECCurve
 
                 System.arraycopy(encoded, 1, i, 0, i.length);
 
-                ECFieldElement x = new ECFieldElement.Fp(this.q, new BigInteger(1, i));
+                ECFieldElement x = fromBigInteger(new BigInteger(1, i));
                 ECFieldElement alpha = x.multiply(x.square().add(a)).add(b);
                 ECFieldElement beta = alpha.sqrt();
 
@@ -115,8 +160,7 @@ public abstract class ECCurve
                 }
                 else
                 {
-                    p = new ECPoint.Fp(this, x,
-                        new ECFieldElement.Fp(this.q, q.subtract(beta.toBigInteger())), true);
+                    p = new ECPoint.Fp(this, x, beta.negate(), true);
                 }
                 break;
                 // uncompressed
@@ -131,8 +175,8 @@ public abstract class ECCurve
                 System.arraycopy(encoded, xEnc.length + 1, yEnc, 0, yEnc.length);
 
                 p = new ECPoint.Fp(this,
-                        new ECFieldElement.Fp(this.q, new BigInteger(1, xEnc)),
-                        new ECFieldElement.Fp(this.q, new BigInteger(1, yEnc)));
+                        fromBigInteger(new BigInteger(1, xEnc)),
+                        fromBigInteger(new BigInteger(1, yEnc)));
                 break;
             default:
                 throw new RuntimeException("Invalid point encoding 0x" + Integer.toString(encoded[0], 16));
@@ -146,6 +190,48 @@ public abstract class ECCurve
             return infinity;
         }
 
+        /**
+         * Normalize the points using Montgomery's simultaneous inversion, so the whole array
+         * costs a single field inversion plus three multiplications per point.
+         */
+        public void normalizeAll(ECPoint[] points)
+        {
+            ECPoint.Fp[]     jacobian = new ECPoint.Fp[points.length];
+            int[]            index = new int[points.length];
+            ECFieldElement[] c = new ECFieldElement[points.length];
+            int              count = 0;
+
+            for (int i = 0; i != points.length; i++)
+            {
+                ECPoint.Fp p = (ECPoint.Fp)points[i];
+
+                if (p != null && !p.isInfinity() && p.z != null)
+                {
+                    c[count] = (count == 0) ? p.z : c[count - 1].multiply(p.z);
+                    jacobian[count] = p;
+                    index[count++] = i;
+                }
+            }
+
+            if (count == 0)
+            {
+                return;
+            }
+
+            // c[j] = z[0] * ... * z[j], so inv * c[j - 1] is 1 / z[j] while inv = 1 / c[j]
+            ECFieldElement inv = c[count - 1].invert();
+
+            for (int j = count - 1; j > 0; j--)
+            {
+                ECPoint.Fp p = jacobian[j];
+
+                points[index[j]] = p.normalize(inv.multiply(c[j - 1]));
+                inv = inv.multiply(p.z);
+            }
+
+            points[index[0]] = jacobian[0].normalize(inv);
+        }
+
         public boolean equals(
             Object anObject) 
         {
@@ -42,6 +42,14 @@ public abstract class ECFieldElement
             this.q = q;
         }
 
+        /**
+         * For subclasses holding the value in another form, x is left for them to fill in.
+         */
+        Fp(BigInteger q)
+        {
+            this.q = q;
+        }
+
         public BigInteger toBigInteger()
         {
             return x;
@@ -294,12 +302,12 @@ public abstract class ECFieldElement
             }
             
             ECFieldElement.Fp o = (ECFieldElement.Fp)other;
-            return q.equals(o.q) && x.equals(o.x);
+            return q.equals(o.q) && toBigInteger().equals(o.toBigInteger());
         }
 
         public int hashCode()
         {
-            return q.hashCode() ^ x.hashCode();
+            return q.hashCode() ^ toBigInteger().hashCode();
         }
     }
 
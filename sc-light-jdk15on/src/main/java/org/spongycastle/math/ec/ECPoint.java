@@ -15,9 +15,19 @@ public abstract class ECPoint
 
     protected boolean withCompression;
 
-    protected ECMultiplier multiplier = null;
+    /*
+     * both are volatile so points carrying precomputation can be shared between
+     * threads, the objects they refer to are never modified once published.
+     */
+    protected volatile ECMultiplier multiplier = null;
+
+    protected volatile PreCompInfo preCompInfo = null;
 
-    protected PreCompInfo preCompInfo = null;
+    /**
+     * The comb table of <code>FixedPointCombMultiplier</code>, kept apart from
+     * <code>preCompInfo</code> so a point can carry both. Immutable once set.
+     */
+    volatile FixedPointPreCompInfo fixedPointPreCompInfo = null;
 
     private static X9IntegerConverter converter = new X9IntegerConverter();
 
@@ -73,7 +83,7 @@ public abstract class ECPoint
             return o.isInfinity();
         }
 
-        return x.equals(o.x) && y.equals(o.y);
+        return this.getX().equals(o.getX()) && this.getY().equals(o.getY());
     }
 
     public int hashCode()
@@ -83,7 +93,7 @@ public abstract class ECPoint
             return 0;
         }
         
-        return x.hashCode() ^ y.hashCode();
+        return this.getX().hashCode() ^ this.getY().hashCode();
     }
 
 //    /**
@@ -108,6 +118,17 @@ public abstract class ECPoint
         this.preCompInfo = preCompInfo;
     }
 
+    /**
+     * Return a point equal to this one with its co-ordinates in affine form. Points that are
+     * always held in affine form return themselves.
+     *
+     * @return an equivalent point whose internal co-ordinates are affine.
+     */
+    public ECPoint normalize()
+    {
+        return this;
+    }
+
     public abstract byte[] getEncoded();
 
     public abstract ECPoint add(ECPoint b);
@@ -148,16 +169,31 @@ public abstract class ECPoint
             return this.curve.getInfinity();
         }
 
-        assertECMultiplier();
+        if (this.multiplier == null)
+        {
+            assertECMultiplier();
+        }
         return this.multiplier.multiply(this, k, preCompInfo);
     }
 
     /**
-     * Elliptic curve points over Fp
+     * Elliptic curve points over Fp.
+     * <p>
+     * Points produced by add() and twice() are held internally in Jacobian co-ordinates
+     * (X, Y, Z), representing the affine point (X/Z<sup>2</sup>, Y/Z<sup>3</sup>), so that
+     * point arithmetic needs no field inversions. The affine co-ordinates are computed, once,
+     * when getX(), getY() or getEncoded() is first called.
+     * </p>
      */
     public static class Fp extends ECPoint
     {
-        
+        /**
+         * The Jacobian Z co-ordinate, null if x and y are already affine (Z = 1).
+         */
+        ECFieldElement z;
+
+        private volatile ECPoint.Fp normalized;
+
         /**
          * Create a point which encodes with point compression.
          * 
@@ -180,16 +216,75 @@ public abstract class ECPoint
          */
         public Fp(ECCurve curve, ECFieldElement x, ECFieldElement y, boolean withCompression)
         {
-            super(curve, x, y);
+            this(curve, x, y, null, withCompression);
 
             if ((x != null && y == null) || (x == null && y != null))
             {
                 throw new IllegalArgumentException("Exactly one of the field elements is null");
             }
 
+            if (x != null && curve instanceof ECCurve.Fp)
+            {
+                this.x = ((ECCurve.Fp)curve).importFieldElement(x);
+                this.y = ((ECCurve.Fp)curve).importFieldElement(y);
+            }
+        }
+
+        /**
+         * Create a point from Jacobian co-ordinates.
+         *
+         * @param curve the curve to use
+         * @param x Jacobian X co-ordinate
+         * @param y Jacobian Y co-ordinate
+         * @param z Jacobian Z co-ordinate, non-zero, or null if x and y are affine
+         * @param withCompression if true encode with point compression
+         */
+        Fp(ECCurve curve, ECFieldElement x, ECFieldElement y, ECFieldElement z, boolean withCompression)
+        {
+            super(curve, x, y);
+
+            this.z = z;
             this.withCompression = withCompression;
         }
-         
+
+        public ECFieldElement getX()
+        {
+            return ((ECPoint.Fp)normalize()).x;
+        }
+
+        public ECFieldElement getY()
+        {
+            return ((ECPoint.Fp)normalize()).y;
+        }
+
+        public ECPoint normalize()
+        {
+            if (z == null)
+            {
+                return this;
+            }
+
+            ECPoint.Fp p = normalized;
+
+            if (p == null)
+            {
+                p = normalize(z.invert());
+                normalized = p;
+            }
+
+            return p;
+        }
+
+        /**
+         * Return the affine form of this point given the inverse of its Z co-ordinate.
+         */
+        ECPoint.Fp normalize(ECFieldElement zInv)
+        {
+            ECFieldElement zInv2 = zInv.square();
+
+            return new ECPoint.Fp(curve, x.multiply(zInv2), y.multiply(zInv2.multiply(zInv)), null, withCompression);
+        }
+
         /**
          * return the field element encoded with point compression. (S 4.3.6)
          */
@@ -237,7 +332,7 @@ public abstract class ECPoint
             }
         }
 
-        // B.3 pg 62
+        // add-2007-bl, with the Z1 or Z2 terms dropped when that point is affine
         public ECPoint add(ECPoint b)
         {
             if (this.isInfinity())
@@ -250,10 +345,38 @@ public abstract class ECPoint
                 return this;
             }
 
+            ECPoint.Fp other = (ECPoint.Fp)b;
+            ECFieldElement z1 = this.z;
+            ECFieldElement z2 = other.z;
+
+            ECFieldElement u1 = this.x;
+            ECFieldElement s1 = this.y;
+            ECFieldElement u2 = other.x;
+            ECFieldElement s2 = other.y;
+
+            if (z2 != null)
+            {
+                ECFieldElement z2z2 = z2.square();
+
+                u1 = u1.multiply(z2z2);
+                s1 = s1.multiply(z2z2.multiply(z2));
+            }
+
+            if (z1 != null)
+            {
+                ECFieldElement z1z1 = z1.square();
+
+                u2 = u2.multiply(z1z1);
+                s2 = s2.multiply(z1z1.multiply(z1));
+            }
+
+            ECFieldElement h = u2.subtract(u1);
+            ECFieldElement r = s2.subtract(s1);
+
             // Check if b = this or b = -this
-            if (this.x.equals(b.x))
+            if (h.toBigInteger().signum() == 0)
             {
-                if (this.y.equals(b.y))
+                if (r.toBigInteger().signum() == 0)
                 {
                     // this = b, i.e. this must be doubled
                     return this.twice();
@@ -263,15 +386,28 @@ public abstract class ECPoint
                 return this.curve.getInfinity();
             }
 
-            ECFieldElement gamma = b.y.subtract(this.y).divide(b.x.subtract(this.x));
+            ECFieldElement hh = h.square();
+            ECFieldElement hhh = hh.multiply(h);
+            ECFieldElement v = u1.multiply(hh);
 
-            ECFieldElement x3 = gamma.square().subtract(this.x).subtract(b.x);
-            ECFieldElement y3 = gamma.multiply(this.x.subtract(x3)).subtract(this.y);
+            ECFieldElement x3 = r.square().subtract(hhh).subtract(v.add(v));
+            ECFieldElement y3 = r.multiply(v.subtract(x3)).subtract(s1.multiply(hhh));
+            ECFieldElement z3 = h;
 
-            return new ECPoint.Fp(curve, x3, y3);
+            if (z1 != null)
+            {
+                z3 = z3.multiply(z1);
+            }
+
+            if (z2 != null)
+            {
+                z3 = z3.multiply(z2);
+            }
+
+            return new ECPoint.Fp(curve, x3, y3, z3, false);
         }
 
-        // B.3 pg 62
+        // dbl-2007-bl, using M = 3(X - Z^2)(X + Z^2) when a = -3 and M = 3X^2 when a = 0
         public ECPoint twice()
         {
             if (this.isInfinity())
@@ -287,14 +423,47 @@ public abstract class ECPoint
                 return this.curve.getInfinity();
             }
 
-            ECFieldElement TWO = this.curve.fromBigInteger(BigInteger.valueOf(2));
-            ECFieldElement THREE = this.curve.fromBigInteger(BigInteger.valueOf(3));
-            ECFieldElement gamma = this.x.square().multiply(THREE).add(curve.a).divide(y.multiply(TWO));
+            ECCurve.Fp fpCurve = (ECCurve.Fp)this.curve;
+            ECFieldElement zz = (z == null) ? null : z.square();
+            ECFieldElement m;
 
-            ECFieldElement x3 = gamma.square().subtract(this.x.multiply(TWO));
-            ECFieldElement y3 = gamma.multiply(this.x.subtract(x3)).subtract(this.y);
-                
-            return new ECPoint.Fp(curve, x3, y3, this.withCompression);
+            if (fpCurve.aIsMinusThree && zz != null)
+            {
+                m = x.subtract(zz).multiply(x.add(zz));
+                m = m.add(m).add(m);
+            }
+            else
+            {
+                ECFieldElement xx = x.square();
+
+                m = xx.add(xx).add(xx);
+
+                if (!fpCurve.aIsZero)
+                {
+                    m = m.add(zz == null ? curve.a : curve.a.multiply(zz.square()));
+                }
+            }
+
+            ECFieldElement yy = y.square();
+            ECFieldElement s = x.multiply(yy);
+            ECFieldElement yyyy8 = yy.square();
+
+            s = s.add(s);
+            s = s.add(s);
+            yyyy8 = yyyy8.add(yyyy8);
+            yyyy8 = yyyy8.add(yyyy8);
+            yyyy8 = yyyy8.add(yyyy8);
+
+            ECFieldElement x3 = m.square().subtract(s.add(s));
+            ECFieldElement y3 = m.multiply(s.subtract(x3)).subtract(yyyy8);
+            ECFieldElement z3 = y.add(y);
+
+            if (z != null)
+            {
+                z3 = z3.multiply(z);
+            }
+
+            return new ECPoint.Fp(curve, x3, y3, z3, this.withCompression);
         }
 
         // D.3.2 pg 102 (see Note:)
@@ -311,7 +480,7 @@ public abstract class ECPoint
 
         public ECPoint negate()
         {
-            return new ECPoint.Fp(curve, this.x, this.y.negate(), this.withCompression);
+            return new ECPoint.Fp(curve, this.x, this.y.negate(), this.z, this.withCompression);
         }
 
         /**
@@ -0,0 +1,217 @@
+package org.spongycastle.math.ec;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.spongycastle.util.Arrays;
+
+/**
+ * A bounded cache of points, such as the public keys of CAs, OCSP responders or peer servers,
+ * which are multiplied over and over again but reach us as a fresh encoding or a fresh
+ * <code>ECPoint</code> each time.
+ * <p>
+ * A point is looked up by its curve and encoding. The point returned is always the same
+ * instance, so the window table <code>ECPoint.multiply()</code> builds for it (WNAF, or WTNAF
+ * on Koblitz curves) is built once and reused by every later multiplication. Lookups are lock
+ * free and the points returned may be shared between threads. When the cache is full the least
+ * recently used point is dropped to make room, so keys that stay in use keep their place.
+ * </p>
+ * Use of the cache is opt-in, see the constructors of ECDSASigner, ECDHBasicAgreement and
+ * ECDHCBasicAgreement.
+ */
+public class ECPointPreCompCache
+{
+    /**
+     * default maximum number of points held.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private final ConcurrentHashMap cache = new ConcurrentHashMap();
+    private final AtomicLong        clock = new AtomicLong();
+    private final int               maxSize;
+
+    /**
+     * Create a cache holding at most DEFAULT_MAX_SIZE points.
+     */
+    public ECPointPreCompCache()
+    {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Create a cache holding at most maxSize points.
+     *
+     * @param maxSize the maximum number of points held.
+     */
+    public ECPointPreCompCache(int maxSize)
+    {
+        if (maxSize < 1)
+        {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Return the cached point with the given encoding, decoding it and adding it to the cache
+     * if it is not already there.
+     *
+     * @param curve the curve the point is on.
+     * @param encoded the encoding of the point.
+     * @return a point equal to curve.decodePoint(encoded).
+     */
+    public ECPoint decodePoint(ECCurve curve, byte[] encoded)
+    {
+        Key   key = new Key(curve, encoded);
+        Entry entry = lookup(key);
+
+        if (entry == null)
+        {
+            return add(key, curve.decodePoint(encoded).normalize());
+        }
+
+        return entry.point;
+    }
+
+    /**
+     * Return the cached point equal to p, adding p to the cache if it is not already there.
+     *
+     * @param p the point to look up.
+     * @return a point equal to p.
+     */
+    public ECPoint getPoint(ECPoint p)
+    {
+        if (p.isInfinity())
+        {
+            return p;
+        }
+
+        Key   key = new Key(p.getCurve(), p.getEncoded());
+        Entry entry = lookup(key);
+
+        if (entry == null)
+        {
+            return add(key, p.normalize());
+        }
+
+        return entry.point;
+    }
+
+    /**
+     * Return the number of points currently held.
+     */
+    public int size()
+    {
+        return cache.size();
+    }
+
+    /**
+     * Remove every point from the cache.
+     */
+    public void clear()
+    {
+        cache.clear();
+    }
+
+    private Entry lookup(Key key)
+    {
+        Entry entry = (Entry)cache.get(key);
+
+        if (entry != null)
+        {
+            entry.lastUsed = clock.incrementAndGet();
+        }
+
+        return entry;
+    }
+
+    private ECPoint add(Key key, ECPoint p)
+    {
+        // additions are serialised, so concurrent misses on the same key share one entry and
+        // don't evict twice over; lookups never take the lock.
+        synchronized (this)
+        {
+            Entry existing = lookup(key);
+
+            if (existing != null)
+            {
+                return existing.point;
+            }
+
+            while (cache.size() >= maxSize)
+            {
+                Object lruKey = null;
+                long   lruTime = Long.MAX_VALUE;
+
+                for (Iterator it = cache.entrySet().iterator(); it.hasNext();)
+                {
+                    Map.Entry e = (Map.Entry)it.next();
+                    long      lastUsed = ((Entry)e.getValue()).lastUsed;
+
+                    if (lastUsed < lruTime)
+                    {
+                        lruTime = lastUsed;
+                        lruKey = e.getKey();
+                    }
+                }
+
+                if (lruKey == null)
+                {
+                    break;
+                }
+
+                cache.remove(lruKey);
+            }
+
+            cache.put(key, new Entry(p, clock.incrementAndGet()));
+
+            return p;
+        }
+    }
+
+    private static class Entry
+    {
+        final ECPoint point;
+        volatile long lastUsed;
+
+        Entry(ECPoint point, long lastUsed)
+        {
+            this.point = point;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private static class Key
+    {
+        private final ECCurve curve;
+        private final byte[]  encoded;
+        private final int     hashCode;
+
+        Key(ECCurve curve, byte[] encoded)
+        {
+            this.curve = curve;
+            this.encoded = Arrays.clone(encoded);
+            this.hashCode = Arrays.hashCode(encoded) ^ curve.hashCode();
+        }
+
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof Key))
+            {
+                return false;
+            }
+
+            Key other = (Key)o;
+
+            return hashCode == other.hashCode && Arrays.areEqual(encoded, other.encoded) && curve.equals(other.curve);
+        }
+
+        public int hashCode()
+        {
+            return hashCode;
+        }
+    }
+}
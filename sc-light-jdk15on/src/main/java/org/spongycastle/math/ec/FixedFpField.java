@@ -0,0 +1,528 @@
+package org.spongycastle.math.ec;
+
+import java.math.BigInteger;
+
+/**
+ * Arithmetic modulo one of the fixed, specially formed primes used by the common named curves
+ * (NIST P-256, P-384, P-521 and secp256k1).
+ * <p>
+ * Elements are held as little-endian arrays of 32 bit words, always fully reduced. Products are
+ * formed with schoolbook multiplication and reduced without division: for these primes
+ * 2<sup>32n</sup> mod q has only a few small signed word coefficients, so each high word of a
+ * product folds back onto the low words with a handful of additions and subtractions (Solinas
+ * reduction). P-521 (a Mersenne prime) uses a plain shift and add instead.
+ * </p>
+ * Instances are immutable and shared by all curves over the same prime, see
+ * {@link #getInstance(BigInteger)}.
+ */
+abstract class FixedFpField
+{
+    private static final long M = 0xffffffffL;
+
+    private static final FixedFpField[] FIELDS = new FixedFpField[]
+    {
+        new P256(), new P384(), new P521(), new K256()
+    };
+
+    final BigInteger q;
+    final int        size;
+    final int[]      p;
+
+    FixedFpField(
+        BigInteger q)
+    {
+        this.q = q;
+        this.size = (q.bitLength() + 31) / 32;
+        this.p = fromBigInteger(q, size);
+    }
+
+    /**
+     * Return the specialized arithmetic for q, or null if q is not one of the supported primes.
+     */
+    static FixedFpField getInstance(
+        BigInteger q)
+    {
+        for (int i = 0; i != FIELDS.length; i++)
+        {
+            if (FIELDS[i].q.equals(q))
+            {
+                return FIELDS[i];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Reduce the 2 * size word value xx modulo q into z.
+     */
+    abstract void reduce(int[] xx, int[] z);
+
+    ECFieldElement createElement(
+        BigInteger x)
+    {
+        if (x.signum() < 0 || x.compareTo(q) >= 0)
+        {
+            throw new IllegalArgumentException("x value invalid in field element");
+        }
+
+        return new FixedFpFieldElement(this, fromBigInteger(x, size));
+    }
+
+    BigInteger toBigInteger(
+        int[] x)
+    {
+        byte[] bytes = new byte[size * 4];
+
+        for (int i = 0; i != size; i++)
+        {
+            int w = x[size - 1 - i];
+
+            bytes[i * 4] = (byte)(w >>> 24);
+            bytes[i * 4 + 1] = (byte)(w >>> 16);
+            bytes[i * 4 + 2] = (byte)(w >>> 8);
+            bytes[i * 4 + 3] = (byte)w;
+        }
+
+        return new BigInteger(1, bytes);
+    }
+
+    void add(int[] x, int[] y, int[] z)
+    {
+        int c = add(size, x, y, z);
+
+        if (c != 0 || !lessThanP(z))
+        {
+            sub(size, z, p, z);
+        }
+    }
+
+    void subtract(int[] x, int[] y, int[] z)
+    {
+        if (sub(size, x, y, z) != 0)
+        {
+            add(size, z, p, z);
+        }
+    }
+
+    void negate(int[] x, int[] z)
+    {
+        if (isZero(x))
+        {
+            System.arraycopy(x, 0, z, 0, size);
+        }
+        else
+        {
+            sub(size, p, x, z);
+        }
+    }
+
+    void multiply(int[] x, int[] y, int[] z)
+    {
+        int[] tt = new int[2 * size];
+
+        mul(size, x, y, tt);
+        reduce(tt, z);
+    }
+
+    void square(int[] x, int[] z)
+    {
+        int[] tt = new int[2 * size];
+
+        square(size, x, tt);
+        reduce(tt, z);
+    }
+
+    boolean isZero(int[] x)
+    {
+        for (int i = 0; i != size; i++)
+        {
+            if (x[i] != 0)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /*
+     * finish a reduction: z holds a value below 2^(32 * size), bring it below q.
+     */
+    void finalReduce(int[] z)
+    {
+        while (!lessThanP(z))
+        {
+            sub(size, z, p, z);
+        }
+    }
+
+    private boolean lessThanP(int[] x)
+    {
+        for (int i = size - 1; i >= 0; i--)
+        {
+            int a = x[i] ^ Integer.MIN_VALUE;
+            int b = p[i] ^ Integer.MIN_VALUE;
+
+            if (a != b)
+            {
+                return a < b;
+            }
+        }
+
+        return false;
+    }
+
+    static int[] fromBigInteger(BigInteger x, int size)
+    {
+        int[] z = new int[size];
+
+        for (int i = 0; i != size; i++)
+        {
+            z[i] = x.intValue();
+            x = x.shiftRight(32);
+        }
+
+        return z;
+    }
+
+    /*
+     * z = x + y over n words, returning the carry.
+     */
+    static int add(int n, int[] x, int[] y, int[] z)
+    {
+        long c = 0;
+
+        for (int i = 0; i != n; i++)
+        {
+            c += (x[i] & M) + (y[i] & M);
+            z[i] = (int)c;
+            c >>>= 32;
+        }
+
+        return (int)c;
+    }
+
+    /*
+     * z = x - y over n words, returning the borrow (0 or -1).
+     */
+    static int sub(int n, int[] x, int[] y, int[] z)
+    {
+        long c = 0;
+
+        for (int i = 0; i != n; i++)
+        {
+            c += (x[i] & M) - (y[i] & M);
+            z[i] = (int)c;
+            c >>= 32;
+        }
+
+        return (int)c;
+    }
+
+    /*
+     * zz = x * y, zz is 2 * n words and must start zeroed.
+     */
+    static void mul(int n, int[] x, int[] y, int[] zz)
+    {
+        for (int i = 0; i != n; i++)
+        {
+            long xi = x[i] & M;
+            long c = 0;
+
+            for (int j = 0; j != n; j++)
+            {
+                c += xi * (y[j] & M) + (zz[i + j] & M);
+                zz[i + j] = (int)c;
+                c >>>= 32;
+            }
+
+            zz[i + n] = (int)c;
+        }
+    }
+
+    /*
+     * zz = x * x, zz is 2 * n words and must start zeroed. The cross products are formed once
+     * and doubled before the squares on the diagonal are added in.
+     */
+    static void square(int n, int[] x, int[] zz)
+    {
+        for (int i = 0; i != n - 1; i++)
+        {
+            long xi = x[i] & M;
+            long c = 0;
+
+            for (int j = i + 1; j != n; j++)
+            {
+                c += xi * (x[j] & M) + (zz[i + j] & M);
+                zz[i + j] = (int)c;
+                c >>>= 32;
+            }
+
+            zz[i + n] = (int)c;
+        }
+
+        int top = 0;
+
+        for (int i = 0; i != 2 * n; i++)
+        {
+            int w = zz[i];
+
+            zz[i] = (w << 1) | top;
+            top = w >>> 31;
+        }
+
+        long c = 0;
+
+        for (int i = 0; i != n; i++)
+        {
+            long xi = x[i] & M;
+
+            c += xi * xi + (zz[2 * i] & M);
+            zz[2 * i] = (int)c;
+            c >>>= 32;
+            c += zz[2 * i + 1] & M;
+            zz[2 * i + 1] = (int)c;
+            c >>>= 32;
+        }
+    }
+
+    /**
+     * A prime q for which d = 2<sup>32n</sup> - q has a few small signed word coefficients.
+     * Subclasses reduce the high half of a product onto the low words, leaving a small signed
+     * carry out of the top word which is folded back in here using d.
+     */
+    static abstract class Solinas
+        extends FixedFpField
+    {
+        private final int[] d;
+
+        /**
+         * @param q the prime.
+         * @param d the word coefficients of 2<sup>32n</sup> - q, least significant first.
+         */
+        Solinas(
+            BigInteger q,
+            int[]      d)
+        {
+            super(q);
+
+            this.d = d;
+        }
+
+        /*
+         * z holds the low words of c * 2^(32 * size) + z, reduce that below q.
+         */
+        void foldCarry(long c, int[] z)
+        {
+            while (c != 0)
+            {
+                long t = 0;
+
+                for (int i = 0; i != d.length; i++)
+                {
+                    t += (z[i] & M) + d[i] * c;
+                    z[i] = (int)t;
+                    t >>= 32;
+                }
+
+                for (int i = d.length; t != 0 && i != size; i++)
+                {
+                    t += z[i] & M;
+                    z[i] = (int)t;
+                    t >>= 32;
+                }
+
+                c = t;
+            }
+
+            finalReduce(z);
+        }
+    }
+
+    /**
+     * NIST P-256, q = 2<sup>256</sup> - 2<sup>224</sup> + 2<sup>192</sup> + 2<sup>96</sup> - 1,
+     * reduced as in FIPS 186-3 D.2.3.
+     */
+    static class P256
+        extends Solinas
+    {
+        P256()
+        {
+            super(new BigInteger("FFFFFFFF00000001000000000000000000000000FFFFFFFFFFFFFFFFFFFFFFFF", 16),
+                new int[]{ 1, 0, 0, -1, 0, 0, -1, 1 });
+        }
+
+        void reduce(int[] xx, int[] z)
+        {
+            long a8 = xx[8] & M, a9 = xx[9] & M, a10 = xx[10] & M, a11 = xx[11] & M;
+            long a12 = xx[12] & M, a13 = xx[13] & M, a14 = xx[14] & M, a15 = xx[15] & M;
+            long c = 0;
+
+            c += (xx[0] & M) + a8 + a9 - a11 - a12 - a13 - a14;
+            z[0] = (int)c;
+            c >>= 32;
+            c += (xx[1] & M) + a9 + a10 - a12 - a13 - a14 - a15;
+            z[1] = (int)c;
+            c >>= 32;
+            c += (xx[2] & M) + a10 + a11 - a13 - a14 - a15;
+            z[2] = (int)c;
+            c >>= 32;
+            c += (xx[3] & M) + 2 * (a11 + a12) + a13 - a15 - a8 - a9;
+            z[3] = (int)c;
+            c >>= 32;
+            c += (xx[4] & M) + 2 * (a12 + a13) + a14 - a9 - a10;
+            z[4] = (int)c;
+            c >>= 32;
+            c += (xx[5] & M) + 2 * (a13 + a14) + a15 - a10 - a11;
+            z[5] = (int)c;
+            c >>= 32;
+            c += (xx[6] & M) + 3 * a14 + 2 * a15 + a13 - a8 - a9;
+            z[6] = (int)c;
+            c >>= 32;
+            c += (xx[7] & M) + 3 * a15 + a8 - a10 - a11 - a12 - a13;
+            z[7] = (int)c;
+            c >>= 32;
+
+            foldCarry(c, z);
+        }
+    }
+
+    /**
+     * NIST P-384, q = 2<sup>384</sup> - 2<sup>128</sup> - 2<sup>96</sup> + 2<sup>32</sup> - 1,
+     * reduced as in FIPS 186-3 D.2.4.
+     */
+    static class P384
+        extends Solinas
+    {
+        P384()
+        {
+            super(new BigInteger("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFEFFFFFFFF0000000000000000FFFFFFFF", 16),
+                new int[]{ 1, -1, 0, 1, 1 });
+        }
+
+        void reduce(int[] xx, int[] z)
+        {
+            long a12 = xx[12] & M, a13 = xx[13] & M, a14 = xx[14] & M, a15 = xx[15] & M;
+            long a16 = xx[16] & M, a17 = xx[17] & M, a18 = xx[18] & M, a19 = xx[19] & M;
+            long a20 = xx[20] & M, a21 = xx[21] & M, a22 = xx[22] & M, a23 = xx[23] & M;
+            long c = 0;
+
+            c += (xx[0] & M) + a12 + a20 + a21 - a23;
+            z[0] = (int)c;
+            c >>= 32;
+            c += (xx[1] & M) + a13 + a22 + a23 - a12 - a20;
+            z[1] = (int)c;
+            c >>= 32;
+            c += (xx[2] & M) + a14 + a23 - a13 - a21;
+            z[2] = (int)c;
+            c >>= 32;
+            c += (xx[3] & M) + a12 + a15 + a20 + a21 - a14 - a22 - a23;
+            z[3] = (int)c;
+            c >>= 32;
+            c += (xx[4] & M) + a12 + a13 + a16 + a20 + 2 * a21 + a22 - a15 - 2 * a23;
+            z[4] = (int)c;
+            c >>= 32;
+            c += (xx[5] & M) + a13 + a14 + a17 + a21 + 2 * a22 + a23 - a16;
+            z[5] = (int)c;
+            c >>= 32;
+            c += (xx[6] & M) + a14 + a15 + a18 + a22 + 2 * a23 - a17;
+            z[6] = (int)c;
+            c >>= 32;
+            c += (xx[7] & M) + a15 + a16 + a19 + a23 - a18;
+            z[7] = (int)c;
+            c >>= 32;
+            c += (xx[8] & M) + a16 + a17 + a20 - a19;
+            z[8] = (int)c;
+            c >>= 32;
+            c += (xx[9] & M) + a17 + a18 + a21 - a20;
+            z[9] = (int)c;
+            c >>= 32;
+            c += (xx[10] & M) + a18 + a19 + a22 - a21;
+            z[10] = (int)c;
+            c >>= 32;
+            c += (xx[11] & M) + a19 + a20 + a23 - a22;
+            z[11] = (int)c;
+            c >>= 32;
+
+            foldCarry(c, z);
+        }
+    }
+
+    /**
+     * secp256k1, q = 2<sup>256</sup> - 2<sup>32</sup> - 977.
+     */
+    static class K256
+        extends Solinas
+    {
+        private static final long D0 = 977;
+
+        K256()
+        {
+            super(new BigInteger("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFEFFFFFC2F", 16),
+                new int[]{ 977, 1 });
+        }
+
+        void reduce(int[] xx, int[] z)
+        {
+            // x = hi * 2^256 + lo = lo + hi * 977 + hi * 2^32 (mod q)
+            long c = 0;
+            long prev = 0;
+
+            for (int i = 0; i != 8; i++)
+            {
+                long hi = xx[8 + i] & M;
+
+                c += (xx[i] & M) + hi * D0 + prev;
+                z[i] = (int)c;
+                c >>>= 32;
+                prev = hi;
+            }
+
+            foldCarry(c + prev, z);
+        }
+    }
+
+    /**
+     * NIST P-521, q = 2<sup>521</sup> - 1.
+     */
+    static class P521
+        extends FixedFpField
+    {
+        P521()
+        {
+            super(BigInteger.ONE.shiftLeft(521).subtract(BigInteger.ONE));
+        }
+
+        void reduce(int[] xx, int[] z)
+        {
+            // x = hi * 2^521 + lo = hi + lo (mod q), hi being xx shifted down 521 bits.
+            long c = 0;
+
+            for (int i = 0; i != size; i++)
+            {
+                long hi = ((xx[i + 16] >>> 9) & 0x7fffffL) | ((xx[i + 17] & M) << 23);
+                long lo = (i == size - 1) ? (xx[i] & 0x1ff) : (xx[i] & M);
+
+                c += lo + (hi & M);
+                z[i] = (int)c;
+                c >>>= 32;
+            }
+
+            // the sum is below 2^523, fold the bits above 2^521 once more.
+            int top = z[size - 1] >>> 9;
+
+            z[size - 1] &= 0x1ff;
+
+            c = top;
+            for (int i = 0; c != 0 && i != size; i++)
+            {
+                c += z[i] & M;
+                z[i] = (int)c;
+                c >>>= 32;
+            }
+
+            finalReduce(z);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.spongycastle.math.ec;
+
+import java.math.BigInteger;
+
+/**
+ * An element of one of the fields supported by FixedFpField. Behaves as any other
+ * ECFieldElement.Fp, but add, subtract, multiply and square work directly on 32 bit words
+ * rather than through BigInteger. The BigInteger value is only computed if asked for.
+ */
+class FixedFpFieldElement
+    extends ECFieldElement.Fp
+{
+    private final FixedFpField field;
+    private final int[]        words;
+
+    FixedFpFieldElement(
+        FixedFpField field,
+        int[]        words)
+    {
+        super(field.q);
+
+        this.field = field;
+        this.words = words;
+    }
+
+    public BigInteger toBigInteger()
+    {
+        BigInteger v = x;
+
+        if (v == null)
+        {
+            v = field.toBigInteger(words);
+            x = v;
+        }
+
+        return v;
+    }
+
+    public ECFieldElement add(ECFieldElement b)
+    {
+        int[] z = new int[field.size];
+
+        field.add(words, wordsOf(b), z);
+
+        return new FixedFpFieldElement(field, z);
+    }
+
+    public ECFieldElement subtract(ECFieldElement b)
+    {
+        int[] z = new int[field.size];
+
+        field.subtract(words, wordsOf(b), z);
+
+        return new FixedFpFieldElement(field, z);
+    }
+
+    public ECFieldElement multiply(ECFieldElement b)
+    {
+        int[] z = new int[field.size];
+
+        field.multiply(words, wordsOf(b), z);
+
+        return new FixedFpFieldElement(field, z);
+    }
+
+    public ECFieldElement divide(ECFieldElement b)
+    {
+        return multiply(b.invert());
+    }
+
+    public ECFieldElement negate()
+    {
+        int[] z = new int[field.size];
+
+        field.negate(words, z);
+
+        return new FixedFpFieldElement(field, z);
+    }
+
+    public ECFieldElement square()
+    {
+        int[] z = new int[field.size];
+
+        field.square(words, z);
+
+        return new FixedFpFieldElement(field, z);
+    }
+
+    public ECFieldElement invert()
+    {
+        return field.createElement(toBigInteger().modInverse(q));
+    }
+
+    public ECFieldElement sqrt()
+    {
+        ECFieldElement root = new ECFieldElement.Fp(q, toBigInteger()).sqrt();
+
+        if (root == null)
+        {
+            return null;
+        }
+
+        return field.createElement(root.toBigInteger());
+    }
+
+    public boolean equals(Object other)
+    {
+        if (other instanceof FixedFpFieldElement && ((FixedFpFieldElement)other).field == field)
+        {
+            int[] o = ((FixedFpFieldElement)other).words;
+
+            for (int i = 0; i != field.size; i++)
+            {
+                if (o[i] != words[i])
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        return super.equals(other);
+    }
+
+    /*
+     * the words of b, converting it first if it came from somewhere other than this field.
+     */
+    private int[] wordsOf(ECFieldElement b)
+    {
+        if (b instanceof FixedFpFieldElement && ((FixedFpFieldElement)b).field == field)
+        {
+            return ((FixedFpFieldElement)b).words;
+        }
+
+        return FixedFpField.fromBigInteger(b.toBigInteger(), field.size);
+    }
+}
@@ -0,0 +1,177 @@
+package org.spongycastle.math.ec;
+
+import java.math.BigInteger;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class implementing the fixed-base comb multiplication algorithm (Lim/Lee), for points
+ * such as a domain generator that are multiplied by many different scalars.
+ * <p>
+ * The first multiplication of a point builds a table of 2<sup>w</sup> combinations of
+ * the point and attaches it to the point. The table is immutable and is published through
+ * a volatile field, so the point can be shared between threads without any locking; if two
+ * threads race to build it both results are correct and one is simply discarded. Tables are
+ * also kept, for a bounded number of points, by value, so a generator rebuilt from its
+ * encoding (as happens when keys pass through the JCA classes) finds its table again.
+ * </p>
+ * Each multiplication then costs about fieldSize/w doublings and as many additions.
+ * Points on Koblitz curves are passed on to <code>ECPoint.multiply()</code>, whose WTNAF
+ * multiplier is faster there.
+ */
+public class FixedPointCombMultiplier implements ECMultiplier
+{
+    /**
+     * Maximum number of distinct points whose tables are shared by value.
+     */
+    private static final int MAX_SHARED = 32;
+
+    private static final ConcurrentHashMap sharedPreComp = new ConcurrentHashMap();
+
+    /**
+     * Multiplies the <code>ECPoint p</code> by <code>k</code>, building or reusing
+     * the comb table for <code>p</code>.
+     * @param p The point to be multiplied.
+     * @param k The factor by which <code>p</code> is multiplied, non-negative.
+     * @return <code>k * p</code>.
+     */
+    public ECPoint multiply(ECPoint p, BigInteger k)
+    {
+        return multiply(p, k, null);
+    }
+
+    public ECPoint multiply(ECPoint p, BigInteger k, PreCompInfo preCompInfo)
+    {
+        if (k.signum() < 0)
+        {
+            throw new IllegalArgumentException("The multiplicator cannot be negative");
+        }
+
+        if (p.isInfinity() || k.signum() == 0)
+        {
+            return p.getCurve().getInfinity();
+        }
+
+        // Point multiplication for Koblitz curves (using WTNAF) beats the comb
+        ECCurve c = p.getCurve();
+        if (c instanceof ECCurve.F2m && ((ECCurve.F2m)c).isKoblitz())
+        {
+            return p.multiply(k);
+        }
+
+        FixedPointPreCompInfo info;
+
+        if (preCompInfo instanceof FixedPointPreCompInfo)
+        {
+            info = (FixedPointPreCompInfo)preCompInfo;
+        }
+        else
+        {
+            info = getPreCompInfo(p);
+        }
+
+        int width = info.getWidth();
+        int spacing = info.getSpacing();
+
+        if (k.bitLength() > width * spacing)
+        {
+            // larger than the table was built for (not a reduced scalar)
+            return p.multiply(k);
+        }
+
+        ECPoint[] lookupTable = info.getLookupTable();
+        ECPoint R = p.getCurve().getInfinity();
+
+        for (int i = spacing - 1; i >= 0; i--)
+        {
+            int index = 0;
+
+            for (int j = width - 1; j >= 0; j--)
+            {
+                index <<= 1;
+                if (k.testBit(j * spacing + i))
+                {
+                    index |= 1;
+                }
+            }
+
+            R = R.twice();
+
+            if (index != 0)
+            {
+                R = R.add(lookupTable[index]);
+            }
+        }
+
+        return R;
+    }
+
+    /**
+     * Return the comb table for p, creating it if p has none yet.
+     */
+    static FixedPointPreCompInfo getPreCompInfo(ECPoint p)
+    {
+        FixedPointPreCompInfo info = p.fixedPointPreCompInfo;
+
+        if (info != null)
+        {
+            return info;
+        }
+
+        ECPoint key = p.normalize();
+
+        info = (FixedPointPreCompInfo)sharedPreComp.get(key);
+
+        if (info == null || !info.getLookupTable()[1].getCurve().equals(p.getCurve()))
+        {
+            info = precompute(key);
+
+            if (sharedPreComp.size() < MAX_SHARED)
+            {
+                sharedPreComp.putIfAbsent(key, info);
+            }
+        }
+
+        p.fixedPointPreCompInfo = info;
+
+        return info;
+    }
+
+    private static FixedPointPreCompInfo precompute(ECPoint p)
+    {
+        int bits = p.getCurve().getFieldSize() + 1;
+        int width = bits > 250 ? 6 : 5;
+        int spacing = (bits + width - 1) / width;
+
+        ECPoint[] lookupTable = new ECPoint[1 << width];
+        ECPoint pow2 = p;
+
+        // the teeth: 2^(j * spacing) p for j = 0 .. width - 1
+        lookupTable[1] = pow2;
+        for (int j = 1; j < width; j++)
+        {
+            for (int i = 0; i < spacing; i++)
+            {
+                pow2 = pow2.twice();
+            }
+
+            lookupTable[1 << j] = pow2;
+        }
+
+        p.getCurve().normalizeAll(lookupTable);
+
+        // every other entry is a tooth plus an entry already filled in
+        for (int j = 1; j < width; j++)
+        {
+            int tooth = 1 << j;
+
+            for (int i = 1; i < tooth; i++)
+            {
+                lookupTable[tooth + i] = lookupTable[tooth].add(lookupTable[i]);
+            }
+        }
+
+        p.getCurve().normalizeAll(lookupTable);
+
+        return new FixedPointPreCompInfo(lookupTable, width, spacing);
+    }
+}
@@ -0,0 +1,48 @@
+package org.spongycastle.math.ec;
+
+/**
+ * Class holding the precomputed comb table for <code>FixedPointCombMultiplier</code>.
+ * Instances are immutable, so once attached to a point they can be read by any
+ * number of threads without locking.
+ */
+class FixedPointPreCompInfo implements PreCompInfo
+{
+    /**
+     * Entry <code>i</code> holds the sum of <code>2<sup>j * spacing</sup>P</code>
+     * over the bits <code>j</code> set in <code>i</code>, in affine form. Entry 0
+     * is unused.
+     */
+    private final ECPoint[] lookupTable;
+
+    /**
+     * The number of teeth of the comb, i.e. log2 of the table size.
+     */
+    private final int width;
+
+    /**
+     * The distance in bits between the teeth of the comb.
+     */
+    private final int spacing;
+
+    FixedPointPreCompInfo(ECPoint[] lookupTable, int width, int spacing)
+    {
+        this.lookupTable = lookupTable;
+        this.width = width;
+        this.spacing = spacing;
+    }
+
+    ECPoint[] getLookupTable()
+    {
+        return lookupTable;
+    }
+
+    int getWidth()
+    {
+        return width;
+    }
+
+    int getSpacing()
+    {
+        return spacing;
+    }
+}
@@ -89,17 +89,6 @@ class WNafMultiplier implements ECMultiplier
      */
     public ECPoint multiply(ECPoint p, BigInteger k, PreCompInfo preCompInfo)
     {
-        WNafPreCompInfo wnafPreCompInfo;
-
-        if ((preCompInfo != null) && (preCompInfo instanceof WNafPreCompInfo))
-        {
-            wnafPreCompInfo = (WNafPreCompInfo)preCompInfo;
-        }
-        else
-        {
-            // Ignore empty PreCompInfo or PreCompInfo of incorrect type
-            wnafPreCompInfo = new WNafPreCompInfo();
-        }
 
         // floor(log2(k))
         int m = k.bitLength();
@@ -166,8 +155,15 @@ class WNafMultiplier implements ECMultiplier
         // The length of the precomputation array
         int preCompLen = 1;
 
-        ECPoint[] preComp = wnafPreCompInfo.getPreComp();
-        ECPoint twiceP = wnafPreCompInfo.getTwiceP();
+        ECPoint[] preComp = null;
+        ECPoint twiceP = null;
+
+        // Ignore empty PreCompInfo or PreCompInfo of incorrect type
+        if (preCompInfo instanceof WNafPreCompInfo)
+        {
+            preComp = ((WNafPreCompInfo)preCompInfo).getPreComp();
+            twiceP = ((WNafPreCompInfo)preCompInfo).getTwiceP();
+        }
 
         // Check if the precomputed ECPoints already exist
         if (preComp == null)
@@ -202,7 +198,11 @@ class WNafMultiplier implements ECMultiplier
                 // The values 1, 3, 5, ..., 2^(width-1)-1 times p are
                 // computed
                 preComp[i] = twiceP.add(preComp[i - 1]);
-            }            
+            }
+
+            // Bring the table to affine form with a single inversion, so the
+            // additions below are the cheaper mixed additions.
+            p.getCurve().normalizeAll(preComp);
         }
 
         // Compute the Window NAF of the desired width
@@ -230,10 +230,12 @@ class WNafMultiplier implements ECMultiplier
         }
 
         // Set PreCompInfo in ECPoint, such that it is available for next
-        // multiplication.
-        wnafPreCompInfo.setPreComp(preComp);
-        wnafPreCompInfo.setTwiceP(twiceP);
-        p.setPreCompInfo(wnafPreCompInfo);
+        // multiplication. Only a new or larger table is published, the one
+        // the point already carries is never modified.
+        if (preCompLen < reqPreCompLen)
+        {
+            p.setPreCompInfo(new WNafPreCompInfo(preComp, twiceP));
+        }
         return q;
     }
 
@@ -2,7 +2,8 @@ package org.spongycastle.math.ec;
 
 /**
  * Class holding precomputation data for the WNAF (Window Non-Adjacent Form)
- * algorithm.
+ * algorithm. Instances are immutable, a larger table is published as a new
+ * instance, so a point and its precomputation can be shared between threads.
  */
 class WNafPreCompInfo implements PreCompInfo
 {
@@ -12,7 +13,7 @@ class WNafPreCompInfo implements PreCompInfo
      * {@link org.spongycastle.math.ec.multiplier.WNafMultiplier.multiply()
      * WNafMultiplier.multiply()}</code>.
      */
-    private ECPoint[] preComp = null;
+    private final ECPoint[] preComp;
 
     /**
      * Holds an <code>ECPoint</code> representing twice(this). Used for the
@@ -20,25 +21,21 @@ class WNafPreCompInfo implements PreCompInfo
      * {@link org.spongycastle.math.ec.multiplier.WNafMultiplier.multiply()
      * WNafMultiplier.multiply()}</code>.
      */
-    private ECPoint twiceP = null;
+    private final ECPoint twiceP;
 
-    protected ECPoint[] getPreComp()
+    WNafPreCompInfo(ECPoint[] preComp, ECPoint twiceP)
     {
-        return preComp;
+        this.preComp = preComp;
+        this.twiceP = twiceP;
     }
 
-    protected void setPreComp(ECPoint[] preComp)
+    protected ECPoint[] getPreComp()
     {
-        this.preComp = preComp;
+        return preComp;
     }
 
     protected ECPoint getTwiceP()
     {
         return twiceP;
     }
-
-    protected void setTwiceP(ECPoint twiceThis)
-    {
-        this.twiceP = twiceThis;
-    }
 }
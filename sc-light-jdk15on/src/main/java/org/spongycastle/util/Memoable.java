@@ -0,0 +1,29 @@
+package org.spongycastle.util;
+
+/**
+ * Interface for objects whose state can be saved and later restored - for example a digest
+ * which has processed a common prefix, and can be returned to that point for each message.
+ */
+public interface Memoable
+{
+    /**
+     * Produce a copy of this object with its configuration and in its current state.
+     * <p>
+     * The returned object may be used simply to store the state, or may be used as a similar object
+     * starting from the copied state.
+     *
+     * @return a copy of this object.
+     */
+    public Memoable copy();
+
+    /**
+     * Restore a copied object state into this object.
+     * <p>
+     * Implementations of this method should avoid allocating memory, as it is expected to be
+     * called once per message in places like HMac.
+     *
+     * @param other an object originally copied from an object of the same type as this instance.
+     * @exception ClassCastException if the provided object is not of the correct type.
+     */
+    public void reset(Memoable other);
+}
@@ -1,12 +1,14 @@
 package org.spongycastle.util.encoders;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.spongycastle.util.Arrays;
+import org.spongycastle.util.Strings;
+
 public class Base64
 {
-    private static final Encoder encoder = new Base64Encoder();
+    private static final Base64Encoder encoder = new Base64Encoder();
     
     /**
      * encode the input data producing a base 64 encoded byte array.
@@ -16,19 +18,24 @@ public class Base64
     public static byte[] encode(
         byte[]    data)
     {
-        int len = (data.length + 2) / 3 * 4;
-        ByteArrayOutputStream bOut = new ByteArrayOutputStream(len);
-        
-        try
-        {
-            encoder.encode(data, 0, data.length, bOut);
-        }
-        catch (IOException e)
-        {
-            throw new RuntimeException("exception encoding base64 string: " + e);
-        }
-        
-        return bOut.toByteArray();
+        return encode(data, 0, data.length);
+    }
+
+    /**
+     * encode the input data producing a base 64 encoded byte array.
+     *
+     * @return a byte array containing the base 64 encoded data.
+     */
+    public static byte[] encode(
+        byte[]    data,
+        int       off,
+        int       length)
+    {
+        byte[] encoded = new byte[(length + 2) / 3 * 4];
+
+        encoder.encode(data, off, length, encoded, 0);
+
+        return encoded;
     }
 
     /**
@@ -67,19 +74,15 @@ public class Base64
     public static byte[] decode(
         byte[]    data)
     {
-        int len = data.length / 4 * 3;
-        ByteArrayOutputStream bOut = new ByteArrayOutputStream(len);
-        
-        try
-        {
-            encoder.decode(data, 0, data.length, bOut);
-        }
-        catch (IOException e)
+        byte[] decoded = new byte[data.length / 4 * 3];
+        int    len = encoder.decode(data, 0, data.length, decoded, 0);
+
+        if (len == decoded.length)
         {
-            throw new RuntimeException("exception decoding base64 string: " + e);
+            return decoded;
         }
-        
-        return bOut.toByteArray();
+
+        return Arrays.copyOf(decoded, len);
     }
     
     /**
@@ -90,19 +93,7 @@ public class Base64
     public static byte[] decode(
         String    data)
     {
-        int len = data.length() / 4 * 3;
-        ByteArrayOutputStream bOut = new ByteArrayOutputStream(len);
-        
-        try
-        {
-            encoder.decode(data, bOut);
-        }
-        catch (IOException e)
-        {
-            throw new RuntimeException("exception decoding base64 string: " + e);
-        }
-        
-        return bOut.toByteArray();
+        return decode(Strings.toByteArray(data));
     }
     
     /**
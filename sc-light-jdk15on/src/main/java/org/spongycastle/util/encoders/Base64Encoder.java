@@ -3,9 +3,18 @@ package org.spongycastle.util.encoders;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.spongycastle.util.Strings;
+
+/**
+ * Base 64 encoder/decoder. Data is converted a 3 byte group at a time straight between arrays,
+ * the OutputStream methods write the converted data in chunks rather than a byte at a time.
+ */
 public class Base64Encoder
-    implements Encoder
+    implements Encoder, Translator
 {
+    // input bytes converted for each write on the stream encoding path - a multiple of 3.
+    private static final int STREAM_CHUNK = 3 * 512;
+
     protected final byte[] encodingTable =
         {
             (byte)'A', (byte)'B', (byte)'C', (byte)'D', (byte)'E', (byte)'F', (byte)'G',
@@ -43,69 +52,109 @@ public class Base64Encoder
     }
     
     /**
-     * encode the input data producing a base 64 output stream.
+     * size of the output block on encoding produced by getDecodedBlockSize()
+     * bytes.
+     */
+    public int getEncodedBlockSize()
+    {
+        return 4;
+    }
+
+    /**
+     * size of the output block on decoding produced by getEncodedBlockSize()
+     * bytes.
+     */
+    public int getDecodedBlockSize()
+    {
+        return 3;
+    }
+
+    /**
+     * encode the input data producing base 64 output in the passed in array, padding the
+     * final block if length is not a multiple of 3.
      *
      * @return the number of bytes produced.
      */
     public int encode(
-        byte[]                data,
-        int                    off,
-        int                    length,
-        OutputStream    out) 
-        throws IOException
+        byte[]  in,
+        int     inOff,
+        int     length,
+        byte[]  out,
+        int     outOff)
     {
-        int modulus = length % 3;
-        int dataLength = (length - modulus);
-        int a1, a2, a3;
-        
-        for (int i = off; i < off + dataLength; i += 3)
+        int inEnd = inOff + length - 2;
+        int outPos = outOff;
+        int t;
+
+        while (inOff < inEnd)
         {
-            a1 = data[i] & 0xff;
-            a2 = data[i + 1] & 0xff;
-            a3 = data[i + 2] & 0xff;
-
-            out.write(encodingTable[(a1 >>> 2) & 0x3f]);
-            out.write(encodingTable[((a1 << 4) | (a2 >>> 4)) & 0x3f]);
-            out.write(encodingTable[((a2 << 2) | (a3 >>> 6)) & 0x3f]);
-            out.write(encodingTable[a3 & 0x3f]);
+            t = ((in[inOff] & 0xff) << 16) | ((in[inOff + 1] & 0xff) << 8) | (in[inOff + 2] & 0xff);
+            inOff += 3;
+
+            out[outPos]     = encodingTable[t >>> 18];
+            out[outPos + 1] = encodingTable[(t >>> 12) & 0x3f];
+            out[outPos + 2] = encodingTable[(t >>> 6) & 0x3f];
+            out[outPos + 3] = encodingTable[t & 0x3f];
+            outPos += 4;
         }
 
         /*
          * process the tail end.
          */
-        int    b1, b2, b3;
-        int    d1, d2;
-
-        switch (modulus)
+        switch (inEnd + 2 - inOff)
         {
         case 0:        /* nothing left to do */
             break;
         case 1:
-            d1 = data[off + dataLength] & 0xff;
-            b1 = (d1 >>> 2) & 0x3f;
-            b2 = (d1 << 4) & 0x3f;
-
-            out.write(encodingTable[b1]);
-            out.write(encodingTable[b2]);
-            out.write(padding);
-            out.write(padding);
+            t = in[inOff] & 0xff;
+
+            out[outPos++] = encodingTable[t >>> 2];
+            out[outPos++] = encodingTable[(t << 4) & 0x3f];
+            out[outPos++] = padding;
+            out[outPos++] = padding;
             break;
         case 2:
-            d1 = data[off + dataLength] & 0xff;
-            d2 = data[off + dataLength + 1] & 0xff;
-
-            b1 = (d1 >>> 2) & 0x3f;
-            b2 = ((d1 << 4) | (d2 >>> 4)) & 0x3f;
-            b3 = (d2 << 2) & 0x3f;
+            t = ((in[inOff] & 0xff) << 8) | (in[inOff + 1] & 0xff);
 
-            out.write(encodingTable[b1]);
-            out.write(encodingTable[b2]);
-            out.write(encodingTable[b3]);
-            out.write(padding);
+            out[outPos++] = encodingTable[t >>> 10];
+            out[outPos++] = encodingTable[(t >>> 4) & 0x3f];
+            out[outPos++] = encodingTable[(t << 2) & 0x3f];
+            out[outPos++] = padding;
             break;
         }
 
-        return (dataLength / 3) * 4 + ((modulus == 0) ? 0 : 4);
+        return outPos - outOff;
+    }
+
+    /**
+     * encode the input data producing a base 64 output stream.
+     *
+     * @return the number of bytes produced.
+     */
+    public int encode(
+        byte[]                data,
+        int                    off,
+        int                    length,
+        OutputStream    out) 
+        throws IOException
+    {
+        byte[] buf = new byte[Math.min((length + 2) / 3 * 4, STREAM_CHUNK / 3 * 4)];
+        int    outLen = 0;
+
+        // whole chunks are a multiple of 3, so only the last one can need padding.
+        while (length > 0)
+        {
+            int chunk = Math.min(length, STREAM_CHUNK);
+            int len = encode(data, off, chunk, buf, 0);
+
+            out.write(buf, 0, len);
+
+            off += chunk;
+            length -= chunk;
+            outLen += len;
+        }
+
+        return outLen;
     }
 
     private boolean ignore(
@@ -127,54 +176,88 @@ public class Base64Encoder
         OutputStream    out)
         throws IOException
     {
-        byte    b1, b2, b3, b4;
-        int     outLen = 0;
-        
+        byte[] buf = new byte[length / 4 * 3];
+        int    outLen = decode(data, off, length, buf, 0);
+
+        out.write(buf, 0, outLen);
+
+        return outLen;
+    }
+
+    /**
+     * decode the base 64 encoded byte data into the passed in array, whitespace characters
+     * will be ignored. The output array needs room for length / 4 * 3 bytes.
+     *
+     * @return the number of bytes produced.
+     */
+    public int decode(
+        byte[]  data,
+        int     off,
+        int     length,
+        byte[]  out,
+        int     outOff)
+    {
         int     end = off + length;
-        
+
         while (end > off)
         {
             if (!ignore((char)data[end - 1]))
             {
                 break;
             }
-            
+
             end--;
         }
-        
+
+        if (end == off)
+        {
+            return 0;
+        }
+
         int  i = off;
         int  finish = end - 4;
-        
+        int  outPos = outOff;
+        int  t;
+
         i = nextI(data, i, finish);
 
         while (i < finish)
         {
-            b1 = decodingTable[data[i++]];
-            
-            i = nextI(data, i, finish);
-            
-            b2 = decodingTable[data[i++]];
-            
-            i = nextI(data, i, finish);
-            
-            b3 = decodingTable[data[i++]];
-            
-            i = nextI(data, i, finish);
-            
-            b4 = decodingTable[data[i++]];
-
-            out.write((b1 << 2) | (b2 >> 4));
-            out.write((b2 << 4) | (b3 >> 2));
-            out.write((b3 << 6) | b4);
-            
-            outLen += 3;
-            
+            if (i + 4 <= finish && !ignore((char)data[i + 1]) && !ignore((char)data[i + 2]) && !ignore((char)data[i + 3]))
+            {
+                // common case, a whole group with no whitespace in it
+                t = (decodingTable[data[i]] << 18) | (decodingTable[data[i + 1]] << 12)
+                    | (decodingTable[data[i + 2]] << 6) | decodingTable[data[i + 3]];
+                i += 4;
+            }
+            else
+            {
+                t = decodingTable[data[i++]] << 18;
+
+                i = nextI(data, i, finish);
+
+                t |= decodingTable[data[i++]] << 12;
+
+                i = nextI(data, i, finish);
+
+                t |= decodingTable[data[i++]] << 6;
+
+                i = nextI(data, i, finish);
+
+                t |= decodingTable[data[i++]];
+            }
+
+            out[outPos]     = (byte)(t >>> 16);
+            out[outPos + 1] = (byte)(t >>> 8);
+            out[outPos + 2] = (byte)t;
+            outPos += 3;
+
             i = nextI(data, i, finish);
         }
 
-        outLen += decodeLastBlock(out, (char)data[end - 4], (char)data[end - 3], (char)data[end - 2], (char)data[end - 1]);
-        
-        return outLen;
+        outPos += decodeLastBlock(out, outPos, (char)data[end - 4], (char)data[end - 3], (char)data[end - 2], (char)data[end - 1]);
+
+        return outPos - outOff;
     }
 
     private int nextI(byte[] data, int i, int finish)
@@ -197,102 +280,41 @@ public class Base64Encoder
         OutputStream    out)
         throws IOException
     {
-        byte    b1, b2, b3, b4;
-        int     length = 0;
-        
-        int     end = data.length();
-        
-        while (end > 0)
-        {
-            if (!ignore(data.charAt(end - 1)))
-            {
-                break;
-            }
-            
-            end--;
-        }
-        
-        int  i = 0;
-        int  finish = end - 4;
-        
-        i = nextI(data, i, finish);
-        
-        while (i < finish)
-        {
-            b1 = decodingTable[data.charAt(i++)];
-            
-            i = nextI(data, i, finish);
-            
-            b2 = decodingTable[data.charAt(i++)];
-            
-            i = nextI(data, i, finish);
-            
-            b3 = decodingTable[data.charAt(i++)];
-            
-            i = nextI(data, i, finish);
-            
-            b4 = decodingTable[data.charAt(i++)];
-
-            out.write((b1 << 2) | (b2 >> 4));
-            out.write((b2 << 4) | (b3 >> 2));
-            out.write((b3 << 6) | b4);
-            
-            length += 3;
-            
-            i = nextI(data, i, finish);
-        }
+        byte[] bytes = Strings.toByteArray(data);
 
-        length += decodeLastBlock(out, data.charAt(end - 4), data.charAt(end - 3), data.charAt(end - 2), data.charAt(end - 1));
-
-        return length;
+        return decode(bytes, 0, bytes.length, out);
     }
 
-    private int decodeLastBlock(OutputStream out, char c1, char c2, char c3, char c4) 
-        throws IOException
+    private int decodeLastBlock(byte[] out, int outOff, char c1, char c2, char c3, char c4)
     {
-        byte    b1, b2, b3, b4;
-        
+        int t;
+
         if (c3 == padding)
         {
-            b1 = decodingTable[c1];
-            b2 = decodingTable[c2];
+            t = (decodingTable[c1] << 6) | decodingTable[c2];
+
+            out[outOff] = (byte)(t >>> 4);
 
-            out.write((b1 << 2) | (b2 >> 4));
-            
             return 1;
         }
         else if (c4 == padding)
         {
-            b1 = decodingTable[c1];
-            b2 = decodingTable[c2];
-            b3 = decodingTable[c3];
+            t = (decodingTable[c1] << 12) | (decodingTable[c2] << 6) | decodingTable[c3];
+
+            out[outOff] = (byte)(t >>> 10);
+            out[outOff + 1] = (byte)(t >>> 2);
 
-            out.write((b1 << 2) | (b2 >> 4));
-            out.write((b2 << 4) | (b3 >> 2));
-            
             return 2;
         }
         else
         {
-            b1 = decodingTable[c1];
-            b2 = decodingTable[c2];
-            b3 = decodingTable[c3];
-            b4 = decodingTable[c4];
-
-            out.write((b1 << 2) | (b2 >> 4));
-            out.write((b2 << 4) | (b3 >> 2));
-            out.write((b3 << 6) | b4);
-            
-            return 3;
-        } 
-    }
+            t = (decodingTable[c1] << 18) | (decodingTable[c2] << 12) | (decodingTable[c3] << 6) | decodingTable[c4];
 
-    private int nextI(String data, int i, int finish)
-    {
-        while ((i < finish) && ignore(data.charAt(i)))
-        {
-            i++;
+            out[outOff] = (byte)(t >>> 16);
+            out[outOff + 1] = (byte)(t >>> 8);
+            out[outOff + 2] = (byte)t;
+
+            return 3;
         }
-        return i;
     }
 }
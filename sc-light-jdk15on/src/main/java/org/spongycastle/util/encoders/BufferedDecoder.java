@@ -4,6 +4,7 @@ package org.spongycastle.util.encoders;
 /**
  * a buffering class to allow translation from one format to another to
  * be done in discrete chunks.
+ * @deprecated use DecoderInputStream, which buffers whole blocks and converts them a chunk at a time.
  */
 public class BufferedDecoder
 {
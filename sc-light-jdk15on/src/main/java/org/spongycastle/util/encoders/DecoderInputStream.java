@@ -0,0 +1,216 @@
+package org.spongycastle.util.encoders;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream which reads encoded data, such as Base 64 or Hex, from the underlying
+ * stream and returns it decoded using a translator.
+ * <p>
+ * The encoded data is read a chunk at a time, whitespace (space, tab, CR and LF) is removed
+ * and the whole encoded blocks are decoded in one call to the translator. An incomplete
+ * block at the end of the underlying stream causes an IOException.
+ * </p>
+ */
+public class DecoderInputStream
+    extends FilterInputStream
+{
+    private static final int DEFAULT_CHUNK_SIZE = 2048;
+
+    private final Translator translator;
+    private final byte[]     inBuf;
+    private final byte[]     outBuf;
+
+    private int     inCount;
+    private int     outOff;
+    private int     outCount;
+    private boolean eof;
+
+    /**
+     * Base constructor, uses a default chunk size.
+     *
+     * @param in the stream to read the encoded data from.
+     * @param translator the translator to decode with.
+     */
+    public DecoderInputStream(
+        InputStream     in,
+        Translator      translator)
+    {
+        this(in, translator, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param in the stream to read the encoded data from.
+     * @param translator the translator to decode with.
+     * @param chunkSize the amount of encoded data to read from in at a time, must be a
+     * multiple of the translator's encoded block size.
+     */
+    public DecoderInputStream(
+        InputStream     in,
+        Translator      translator,
+        int             chunkSize)
+    {
+        super(in);
+
+        if (chunkSize <= 0 || (chunkSize % translator.getEncodedBlockSize()) != 0)
+        {
+            throw new IllegalArgumentException("chunk size not multiple of input block size");
+        }
+
+        this.translator = translator;
+        this.inBuf = new byte[chunkSize];
+        this.outBuf = new byte[chunkSize / translator.getEncodedBlockSize() * translator.getDecodedBlockSize()];
+    }
+
+    public int read()
+        throws IOException
+    {
+        if (outOff == outCount && !fill())
+        {
+            return -1;
+        }
+
+        return outBuf[outOff++] & 0xff;
+    }
+
+    public int read(
+        byte[]  b,
+        int     off,
+        int     len)
+        throws IOException
+    {
+        if (len == 0)
+        {
+            return 0;
+        }
+
+        if (outOff == outCount && !fill())
+        {
+            return -1;
+        }
+
+        int count = Math.min(len, outCount - outOff);
+
+        System.arraycopy(outBuf, outOff, b, off, count);
+        outOff += count;
+
+        return count;
+    }
+
+    public long skip(
+        long    n)
+        throws IOException
+    {
+        long skipped = 0;
+
+        while (skipped < n && (outOff != outCount || fill()))
+        {
+            int count = (int)Math.min(n - skipped, outCount - outOff);
+
+            outOff += count;
+            skipped += count;
+        }
+
+        return skipped;
+    }
+
+    public int available()
+        throws IOException
+    {
+        return outCount - outOff;
+    }
+
+    public boolean markSupported()
+    {
+        return false;
+    }
+
+    public void mark(
+        int     readLimit)
+    {
+    }
+
+    public void reset()
+        throws IOException
+    {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /*
+     * refill the output buffer, returning false if the underlying stream is exhausted.
+     */
+    private boolean fill()
+        throws IOException
+    {
+        int blockSize = translator.getEncodedBlockSize();
+
+        outOff = 0;
+        outCount = 0;
+
+        while (outCount == 0)
+        {
+            if (eof)
+            {
+                if (inCount != 0)
+                {
+                    throw new IOException("encoded data truncated");
+                }
+
+                return false;
+            }
+
+            int len = in.read(inBuf, inCount, inBuf.length - inCount);
+
+            if (len < 0)
+            {
+                eof = true;
+                continue;
+            }
+
+            inCount = stripWhitespace(inBuf, inCount, inCount + len);
+
+            int whole = inCount - (inCount % blockSize);
+
+            if (whole != 0)
+            {
+                try
+                {
+                    outCount = translator.decode(inBuf, 0, whole, outBuf, 0);
+                }
+                catch (RuntimeException e)
+                {
+                    throw new IOException("invalid encoded data: " + e.getMessage());
+                }
+
+                System.arraycopy(inBuf, whole, inBuf, 0, inCount - whole);
+                inCount -= whole;
+            }
+        }
+
+        return true;
+    }
+
+    /*
+     * compact buf[from..to) down to start at from, dropping whitespace. Returns the new end.
+     */
+    private static int stripWhitespace(
+        byte[]  buf,
+        int     from,
+        int     to)
+    {
+        int pos = from;
+
+        for (int i = from; i != to; i++)
+        {
+            byte b = buf[i];
+
+            if (b != '\n' && b != '\r' && b != '\t' && b != ' ')
+            {
+                buf[pos++] = b;
+            }
+        }
+
+        return pos;
+    }
+}
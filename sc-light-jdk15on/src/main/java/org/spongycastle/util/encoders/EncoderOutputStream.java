@@ -0,0 +1,181 @@
+package org.spongycastle.util.encoders;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream which encodes the data written to it using a translator, such as
+ * a Base64Encoder or HexEncoder, and writes the encoded form to the underlying stream.
+ * <p>
+ * Input is collected into whole decoded blocks and converted a chunk at a time, so the
+ * underlying stream sees one write per chunk rather than one per byte. Any partial block
+ * is only encoded, with padding if the translator uses it, when the stream is closed.
+ * </p>
+ */
+public class EncoderOutputStream
+    extends FilterOutputStream
+{
+    private static final int DEFAULT_CHUNK_SIZE = 1536;
+
+    private final Translator translator;
+    private final byte[]     inBuf;
+    private final byte[]     outBuf;
+
+    private int     inOff;
+    private boolean closed;
+
+    /**
+     * Base constructor, uses a default chunk size.
+     *
+     * @param out the stream to write the encoded data to.
+     * @param translator the translator to encode with.
+     */
+    public EncoderOutputStream(
+        OutputStream    out,
+        Translator      translator)
+    {
+        this(out, translator, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param out the stream to write the encoded data to.
+     * @param translator the translator to encode with.
+     * @param chunkSize the amount of input to encode for each write to out, must be a
+     * multiple of the translator's decoded block size.
+     */
+    public EncoderOutputStream(
+        OutputStream    out,
+        Translator      translator,
+        int             chunkSize)
+    {
+        super(out);
+
+        if (chunkSize <= 0 || (chunkSize % translator.getDecodedBlockSize()) != 0)
+        {
+            throw new IllegalArgumentException("chunk size not multiple of input block size");
+        }
+
+        this.translator = translator;
+        this.inBuf = new byte[chunkSize];
+        this.outBuf = new byte[chunkSize / translator.getDecodedBlockSize() * translator.getEncodedBlockSize()];
+    }
+
+    public void write(
+        int     b)
+        throws IOException
+    {
+        if (closed)
+        {
+            throw new IOException("stream closed");
+        }
+
+        inBuf[inOff++] = (byte)b;
+
+        if (inOff == inBuf.length)
+        {
+            encodeChunk(inBuf, 0, inOff);
+            inOff = 0;
+        }
+    }
+
+    public void write(
+        byte[]  b,
+        int     off,
+        int     len)
+        throws IOException
+    {
+        if (closed)
+        {
+            throw new IOException("stream closed");
+        }
+
+        if (inOff != 0)
+        {
+            int gapLen = Math.min(len, inBuf.length - inOff);
+
+            System.arraycopy(b, off, inBuf, inOff, gapLen);
+            inOff += gapLen;
+            off += gapLen;
+            len -= gapLen;
+
+            if (inOff != inBuf.length)
+            {
+                return;
+            }
+
+            encodeChunk(inBuf, 0, inOff);
+            inOff = 0;
+        }
+
+        // whole chunks are encoded straight from the caller's array.
+        while (len >= inBuf.length)
+        {
+            encodeChunk(b, off, inBuf.length);
+            off += inBuf.length;
+            len -= inBuf.length;
+        }
+
+        System.arraycopy(b, off, inBuf, 0, len);
+        inOff = len;
+    }
+
+    /**
+     * Encode and write any whole blocks held in the buffer and flush the underlying stream.
+     * A trailing partial block stays buffered until more data arrives or the stream is closed.
+     */
+    public void flush()
+        throws IOException
+    {
+        int blockSize = translator.getDecodedBlockSize();
+        int whole = inOff - (inOff % blockSize);
+
+        if (whole != 0)
+        {
+            encodeChunk(inBuf, 0, whole);
+            System.arraycopy(inBuf, whole, inBuf, 0, inOff - whole);
+            inOff -= whole;
+        }
+
+        out.flush();
+    }
+
+    /**
+     * Encode whatever input remains, including a final partial block, and close the
+     * underlying stream.
+     */
+    public void close()
+        throws IOException
+    {
+        if (closed)
+        {
+            return;
+        }
+
+        closed = true;
+
+        try
+        {
+            if (inOff != 0)
+            {
+                encodeChunk(inBuf, 0, inOff);
+                inOff = 0;
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    private void encodeChunk(
+        byte[]  b,
+        int     off,
+        int     len)
+        throws IOException
+    {
+        int outLen = translator.encode(b, off, len, outBuf, 0);
+
+        out.write(outBuf, 0, outLen);
+    }
+}
@@ -1,12 +1,14 @@
 package org.spongycastle.util.encoders;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.spongycastle.util.Arrays;
+import org.spongycastle.util.Strings;
+
 public class Hex
 {
-    private static final Encoder encoder = new HexEncoder();
+    private static final HexEncoder encoder = new HexEncoder();
     
     /**
      * encode the input data producing a Hex encoded byte array.
@@ -29,18 +31,11 @@ public class Hex
         int       off,
         int       length)
     {
-        ByteArrayOutputStream    bOut = new ByteArrayOutputStream();
-        
-        try
-        {
-            encoder.encode(data, off, length, bOut);
-        }
-        catch (IOException e)
-        {
-            throw new RuntimeException("exception encoding Hex string: " + e);
-        }
-        
-        return bOut.toByteArray();
+        byte[] encoded = new byte[length * 2];
+
+        encoder.encode(data, off, length, encoded, 0);
+
+        return encoded;
     }
 
     /**
@@ -79,18 +74,15 @@ public class Hex
     public static byte[] decode(
         byte[]    data)
     {
-        ByteArrayOutputStream    bOut = new ByteArrayOutputStream();
-        
-        try
-        {
-            encoder.decode(data, 0, data.length, bOut);
-        }
-        catch (IOException e)
+        byte[] decoded = new byte[data.length / 2];
+        int    len = encoder.decode(data, 0, data.length, decoded, 0);
+
+        if (len == decoded.length)
         {
-            throw new RuntimeException("exception decoding Hex string: " + e);
+            return decoded;
         }
-        
-        return bOut.toByteArray();
+
+        return Arrays.copyOf(decoded, len);
     }
     
     /**
@@ -101,18 +93,7 @@ public class Hex
     public static byte[] decode(
         String    data)
     {
-        ByteArrayOutputStream    bOut = new ByteArrayOutputStream();
-        
-        try
-        {
-            encoder.decode(data, bOut);
-        }
-        catch (IOException e)
-        {
-            throw new RuntimeException("exception decoding Hex string: " + e);
-        }
-        
-        return bOut.toByteArray();
+        return decode(Strings.toByteArray(data));
     }
     
     /**
@@ -3,9 +3,18 @@ package org.spongycastle.util.encoders;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.spongycastle.util.Strings;
+
+/**
+ * Hex encoder/decoder. Data is converted straight between arrays, the OutputStream methods
+ * write the converted data in chunks rather than a byte at a time.
+ */
 public class HexEncoder
-    implements Encoder
+    implements Encoder, Translator
 {
+    // input bytes converted for each write on the stream encoding path.
+    private static final int STREAM_CHUNK = 512;
+
     protected final byte[] encodingTable =
         {
             (byte)'0', (byte)'1', (byte)'2', (byte)'3', (byte)'4', (byte)'5', (byte)'6', (byte)'7',
@@ -37,6 +46,49 @@ public class HexEncoder
         initialiseDecodingTable();
     }
     
+    /**
+     * size of the output block on encoding produced by getDecodedBlockSize()
+     * bytes.
+     */
+    public int getEncodedBlockSize()
+    {
+        return 2;
+    }
+
+    /**
+     * size of the output block on decoding produced by getEncodedBlockSize()
+     * bytes.
+     */
+    public int getDecodedBlockSize()
+    {
+        return 1;
+    }
+
+    /**
+     * encode the input data producing Hex output in the passed in array.
+     *
+     * @return the number of bytes produced.
+     */
+    public int encode(
+        byte[]  in,
+        int     inOff,
+        int     length,
+        byte[]  out,
+        int     outOff)
+    {
+        int inEnd = inOff + length;
+
+        for (int i = inOff, j = outOff; i < inEnd; i++, j += 2)
+        {
+            int    v = in[i] & 0xff;
+
+            out[j]     = encodingTable[v >>> 4];
+            out[j + 1] = encodingTable[v & 0xf];
+        }
+
+        return length * 2;
+    }
+
     /**
      * encode the input data producing a Hex output stream.
      *
@@ -48,16 +100,23 @@ public class HexEncoder
         int                    length,
         OutputStream    out) 
         throws IOException
-    {        
-        for (int i = off; i < (off + length); i++)
+    {
+        byte[] buf = new byte[Math.min(length, STREAM_CHUNK) * 2];
+        int    outLen = 0;
+
+        while (length > 0)
         {
-            int    v = data[i] & 0xff;
+            int chunk = Math.min(length, STREAM_CHUNK);
+            int len = encode(data, off, chunk, buf, 0);
 
-            out.write(encodingTable[(v >>> 4)]);
-            out.write(encodingTable[v & 0xf]);
+            out.write(buf, 0, len);
+
+            off += chunk;
+            length -= chunk;
+            outLen += len;
         }
 
-        return length * 2;
+        return outLen;
     }
 
     private boolean ignore(
@@ -65,7 +124,7 @@ public class HexEncoder
     {
         return (c == '\n' || c =='\r' || c == '\t' || c == ' ');
     }
-    
+
     /**
      * decode the Hex encoded byte data writing it to the given output stream,
      * whitespace characters will be ignored.
@@ -78,47 +137,74 @@ public class HexEncoder
         int             length,
         OutputStream    out)
         throws IOException
+    {
+        byte[] buf = new byte[length / 2];
+        int    outLen = decode(data, off, length, buf, 0);
+
+        out.write(buf, 0, outLen);
+
+        return outLen;
+    }
+
+    /**
+     * decode the Hex encoded byte data into the passed in array, whitespace characters
+     * will be ignored. The output array needs room for length / 2 bytes.
+     *
+     * @return the number of bytes produced.
+     */
+    public int decode(
+        byte[]  data,
+        int     off,
+        int     length,
+        byte[]  out,
+        int     outOff)
     {
         byte    b1, b2;
-        int     outLen = 0;
-        
+        int     outPos = outOff;
         int     end = off + length;
-        
+
         while (end > off)
         {
             if (!ignore((char)data[end - 1]))
             {
                 break;
             }
-            
+
             end--;
         }
-        
+
         int i = off;
+
         while (i < end)
         {
+            if (i + 1 < end && !ignore((char)data[i]) && !ignore((char)data[i + 1]))
+            {
+                // common case, a pair with no whitespace in it
+                out[outPos++] = (byte)((decodingTable[data[i]] << 4) | decodingTable[data[i + 1]]);
+                i += 2;
+                continue;
+            }
+
             while (i < end && ignore((char)data[i]))
             {
                 i++;
             }
-            
+
             b1 = decodingTable[data[i++]];
-            
+
             while (i < end && ignore((char)data[i]))
             {
                 i++;
             }
-            
+
             b2 = decodingTable[data[i++]];
 
-            out.write((b1 << 4) | b2);
-            
-            outLen++;
+            out[outPos++] = (byte)((b1 << 4) | b2);
         }
 
-        return outLen;
+        return outPos - outOff;
     }
-    
+
     /**
      * decode the Hex encoded String data writing it to the given output stream,
      * whitespace characters will be ignored.
@@ -130,43 +216,8 @@ public class HexEncoder
         OutputStream    out)
         throws IOException
     {
-        byte    b1, b2;
-        int     length = 0;
-        
-        int     end = data.length();
-        
-        while (end > 0)
-        {
-            if (!ignore(data.charAt(end - 1)))
-            {
-                break;
-            }
-            
-            end--;
-        }
-        
-        int i = 0;
-        while (i < end)
-        {
-            while (i < end && ignore(data.charAt(i)))
-            {
-                i++;
-            }
-            
-            b1 = decodingTable[data.charAt(i++)];
-            
-            while (i < end && ignore(data.charAt(i)))
-            {
-                i++;
-            }
-            
-            b2 = decodingTable[data.charAt(i++)];
-
-            out.write((b1 << 4) | b2);
-            
-            length++;
-        }
+        byte[] bytes = Strings.toByteArray(data);
 
-        return length;
+        return decode(bytes, 0, bytes.length, out);
     }
 }
@@ -1,9 +1,11 @@
 package org.spongycastle.util.encoders;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.spongycastle.util.Arrays;
+import org.spongycastle.util.Strings;
+
 /**
  * Convert binary data to and from UrlBase64 encoding.  This is identical to
  * Base64 encoding, except that the padding character is "." and the other 
@@ -18,7 +20,7 @@ import java.io.OutputStream;
  */
 public class UrlBase64
 {
-    private static final Encoder encoder = new UrlBase64Encoder();
+    private static final UrlBase64Encoder encoder = new UrlBase64Encoder();
     
     /**
      * Encode the input data producing a URL safe base 64 encoded byte array.
@@ -28,18 +30,24 @@ public class UrlBase64
     public static byte[] encode(
         byte[]    data)
     {
-        ByteArrayOutputStream    bOut = new ByteArrayOutputStream();
-        
-        try
-        {
-            encoder.encode(data, 0, data.length, bOut);
-        }
-        catch (IOException e)
-        {
-            throw new RuntimeException("exception encoding URL safe base64 string: " + e);
-        }
-        
-        return bOut.toByteArray();
+        return encode(data, 0, data.length);
+    }
+
+    /**
+     * encode the input data producing a URL safe base 64 encoded byte array.
+     *
+     * @return a byte array containing the URL safe base 64 encoded data.
+     */
+    public static byte[] encode(
+        byte[]    data,
+        int       off,
+        int       length)
+    {
+        byte[] encoded = new byte[(length + 2) / 3 * 4];
+
+        encoder.encode(data, off, length, encoded, 0);
+
+        return encoded;
     }
 
     /**
@@ -63,18 +71,15 @@ public class UrlBase64
     public static byte[] decode(
         byte[]    data)
     {
-        ByteArrayOutputStream    bOut = new ByteArrayOutputStream();
-        
-        try
-        {
-            encoder.decode(data, 0, data.length, bOut);
-        }
-        catch (IOException e)
+        byte[] decoded = new byte[data.length / 4 * 3];
+        int    len = encoder.decode(data, 0, data.length, decoded, 0);
+
+        if (len == decoded.length)
         {
-            throw new RuntimeException("exception decoding URL safe base64 string: " + e);
+            return decoded;
         }
-        
-        return bOut.toByteArray();
+
+        return Arrays.copyOf(decoded, len);
     }
     
     /**
@@ -99,18 +104,7 @@ public class UrlBase64
     public static byte[] decode(
         String    data)
     {
-        ByteArrayOutputStream    bOut = new ByteArrayOutputStream();
-        
-        try
-        {
-            encoder.decode(data, bOut);
-        }
-        catch (IOException e)
-        {
-            throw new RuntimeException("exception decoding URL safe base64 string: " + e);
-        }
-        
-        return bOut.toByteArray();
+        return decode(Strings.toByteArray(data));
     }
     
     /**
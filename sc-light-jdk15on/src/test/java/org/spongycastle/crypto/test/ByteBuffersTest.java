@@ -0,0 +1,340 @@
+package org.spongycastle.crypto.test;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+
+import org.spongycastle.crypto.BufferedBlockCipher;
+import org.spongycastle.crypto.DataLengthException;
+import org.spongycastle.crypto.Digest;
+import org.spongycastle.crypto.Mac;
+import org.spongycastle.crypto.StreamCipher;
+import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.engines.AESFastEngine;
+import org.spongycastle.crypto.engines.RC4Engine;
+import org.spongycastle.crypto.macs.HMac;
+import org.spongycastle.crypto.modes.AEADBlockCipher;
+import org.spongycastle.crypto.modes.CBCBlockCipher;
+import org.spongycastle.crypto.modes.GCMBlockCipher;
+import org.spongycastle.crypto.paddings.PaddedBufferedBlockCipher;
+import org.spongycastle.crypto.params.AEADParameters;
+import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.crypto.params.ParametersWithIV;
+import org.spongycastle.crypto.util.ByteBuffers;
+import org.spongycastle.util.test.SimpleTest;
+
+/**
+ * Check the ByteBuffer methods give the same results as the byte[] ones for heap,
+ * direct and read-only buffers.
+ */
+public class ByteBuffersTest
+    extends SimpleTest
+{
+    private static final int HEAP = 0;
+    private static final int DIRECT = 1;
+    private static final int READ_ONLY = 2;
+
+    private SecureRandom random = new SecureRandom();
+
+    public String getName()
+    {
+        return "ByteBuffers";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        int[] sizes = { 0, 1, 15, 16, 17, 1000, 4095, 4096, 4097, 10000 };
+
+        for (int i = 0; i != sizes.length; i++)
+        {
+            byte[] data = randomBytes(sizes[i]);
+
+            for (int type = HEAP; type <= READ_ONLY; type++)
+            {
+                digestTest(data, type);
+                macTest(data, type);
+
+                for (int outType = HEAP; outType <= DIRECT; outType++)
+                {
+                    streamCipherTest(data, type, outType);
+                    bufferedCipherTest(data, type, outType);
+                    aeadCipherTest(data, type, outType);
+                }
+            }
+        }
+
+        shortOutputTest();
+
+        overlapTest(randomBytes(100), 0, 7);
+        overlapTest(randomBytes(100), 7, 0);
+        overlapTest(randomBytes(100), 3, 3);
+        overlapTest(randomBytes(10000), 0, 33);
+    }
+
+    private void digestTest(byte[] data, int type)
+    {
+        Digest digest = new SHA256Digest();
+        byte[] expected = new byte[digest.getDigestSize()];
+
+        digest.update(data, 0, data.length);
+        digest.doFinal(expected, 0);
+
+        ByteBuffer in = wrap(data, type);
+        ByteBuffer out = allocate(expected.length + 3, type == DIRECT ? DIRECT : HEAP);
+
+        out.position(3);
+        ByteBuffers.update(digest, in);
+
+        if (in.hasRemaining())
+        {
+            fail("digest input not consumed");
+        }
+
+        ByteBuffers.doFinal(digest, out);
+        checkOutput("digest", expected, out, 3);
+    }
+
+    private void macTest(byte[] data, int type)
+    {
+        Mac mac = new HMac(new SHA256Digest());
+        byte[] expected = new byte[mac.getMacSize()];
+
+        mac.init(new KeyParameter(randomBytes(32)));
+        mac.update(data, 0, data.length);
+        mac.doFinal(expected, 0);
+
+        ByteBuffer in = wrap(data, type);
+        ByteBuffer out = allocate(expected.length, type == DIRECT ? DIRECT : HEAP);
+
+        ByteBuffers.update(mac, in);
+        ByteBuffers.doFinal(mac, out);
+        checkOutput("mac", expected, out, 0);
+    }
+
+    private void streamCipherTest(byte[] data, int inType, int outType)
+    {
+        StreamCipher cipher = new RC4Engine();
+        KeyParameter key = new KeyParameter(randomBytes(16));
+        byte[] expected = new byte[data.length];
+
+        cipher.init(true, key);
+        cipher.processBytes(data, 0, data.length, expected, 0);
+
+        cipher.init(true, key);
+
+        ByteBuffer in = wrap(data, inType);
+        ByteBuffer out = allocate(data.length, outType);
+
+        if (ByteBuffers.processBytes(cipher, in, out) != data.length)
+        {
+            fail("stream cipher returned wrong length");
+        }
+
+        checkOutput("stream cipher", expected, out, 0);
+    }
+
+    private void bufferedCipherTest(byte[] data, int inType, int outType)
+        throws Exception
+    {
+        BufferedBlockCipher cipher = new PaddedBufferedBlockCipher(new CBCBlockCipher(new AESFastEngine()));
+        ParametersWithIV params = new ParametersWithIV(new KeyParameter(randomBytes(16)), randomBytes(16));
+
+        cipher.init(true, params);
+
+        byte[] expected = new byte[cipher.getOutputSize(data.length)];
+        int len = cipher.processBytes(data, 0, data.length, expected, 0);
+        cipher.doFinal(expected, len);
+
+        cipher.init(true, params);
+
+        ByteBuffer in = wrap(data, inType);
+        ByteBuffer out = allocate(expected.length, outType);
+
+        len = ByteBuffers.processBytes(cipher, in, out);
+        len += ByteBuffers.doFinal(cipher, out);
+
+        if (len != expected.length)
+        {
+            fail("buffered cipher returned wrong length");
+        }
+
+        checkOutput("buffered cipher", expected, out, 0);
+
+        // and back again, in place for heap buffers
+        cipher.init(false, params);
+
+        ByteBuffer ct = wrap(expected, outType);
+        ByteBuffer pt = (outType == HEAP) ? ct.duplicate() : allocate(expected.length, outType);
+
+        len = ByteBuffers.processBytes(cipher, ct, pt);
+        len += ByteBuffers.doFinal(cipher, pt);
+
+        if (len != data.length || !areEqual(data, get(pt, 0, len)))
+        {
+            fail("buffered cipher decryption failed");
+        }
+    }
+
+    private void aeadCipherTest(byte[] data, int inType, int outType)
+        throws Exception
+    {
+        AEADBlockCipher cipher = new GCMBlockCipher(new AESFastEngine());
+        AEADParameters params = new AEADParameters(new KeyParameter(randomBytes(16)), 128, randomBytes(12), randomBytes(7));
+
+        cipher.init(true, params);
+
+        byte[] expected = new byte[cipher.getOutputSize(data.length)];
+        int len = cipher.processBytes(data, 0, data.length, expected, 0);
+        cipher.doFinal(expected, len);
+
+        cipher.init(true, params);
+
+        ByteBuffer in = wrap(data, inType);
+        ByteBuffer out = allocate(expected.length, outType);
+
+        len = ByteBuffers.processBytes(cipher, in, out);
+        len += ByteBuffers.doFinal(cipher, out);
+
+        if (len != expected.length)
+        {
+            fail("AEAD cipher returned wrong length");
+        }
+
+        checkOutput("AEAD cipher", expected, out, 0);
+    }
+
+    /**
+     * input and output in the same array, overlapping with the output starting inOff - outOff
+     * bytes away from the input, the cipher holding a partial block between calls.
+     */
+    private void overlapTest(byte[] data, int inOff, int outOff)
+        throws Exception
+    {
+        BufferedBlockCipher cipher = new PaddedBufferedBlockCipher(new CBCBlockCipher(new AESFastEngine()));
+        ParametersWithIV params = new ParametersWithIV(new KeyParameter(randomBytes(16)), randomBytes(16));
+
+        cipher.init(true, params);
+
+        byte[] expected = new byte[cipher.getOutputSize(data.length)];
+        int len = cipher.processBytes(data, 0, data.length, expected, 0);
+        cipher.doFinal(expected, len);
+
+        byte[] shared = new byte[Math.max(inOff, outOff) + expected.length];
+        System.arraycopy(data, 0, shared, inOff, data.length);
+
+        ByteBuffer in = ByteBuffer.wrap(shared, inOff, data.length);
+        ByteBuffer out = ByteBuffer.wrap(shared, outOff, expected.length);
+        ByteBuffer first = in.duplicate();
+
+        cipher.init(true, params);
+
+        first.limit(first.position() + 5);
+        in.position(first.limit());
+
+        len = ByteBuffers.processBytes(cipher, first, out);
+        len += ByteBuffers.processBytes(cipher, in, out);
+        len += ByteBuffers.doFinal(cipher, out);
+
+        if (len != expected.length || !areEqual(expected, get(ByteBuffer.wrap(shared), outOff, len)))
+        {
+            fail("overlapping buffers gave wrong output for input at " + inOff + ", output at " + outOff);
+        }
+    }
+
+    private void shortOutputTest()
+    {
+        Digest digest = new SHA256Digest();
+        ByteBuffer out = ByteBuffer.allocateDirect(31);
+
+        try
+        {
+            ByteBuffers.doFinal(digest, out);
+            fail("short output not detected");
+        }
+        catch (DataLengthException e)
+        {
+            // expected
+        }
+
+        StreamCipher cipher = new RC4Engine();
+        ByteBuffer in = ByteBuffer.allocate(10);
+
+        cipher.init(true, new KeyParameter(randomBytes(16)));
+
+        try
+        {
+            ByteBuffers.processBytes(cipher, in, ByteBuffer.allocate(9));
+            fail("short stream output not detected");
+        }
+        catch (DataLengthException e)
+        {
+            // expected
+        }
+
+        if (in.position() != 0)
+        {
+            fail("input consumed on short output");
+        }
+    }
+
+    private void checkOutput(String label, byte[] expected, ByteBuffer out, int start)
+    {
+        if (out.position() != start + expected.length)
+        {
+            fail(label + " output position wrong");
+        }
+
+        if (!areEqual(expected, get(out, start, expected.length)))
+        {
+            fail(label + " output differs from byte[] version");
+        }
+    }
+
+    private byte[] get(ByteBuffer buf, int start, int len)
+    {
+        byte[] bytes = new byte[len];
+        ByteBuffer dup = buf.duplicate();
+
+        dup.position(start);
+        dup.get(bytes);
+
+        return bytes;
+    }
+
+    /**
+     * Return a buffer containing data between its position and limit, placed at an
+     * offset in a larger backing store so offsets get exercised.
+     */
+    private ByteBuffer wrap(byte[] data, int type)
+    {
+        ByteBuffer buf = allocate(data.length + 10, type == DIRECT ? DIRECT : HEAP);
+
+        buf.position(5);
+        ByteBuffer slice = buf.slice();
+
+        slice.put(data);
+        slice.flip();
+
+        return (type == READ_ONLY) ? slice.asReadOnlyBuffer() : slice;
+    }
+
+    private ByteBuffer allocate(int size, int type)
+    {
+        return (type == DIRECT) ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+    }
+
+    private byte[] randomBytes(int length)
+    {
+        byte[] bytes = new byte[length];
+
+        random.nextBytes(bytes);
+
+        return bytes;
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        runTest(new ByteBuffersTest());
+    }
+}
@@ -167,6 +167,40 @@ public class CCMTest
         {
             fail("MAC fails to match in test " + count);
         }
+
+        //
+        // associated text split between the parameters and processAADBytes
+        //
+        int split = a.length / 2;
+        byte[] initialA = new byte[split];
+
+        System.arraycopy(a, 0, initialA, 0, split);
+
+        ccm.init(true, new AEADParameters(new KeyParameter(k), macSize, n, initialA));
+
+        ccm.processAADBytes(a, split, a.length - split);
+
+        len = ccm.processBytes(p, 0, p.length, tmp, 0);
+
+        len += ccm.doFinal(tmp, len);
+
+        if (!areEqual(c, tmp))
+        {
+            fail("encrypted stream with streamed associated text fails to match in test " + count);
+        }
+
+        ccm.init(false, new AEADParameters(new KeyParameter(k), macSize, n, new byte[0]));
+
+        ccm.processAADBytes(a, 0, a.length);
+
+        len = ccm.processBytes(enc, 0, enc.length, tmp, 0);
+
+        len += ccm.doFinal(tmp, len);
+
+        if (len != p.length || !areEqual(t, ccm.getMac()))
+        {
+            fail("MAC with streamed associated text fails to match in test " + count);
+        }
     }
 
     private void ivParamTest(
@@ -0,0 +1,368 @@
+package org.spongycastle.crypto.test;
+
+import org.spongycastle.crypto.InvalidCipherTextException;
+import org.spongycastle.crypto.modes.AEADCipher;
+import org.spongycastle.crypto.modes.ChaCha20Poly1305;
+import org.spongycastle.crypto.params.AEADParameters;
+import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.crypto.params.ParametersWithIV;
+import org.spongycastle.util.Strings;
+import org.spongycastle.util.encoders.Hex;
+import org.spongycastle.util.test.SimpleTest;
+
+/**
+ * ChaCha20-Poly1305 test, using the example from RFC 7539 section 2.8.2.
+ */
+public class ChaCha20Poly1305Test
+    extends SimpleTest
+{
+    private static final byte[] K = Hex.decode("808182838485868788898a8b8c8d8e8f909192939495969798999a9b9c9d9e9f");
+    private static final byte[] N = Hex.decode("070000004041424344454647");
+    private static final byte[] A = Hex.decode("50515253c0c1c2c3c4c5c6c7");
+    private static final byte[] P = Strings.toByteArray(
+        "Ladies and Gentlemen of the class of '99: If I could offer you only one tip for the future, sunscreen would be it.");
+    private static final byte[] C = Hex.decode(
+        "d31a8d34648e60db7b86afbc53ef7ec2a4aded51296e08fea9e2b5a736ee62d6"
+      + "3dbea45e8ca9671282fafb69da92728b1a71de0a9e060b2905d6a5b67ecd3b36"
+      + "92ddbd7f2d778b8c9803aee328091b58fab324e4fad675945585808b4831d7bc"
+      + "3ff4def08e4b7a9de576d26586cec64b6116");
+    private static final byte[] T = Hex.decode("1ae10b594f09e26a7e902ecbd0600691");
+
+    public String getName()
+    {
+        return "ChaCha20Poly1305";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        AEADParameters params = new AEADParameters(new KeyParameter(K), 128, N, A);
+
+        rfc7539Test(params);
+        splitTest(params);
+        aadTest();
+        noAADTest();
+        tamperTest(params);
+        parameterTest();
+    }
+
+    private void rfc7539Test(AEADParameters params)
+        throws InvalidCipherTextException
+    {
+        AEADCipher cipher = new ChaCha20Poly1305();
+
+        cipher.init(true, params);
+
+        byte[] out = new byte[cipher.getOutputSize(P.length)];
+        int len = cipher.processBytes(P, 0, P.length, out, 0);
+        len += cipher.doFinal(out, len);
+
+        if (len != C.length + T.length)
+        {
+            fail("wrong encryption output length: " + len);
+        }
+
+        if (!areEqual(C, copy(out, 0, C.length)) || !areEqual(T, copy(out, C.length, T.length)))
+        {
+            fail("encryption mismatch", new String(Hex.encode(C)) + new String(Hex.encode(T)), new String(Hex.encode(out)));
+        }
+
+        if (!areEqual(T, cipher.getMac()))
+        {
+            fail("getMac() mismatch");
+        }
+
+        // the key stream for the nonce is used up, nothing more can be encrypted with it
+        try
+        {
+            cipher.processBytes(P, 0, P.length, out, 0);
+            fail("no exception on re-use after encryption");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+
+        try
+        {
+            cipher.doFinal(out, 0);
+            fail("no exception on doFinal after encryption");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+
+        try
+        {
+            cipher.init(true, params);
+            fail("no exception on nonce reuse");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+
+        cipher.init(false, params);
+
+        byte[] in = new byte[C.length + T.length];
+        System.arraycopy(C, 0, in, 0, C.length);
+        System.arraycopy(T, 0, in, C.length, T.length);
+
+        byte[] dec = new byte[cipher.getOutputSize(in.length)];
+        len = cipher.processBytes(in, 0, in.length, dec, 0);
+        len += cipher.doFinal(dec, len);
+
+        if (len != P.length || !areEqual(P, dec))
+        {
+            fail("decryption mismatch");
+        }
+
+        // decryption can be repeated without a fresh init
+        len = cipher.processBytes(in, 0, in.length, dec, 0);
+        len += cipher.doFinal(dec, len);
+
+        if (len != P.length || !areEqual(P, dec))
+        {
+            fail("repeated decryption mismatch");
+        }
+    }
+
+    private void aadTest()
+        throws InvalidCipherTextException
+    {
+        AEADCipher cipher = new ChaCha20Poly1305();
+        AEADParameters noAAD = new AEADParameters(new KeyParameter(K), 128, N, null);
+
+        // the associated data may be given in pieces, or partly in the parameters
+        for (int split = 0; split <= A.length; split++)
+        {
+            byte[] first = copy(A, 0, split);
+
+            cipher = new ChaCha20Poly1305();
+            cipher.init(true, new AEADParameters(new KeyParameter(K), 128, N, first));
+            cipher.processAADBytes(A, split, A.length - split);
+
+            byte[] enc = new byte[cipher.getOutputSize(P.length)];
+            int len = cipher.processBytes(P, 0, P.length, enc, 0);
+            len += cipher.doFinal(enc, len);
+
+            if (!areEqual(C, copy(enc, 0, C.length)) || !areEqual(T, copy(enc, C.length, T.length)))
+            {
+                fail("streamed associated data mismatch at " + split);
+            }
+
+            cipher.init(false, noAAD);
+            for (int i = 0; i != A.length; i++)
+            {
+                cipher.processAADByte(A[i]);
+            }
+
+            byte[] dec = new byte[cipher.getOutputSize(enc.length)];
+            len = cipher.processBytes(enc, 0, enc.length, dec, 0);
+            len += cipher.doFinal(dec, len);
+
+            if (len != P.length || !areEqual(P, dec))
+            {
+                fail("streamed associated data decryption mismatch at " + split);
+            }
+        }
+
+        cipher.init(false, noAAD);
+        cipher.processBytes(C, 0, 1, new byte[1], 0);
+
+        try
+        {
+            cipher.processAADBytes(A, 0, A.length);
+            fail("no exception on associated data after data");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+    }
+
+    private void splitTest(AEADParameters params)
+        throws InvalidCipherTextException
+    {
+        byte[] in = new byte[C.length + T.length];
+        System.arraycopy(C, 0, in, 0, C.length);
+        System.arraycopy(T, 0, in, C.length, T.length);
+
+        int[] chunks = { 1, 5, 16, 17, 64, 100 };
+
+        for (int c = 0; c != chunks.length; c++)
+        {
+            AEADCipher cipher = new ChaCha20Poly1305();
+
+            cipher.init(true, params);
+
+            byte[] enc = new byte[in.length];
+            int len = 0;
+
+            for (int off = 0; off < P.length; off += chunks[c])
+            {
+                len += cipher.processBytes(P, off, Math.min(chunks[c], P.length - off), enc, len);
+            }
+            len += cipher.doFinal(enc, len);
+
+            if (len != in.length || !areEqual(in, enc))
+            {
+                fail("chunked encryption mismatch for chunk size " + chunks[c]);
+            }
+
+            cipher.init(false, params);
+
+            byte[] dec = new byte[P.length];
+            len = 0;
+
+            for (int off = 0; off < in.length; off += chunks[c])
+            {
+                len += cipher.processBytes(in, off, Math.min(chunks[c], in.length - off), dec, len);
+            }
+            len += cipher.doFinal(dec, len);
+
+            if (len != P.length || !areEqual(P, dec))
+            {
+                fail("chunked decryption mismatch for chunk size " + chunks[c]);
+            }
+        }
+    }
+
+    private void noAADTest()
+        throws InvalidCipherTextException
+    {
+        AEADCipher c1 = new ChaCha20Poly1305();
+        AEADCipher c2 = new ChaCha20Poly1305();
+
+        c1.init(true, new ParametersWithIV(new KeyParameter(K), N));
+        c2.init(true, new AEADParameters(new KeyParameter(K), 128, N, null));
+
+        byte[] o1 = new byte[c1.getOutputSize(P.length)];
+        byte[] o2 = new byte[c2.getOutputSize(P.length)];
+
+        c1.doFinal(o1, c1.processBytes(P, 0, P.length, o1, 0));
+        c2.doFinal(o2, c2.processBytes(P, 0, P.length, o2, 0));
+
+        if (!areEqual(o1, o2))
+        {
+            fail("ParametersWithIV and AEADParameters without associated data differ");
+        }
+
+        // the key stream doesn't depend on the associated data
+        if (!areEqual(C, copy(o1, 0, C.length)))
+        {
+            fail("ciphertext depends on associated data");
+        }
+
+        if (areEqual(T, copy(o1, C.length, T.length)))
+        {
+            fail("tag doesn't cover associated data");
+        }
+    }
+
+    private void tamperTest(AEADParameters params)
+    {
+        AEADCipher cipher = new ChaCha20Poly1305();
+        byte[] in = new byte[C.length + T.length];
+
+        for (int pos = 0; pos < in.length; pos += 13)
+        {
+            System.arraycopy(C, 0, in, 0, C.length);
+            System.arraycopy(T, 0, in, C.length, T.length);
+            in[pos] ^= 0x01;
+
+            cipher.init(false, params);
+
+            byte[] dec = new byte[cipher.getOutputSize(in.length)];
+
+            try
+            {
+                cipher.doFinal(dec, cipher.processBytes(in, 0, in.length, dec, 0));
+                fail("modified byte " + pos + " not detected");
+            }
+            catch (InvalidCipherTextException e)
+            {
+                // expected
+            }
+        }
+
+        cipher.init(false, new AEADParameters(new KeyParameter(K), 128, N, new byte[A.length]));
+        System.arraycopy(C, 0, in, 0, C.length);
+        System.arraycopy(T, 0, in, C.length, T.length);
+
+        try
+        {
+            byte[] dec = new byte[cipher.getOutputSize(in.length)];
+            cipher.doFinal(dec, cipher.processBytes(in, 0, in.length, dec, 0));
+            fail("modified associated data not detected");
+        }
+        catch (InvalidCipherTextException e)
+        {
+            // expected
+        }
+
+        cipher.init(false, params);
+
+        try
+        {
+            cipher.processBytes(T, 0, 10, new byte[0], 0);
+            cipher.doFinal(new byte[0], 0);
+            fail("short input not detected");
+        }
+        catch (InvalidCipherTextException e)
+        {
+            // expected
+        }
+    }
+
+    private void parameterTest()
+    {
+        AEADCipher cipher = new ChaCha20Poly1305();
+
+        try
+        {
+            cipher.init(true, new AEADParameters(new KeyParameter(K), 96, N, A));
+            fail("short MAC accepted");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+
+        try
+        {
+            cipher.init(true, new ParametersWithIV(new KeyParameter(K), new byte[8]));
+            fail("8 byte nonce accepted");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+
+        try
+        {
+            cipher.init(true, new ParametersWithIV(new KeyParameter(new byte[16]), N));
+            fail("128 bit key accepted");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    private byte[] copy(byte[] data, int off, int len)
+    {
+        byte[] res = new byte[len];
+
+        System.arraycopy(data, off, res, 0, len);
+
+        return res;
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        runTest(new ChaCha20Poly1305Test());
+    }
+}
@@ -0,0 +1,189 @@
+package org.spongycastle.crypto.test;
+
+import org.spongycastle.crypto.CipherParameters;
+import org.spongycastle.crypto.StreamCipher;
+import org.spongycastle.crypto.engines.ChaChaEngine;
+import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.crypto.params.ParametersWithIV;
+import org.spongycastle.util.Strings;
+import org.spongycastle.util.encoders.Hex;
+import org.spongycastle.util.test.SimpleTest;
+
+/**
+ * ChaCha Test
+ */
+public class ChaChaTest
+    extends SimpleTest
+{
+    // original ChaCha20, all zero key and IV.
+    String zero256 = "76b8e0ada0f13d90405d6ae55386bd28"
+        + "bdd219b8a08ded1aa836efcc8b770dc7"
+        + "da41597c5157488d7724e03fb8d84a37"
+        + "6a43b8f41518a11cc387b669b2ee6586";
+
+    String zero128 = "89670952608364fd00b2f90936f031c8"
+        + "e756e15dba04b8493d00429259b20f46"
+        + "cc04f111246b6c2ce066be3bfb32d9aa"
+        + "0fddfbc12123d4b9e44f34dca05a103f";
+
+    // RFC 7539 section 2.4.2, which starts at block 1.
+    String rfcKey = "000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f";
+    String rfcNonce = "000000000000004a00000000";
+    String rfcPlainText = "Ladies and Gentlemen of the class of '99: If I could offer you only one tip for the future, sunscreen would be it.";
+    String rfcCipherText = "6e2e359a2568f98041ba0728dd0d6981"
+        + "e97e7aec1d4360c20a27afccfd9fae0b"
+        + "f91b65c5524733ab8f593dabcd62b357"
+        + "1639d624e65152ab8f530c359f0861d8"
+        + "07ca0dbf500d6a6156a38e088a22b65e"
+        + "52bc514d16ccf806818ce91ab7793736"
+        + "5af90bbf74a35be6b40b8eedf2785e42"
+        + "874d";
+
+    public String getName()
+    {
+        return "ChaCha";
+    }
+
+    public void performTest()
+    {
+        zeroTest(new ParametersWithIV(new KeyParameter(new byte[32]), new byte[8]), zero256);
+        zeroTest(new ParametersWithIV(new KeyParameter(new byte[16]), new byte[8]), zero128);
+        // block 0 is the same with a 12 byte IV, as the counter and IV are zero either way.
+        zeroTest(new ParametersWithIV(new KeyParameter(new byte[32]), new byte[12]), zero256);
+        rfc7539Test();
+        chunkTest(new ParametersWithIV(new KeyParameter(Hex.decode(rfcKey)), Hex.decode("0102030405060708")));
+        chunkTest(new ParametersWithIV(new KeyParameter(Hex.decode(rfcKey)), Hex.decode(rfcNonce)));
+        reinitBug();
+    }
+
+    private void zeroTest(CipherParameters params, String expected)
+    {
+        StreamCipher chacha = new ChaChaEngine();
+        byte[]       buf = new byte[64];
+
+        chacha.init(true, params);
+
+        chacha.processBytes(buf, 0, buf.length, buf, 0);
+
+        if (!areEqual(buf, Hex.decode(expected)))
+        {
+            mismatch("zero", expected, buf);
+        }
+
+        chacha.reset();
+
+        for (int i = 0; i != buf.length; i++)
+        {
+            buf[i] = chacha.returnByte((byte)0);
+        }
+
+        if (!areEqual(buf, Hex.decode(expected)))
+        {
+            mismatch("zero returnByte", expected, buf);
+        }
+    }
+
+    private void rfc7539Test()
+    {
+        StreamCipher chacha = new ChaChaEngine();
+        byte[]       in = Strings.toByteArray(rfcPlainText);
+        byte[]       out = new byte[in.length];
+
+        chacha.init(true, new ParametersWithIV(new KeyParameter(Hex.decode(rfcKey)), Hex.decode(rfcNonce)));
+
+        // skip block 0
+        chacha.processBytes(new byte[64], 0, 64, new byte[64], 0);
+        chacha.processBytes(in, 0, in.length, out, 0);
+
+        if (!areEqual(out, Hex.decode(rfcCipherText)))
+        {
+            mismatch("rfc7539", rfcCipherText, out);
+        }
+    }
+
+    /*
+     * key stream is generated several blocks at a time, so check splitting the data at
+     * various points doesn't change the output.
+     */
+    private void chunkTest(CipherParameters params)
+    {
+        StreamCipher chacha = new ChaChaEngine();
+        byte[]       in = new byte[1500];
+        byte[]       expected = new byte[in.length];
+        byte[]       out = new byte[in.length];
+
+        for (int i = 0; i != in.length; i++)
+        {
+            in[i] = (byte)i;
+        }
+
+        chacha.init(true, params);
+        chacha.processBytes(in, 0, in.length, expected, 0);
+
+        int[] chunks = { 1, 7, 63, 64, 65, 255, 256, 257 };
+
+        for (int c = 0; c != chunks.length; c++)
+        {
+            chacha.reset();
+
+            for (int off = 0; off < in.length; off += chunks[c])
+            {
+                chacha.processBytes(in, off, Math.min(chunks[c], in.length - off), out, off);
+            }
+
+            if (!areEqual(expected, out))
+            {
+                fail("chunked output mismatch for chunk size " + chunks[c]);
+            }
+        }
+
+        // in place
+        chacha.reset();
+        System.arraycopy(in, 0, out, 0, in.length);
+        chacha.processBytes(out, 0, out.length, out, 0);
+
+        if (!areEqual(expected, out))
+        {
+            fail("in place output mismatch");
+        }
+    }
+
+    private void mismatch(String name, String expected, byte[] found)
+    {
+        fail("mismatch on " + name, expected, new String(Hex.encode(found)));
+    }
+
+    private void reinitBug()
+    {
+        KeyParameter key = new KeyParameter(Hex.decode("80000000000000000000000000000000"));
+        ParametersWithIV parameters = new ParametersWithIV(key, Hex.decode("0000000000000000"));
+
+        StreamCipher chacha = new ChaChaEngine();
+
+        chacha.init(true, parameters);
+
+        try
+        {
+            chacha.init(true, key);
+            fail("ChaCha should throw exception if no IV in Init");
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+
+        try
+        {
+            chacha.init(true, new ParametersWithIV(key, new byte[16]));
+            fail("ChaCha should throw exception on a bad IV length");
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        runTest(new ChaChaTest());
+    }
+}
@@ -183,6 +183,37 @@ public class EAXTest
 
         runCheckVectors(count, encEax, decEax, p, t, c);
         runCheckVectors(count, encEax, decEax, p, t, c);
+
+        // associated text split between the parameters, processAADByte and processAADBytes
+        int split = a.length / 2;
+        byte[] initialA = new byte[split];
+        System.arraycopy(a, 0, initialA, 0, split);
+
+        parameters = new AEADParameters(new KeyParameter(k), macSize, n, initialA);
+        encEax.init(true, parameters);
+        decEax.init(false, parameters);
+
+        encEax.processAADByte(a[split]);
+        encEax.processAADBytes(a, split + 1, a.length - split - 1);
+        decEax.processAADBytes(a, split, a.length - split);
+
+        runCheckVectors(count, encEax, decEax, p, t, c);
+
+        if (p.length != 0)
+        {
+            encEax.init(true, parameters);
+            encEax.processBytes(p, 0, p.length, new byte[c.length], 0);
+
+            try
+            {
+                encEax.processAADByte(a[split]);
+                fail("associated text accepted after data in test " + count);
+            }
+            catch (IllegalStateException e)
+            {
+                // expected
+            }
+        }
     }
 
     private void runCheckVectors(
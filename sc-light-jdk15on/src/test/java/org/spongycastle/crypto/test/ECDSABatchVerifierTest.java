@@ -0,0 +1,196 @@
+package org.spongycastle.crypto.test;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.spongycastle.asn1.sec.SECNamedCurves;
+import org.spongycastle.asn1.x9.X9ECParameters;
+import org.spongycastle.crypto.AsymmetricCipherKeyPair;
+import org.spongycastle.crypto.generators.ECKeyPairGenerator;
+import org.spongycastle.crypto.params.ECDomainParameters;
+import org.spongycastle.crypto.params.ECKeyGenerationParameters;
+import org.spongycastle.crypto.params.ECPublicKeyParameters;
+import org.spongycastle.crypto.params.ParametersWithRandom;
+import org.spongycastle.crypto.signers.ECDSABatchVerifier;
+import org.spongycastle.crypto.signers.ECDSASigner;
+import org.spongycastle.util.test.SimpleTest;
+
+/**
+ * Check ECDSABatchVerifier agrees with ECDSASigner.verifySignature(), with and without
+ * an executor.
+ */
+public class ECDSABatchVerifierTest
+    extends SimpleTest
+{
+    private static final String[] CURVES = { "secp256r1", "secp384r1", "secp256k1", "sect233r1", "sect283k1" };
+
+    private SecureRandom random = new SecureRandom();
+
+    public String getName()
+    {
+        return "ECDSABatchVerifier";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try
+        {
+            batchTest(new ECDSABatchVerifier(), 40);
+            batchTest(new ECDSABatchVerifier(executor, 4), 100);
+            batchTest(new ECDSABatchVerifier(executor, 3, 1), 7);
+            batchTest(new ECDSABatchVerifier(executor, 4), 1);
+            batchTest(new ECDSABatchVerifier(executor, 4), 0);
+
+            mismatchTest();
+            failureTest(new ECDSABatchVerifier());
+            failureTest(new ECDSABatchVerifier(executor, 4, 1));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private void batchTest(ECDSABatchVerifier verifier, int count)
+    {
+        AsymmetricCipherKeyPair[] pairs = new AsymmetricCipherKeyPair[CURVES.length * 2];
+
+        for (int i = 0; i != pairs.length; i++)
+        {
+            pairs[i] = generateKeyPair(CURVES[i % CURVES.length]);
+        }
+
+        ECPublicKeyParameters[] keys = new ECPublicKeyParameters[count];
+        byte[][] messages = new byte[count][];
+        BigInteger[][] signatures = new BigInteger[count][];
+        boolean[] expected = new boolean[count];
+
+        ECDSASigner signer = new ECDSASigner();
+
+        for (int i = 0; i != count; i++)
+        {
+            AsymmetricCipherKeyPair pair = pairs[random.nextInt(pairs.length)];
+
+            keys[i] = (ECPublicKeyParameters)pair.getPublic();
+            messages[i] = randomBytes(random.nextBoolean() ? 20 : 64);
+
+            signer.init(true, new ParametersWithRandom(pair.getPrivate(), random));
+            signatures[i] = signer.generateSignature(messages[i]);
+
+            BigInteger n = keys[i].getParameters().getN();
+
+            // corrupt about a third of them in various ways
+            switch (random.nextInt(9))
+            {
+            case 0:
+                messages[i][random.nextInt(messages[i].length)] ^= 1;
+                break;
+            case 1:
+                signatures[i] = new BigInteger[] { signatures[i][0], signatures[i][1].add(BigInteger.ONE).mod(n) };
+                break;
+            case 2:
+                signatures[i] = new BigInteger[] { n, signatures[i][1] };
+                break;
+            case 3:
+                signatures[i] = new BigInteger[] { signatures[i][0], BigInteger.ZERO };
+                break;
+            default:
+                break;
+            }
+
+            signer.init(false, keys[i]);
+            expected[i] = signer.verifySignature(messages[i], signatures[i][0], signatures[i][1]);
+        }
+
+        boolean[] results = verifier.verifySignatures(keys, messages, signatures);
+
+        if (results.length != count)
+        {
+            fail("wrong number of results");
+        }
+
+        for (int i = 0; i != count; i++)
+        {
+            if (results[i] != expected[i])
+            {
+                fail("batch result " + i + " of " + count + " differs from ECDSASigner");
+            }
+        }
+    }
+
+    private void mismatchTest()
+    {
+        try
+        {
+            new ECDSABatchVerifier().verifySignatures(new ECPublicKeyParameters[2], new byte[2][], new BigInteger[1][]);
+
+            fail("no exception on mismatched arrays");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    /**
+     * an entry that cannot be processed at all must surface as an exception, whichever thread it lands on.
+     */
+    private void failureTest(ECDSABatchVerifier verifier)
+    {
+        AsymmetricCipherKeyPair pair = generateKeyPair(CURVES[0]);
+        ECPublicKeyParameters[] keys = new ECPublicKeyParameters[8];
+        byte[][] messages = new byte[8][];
+        BigInteger[][] signatures = new BigInteger[8][];
+
+        for (int i = 0; i != keys.length; i++)
+        {
+            keys[i] = (ECPublicKeyParameters)pair.getPublic();
+            messages[i] = randomBytes(32);
+            signatures[i] = new BigInteger[] { BigInteger.ONE, BigInteger.ONE };
+        }
+
+        signatures[keys.length - 1] = new BigInteger[] { BigInteger.ONE, null };
+
+        try
+        {
+            verifier.verifySignatures(keys, messages, signatures);
+
+            fail("no exception on bad entry");
+        }
+        catch (NullPointerException e)
+        {
+            // expected
+        }
+    }
+
+    private AsymmetricCipherKeyPair generateKeyPair(String curveName)
+    {
+        X9ECParameters x9 = SECNamedCurves.getByName(curveName);
+        ECDomainParameters params = new ECDomainParameters(x9.getCurve(), x9.getG(), x9.getN(), x9.getH());
+        ECKeyPairGenerator generator = new ECKeyPairGenerator();
+
+        generator.init(new ECKeyGenerationParameters(params, random));
+
+        return generator.generateKeyPair();
+    }
+
+    private byte[] randomBytes(int length)
+    {
+        byte[] bytes = new byte[length];
+
+        random.nextBytes(bytes);
+
+        return bytes;
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        runTest(new ECDSABatchVerifierTest());
+    }
+}
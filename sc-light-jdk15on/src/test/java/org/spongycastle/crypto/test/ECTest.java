@@ -22,6 +22,7 @@ import org.spongycastle.crypto.params.ParametersWithRandom;
 import org.spongycastle.crypto.signers.ECDSASigner;
 import org.spongycastle.math.ec.ECCurve;
 import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.math.ec.ECPointPreCompCache;
 import org.spongycastle.util.BigIntegers;
 import org.spongycastle.util.encoders.Hex;
 import org.spongycastle.util.test.FixedSecureRandom;
@@ -869,6 +870,86 @@ public class ECTest
         return "EC";
     }
 
+    /**
+     * Signers and agreements using a public key cache must give the same answers as those
+     * without, both on first sight of a key and once it is cached.
+     */
+    private void testCachedPublicKeys()
+    {
+        SecureRandom        random = new SecureRandom();
+        ECPointPreCompCache cache = new ECPointPreCompCache(4);
+        String[]            curves = { "secp256r1", "secp384r1", "sect233r1", "sect283k1" };
+
+        for (int i = 0; i != curves.length; i++)
+        {
+            X9ECParameters     x9 = SECNamedCurves.getByName(curves[i]);
+            ECDomainParameters params = new ECDomainParameters(x9.getCurve(), x9.getG(), x9.getN(), x9.getH());
+            ECKeyPairGenerator pGen = new ECKeyPairGenerator();
+
+            pGen.init(new ECKeyGenerationParameters(params, random));
+
+            AsymmetricCipherKeyPair p1 = pGen.generateKeyPair();
+            AsymmetricCipherKeyPair p2 = pGen.generateKeyPair();
+
+            ECDSASigner signer = new ECDSASigner();
+            ECDSASigner verifier = new ECDSASigner(cache);
+
+            signer.init(true, new ParametersWithRandom(p1.getPrivate(), random));
+            verifier.init(false, p1.getPublic());
+
+            for (int j = 0; j != 3; j++)
+            {
+                byte[] message = new byte[32];
+
+                random.nextBytes(message);
+
+                BigInteger[] sig = signer.generateSignature(message);
+
+                if (!verifier.verifySignature(message, sig[0], sig[1]))
+                {
+                    fail("cached key signature fails on " + curves[i]);
+                }
+
+                message[0] ^= 1;
+
+                if (verifier.verifySignature(message, sig[0], sig[1]))
+                {
+                    fail("cached key signature verified bad message on " + curves[i]);
+                }
+            }
+
+            BasicAgreement e1 = new ECDHBasicAgreement(cache);
+            BasicAgreement e2 = new ECDHBasicAgreement();
+
+            e1.init(p1.getPrivate());
+            e2.init(p2.getPrivate());
+
+            for (int j = 0; j != 2; j++)
+            {
+                if (!e1.calculateAgreement(p2.getPublic()).equals(e2.calculateAgreement(p1.getPublic())))
+                {
+                    fail("cached key agreement test failed on " + curves[i]);
+                }
+            }
+
+            e1 = new ECDHCBasicAgreement(cache);
+            e2 = new ECDHCBasicAgreement();
+
+            e1.init(p1.getPrivate());
+            e2.init(p2.getPrivate());
+
+            if (!e1.calculateAgreement(p2.getPublic()).equals(e2.calculateAgreement(p1.getPublic())))
+            {
+                fail("cached key cofactor agreement test failed on " + curves[i]);
+            }
+        }
+
+        if (cache.size() > 4)
+        {
+            fail("public key cache exceeded its bound");
+        }
+    }
+
     public void performTest()
     {
         decodeTest();
@@ -878,6 +959,7 @@ public class ECTest
         testECDSA239bitBinary();
         testECDSAKeyGenTest();
         testECBasicAgreementTest();
+        testCachedPublicKeys();
 
         testECDSAP224sha224();
         testECDSAP224OneByteOver();
@@ -0,0 +1,249 @@
+package org.spongycastle.crypto.test;
+
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.prng.AsyncEntropySource;
+import org.spongycastle.crypto.prng.EntropySource;
+import org.spongycastle.crypto.prng.MixedEntropySource;
+import org.spongycastle.crypto.prng.SecureRandomEntropySource;
+import org.spongycastle.crypto.prng.URandomEntropySource;
+import org.spongycastle.util.test.SimpleTest;
+
+public class EntropySourceTest
+    extends SimpleTest
+{
+    public String getName()
+    {
+        return "EntropySource";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        if (URandomEntropySource.isAvailable())
+        {
+            sourceTest("URandom", new URandomEntropySource(256), 32);
+            sourceTest("URandom odd size", new URandomEntropySource(20), 3);
+
+            if (new URandomEntropySource(256).isPredictionResistant())
+            {
+                fail("URandom claims to be prediction resistant");
+            }
+        }
+
+        sourceTest("SecureRandom", new SecureRandomEntropySource(new SecureRandom(), false, 128), 16);
+
+        mixedTest();
+        asyncTest();
+    }
+
+    private void sourceTest(String label, EntropySource source, int length)
+    {
+        byte[] e1 = source.getEntropy();
+        byte[] e2 = source.getEntropy();
+
+        if (e1.length != length || e2.length != length)
+        {
+            fail(label + " returned wrong length");
+        }
+
+        if (length >= 16 && areEqual(e1, e2))
+        {
+            fail(label + " repeated itself");
+        }
+    }
+
+    private void mixedTest()
+    {
+        EntropySource mixed = new MixedEntropySource(new SHA256Digest(),
+            new EntropySource[] { new CountingSource(0x00, 64), new CountingSource(0x40, 512) });
+
+        if (mixed.entropySize() != 256)
+        {
+            fail("mixed entropy size not limited by digest");
+        }
+
+        SHA256Digest digest = new SHA256Digest();
+        byte[] expected = new byte[32];
+
+        digest.update(new CountingSource(0x00, 64).getEntropy(), 0, 8);
+        digest.update(new CountingSource(0x40, 512).getEntropy(), 0, 64);
+        digest.doFinal(expected, 0);
+
+        if (!areEqual(expected, mixed.getEntropy()))
+        {
+            fail("mixed entropy not the hash of the sources");
+        }
+
+        mixed = new MixedEntropySource(new SHA256Digest(), new EntropySource[] { new CountingSource(0x00, 64) });
+
+        if (mixed.entropySize() != 64)
+        {
+            fail("mixed entropy size not limited by sources");
+        }
+    }
+
+    private void asyncTest()
+        throws Exception
+    {
+        CountingSource counting = new CountingSource(0x00, 128);
+        AsyncEntropySource async = new AsyncEntropySource(counting);
+
+        // wait for the background gathering to finish.
+        byte[] ready = async.getReadyFuture().get(10, TimeUnit.SECONDS);
+
+        if (!areEqual(ready, new CountingSource(0x00, 128).getEntropy()))
+        {
+            fail("ready future returned wrong entropy");
+        }
+
+        if (!areEqual(ready, async.getEntropy()))
+        {
+            fail("getEntropy didn't return the gathered entropy");
+        }
+
+        ThreadRecordingSource recording = new ThreadRecordingSource();
+
+        async = new AsyncEntropySource(recording);
+
+        for (int i = 0; i != 5; i++)
+        {
+            async.getEntropy();
+        }
+
+        if (recording.threads.size() != 1 || recording.threads.contains(Thread.currentThread()))
+        {
+            fail("gathering not done by a single background worker");
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            async = new AsyncEntropySource(new CountingSource(0x10, 128), executor);
+
+            byte[] first = async.getEntropy();
+            byte[] second = async.getEntropy();
+
+            if (first[0] != 0x10 || second[0] != 0x11)
+            {
+                fail("executor gathered entropy out of order");
+            }
+
+            async = new AsyncEntropySource(new FailingSource(), executor);
+
+            try
+            {
+                async.getEntropy();
+                fail("source failure not passed on");
+            }
+            catch (IllegalStateException e)
+            {
+                // expected
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * each call returns counting bytes, starting one on from the last call.
+     */
+    private static class CountingSource
+        implements EntropySource
+    {
+        private final int size;
+
+        private int start;
+
+        CountingSource(int start, int size)
+        {
+            this.start = start;
+            this.size = size;
+        }
+
+        public boolean isPredictionResistant()
+        {
+            return false;
+        }
+
+        public synchronized byte[] getEntropy()
+        {
+            byte[] entropy = new byte[size / 8];
+
+            for (int i = 0; i != entropy.length; i++)
+            {
+                entropy[i] = (byte)(start + i);
+            }
+
+            start++;
+
+            return entropy;
+        }
+
+        public int entropySize()
+        {
+            return size;
+        }
+    }
+
+    /**
+     * records the threads the entropy is gathered on.
+     */
+    private static class ThreadRecordingSource
+        implements EntropySource
+    {
+        final Set threads = Collections.synchronizedSet(new HashSet());
+
+        public boolean isPredictionResistant()
+        {
+            return false;
+        }
+
+        public byte[] getEntropy()
+        {
+            threads.add(Thread.currentThread());
+
+            return new byte[16];
+        }
+
+        public int entropySize()
+        {
+            return 128;
+        }
+    }
+
+    private static class FailingSource
+        implements EntropySource
+    {
+        public boolean isPredictionResistant()
+        {
+            return false;
+        }
+
+        public byte[] getEntropy()
+        {
+            throw new IllegalStateException("no entropy");
+        }
+
+        public int entropySize()
+        {
+            return 256;
+        }
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        runTest(new EntropySourceTest());
+    }
+}
@@ -1,16 +1,22 @@
 package org.spongycastle.crypto.test;
 
 import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.spongycastle.crypto.BlockCipher;
 import org.spongycastle.crypto.InvalidCipherTextException;
 import org.spongycastle.crypto.engines.AESFastEngine;
 import org.spongycastle.crypto.modes.GCMBlockCipher;
 import org.spongycastle.crypto.modes.gcm.BasicGCMMultiplier;
+import org.spongycastle.crypto.modes.gcm.CachingGCMMultiplier;
 import org.spongycastle.crypto.modes.gcm.GCMMultiplier;
+import org.spongycastle.crypto.modes.gcm.GCMMultiplierPolicy;
 import org.spongycastle.crypto.modes.gcm.Tables64kGCMMultiplier;
 import org.spongycastle.crypto.modes.gcm.Tables8kGCMMultiplier;
 import org.spongycastle.crypto.params.AEADParameters;
 import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.util.Arrays;
 import org.spongycastle.util.encoders.Hex;
 import org.spongycastle.util.test.SimpleTest;
 
@@ -300,6 +306,9 @@ public class GCMTest
         }
 
         randomTests();
+        parallelTests();
+        cachingTests();
+        streamedAADTests();
     }    
 
     private void runTestCase(String[] testVector)
@@ -335,6 +344,9 @@ public class GCMTest
         runTestCase(new BasicGCMMultiplier(), new BasicGCMMultiplier(), parameters, testName, P, C, T);
         runTestCase(new Tables8kGCMMultiplier(), new Tables8kGCMMultiplier(), parameters, testName, P, C, T);
         runTestCase(new Tables64kGCMMultiplier(), new Tables64kGCMMultiplier(), parameters, testName, P, C, T);
+        runTestCase(new CachingGCMMultiplier(GCMMultiplierPolicy.TABLES_8K),
+            new CachingGCMMultiplier(GCMMultiplierPolicy.TABLES_64K), parameters, testName, P, C, T);
+        runTestCase(GCMMultiplierPolicy.createDefault(), GCMMultiplierPolicy.createDefault(), parameters, testName, P, C, T);
     }
 
     private void runTestCase(
@@ -415,6 +427,123 @@ public class GCMTest
         }
     }
 
+    private void cachingTests()
+        throws InvalidCipherTextException
+    {
+        int cacheSize = GCMMultiplierPolicy.getTableCacheSize();
+
+        try
+        {
+            // smaller than the number of keys, so entries get evicted and rebuilt
+            GCMMultiplierPolicy.setTableCacheSize(2);
+
+            for (int pass = 0; pass < 2; ++pass)
+            {
+                for (int i = 0; i < TEST_VECTORS.length; ++i)
+                {
+                    runTestCase(TEST_VECTORS[i]);
+                }
+            }
+
+            SecureRandom srng = new SecureRandom();
+            GCMMultiplier m = new CachingGCMMultiplier(GCMMultiplierPolicy.BASIC);
+            for (int i = 0; i < 10; ++i)
+            {
+                randomTest(srng, m);
+            }
+        }
+        finally
+        {
+            GCMMultiplierPolicy.setTableCacheSize(cacheSize);
+        }
+
+        try
+        {
+            GCMMultiplierPolicy.create("4k");
+            fail("unknown multiplier type accepted");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    private void streamedAADTests()
+        throws InvalidCipherTextException
+    {
+        SecureRandom srng = new SecureRandom();
+        for (int i = 0; i < 10; ++i)
+        {
+            streamedAADTest(srng);
+        }
+    }
+
+    private void streamedAADTest(SecureRandom srng)
+        throws InvalidCipherTextException
+    {
+        byte[] K = new byte[16];
+        srng.nextBytes(K);
+        byte[] IV = new byte[12];
+        srng.nextBytes(IV);
+        byte[] A = new byte[srng.nextInt() >>> 25];
+        srng.nextBytes(A);
+        byte[] P = new byte[srng.nextInt() >>> 25];
+        srng.nextBytes(P);
+
+        GCMBlockCipher cipher = new GCMBlockCipher(new AESFastEngine());
+        cipher.init(true, new AEADParameters(new KeyParameter(K), 128, IV, A));
+        byte[] expected = new byte[cipher.getOutputSize(P.length)];
+        int len = cipher.processBytes(P, 0, P.length, expected, 0);
+        cipher.doFinal(expected, len);
+
+        // part of the associated text in the parameters, the rest streamed in two pieces
+        int split = (A.length == 0) ? 0 : srng.nextInt(A.length + 1);
+        int bytewise = (A.length - split) / 2;
+        byte[] initialA = new byte[split];
+        System.arraycopy(A, 0, initialA, 0, split);
+
+        cipher.init(true, new AEADParameters(new KeyParameter(K), 128, IV, initialA));
+        for (int i = 0; i < bytewise; ++i)
+        {
+            cipher.processAADByte(A[split + i]);
+        }
+        cipher.processAADBytes(A, split + bytewise, A.length - split - bytewise);
+        byte[] enc = new byte[cipher.getOutputSize(P.length)];
+        len = cipher.processBytes(P, 0, P.length, enc, 0);
+        cipher.doFinal(enc, len);
+
+        if (!areEqual(expected, enc))
+        {
+            fail("streamed associated text gave wrong result in GCM");
+        }
+
+        cipher.init(false, new AEADParameters(new KeyParameter(K), 128, IV, null));
+        cipher.processAADBytes(A, 0, A.length);
+        byte[] dec = new byte[cipher.getOutputSize(enc.length)];
+        len = cipher.processBytes(enc, 0, enc.length, dec, 0);
+        cipher.doFinal(dec, len);
+
+        if (!areEqual(P, dec))
+        {
+            fail("streamed associated text failed decrypt in GCM");
+        }
+
+        cipher.init(true, new AEADParameters(new KeyParameter(K), 128, IV, null));
+        cipher.processBytes(P, 0, P.length, enc, 0);
+        if (P.length != 0)
+        {
+            try
+            {
+                cipher.processAADByte((byte)0);
+                fail("associated text accepted after data in GCM");
+            }
+            catch (IllegalStateException e)
+            {
+                // expected
+            }
+        }
+    }
+
     private void randomTests()
         throws InvalidCipherTextException
     {
@@ -505,6 +634,77 @@ public class GCMTest
         }
     }
 
+    private void parallelTests()
+        throws InvalidCipherTextException
+    {
+        SecureRandom srng = new SecureRandom();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try
+        {
+            for (int i = 0; i < 5; ++i)
+            {
+                parallelTest(srng, executor, null);
+                parallelTest(srng, executor, new Tables64kGCMMultiplier());
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private void parallelTest(SecureRandom srng, ExecutorService executor, GCMMultiplier m)
+        throws InvalidCipherTextException
+    {
+        byte[] K = new byte[16];
+        srng.nextBytes(K);
+
+        // large enough to be split into several chunks
+        byte[] P = new byte[(1 << 17) + (srng.nextInt() >>> 12)];
+        srng.nextBytes(P);
+
+        byte[] A = new byte[srng.nextInt() >>> 26];
+        srng.nextBytes(A);
+
+        // a 16 byte IV puts the counter at an arbitrary point, exercising 32 bit wrap
+        byte[] IV = new byte[(srng.nextInt() & 1) == 0 ? 12 : 16];
+        srng.nextBytes(IV);
+
+        AEADParameters parameters = new AEADParameters(new KeyParameter(K), 16 * 8, IV, A);
+
+        GCMBlockCipher serial = new GCMBlockCipher(new AESFastEngine());
+        GCMBlockCipher parallel = new GCMBlockCipher(
+            new BlockCipher[] { new AESFastEngine(), new AESFastEngine(), new AESFastEngine(), new AESFastEngine() }, m, executor);
+
+        serial.init(true, parameters);
+        byte[] C = new byte[serial.getOutputSize(P.length)];
+        int len = serial.processBytes(P, 0, P.length, C, 0);
+        serial.doFinal(C, len);
+
+        parallel.init(true, parameters);
+        byte[] parC = new byte[parallel.getOutputSize(P.length)];
+        int split = srng.nextInt(P.length);
+        len = parallel.processBytes(P, 0, split, parC, 0);
+        len += parallel.processBytes(P, split, P.length - split, parC, len);
+        parallel.doFinal(parC, len);
+
+        if (!areEqual(C, parC))
+        {
+            fail("parallel GCM encryption differs from serial");
+        }
+
+        // decrypt in place
+        parallel.init(false, parameters);
+        len = parallel.processBytes(parC, 0, parC.length, parC, 0);
+        len += parallel.doFinal(parC, len);
+
+        if (len != P.length || !areEqual(P, Arrays.copyOf(parC, len)))
+        {
+            fail("parallel GCM decryption failed");
+        }
+    }
+
     public static void main(String[] args)
     {
         runTest(new GCMTest());
@@ -0,0 +1,300 @@
+package org.spongycastle.crypto.test;
+
+import java.security.SecureRandom;
+
+import org.spongycastle.crypto.BlockCipher;
+import org.spongycastle.crypto.BufferedBlockCipher;
+import org.spongycastle.crypto.CipherParameters;
+import org.spongycastle.crypto.MultiBlockCipher;
+import org.spongycastle.crypto.engines.AESBitSliceEngine;
+import org.spongycastle.crypto.engines.AESEngine;
+import org.spongycastle.crypto.engines.AESFastEngine;
+import org.spongycastle.crypto.engines.AESIntrinsicEngine;
+import org.spongycastle.crypto.engines.CamelliaEngine;
+import org.spongycastle.crypto.engines.SerpentEngine;
+import org.spongycastle.crypto.engines.TwofishEngine;
+import org.spongycastle.crypto.modes.AEADBlockCipher;
+import org.spongycastle.crypto.modes.CBCBlockCipher;
+import org.spongycastle.crypto.modes.GCMBlockCipher;
+import org.spongycastle.crypto.modes.SICBlockCipher;
+import org.spongycastle.crypto.paddings.PaddedBufferedBlockCipher;
+import org.spongycastle.crypto.params.AEADParameters;
+import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.crypto.params.ParametersWithIV;
+import org.spongycastle.util.test.SimpleTest;
+
+/**
+ * Check the MultiBlockCipher paths produce the same output as processing one
+ * block at a time.
+ */
+public class MultiBlockCipherTest
+    extends SimpleTest
+{
+    private SecureRandom random = new SecureRandom();
+
+    public String getName()
+    {
+        return "MultiBlockCipher";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        engineTest(new AESEngine(), 16);
+        engineTest(new AESEngine(), 32);
+        engineTest(new AESFastEngine(), 16);
+        engineTest(new AESFastEngine(), 24);
+        engineTest(new AESBitSliceEngine(), 16);
+        engineTest(new AESBitSliceEngine(), 32);
+        engineTest(new AESIntrinsicEngine(), 16);
+        engineTest(new AESIntrinsicEngine(), 32);
+        engineTest(new CamelliaEngine(), 16);
+        engineTest(new CamelliaEngine(), 32);
+        engineTest(new SerpentEngine(), 32);
+        engineTest(new TwofishEngine(), 32);
+
+        for (int i = 0; i != 20; i++)
+        {
+            modeTest(new SICBlockCipher(new AESFastEngine()), new SICBlockCipher(new SingleBlockCipher(new AESFastEngine())), true);
+            modeTest(new CBCBlockCipher(new AESFastEngine()), new CBCBlockCipher(new SingleBlockCipher(new AESFastEngine())), true);
+            modeTest(new CBCBlockCipher(new AESFastEngine()), new CBCBlockCipher(new SingleBlockCipher(new AESFastEngine())), false);
+            paddedTest();
+            gcmTest();
+        }
+    }
+
+    private void engineTest(MultiBlockCipher engine, int keySize)
+    {
+        byte[] key = new byte[keySize];
+        byte[] in = new byte[engine.getBlockSize() * 37];
+
+        random.nextBytes(key);
+        random.nextBytes(in);
+
+        for (int pass = 0; pass != 2; pass++)
+        {
+            boolean forEncryption = (pass == 0);
+
+            engine.init(forEncryption, new KeyParameter(key));
+
+            byte[] single = new byte[in.length];
+            for (int off = 0; off != in.length; off += engine.getBlockSize())
+            {
+                engine.processBlock(in, off, single, off);
+            }
+
+            byte[] multi = new byte[in.length + 3];
+            int len = engine.processBlocks(in, 0, 37, multi, 3);
+
+            if (len != in.length)
+            {
+                fail(engine.getAlgorithmName() + " processBlocks returned wrong length");
+            }
+
+            for (int i = 0; i != in.length; i++)
+            {
+                if (single[i] != multi[i + 3])
+                {
+                    fail(engine.getAlgorithmName() + " processBlocks differs from processBlock");
+                }
+            }
+
+            // in place
+            byte[] inPlace = new byte[in.length];
+            System.arraycopy(in, 0, inPlace, 0, in.length);
+            engine.processBlocks(inPlace, 0, 37, inPlace, 0);
+
+            if (!areEqual(single, inPlace))
+            {
+                fail(engine.getAlgorithmName() + " in place processBlocks failed");
+            }
+        }
+    }
+
+    private void modeTest(BlockCipher multi, BlockCipher single, boolean forEncryption)
+        throws Exception
+    {
+        CipherParameters params = new ParametersWithIV(new KeyParameter(randomBytes(16)), randomBytes(16));
+        byte[] in = randomBytes(16 * (1 + random.nextInt(100)));
+
+        BufferedBlockCipher multiCipher = new BufferedBlockCipher(multi);
+        BufferedBlockCipher singleCipher = new BufferedBlockCipher(single);
+
+        multiCipher.init(forEncryption, params);
+        singleCipher.init(forEncryption, params);
+
+        byte[] expected = process(singleCipher, in, in.length);
+        byte[] result = process(multiCipher, in, 1 + random.nextInt(in.length));
+
+        if (!areEqual(expected, result))
+        {
+            fail(multi.getAlgorithmName() + " bulk processing differs from single block processing");
+        }
+
+        // in place
+        byte[] inPlace = new byte[in.length];
+        System.arraycopy(in, 0, inPlace, 0, in.length);
+        int len = multiCipher.processBytes(inPlace, 0, inPlace.length, inPlace, 0);
+        multiCipher.doFinal(inPlace, len);
+
+        if (!areEqual(expected, inPlace))
+        {
+            fail(multi.getAlgorithmName() + " in place bulk processing failed");
+        }
+    }
+
+    private void paddedTest()
+        throws Exception
+    {
+        CipherParameters params = new ParametersWithIV(new KeyParameter(randomBytes(16)), randomBytes(16));
+        byte[] in = randomBytes(random.nextInt(1000));
+
+        PaddedBufferedBlockCipher multiCipher = new PaddedBufferedBlockCipher(new CBCBlockCipher(new AESFastEngine()));
+        PaddedBufferedBlockCipher singleCipher = new PaddedBufferedBlockCipher(new CBCBlockCipher(new SingleBlockCipher(new AESFastEngine())));
+
+        multiCipher.init(true, params);
+        singleCipher.init(true, params);
+
+        byte[] expected = process(singleCipher, in, 1 + in.length);
+        byte[] result = process(multiCipher, in, 1 + random.nextInt(1 + in.length));
+
+        if (!areEqual(expected, result))
+        {
+            fail("padded bulk encryption differs from single block processing");
+        }
+
+        multiCipher.init(false, params);
+
+        if (!areEqual(in, process(multiCipher, result, 1 + random.nextInt(result.length))))
+        {
+            fail("padded bulk decryption failed");
+        }
+    }
+
+    private void gcmTest()
+        throws Exception
+    {
+        AEADParameters params = new AEADParameters(new KeyParameter(randomBytes(16)), 128, randomBytes(12), randomBytes(random.nextInt(40)));
+        byte[] in = randomBytes(random.nextInt(2000));
+
+        GCMBlockCipher multiCipher = new GCMBlockCipher(new AESFastEngine());
+        GCMBlockCipher singleCipher = new GCMBlockCipher(new SingleBlockCipher(new AESFastEngine()));
+
+        multiCipher.init(true, params);
+        singleCipher.init(true, params);
+
+        byte[] expected = process(singleCipher, in, 1);
+        byte[] result = process(multiCipher, in, 1 + random.nextInt(1 + in.length));
+
+        if (!areEqual(expected, result))
+        {
+            fail("GCM bulk encryption differs from byte at a time processing");
+        }
+
+        multiCipher.init(false, params);
+
+        if (!areEqual(in, process(multiCipher, result, 1 + random.nextInt(result.length))))
+        {
+            fail("GCM bulk decryption failed");
+        }
+    }
+
+    private byte[] process(BufferedBlockCipher cipher, byte[] in, int chunkSize)
+        throws Exception
+    {
+        byte[] out = new byte[cipher.getOutputSize(in.length)];
+        int len = 0;
+
+        for (int off = 0; off < in.length; off += chunkSize)
+        {
+            len += cipher.processBytes(in, off, Math.min(chunkSize, in.length - off), out, len);
+        }
+
+        len += cipher.doFinal(out, len);
+
+        return trim(out, len);
+    }
+
+    private byte[] process(AEADBlockCipher cipher, byte[] in, int chunkSize)
+        throws Exception
+    {
+        byte[] out = new byte[cipher.getOutputSize(in.length)];
+        int len = 0;
+
+        for (int off = 0; off < in.length; off += chunkSize)
+        {
+            len += cipher.processBytes(in, off, Math.min(chunkSize, in.length - off), out, len);
+        }
+
+        len += cipher.doFinal(out, len);
+
+        return trim(out, len);
+    }
+
+    private byte[] trim(byte[] out, int len)
+    {
+        if (len == out.length)
+        {
+            return out;
+        }
+
+        byte[] tmp = new byte[len];
+        System.arraycopy(out, 0, tmp, 0, len);
+
+        return tmp;
+    }
+
+    private byte[] randomBytes(int length)
+    {
+        byte[] bytes = new byte[length];
+
+        random.nextBytes(bytes);
+
+        return bytes;
+    }
+
+    /**
+     * Hides any MultiBlockCipher implementation so callers fall back to processBlock().
+     */
+    private static class SingleBlockCipher
+        implements BlockCipher
+    {
+        private final BlockCipher cipher;
+
+        SingleBlockCipher(BlockCipher cipher)
+        {
+            this.cipher = cipher;
+        }
+
+        public void init(boolean forEncryption, CipherParameters params)
+        {
+            cipher.init(forEncryption, params);
+        }
+
+        public String getAlgorithmName()
+        {
+            return cipher.getAlgorithmName();
+        }
+
+        public int getBlockSize()
+        {
+            return cipher.getBlockSize();
+        }
+
+        public int processBlock(byte[] in, int inOff, byte[] out, int outOff)
+        {
+            return cipher.processBlock(in, inOff, out, outOff);
+        }
+
+        public void reset()
+        {
+            cipher.reset();
+        }
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        runTest(new MultiBlockCipherTest());
+    }
+}
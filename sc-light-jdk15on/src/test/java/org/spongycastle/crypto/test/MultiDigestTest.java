@@ -0,0 +1,157 @@
+package org.spongycastle.crypto.test;
+
+import java.security.SecureRandom;
+
+import org.spongycastle.crypto.DataLengthException;
+import org.spongycastle.crypto.Digest;
+import org.spongycastle.crypto.MultiDigest;
+import org.spongycastle.crypto.digests.SHA1Digest;
+import org.spongycastle.crypto.digests.SHA1MultiDigest;
+import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.digests.SHA256MultiDigest;
+import org.spongycastle.util.encoders.Hex;
+import org.spongycastle.util.test.SimpleTest;
+
+/**
+ * Check the batch digests against the standard implementations, for batches smaller and
+ * larger than the number of lanes and a spread of message lengths around the padding edges.
+ */
+public class MultiDigestTest
+    extends SimpleTest
+{
+    private SecureRandom random = new SecureRandom();
+
+    public String getName()
+    {
+        return "MultiDigest";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        vectorTest(new SHA1MultiDigest(), "a9993e364706816aba3e25717850c26c9cd0d89d");
+        vectorTest(new SHA256MultiDigest(), "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+
+        batchTest(new SHA1MultiDigest(), new SHA1Digest());
+        batchTest(new SHA256MultiDigest(), new SHA256Digest());
+
+        shortOutputTest();
+    }
+
+    private void vectorTest(MultiDigest digest, String expected)
+    {
+        byte[][] result = digest.digestAll(new byte[][] { "abc".getBytes() });
+
+        if (result.length != 1 || !areEqual(Hex.decode(expected), result[0]))
+        {
+            fail(digest.getAlgorithmName() + " failed on \"abc\"");
+        }
+    }
+
+    private void batchTest(MultiDigest multi, Digest digest)
+    {
+        int[] lengths = { 0, 1, 55, 56, 63, 64, 65, 119, 120, 127, 128, 1000, 4096, 8000 };
+        int[] counts = { 0, 1, 7, 8, 9, 31 };
+
+        for (int i = 0; i != counts.length; i++)
+        {
+            byte[][] inputs = new byte[counts[i]][];
+
+            for (int j = 0; j != inputs.length; j++)
+            {
+                inputs[j] = randomBytes(lengths[random.nextInt(lengths.length)]);
+            }
+
+            checkBatch(multi, digest, inputs);
+        }
+
+        // every length in one batch, so lanes finish at different times.
+        byte[][] inputs = new byte[lengths.length][];
+
+        for (int j = 0; j != inputs.length; j++)
+        {
+            inputs[j] = randomBytes(lengths[j]);
+        }
+
+        checkBatch(multi, digest, inputs);
+
+        // and at an offset in a shared output array.
+        byte[] out = new byte[inputs.length * multi.getDigestSize() + 3];
+
+        if (multi.digestAll(inputs, out, 3) != inputs.length * multi.getDigestSize())
+        {
+            fail(multi.getAlgorithmName() + " returned wrong length");
+        }
+
+        for (int j = 0; j != inputs.length; j++)
+        {
+            byte[] expected = digest(digest, inputs[j]);
+            byte[] actual = new byte[expected.length];
+
+            System.arraycopy(out, 3 + j * expected.length, actual, 0, expected.length);
+
+            if (!areEqual(expected, actual))
+            {
+                fail(multi.getAlgorithmName() + " output array mismatch on message " + j);
+            }
+        }
+    }
+
+    private void checkBatch(MultiDigest multi, Digest digest, byte[][] inputs)
+    {
+        byte[][] results = multi.digestAll(inputs);
+
+        if (results.length != inputs.length)
+        {
+            fail(multi.getAlgorithmName() + " returned wrong number of digests");
+        }
+
+        for (int j = 0; j != inputs.length; j++)
+        {
+            if (!areEqual(digest(digest, inputs[j]), results[j]))
+            {
+                fail(multi.getAlgorithmName() + " mismatch on message of length " + inputs[j].length);
+            }
+        }
+    }
+
+    private void shortOutputTest()
+    {
+        MultiDigest digest = new SHA256MultiDigest();
+
+        try
+        {
+            digest.digestAll(new byte[2][0], new byte[63], 0);
+            fail("short output not detected");
+        }
+        catch (DataLengthException e)
+        {
+            // expected
+        }
+    }
+
+    private byte[] digest(Digest digest, byte[] input)
+    {
+        byte[] out = new byte[digest.getDigestSize()];
+
+        digest.update(input, 0, input.length);
+        digest.doFinal(out, 0);
+
+        return out;
+    }
+
+    private byte[] randomBytes(int length)
+    {
+        byte[] bytes = new byte[length];
+
+        random.nextBytes(bytes);
+
+        return bytes;
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        runTest(new MultiDigestTest());
+    }
+}
@@ -1,6 +1,8 @@
 package org.spongycastle.crypto.test;
 
 import java.io.ByteArrayInputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.spongycastle.asn1.ASN1InputStream;
 import org.spongycastle.asn1.ASN1OctetString;
@@ -13,7 +15,10 @@ import org.spongycastle.asn1.pkcs.PKCSObjectIdentifiers;
 import org.spongycastle.asn1.pkcs.RC2CBCParameter;
 import org.spongycastle.crypto.BufferedBlockCipher;
 import org.spongycastle.crypto.CipherParameters;
+import org.spongycastle.crypto.Digest;
 import org.spongycastle.crypto.PBEParametersGenerator;
+import org.spongycastle.crypto.digests.SHA1Digest;
+import org.spongycastle.crypto.digests.SHA256Digest;
 import org.spongycastle.crypto.engines.DESEngine;
 import org.spongycastle.crypto.engines.DESedeEngine;
 import org.spongycastle.crypto.engines.RC2Engine;
@@ -249,6 +254,60 @@ public class PKCS5Test
         {
             fail("192 test failed");
         }
+
+        parallelTest();
+    }
+
+    private void parallelTest()
+        throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try
+        {
+            //
+            // RFC 6070 test vector - two blocks
+            //
+            PBEParametersGenerator generator = new PKCS5S2ParametersGenerator(
+                new Digest[] { new SHA1Digest(), new SHA1Digest(), new SHA1Digest() }, executor);
+
+            generator.init(
+                "passwordPASSWORDpassword".getBytes(),
+                "saltSALTsaltSALTsaltSALTsaltSALTsalt".getBytes(),
+                4096);
+
+            if (!areEqual(((KeyParameter)generator.generateDerivedParameters(200)).getKey(), Hex.decode("3d2eec4fe41c849b80c8d83662c0e44a8b291a964cf2f07038")))
+            {
+                fail("parallel RFC 6070 test failed");
+            }
+
+            //
+            // more blocks than workers, against the serial generator
+            //
+            byte[] password = Hex.decode("0102030405060708");
+            byte[] salt = Hex.decode("1234567878563412");
+
+            PBEParametersGenerator serial = new PKCS5S2ParametersGenerator(new SHA256Digest());
+            PBEParametersGenerator parallel = new PKCS5S2ParametersGenerator(
+                new Digest[] { new SHA256Digest(), new SHA256Digest(), new SHA256Digest() }, executor);
+
+            serial.init(password, salt, 100);
+            parallel.init(password, salt, 100);
+
+            byte[] expected = ((KeyParameter)serial.generateDerivedParameters(7 * 256 - 8)).getKey();
+
+            for (int i = 0; i != 2; i++)
+            {
+                if (!areEqual(expected, ((KeyParameter)parallel.generateDerivedParameters(7 * 256 - 8)).getKey()))
+                {
+                    fail("parallel blocks test failed");
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
     }
 
     public static void main(
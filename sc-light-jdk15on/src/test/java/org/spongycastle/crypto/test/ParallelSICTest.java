@@ -0,0 +1,106 @@
+package org.spongycastle.crypto.test;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.spongycastle.crypto.BlockCipher;
+import org.spongycastle.crypto.BufferedBlockCipher;
+import org.spongycastle.crypto.engines.AESFastEngine;
+import org.spongycastle.crypto.modes.ParallelSICBlockCipher;
+import org.spongycastle.crypto.modes.SICBlockCipher;
+import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.crypto.params.ParametersWithIV;
+import org.spongycastle.util.encoders.Hex;
+import org.spongycastle.util.test.SimpleTest;
+
+/**
+ * Check ParallelSICBlockCipher produces the same output as SICBlockCipher.
+ */
+public class ParallelSICTest
+    extends SimpleTest
+{
+    private SecureRandom random = new SecureRandom();
+
+    public String getName()
+    {
+        return "ParallelSIC";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try
+        {
+            for (int i = 0; i != 10; i++)
+            {
+                compareTest(executor, randomBytes(16), random.nextInt(100000));
+            }
+
+            // counter carries across the whole block
+            compareTest(executor, Hex.decode("00ffffffffffffffffffffffffffff00"), 70000);
+            compareTest(executor, Hex.decode("ffffffffffffffffffffffffffffff00"), 70000);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private void compareTest(ExecutorService executor, byte[] iv, int length)
+        throws Exception
+    {
+        ParametersWithIV params = new ParametersWithIV(new KeyParameter(randomBytes(16)), iv);
+        byte[] in = randomBytes(length);
+
+        BufferedBlockCipher expectedCipher = new BufferedBlockCipher(new SICBlockCipher(new AESFastEngine()));
+        BufferedBlockCipher parallelCipher = new BufferedBlockCipher(new ParallelSICBlockCipher(
+            new BlockCipher[] { new AESFastEngine(), new AESFastEngine(), new AESFastEngine(), new AESFastEngine() }, executor, 64));
+
+        expectedCipher.init(true, params);
+        parallelCipher.init(true, params);
+
+        byte[] expected = new byte[length];
+        int len = expectedCipher.processBytes(in, 0, length, expected, 0);
+        expectedCipher.doFinal(expected, len);
+
+        // process in pieces to check the counter is carried between calls
+        byte[] result = new byte[length];
+        int split = (length == 0) ? 0 : random.nextInt(length);
+
+        len = parallelCipher.processBytes(in, 0, split, result, 0);
+        len += parallelCipher.processBytes(in, split, length - split, result, len);
+        parallelCipher.doFinal(result, len);
+
+        if (!areEqual(expected, result))
+        {
+            fail("parallel SIC output differs for length " + length);
+        }
+
+        // in place, reusing the cipher after doFinal()
+        len = parallelCipher.processBytes(result, 0, length, result, 0);
+        parallelCipher.doFinal(result, len);
+
+        if (!areEqual(in, result))
+        {
+            fail("parallel SIC in place decryption failed for length " + length);
+        }
+    }
+
+    private byte[] randomBytes(int length)
+    {
+        byte[] bytes = new byte[length];
+
+        random.nextBytes(bytes);
+
+        return bytes;
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        runTest(new ParallelSICTest());
+    }
+}
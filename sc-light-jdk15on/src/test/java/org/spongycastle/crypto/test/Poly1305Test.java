@@ -0,0 +1,148 @@
+package org.spongycastle.crypto.test;
+
+import org.spongycastle.crypto.Mac;
+import org.spongycastle.crypto.macs.Poly1305;
+import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.util.Strings;
+import org.spongycastle.util.encoders.Hex;
+import org.spongycastle.util.test.SimpleTest;
+
+/**
+ * Poly1305 test vectors from RFC 7539.
+ */
+public class Poly1305Test
+    extends SimpleTest
+{
+    private static final String[][] VECTORS =
+    {
+        // RFC 7539 section 2.5.2
+        {
+            "85d6be7857556d337f4452fe42d506a80103808afb0db2fd4abff6af4149f51b",
+            new String(Hex.encode(Strings.toByteArray("Cryptographic Forum Research Group"))),
+            "a8061dc1305136c6c22b8baf0c0127a9"
+        },
+        // RFC 7539 appendix A.3 #1, all zero
+        {
+            "0000000000000000000000000000000000000000000000000000000000000000",
+            "00000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000000",
+            "00000000000000000000000000000000"
+        },
+        // r of zero, so the tag is s
+        {
+            "0000000000000000000000000000000036e5f6b5c5e06070f0efca96227a863e",
+            "416e79207375626d697373696f6e20746f20746865204945544620696e74656e6465642062792074686520436f6e7472696275746f7220666f72207075626c69",
+            "36e5f6b5c5e06070f0efca96227a863e"
+        }
+    };
+
+    public String getName()
+    {
+        return "Poly1305";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        for (int i = 0; i != VECTORS.length; i++)
+        {
+            vectorTest(i, Hex.decode(VECTORS[i][0]), Hex.decode(VECTORS[i][1]), Hex.decode(VECTORS[i][2]));
+        }
+
+        incrementalTest();
+        keyTest();
+    }
+
+    private void vectorTest(int count, byte[] key, byte[] message, byte[] expected)
+    {
+        Mac mac = new Poly1305();
+        byte[] out = new byte[mac.getMacSize()];
+
+        mac.init(new KeyParameter(key));
+        mac.update(message, 0, message.length);
+        mac.doFinal(out, 0);
+
+        if (!areEqual(out, expected))
+        {
+            fail("vector " + count + " failed", new String(Hex.encode(expected)), new String(Hex.encode(out)));
+        }
+
+        // doFinal resets the accumulator, so the same key gives the same tag again.
+        for (int i = 0; i != message.length; i++)
+        {
+            mac.update(message[i]);
+        }
+        mac.doFinal(out, 0);
+
+        if (!areEqual(out, expected))
+        {
+            fail("vector " + count + " failed byte at a time", new String(Hex.encode(expected)), new String(Hex.encode(out)));
+        }
+    }
+
+    private void incrementalTest()
+    {
+        byte[] key = Hex.decode(VECTORS[0][0]);
+        byte[] message = new byte[300];
+        byte[] expected = new byte[16];
+        byte[] out = new byte[16];
+
+        for (int i = 0; i != message.length; i++)
+        {
+            message[i] = (byte)(i * 7);
+        }
+
+        Mac mac = new Poly1305();
+
+        for (int len = 0; len <= message.length; len += 15)
+        {
+            mac.init(new KeyParameter(key));
+            mac.update(message, 0, len);
+            mac.doFinal(expected, 0);
+
+            for (int chunk = 1; chunk <= 33; chunk += 8)
+            {
+                for (int off = 0; off < len; off += chunk)
+                {
+                    mac.update(message, off, Math.min(chunk, len - off));
+                }
+                mac.doFinal(out, 0);
+
+                if (!areEqual(expected, out))
+                {
+                    fail("incremental update mismatch, length " + len + " chunk " + chunk);
+                }
+            }
+        }
+    }
+
+    private void keyTest()
+    {
+        Mac mac = new Poly1305();
+
+        try
+        {
+            mac.init(new KeyParameter(new byte[16]));
+            fail("short key accepted");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+
+        try
+        {
+            mac.update((byte)0);
+            fail("update before init accepted");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        runTest(new Poly1305Test());
+    }
+}
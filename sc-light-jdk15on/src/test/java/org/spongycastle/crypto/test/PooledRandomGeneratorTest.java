@@ -0,0 +1,204 @@
+package org.spongycastle.crypto.test;
+
+import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.prng.DigestRandomGenerator;
+import org.spongycastle.crypto.prng.PooledRandomGenerator;
+import org.spongycastle.crypto.prng.RandomGenerator;
+import org.spongycastle.util.Arrays;
+import org.spongycastle.util.test.SimpleTest;
+
+public class PooledRandomGeneratorTest
+    extends SimpleTest
+{
+    private static final int THREADS = 8;
+
+    public String getName()
+    {
+        return "PooledRandomGenerator";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        seedTest();
+        reseedTest();
+        threadTest();
+        argumentTest();
+    }
+
+    /*
+     * pools built from identically seeded roots agree, and seeding the pool changes every child.
+     */
+    private void seedTest()
+    {
+        PooledRandomGenerator pool1 = createPool(4, PooledRandomGenerator.DEFAULT_RESEED_INTERVAL);
+        PooledRandomGenerator pool2 = createPool(4, PooledRandomGenerator.DEFAULT_RESEED_INTERVAL);
+
+        byte[] out1 = new byte[64];
+        byte[] out2 = new byte[64];
+
+        pool1.nextBytes(out1);
+        pool2.nextBytes(out2);
+
+        if (!Arrays.areEqual(out1, out2))
+        {
+            fail("identically seeded pools differ");
+        }
+
+        pool2.addSeedMaterial(42);
+
+        pool1.nextBytes(out1);
+        pool2.nextBytes(out2);
+
+        if (Arrays.areEqual(out1, out2))
+        {
+            fail("seed material not passed on to children");
+        }
+    }
+
+    /*
+     * a pool reseeding on every request differs from one which doesn't after the first request.
+     */
+    private void reseedTest()
+    {
+        PooledRandomGenerator pool1 = createPool(1, PooledRandomGenerator.DEFAULT_RESEED_INTERVAL);
+        PooledRandomGenerator pool2 = createPool(1, 2);
+
+        byte[] out1 = new byte[16];
+        byte[] out2 = new byte[16];
+
+        pool1.nextBytes(out1);
+        pool2.nextBytes(out2);
+
+        if (!Arrays.areEqual(out1, out2))
+        {
+            fail("first request should not reseed");
+        }
+
+        pool1.nextBytes(out1);
+        pool2.nextBytes(out2);
+
+        if (Arrays.areEqual(out1, out2))
+        {
+            fail("child not reseeded");
+        }
+    }
+
+    /*
+     * different threads draw from different children.
+     */
+    private void threadTest()
+        throws Exception
+    {
+        final PooledRandomGenerator pool = createPool(THREADS, 100);
+        final byte[][] results = new byte[THREADS][];
+        final Exception[] failures = new Exception[THREADS];
+        Thread[] threads = new Thread[THREADS];
+
+        for (int i = 0; i != THREADS; i++)
+        {
+            final int index = i;
+
+            threads[i] = new Thread()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        byte[] out = new byte[16];
+
+                        for (int j = 0; j != 1000; j++)
+                        {
+                            pool.nextBytes(out, 0, j % 17);
+                        }
+
+                        results[index] = out;
+                    }
+                    catch (Exception e)
+                    {
+                        failures[index] = e;
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        for (int i = 0; i != THREADS; i++)
+        {
+            threads[i].join();
+
+            if (failures[i] != null)
+            {
+                fail("thread failed: " + failures[i]);
+            }
+        }
+
+        for (int i = 0; i != THREADS; i++)
+        {
+            for (int j = 0; j != i; j++)
+            {
+                if (Arrays.areEqual(results[i], results[j]))
+                {
+                    fail("threads produced the same output");
+                }
+            }
+        }
+    }
+
+    private void argumentTest()
+    {
+        RandomGenerator root = new DigestRandomGenerator(new SHA256Digest());
+        RandomGenerator child = new DigestRandomGenerator(new SHA256Digest());
+
+        try
+        {
+            new PooledRandomGenerator(root, new RandomGenerator[0]);
+            fail("empty pool not detected");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+
+        try
+        {
+            new PooledRandomGenerator(root, new RandomGenerator[] { child, child });
+            fail("shared child not detected");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+
+        try
+        {
+            new PooledRandomGenerator(root, new RandomGenerator[] { child }, 0);
+            fail("zero reseed interval not detected");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    private PooledRandomGenerator createPool(int size, long reseedInterval)
+    {
+        RandomGenerator root = new DigestRandomGenerator(new SHA256Digest());
+        RandomGenerator[] children = new RandomGenerator[size];
+
+        root.addSeedMaterial(0x0123456789abcdefL);
+
+        for (int i = 0; i != size; i++)
+        {
+            children[i] = new DigestRandomGenerator(new SHA256Digest());
+        }
+
+        return new PooledRandomGenerator(root, children, reseedInterval);
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        runTest(new PooledRandomGeneratorTest());
+    }
+}
@@ -6,7 +6,9 @@ import org.spongycastle.crypto.InvalidCipherTextException;
 import org.spongycastle.crypto.encodings.OAEPEncoding;
 import org.spongycastle.crypto.encodings.PKCS1Encoding;
 import org.spongycastle.crypto.engines.RSABlindedEngine;
+import org.spongycastle.crypto.engines.RSAEngine;
 import org.spongycastle.crypto.generators.RSAKeyPairGenerator;
+import org.spongycastle.crypto.params.RSABlindingFactors;
 import org.spongycastle.crypto.params.RSAKeyGenerationParameters;
 import org.spongycastle.crypto.params.RSAKeyParameters;
 import org.spongycastle.crypto.params.RSAPrivateCrtKeyParameters;
@@ -192,6 +194,48 @@ public class RSABlindedTest
         }
     }
 
+    /*
+     * the blinding factors are cached on the key and squared between operations, results must
+     * match the unblinded engine however many operations the key is used for.
+     */
+    private void testBlindingCache()
+    {
+        RSAPrivateCrtKeyParameters privParameters = new RSAPrivateCrtKeyParameters(mod, pubExp, privExp, p, q, pExp, qExp, crtCoef);
+        RSAEngine                  plain = new RSAEngine();
+        RSABlindedEngine           blinded = new RSABlindedEngine();
+        SecureRandom               rand = new SecureRandom();
+        byte[]                     data = new byte[mod.bitLength() / 8];
+
+        plain.init(false, privParameters);
+
+        for (int i = 0; i != 70; i++)
+        {
+            rand.nextBytes(data);
+            data[0] &= 0x7f;
+
+            if (i % 10 == 0)
+            {
+                // a new engine picks up the cached factors from the key.
+                blinded = new RSABlindedEngine();
+                blinded.init(false, privParameters);
+            }
+
+            if (!areEqual(plain.processBlock(data, 0, data.length), blinded.processBlock(data, 0, data.length)))
+            {
+                fail("blinded result mismatch on operation " + i);
+            }
+
+            RSABlindingFactors factors = privParameters.takeBlindingFactors();
+
+            if (factors == null || !factors.getBlind().multiply(factors.getUnblind().modPow(pubExp, mod)).mod(mod).equals(BigInteger.valueOf(1)))
+            {
+                fail("inconsistent blinding factors after operation " + i);
+            }
+
+            privParameters.putBlindingFactors(factors);
+        }
+    }
+
     public void performTest()
     {
         RSAKeyParameters    pubParameters = new RSAKeyParameters(false, mod, pubExp);
@@ -416,6 +460,7 @@ public class RSABlindedTest
         testMissingDataPKCS1Block(pubParameters, privParameters);
         testTruncatedPKCS1Block(pubParameters, privParameters);
         testWrongPaddingPKCS1Block(pubParameters, privParameters);
+        testBlindingCache();
 
         try
         {
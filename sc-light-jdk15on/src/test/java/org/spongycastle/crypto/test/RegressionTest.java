@@ -10,6 +10,8 @@ public class RegressionTest
         new AESTest(),
         new AESLightTest(),
         new AESFastTest(),
+        new AESBitSliceTest(),
+        new AESIntrinsicTest(),
         new AESWrapTest(),
         new DESTest(),
         new DESedeTest(),
@@ -19,6 +21,7 @@ public class RegressionTest
         new ElGamalTest(),
         new DSATest(),
         new ECTest(),
+        new ECDSABatchVerifierTest(),
         new GOST3410Test(),
         new ECGOST3410Test(),
         new ECIESTest(),
@@ -35,6 +38,9 @@ public class RegressionTest
         new CamelliaTest(),
         new CamelliaLightTest(),
         new DigestRandomNumberTest(),
+        new PooledRandomGeneratorTest(),
+        new SP800DRBGTest(),
+        new EntropySourceTest(),
         new SkipjackTest(),
         new BlowfishTest(),
         new TwofishTest(),
@@ -63,6 +69,7 @@ public class RegressionTest
         new TigerDigestTest(),
         new GOST3411DigestTest(),
         new WhirlpoolDigestTest(),
+        new MultiDigestTest(),
         new MD5HMacTest(),
         new SHA1HMacTest(),
         new SHA224HMacTest(),
@@ -89,9 +96,15 @@ public class RegressionTest
         new RFC3211WrapTest(),
         new SEEDTest(),
         new Salsa20Test(),
+        new ChaChaTest(),
+        new Poly1305Test(),
+        new ChaCha20Poly1305Test(),
         new CMacTest(),
         new EAXTest(),
         new GCMTest(),
+        new MultiBlockCipherTest(),
+        new ByteBuffersTest(),
+        new ParallelSICTest(),
         new HCFamilyTest(),
         new HCFamilyVecTest(),
         new ISAACTest(),
@@ -0,0 +1,345 @@
+package org.spongycastle.crypto.test;
+
+import org.spongycastle.crypto.BlockCipher;
+import org.spongycastle.crypto.CipherParameters;
+import org.spongycastle.crypto.digests.SHA256Digest;
+import org.spongycastle.crypto.digests.SHA512Digest;
+import org.spongycastle.crypto.engines.AESEngine;
+import org.spongycastle.crypto.engines.AESFastEngine;
+import org.spongycastle.crypto.macs.HMac;
+import org.spongycastle.crypto.prng.EntropySource;
+import org.spongycastle.crypto.prng.SP800SecureRandom;
+import org.spongycastle.crypto.prng.drbg.BufferedDRBG;
+import org.spongycastle.crypto.prng.drbg.CTRSP800DRBG;
+import org.spongycastle.crypto.prng.drbg.HMacSP800DRBG;
+import org.spongycastle.crypto.prng.drbg.HashSP800DRBG;
+import org.spongycastle.crypto.prng.drbg.SP80090DRBG;
+import org.spongycastle.util.encoders.Hex;
+import org.spongycastle.util.test.SimpleTest;
+
+/**
+ * SP 800-90A DRBG tests. Each run instantiates with a nonce and personalization string, then
+ * generates, generates with additional input, reseeds with additional input, generates a
+ * partial block, and generates with prediction resistance and additional input. The expected
+ * values were cross checked against an independent SP 800-90A implementation.
+ */
+public class SP800DRBGTest
+    extends SimpleTest
+{
+    private static final byte[] NONCE = seq(0x20, 16);
+    private static final byte[] PERSONALIZATION = seq(0x40, 32);
+
+    private static final String[] HASH_SHA256 = {
+        "e03381390f619554f799f447ddbd40b2965b5e54c4f172d4d6df74624a47285b1b8efbe52ab0adf8984739cd205e1882b6c188bb992f3a3bdd000136a71a0fc0",
+        "382229a844356af4a11ba2dfa975be7c9d8fd358eaa4469abc28988cc507da9487f3df5c46f4a168bfa56f6e4a9298213365101ae5cf47c5023c2ca6d1abd2c2",
+        "04515fe9044d8e2f4c4e6e0f291fc208f66693fd944ee69f2a19b8f13bd4f6dfe2005ba3a480f779",
+        "672f8cd34c9c8ba8c1e14061ca86cd34d4848953c76d5e43d10b8938830e907683513585125733d7ed1fdaffb6a37f8686764d84f4ed22a73cdc0631a66f0e16"
+    };
+
+    private static final String[] HASH_SHA512 = {
+        "ed4addd1f40966868327f90589fbcb9c13f4ec8f580fe8ffc4eae0e9deba032735c7dc63c9828d8a24dfeb94690f118a81497b87e20650ac36074f98c61e8853",
+        "0554a407c90b64eb4e95f1ba17c8eb1bbd130835bd89d23ab7d83367acf97b7ec222bb86d2d05a6d9fb64e09d301a50c4918c4511c0f93f255b828be9994c42e",
+        "7e1d7ac770aaf9bdf0cc339e6a2d1d922939154e0748d42b5ec6b02abd646079ae0bf7a1a742d39d",
+        "8d1bf354cf37410318a5d93cbd8fe4bcdfcbac28fddefa721351fc081412add7129ebc4df6d24997256f86d872c2b6e77359a2f44282b8592a76d9a8a051eca7"
+    };
+
+    private static final String[] HMAC_SHA256 = {
+        "e9e0026192467c96edeb2cdb3e791ac1df2cbb7849a78ae63bb13df7fc6813e12b3822fee8b2aac1e2aae138a66703b947e96686b66e4397fd4326eb1f48f7e6",
+        "f6397cb1808be4bd06733bc77b392ec2142d247abdfb3386dfb287b6cadcce017bf503bef41a64b0b4acb9d76fa629a669086e1f3fff861039888323827df456",
+        "42f8e092bb5862fe44fe56c6ee703670c9661374c62f0170d401d10c15bd0d6a4c098f2aec5f1781",
+        "51333aaf6e95e52dd3d4ead3d660b3e0def9b78e902e8fae35d1f423bf5178f2d4b7328c9edc776bea417e2e0706840ac76c0db66905f18958fbfa0b05791592"
+    };
+
+    private static final String[] CTR_AES128 = {
+        "b4624dbefd881077a0f3df332c468fd4e0cf74b60c7d36adde29349c74863ca31615bf04176cf0001dc7317e117d7cb4f681a50213809be75c06bd0cf3f61568",
+        "7131b1005b506d3b2c33ddcfe1fd171b76d5b5f8fcfac66648c6f5773aa2fd16b4603c2952d67ffc194236588d3554b2fb05e029a14769c937f8897a42551e69",
+        "d9254582732ac086fda3554b7f8f1c0cd5071d441577289befe5ceec39980beece03e91d4c6e1835",
+        "e09019dae9b0b356fd5faaa6a4a49c094187857ec1ea01c14316f58e5cb277f96039cf98060c856893ead9e756fd0412b01538ce95a48e9c7d97930cd338bcda"
+    };
+
+    private static final String[] CTR_AES256 = {
+        "0643520814cbf78117fa05f3647fbf25a2c9683d895f9aac53767ffc7e5373a6c47d388f9d8e586e5ad186d2f053c404e9573727cc09e2c7454ebc24f4219936",
+        "0c7db0414544ec4f2de008b2fb717d00c112fff6cfd14dbdebe40f32701fb92a0f5c83eee70e5157f54c7051ae99c4f8a10db37bfe17b345d9430bdc0ae5109b",
+        "c2c73095e7e7f7518cfc5020a480949fd284667f238477722b51de4a7e0b0f78e7ec5d4cf79213a7",
+        "25eae4aeafe6137a80af715e91efefdb3de2c63cf18032910bda843783f6bf7c7882ab662045df76c3502db1c2a654a3f1d1d470ae117df8646eb0a7e974ccc3"
+    };
+
+    public String getName()
+    {
+        return "SP800DRBG";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        drbgTest("Hash SHA-256", new HashSP800DRBG(new SHA256Digest(), 256, new TestEntropySource(), PERSONALIZATION, NONCE), HASH_SHA256);
+        drbgTest("Hash SHA-512", new HashSP800DRBG(new SHA512Digest(), 256, new TestEntropySource(), PERSONALIZATION, NONCE), HASH_SHA512);
+        drbgTest("HMAC SHA-256", new HMacSP800DRBG(new HMac(new SHA256Digest()), 256, new TestEntropySource(), PERSONALIZATION, NONCE), HMAC_SHA256);
+        drbgTest("CTR AES-128", new CTRSP800DRBG(new AESFastEngine(), 128, 128, new TestEntropySource(), PERSONALIZATION, NONCE), CTR_AES128);
+        drbgTest("CTR AES-256", new CTRSP800DRBG(new AESFastEngine(), 256, 256, new TestEntropySource(), PERSONALIZATION, NONCE), CTR_AES256);
+
+        // an engine without processBlocks() takes the single block path.
+        drbgTest("CTR AES-128 single block", new CTRSP800DRBG(new SingleBlockCipher(new AESEngine()), 128, 128, new TestEntropySource(), PERSONALIZATION, NONCE), CTR_AES128);
+
+        bufferedTest();
+        secureRandomTest();
+        argumentTest();
+    }
+
+    private void drbgTest(String label, SP80090DRBG drbg, String[] expected)
+    {
+        byte[] output = new byte[64];
+
+        drbg.generate(output, null, false);
+        check(label + " generate", expected[0], output);
+
+        drbg.generate(output, seq(0x60, 32), false);
+        check(label + " additional input", expected[1], output);
+
+        drbg.reseed(seq(0xa0, 32));
+
+        byte[] partial = new byte[40];
+
+        drbg.generate(partial, null, false);
+        check(label + " reseed", expected[2], partial);
+
+        drbg.generate(output, seq(0xc0, 32), true);
+        check(label + " prediction resistance", expected[3], output);
+    }
+
+    /*
+     * small requests are served from one large generate call.
+     */
+    private void bufferedTest()
+    {
+        SP80090DRBG reference = new CTRSP800DRBG(new AESFastEngine(), 128, 128, new TestEntropySource(), PERSONALIZATION, NONCE);
+        SP80090DRBG buffered = new BufferedDRBG(new CTRSP800DRBG(new AESFastEngine(), 128, 128, new TestEntropySource(), PERSONALIZATION, NONCE), 64);
+
+        byte[] expected = new byte[128];
+        byte[] block = new byte[64];
+
+        reference.generate(block, null, false);
+        System.arraycopy(block, 0, expected, 0, 64);
+        reference.generate(block, null, false);
+        System.arraycopy(block, 0, expected, 64, 64);
+
+        byte[] output = new byte[128];
+        int[] sizes = { 16, 8, 24, 16, 12, 20, 32 };
+        int off = 0;
+
+        for (int i = 0; i != sizes.length; i++)
+        {
+            byte[] request = new byte[sizes[i]];
+
+            if (buffered.generate(request, null, false) != sizes[i] * 8)
+            {
+                fail("buffered DRBG returned wrong length");
+            }
+
+            System.arraycopy(request, 0, output, off, request.length);
+            off += request.length;
+        }
+
+        if (!areEqual(expected, output))
+        {
+            fail("buffered output does not match DRBG output");
+        }
+
+        // a pass through request discards the rest of the buffer.
+        buffered.generate(block, null, false);
+        reference.generate(block, null, false);
+
+        byte[] next = new byte[16];
+        byte[] nextExpected = new byte[16];
+
+        buffered.generate(next, seq(0x60, 32), false);
+        reference.generate(nextExpected, seq(0x60, 32), false);
+
+        if (!areEqual(nextExpected, next))
+        {
+            fail("additional input request not passed through");
+        }
+    }
+
+    private void secureRandomTest()
+    {
+        SP80090DRBG reference = new HashSP800DRBG(new SHA256Digest(), 256, new TestEntropySource(), PERSONALIZATION, NONCE);
+        SP800SecureRandom random = new SP800SecureRandom(
+            new HashSP800DRBG(new SHA256Digest(), 256, new TestEntropySource(), PERSONALIZATION, NONCE), new TestEntropySource(), false);
+
+        byte[] expected = new byte[64];
+        byte[] output = new byte[64];
+
+        reference.generate(expected, null, false);
+        random.nextBytes(output);
+
+        if (!areEqual(expected, output))
+        {
+            fail("SecureRandom output does not match DRBG output");
+        }
+
+        reference.reseed(seq(0xa0, 32));
+        random.setSeed(seq(0xa0, 32));
+
+        reference.generate(expected, null, false);
+        random.nextBytes(output);
+
+        if (!areEqual(expected, output))
+        {
+            fail("SecureRandom setSeed does not match DRBG reseed");
+        }
+
+        // requests over the DRBG's limit are split.
+        random.nextBytes(new byte[100000]);
+
+        // reseed interval of 1 - every request reseeds.
+        reference = new HashSP800DRBG(new SHA256Digest(), 256, new TestEntropySource(), PERSONALIZATION, NONCE);
+        random = new SP800SecureRandom(
+            new HashSP800DRBG(new SHA256Digest(), 256, new TestEntropySource(), PERSONALIZATION, NONCE), new TestEntropySource(), false, 1);
+
+        reference.generate(expected, null, false);
+        random.nextBytes(output);
+
+        if (!areEqual(expected, output))
+        {
+            fail("first request should not reseed");
+        }
+
+        reference.reseed(null);
+        reference.generate(expected, null, false);
+        random.nextBytes(output);
+
+        if (!areEqual(expected, output))
+        {
+            fail("reseed interval not applied");
+        }
+
+        if (random.generateSeed(50).length != 50)
+        {
+            fail("generateSeed returned wrong length");
+        }
+    }
+
+    private void argumentTest()
+    {
+        try
+        {
+            new HashSP800DRBG(new SHA256Digest(), 512, new TestEntropySource(), null, null);
+            fail("excessive security strength not detected");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+
+        try
+        {
+            new CTRSP800DRBG(new AESFastEngine(), 128, 256, new TestEntropySource(), null, null);
+            fail("security strength over key size not detected");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+
+        try
+        {
+            new HMacSP800DRBG(new HMac(new SHA256Digest()), 256, new TestEntropySource(), null, null)
+                .generate(new byte[1 << 16], null, false);
+            fail("excessive request not detected");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    private void check(String label, String expected, byte[] output)
+    {
+        if (!areEqual(Hex.decode(expected), output))
+        {
+            fail(label + " failed: " + new String(Hex.encode(output)));
+        }
+    }
+
+    private static byte[] seq(int start, int length)
+    {
+        byte[] bytes = new byte[length];
+
+        for (int i = 0; i != length; i++)
+        {
+            bytes[i] = (byte)(start + i);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * returns 32 byte runs of counting bytes, each starting 5 on from the last.
+     */
+    private static class TestEntropySource
+        implements EntropySource
+    {
+        private int count;
+
+        public boolean isPredictionResistant()
+        {
+            return true;
+        }
+
+        public byte[] getEntropy()
+        {
+            return seq(0x80 + 5 * count++, 32);
+        }
+
+        public int entropySize()
+        {
+            return 256;
+        }
+    }
+
+    /**
+     * hides any MultiBlockCipher support on the wrapped engine.
+     */
+    private static class SingleBlockCipher
+        implements BlockCipher
+    {
+        private final BlockCipher engine;
+
+        SingleBlockCipher(BlockCipher engine)
+        {
+            this.engine = engine;
+        }
+
+        public void init(boolean forEncryption, CipherParameters params)
+        {
+            engine.init(forEncryption, params);
+        }
+
+        public String getAlgorithmName()
+        {
+            return engine.getAlgorithmName();
+        }
+
+        public int getBlockSize()
+        {
+            return engine.getBlockSize();
+        }
+
+        public int processBlock(byte[] in, int inOff, byte[] out, int outOff)
+        {
+            return engine.processBlock(in, inOff, out, outOff);
+        }
+
+        public void reset()
+        {
+            engine.reset();
+        }
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        runTest(new SP800DRBGTest());
+    }
+}
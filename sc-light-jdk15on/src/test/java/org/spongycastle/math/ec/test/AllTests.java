@@ -17,6 +17,8 @@ public class AllTests
         TestSuite suite = new TestSuite("EC Math tests");
 
         suite.addTest(ECPointTest.suite());
+        suite.addTest(ECFieldElementTest.suite());
+        suite.addTest(ECPointPreCompCacheTest.suite());
 
         return suite;
     }
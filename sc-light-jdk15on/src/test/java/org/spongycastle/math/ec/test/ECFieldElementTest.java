@@ -0,0 +1,134 @@
+package org.spongycastle.math.ec.test;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.spongycastle.asn1.sec.SECNamedCurves;
+import org.spongycastle.asn1.x9.X9ECParameters;
+import org.spongycastle.math.ec.ECCurve;
+import org.spongycastle.math.ec.ECFieldElement;
+import org.spongycastle.math.ec.ECPoint;
+
+/**
+ * Checks the field arithmetic of the named prime curves, which use dedicated fixed width
+ * implementations, against plain BigInteger arithmetic.
+ */
+public class ECFieldElementTest extends TestCase
+{
+    private static final String[] CURVES = { "secp256r1", "secp384r1", "secp521r1", "secp256k1", "secp224r1" };
+
+    private static final int ROUNDS = 500;
+
+    private SecureRandom secRand = new SecureRandom();
+
+    private BigInteger[] values(BigInteger q)
+    {
+        BigInteger[] v = new BigInteger[ROUNDS];
+        int bits = q.bitLength();
+
+        v[0] = BigInteger.ZERO;
+        v[1] = BigInteger.ONE;
+        v[2] = q.subtract(BigInteger.ONE);
+        v[3] = q.subtract(BigInteger.valueOf(2));
+        v[4] = BigInteger.ONE.shiftLeft(bits - 1);
+        v[5] = BigInteger.ONE.shiftLeft(bits - 1).subtract(BigInteger.ONE);
+        v[6] = q.shiftRight(1);
+        v[7] = BigInteger.ONE.shiftLeft(32).subtract(BigInteger.ONE);
+
+        for (int i = 8; i < v.length; i++)
+        {
+            BigInteger r = new BigInteger(bits, secRand);
+
+            // mix in values with long runs of set or clear words
+            if ((i & 3) == 0)
+            {
+                r = r.or(BigInteger.ONE.shiftLeft(bits).subtract(BigInteger.ONE).shiftLeft(i % bits));
+            }
+            else if ((i & 3) == 1)
+            {
+                r = r.shiftRight(i % bits);
+            }
+
+            v[i] = r.mod(q);
+        }
+
+        return v;
+    }
+
+    private void implTestArithmetic(ECCurve.Fp curve)
+    {
+        BigInteger q = curve.getQ();
+        BigInteger[] v = values(q);
+
+        for (int i = 0; i < v.length; i++)
+        {
+            BigInteger a = v[i];
+            BigInteger b = v[(i * 7 + 3) % v.length];
+            ECFieldElement fa = curve.fromBigInteger(a);
+            ECFieldElement fb = curve.fromBigInteger(b);
+            ECFieldElement plainB = new ECFieldElement.Fp(q, b);
+
+            assertEquals("round trip", a, fa.toBigInteger());
+            assertEquals("add", a.add(b).mod(q), fa.add(fb).toBigInteger());
+            assertEquals("subtract", a.subtract(b).mod(q), fa.subtract(fb).toBigInteger());
+            assertEquals("multiply", a.multiply(b).mod(q), fa.multiply(fb).toBigInteger());
+            assertEquals("square", a.multiply(a).mod(q), fa.square().toBigInteger());
+            assertEquals("negate", a.negate().mod(q), fa.negate().toBigInteger());
+            assertEquals("mixed multiply", a.multiply(b).mod(q), fa.multiply(plainB).toBigInteger());
+            assertEquals("equals", plainB, fb);
+            assertEquals("equals", fb, plainB);
+            assertEquals("hashCode", plainB.hashCode(), fb.hashCode());
+
+            if (a.signum() != 0)
+            {
+                assertEquals("invert", a.modInverse(q), fa.invert().toBigInteger());
+                assertEquals("divide", b.multiply(a.modInverse(q)).mod(q), fb.divide(fa).toBigInteger());
+            }
+        }
+
+        ECFieldElement root = curve.fromBigInteger(v[9]).square().sqrt();
+
+        assertNotNull("sqrt", root);
+        assertEquals("sqrt", v[9].multiply(v[9]).mod(q), root.square().toBigInteger());
+    }
+
+    public void testArithmetic()
+    {
+        for (int i = 0; i < CURVES.length; i++)
+        {
+            implTestArithmetic((ECCurve.Fp)SECNamedCurves.getByName(CURVES[i]).getCurve());
+        }
+    }
+
+    /**
+     * Points built from ECFieldElement.Fp instances created outside the curve must still
+     * combine with the curve's own points.
+     */
+    public void testForeignElements()
+    {
+        for (int i = 0; i < CURVES.length; i++)
+        {
+            X9ECParameters x9 = SECNamedCurves.getByName(CURVES[i]);
+            ECCurve.Fp curve = (ECCurve.Fp)x9.getCurve();
+            ECPoint g = x9.getG();
+            ECPoint foreign = new ECPoint.Fp(curve, new ECFieldElement.Fp(curve.getQ(), g.getX().toBigInteger()),
+                new ECFieldElement.Fp(curve.getQ(), g.getY().toBigInteger()));
+
+            assertEquals(g, foreign);
+            assertEquals(g.twice(), foreign.add(g));
+
+            BigInteger k = new BigInteger(x9.getN().bitLength() - 1, secRand);
+
+            assertEquals(g.multiply(k), foreign.multiply(k));
+        }
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite(ECFieldElementTest.class);
+    }
+}
@@ -0,0 +1,170 @@
+package org.spongycastle.math.ec.test;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.spongycastle.asn1.sec.SECNamedCurves;
+import org.spongycastle.asn1.x9.X9ECParameters;
+import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.math.ec.ECPointPreCompCache;
+import org.spongycastle.math.ec.FixedPointCombMultiplier;
+
+/**
+ * Test class for {@link org.spongycastle.math.ec.ECPointPreCompCache ECPointPreCompCache}.
+ */
+public class ECPointPreCompCacheTest extends TestCase
+{
+    private static final String[] CURVES = { "secp256r1", "secp521r1", "sect233r1", "sect283k1" };
+
+    private SecureRandom secRand = new SecureRandom();
+
+    private ECPoint randomPoint(X9ECParameters x9)
+    {
+        return x9.getG().multiply(new BigInteger(x9.getN().bitLength() - 1, secRand));
+    }
+
+    public void testLookup()
+    {
+        ECPointPreCompCache cache = new ECPointPreCompCache();
+
+        for (int i = 0; i < CURVES.length; i++)
+        {
+            X9ECParameters x9 = SECNamedCurves.getByName(CURVES[i]);
+            ECPoint p = randomPoint(x9);
+            byte[] encoded = p.getEncoded();
+
+            ECPoint decoded = cache.decodePoint(x9.getCurve(), encoded);
+
+            assertEquals("decoded point incorrect", p, decoded);
+            assertSame("decodePoint not cached", decoded, cache.decodePoint(x9.getCurve(), encoded));
+
+            ECPoint cached = cache.getPoint(p);
+
+            assertEquals("cached point incorrect", p, cached);
+            assertSame("getPoint not cached", cached, cache.getPoint(x9.getCurve().decodePoint(encoded)));
+            assertSame("infinity cached", x9.getCurve().getInfinity(), cache.getPoint(x9.getCurve().getInfinity()));
+        }
+
+        cache.clear();
+        assertEquals("clear failed", 0, cache.size());
+    }
+
+    public void testBound()
+    {
+        ECPointPreCompCache cache = new ECPointPreCompCache(3);
+        X9ECParameters x9 = SECNamedCurves.getByName(CURVES[0]);
+
+        for (int i = 0; i < 10; i++)
+        {
+            ECPoint p = randomPoint(x9);
+
+            assertEquals("cached point incorrect", p, cache.getPoint(p));
+            assertTrue("cache exceeded bound", cache.size() <= 3);
+        }
+
+        try
+        {
+            new ECPointPreCompCache(0);
+            fail("no exception on zero size");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    public void testEviction()
+    {
+        ECPointPreCompCache cache = new ECPointPreCompCache(3);
+        X9ECParameters x9 = SECNamedCurves.getByName(CURVES[0]);
+        ECPoint hot = cache.getPoint(randomPoint(x9));
+
+        // a working set larger than the cache must not push out the point in constant use
+        for (int i = 0; i < 10; i++)
+        {
+            cache.getPoint(randomPoint(x9));
+
+            assertSame("recently used point evicted", hot, cache.getPoint(x9.getCurve().decodePoint(hot.getEncoded())));
+        }
+
+        ECPoint a = cache.getPoint(randomPoint(x9));
+        ECPoint b = cache.getPoint(randomPoint(x9));
+
+        cache.getPoint(hot);
+        cache.getPoint(a);
+        cache.getPoint(randomPoint(x9));
+
+        assertEquals("cache exceeded bound", 3, cache.size());
+        assertSame("recently used point evicted", a, cache.getPoint(x9.getCurve().decodePoint(a.getEncoded())));
+        assertTrue("least recently used point not evicted", b != cache.getPoint(x9.getCurve().decodePoint(b.getEncoded())));
+    }
+
+    public void testMultiply()
+    {
+        ECPointPreCompCache cache = new ECPointPreCompCache();
+
+        for (int i = 0; i < CURVES.length; i++)
+        {
+            X9ECParameters x9 = SECNamedCurves.getByName(CURVES[i]);
+            ECPoint p = randomPoint(x9);
+
+            // repeated use of the cached point, and so of its precomputation
+            for (int j = 0; j < 5; j++)
+            {
+                BigInteger k = new BigInteger(x9.getN().bitLength() - 1, secRand);
+
+                assertEquals("cached point multiply incorrect", new FixedPointCombMultiplier().multiply(p, k),
+                    cache.getPoint(p).multiply(k));
+            }
+        }
+    }
+
+    public void testConcurrentMultiply()
+        throws Exception
+    {
+        ECPointPreCompCache cache = new ECPointPreCompCache();
+
+        for (int c = 0; c < CURVES.length; c++)
+        {
+            X9ECParameters x9 = SECNamedCurves.getByName(CURVES[c]);
+            final ECPoint p = cache.getPoint(randomPoint(x9));
+            final BigInteger[] ks = new BigInteger[4];
+            final ECPoint[] results = new ECPoint[ks.length];
+            Thread[] threads = new Thread[ks.length];
+
+            for (int i = 0; i < threads.length; i++)
+            {
+                final int index = i;
+
+                ks[i] = new BigInteger(x9.getN().bitLength() - 1 - 8 * i, secRand);
+                threads[i] = new Thread()
+                {
+                    public void run()
+                    {
+                        results[index] = p.multiply(ks[index]);
+                    }
+                };
+            }
+
+            for (int i = 0; i < threads.length; i++)
+            {
+                threads[i].start();
+            }
+
+            for (int i = 0; i < threads.length; i++)
+            {
+                threads[i].join();
+                assertEquals("concurrent cached multiply incorrect", new FixedPointCombMultiplier().multiply(p, ks[i]), results[i]);
+            }
+        }
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite(ECPointPreCompCacheTest.class);
+    }
+}
@@ -13,6 +13,8 @@ import org.spongycastle.asn1.x9.X9ECParameters;
 import org.spongycastle.math.ec.ECCurve;
 import org.spongycastle.math.ec.ECFieldElement;
 import org.spongycastle.math.ec.ECPoint;
+import org.spongycastle.math.ec.FixedPointCombMultiplier;
+import org.spongycastle.util.Arrays;
 
 /**
  * Test class for {@link org.spongycastle.math.ec.ECPoint ECPoint}. All
@@ -444,6 +446,150 @@ public class ECPointTest extends TestCase
         }
     }
 
+    /**
+     * Checks that <code>p</code> satisfies the curve equation
+     * <code>y<sup>2</sup> = x<sup>3</sup> + ax + b</code>.
+     */
+    private void assertOnCurve(ECPoint p)
+    {
+        ECCurve c = p.getCurve();
+        ECFieldElement x = p.getX();
+        ECFieldElement lhs = p.getY().square();
+        ECFieldElement rhs = x.square().add(c.getA()).multiply(x).add(c.getB());
+
+        assertEquals("point not on curve", lhs, rhs);
+    }
+
+    /**
+     * Checks that points held in Jacobian co-ordinates give the same results
+     * as their affine forms, and that <code>ECCurve.normalizeAll()</code>
+     * agrees with normalizing each point on its own.
+     */
+    public void testNormalize()
+    {
+        Enumeration curveEnum = SECNamedCurves.getNames();
+        while (curveEnum.hasMoreElements())
+        {
+            String name = (String) curveEnum.nextElement();
+            X9ECParameters x9ECParameters = SECNamedCurves.getByName(name);
+
+            if (!(x9ECParameters.getCurve() instanceof ECCurve.Fp))
+            {
+                continue;
+            }
+
+            ECCurve curve = x9ECParameters.getCurve();
+            BigInteger n = x9ECParameters.getN();
+            ECPoint g = x9ECParameters.getG();
+
+            ECPoint[] points = new ECPoint[6];
+            points[0] = g.multiply(new BigInteger(n.bitLength(), secRand));
+            points[1] = points[0].twice();
+            points[2] = points[1].add(points[0]);
+            points[3] = curve.getInfinity();
+            points[4] = g;
+            points[5] = points[2].add(g).subtract(points[1]);
+
+            ECPoint[] normalized = (ECPoint[])points.clone();
+            curve.normalizeAll(normalized);
+
+            for (int i = 0; i < points.length; i++)
+            {
+                ECPoint affine = points[i].normalize();
+
+                assertEquals("normalizeAll inconsistent", affine, normalized[i]);
+                assertSame("normalized point not affine", normalized[i], normalized[i].normalize());
+                assertEquals(points[i], normalized[i]);
+                assertEquals(points[i].hashCode(), normalized[i].hashCode());
+                assertTrue(Arrays.areEqual(affine.getEncoded(), points[i].getEncoded()));
+
+                if (!affine.isInfinity())
+                {
+                    assertOnCurve(points[i]);
+                }
+            }
+
+            assertEquals("mixed add inconsistent", normalized[0].add(normalized[1]), points[2]);
+            assertEquals("twice inconsistent", normalized[1].twice(), points[1].twice());
+            assertEquals("add/subtract inconsistent", normalized[0].add(g), points[5]);
+            assertEquals("p - p is not infinity", curve.getInfinity(), points[2].subtract(normalized[2]));
+            assertEquals("p + p is not twice p", points[1].twice(), normalized[1].add(points[1]));
+        }
+    }
+
+    /**
+     * Checks <code>FixedPointCombMultiplier</code> against the reference
+     * multiplication for the standard curves, including scalars at the ends
+     * of the range and one larger than the comb table covers.
+     */
+    public void testFixedPointComb()
+    {
+        FixedPointCombMultiplier comb = new FixedPointCombMultiplier();
+        Enumeration curveEnum = SECNamedCurves.getNames();
+        while (curveEnum.hasMoreElements())
+        {
+            String name = (String) curveEnum.nextElement();
+            X9ECParameters x9ECParameters = SECNamedCurves.getByName(name);
+
+            BigInteger n = x9ECParameters.getN();
+            ECPoint g = x9ECParameters.getG();
+            BigInteger[] ks = new BigInteger[] {
+                BigInteger.ZERO, BigInteger.ONE, BigInteger.valueOf(2),
+                n.subtract(BigInteger.ONE), n, new BigInteger(n.bitLength(), secRand),
+                new BigInteger(n.bitLength() + 8, secRand) };
+
+            for (int i = 0; i < ks.length; i++)
+            {
+                assertEquals("comb multiply incorrect for " + name, multiply(g, ks[i]), comb.multiply(g, ks[i]));
+            }
+
+            // a copy of the generator, as rebuilt from an encoding
+            ECPoint copy = g.getCurve().decodePoint(g.getEncoded());
+            BigInteger k = new BigInteger(n.bitLength(), secRand);
+
+            assertEquals("comb multiply of copy incorrect", g.multiply(k), comb.multiply(copy, k));
+        }
+    }
+
+    /**
+     * Several threads making the first comb multiplication of a point at once
+     * must all get the right answer.
+     */
+    public void testFixedPointCombConcurrent()
+        throws Exception
+    {
+        X9ECParameters x9ECParameters = SECNamedCurves.getByName("secp256r1");
+        final ECPoint p = x9ECParameters.getG().multiply(new BigInteger(256, secRand)).normalize();
+        final BigInteger[] ks = new BigInteger[4];
+        final ECPoint[] results = new ECPoint[ks.length];
+        Thread[] threads = new Thread[ks.length];
+
+        for (int i = 0; i < threads.length; i++)
+        {
+            final int index = i;
+
+            ks[i] = new BigInteger(256, secRand);
+            threads[i] = new Thread()
+            {
+                public void run()
+                {
+                    results[index] = new FixedPointCombMultiplier().multiply(p, ks[index]);
+                }
+            };
+        }
+
+        for (int i = 0; i < threads.length; i++)
+        {
+            threads[i].start();
+        }
+
+        for (int i = 0; i < threads.length; i++)
+        {
+            threads[i].join();
+            assertEquals("concurrent comb multiply incorrect", p.multiply(ks[i]), results[i]);
+        }
+    }
+
     public static Test suite()
     {
         return new TestSuite(ECPointTest.class);
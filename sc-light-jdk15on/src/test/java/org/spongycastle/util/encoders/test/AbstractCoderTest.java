@@ -1,13 +1,19 @@
 package org.spongycastle.util.encoders.test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Random;
 
 import junit.framework.TestCase;
 
+import org.spongycastle.util.encoders.DecoderInputStream;
 import org.spongycastle.util.encoders.Encoder;
+import org.spongycastle.util.encoders.EncoderOutputStream;
+import org.spongycastle.util.encoders.Translator;
 
 public abstract class AbstractCoderTest extends TestCase
 {
@@ -46,6 +52,10 @@ public abstract class AbstractCoderTest extends TestCase
         checkSimpleDecode(original, encoded);
         checkStringDecode(original, encoded);
         checkOutputStreamDecode(original, encoded);
+        checkArrayEncode(original, encoded);
+        checkArrayDecode(original, encoded);
+        checkEncoderOutputStream(original, encoded);
+        checkDecoderInputStream(original, encoded);
         
         int    offset = r.nextInt(20);
         byte[] offsetEncoded = new byte[offset + encoded.length];
@@ -61,6 +71,8 @@ public abstract class AbstractCoderTest extends TestCase
         checkSimpleDecode(original, encodedWithSpace);
         checkStringDecode(original, encodedWithSpace);
         checkOutputStreamDecode(original, encodedWithSpace);
+        checkArrayDecode(original, encodedWithSpace);
+        checkDecoderInputStream(original, encodedWithSpace);
     }
 
     public void testEncode()
@@ -141,6 +153,120 @@ public abstract class AbstractCoderTest extends TestCase
         assertTrue(Arrays.equals(original, bOut.toByteArray()));
     }
     
+    private void checkArrayEncode(byte[] original, byte[] encoded)
+    {
+        Translator t = (Translator)enc;
+        int        offset = r.nextInt(20);
+        byte[]     out = new byte[offset + encoded.length];
+
+        assertEquals(encoded.length, t.encode(original, 0, original.length, out, offset));
+        assertTrue(Arrays.equals(encoded, copy(out, offset, encoded.length)));
+    }
+
+    private void checkArrayDecode(byte[] original, byte[] encoded)
+    {
+        Translator t = (Translator)enc;
+        int        offset = r.nextInt(20);
+        byte[]     out = new byte[offset + original.length];
+
+        assertEquals(original.length, t.decode(encoded, 0, encoded.length, out, offset));
+        assertTrue(Arrays.equals(original, copy(out, offset, original.length)));
+    }
+
+    private void checkEncoderOutputStream(byte[] original, byte[] encoded)
+        throws IOException
+    {
+        Translator            t = (Translator)enc;
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        OutputStream          eOut = new EncoderOutputStream(bOut, t, 12 * t.getDecodedBlockSize());
+
+        // mix of single bytes, short writes and writes spanning several chunks.
+        int off = 0;
+        while (off < original.length)
+        {
+            int len = Math.min(r.nextInt(200), original.length - off);
+
+            if (len == 0)
+            {
+                eOut.write(original[off++]);
+            }
+            else
+            {
+                eOut.write(original, off, len);
+                off += len;
+            }
+
+            if (r.nextInt(10) == 0)
+            {
+                eOut.flush();
+            }
+        }
+
+        eOut.close();
+        eOut.close();
+
+        assertTrue(Arrays.equals(encoded, bOut.toByteArray()));
+    }
+
+    private void checkDecoderInputStream(byte[] original, byte[] encoded)
+        throws IOException
+    {
+        Translator            t = (Translator)enc;
+        InputStream           dIn = new DecoderInputStream(new ByteArrayInputStream(encoded), t, 16 * t.getEncodedBlockSize());
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        byte[]                buf = new byte[100];
+        int                   len;
+
+        int ch = dIn.read();
+        if (ch >= 0)
+        {
+            bOut.write(ch);
+        }
+
+        while ((len = dIn.read(buf, 0, r.nextInt(buf.length) + 1)) >= 0)
+        {
+            bOut.write(buf, 0, len);
+        }
+
+        assertTrue(Arrays.equals(original, bOut.toByteArray()));
+
+        // a partial block at the end of the stream is an error
+        dIn = new DecoderInputStream(new ByteArrayInputStream(copy(encoded, 0, encoded.length - 1)), t);
+
+        try
+        {
+            while (dIn.read(buf, 0, buf.length) >= 0)
+            {
+                // read to the end
+            }
+
+            if (isWhitespace(encoded[encoded.length - 1]))
+            {
+                return;
+            }
+
+            fail("truncated encoding not detected");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+    }
+
+    private boolean isWhitespace(byte b)
+    {
+        return b == '\n' || b == '\r' || b == '\t' || b == ' ';
+    }
+
+    private byte[] copy(byte[] data, int off, int len)
+    {
+        byte[] res = new byte[len];
+
+        System.arraycopy(data, off, res, 0, len);
+
+        return res;
+    }
+
     private void checkStringDecode(byte[] original, byte[] encoded) 
         throws IOException
     {
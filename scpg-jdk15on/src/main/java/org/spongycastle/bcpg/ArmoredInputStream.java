@@ -16,6 +16,8 @@ public class ArmoredInputStream
      */
     private static final byte[] decodingTable;
 
+    private static final int LOOK_AHEAD_SIZE = 2048;
+
     static
     {
         decodingTable = new byte[128];
@@ -108,6 +110,7 @@ public class ArmoredInputStream
     Vector         headerList= new Vector();
     int            lastC = 0;
     boolean        isEndOfStream;
+    byte[]         lookAhead;
     
     /**
      * Create a stream for reading a PGP armoured message, parsing up to a header 
@@ -372,95 +375,264 @@ public class ArmoredInputStream
 
         if (bufPtr > 2 || crcFound)
         {
-            c = readIgnoreSpace();
-            
-            if (c == '\r' || c == '\n')
+            if (!fillBuffer(readIgnoreSpace()))
             {
-                c = readIgnoreSpace();
-                
-                while (c == '\n' || c == '\r')
+                return -1;
+            }
+        }
+
+        c = outBuf[bufPtr++];
+
+        crc.update(c);
+
+        return c;
+    }
+
+    /**
+     * Read len bytes of decoded data into b starting at off. Outside the clear text of a
+     * signed message the data is decoded group by group straight into b and the CRC is
+     * updated over the whole block.
+     */
+    public int read(
+        byte[] b,
+        int    off,
+        int    len)
+        throws IOException
+    {
+        if (start || clearText)
+        {
+            return super.read(b, off, len);
+        }
+
+        int pos = off;
+        int end = off + len;
+        int crcOff = off;
+
+        while (pos < end)
+        {
+            if (bufPtr > 2 && !crcFound && end - pos >= 3 && in.markSupported())
+            {
+                int next = readAhead(b, pos, end);
+
+                if (next != pos)
                 {
-                    c = readIgnoreSpace();
+                    pos = next;
+                    continue;
                 }
+            }
 
-                if (c < 0)                // EOF
+            if (bufPtr > 2 || crcFound)
+            {
+                int c = readIgnoreSpace();
+
+                if (c >= 0 && c != '\r' && c != '\n' && !crcFound)
                 {
-                    isEndOfStream = true;
-                    return -1;
+                    bufPtr = decode(c, readIgnoreSpace(), readIgnoreSpace(), readIgnoreSpace(), outBuf);
                 }
-
-                if (c == '=')            // crc reached
+                else
                 {
-                    bufPtr = decode(readIgnoreSpace(), readIgnoreSpace(), readIgnoreSpace(), readIgnoreSpace(), outBuf);
-                    if (bufPtr == 0)
-                    {
-                        int i = ((outBuf[0] & 0xff) << 16)
-                                | ((outBuf[1] & 0xff) << 8)
-                                | (outBuf[2] & 0xff);
+                    // line end, CRC or end of data - the CRC must be up to date for the check.
+                    crc.update(b, crcOff, pos - crcOff);
+                    crcOff = pos;
 
-                        crcFound = true;
-
-                        if (i != crc.getValue())
-                        {
-                            throw new IOException("crc check failed in armored message.");
-                        }
-                        return read();
-                    }
-                    else
+                    if (!fillBuffer(c))
                     {
-                        throw new IOException("no crc found in armored message.");
+                        break;
                     }
                 }
-                else if (c == '-')        // end of record reached
+            }
+
+            while (bufPtr < 3 && pos < end)
+            {
+                b[pos++] = (byte)outBuf[bufPtr++];
+            }
+        }
+
+        crc.update(b, crcOff, pos - crcOff);
+
+        if (pos == off && len != 0)
+        {
+            return -1;
+        }
+
+        return pos - off;
+    }
+
+    /**
+     * Decode whole groups of plain data straight into b using a look ahead buffer. Only what
+     * is decoded is consumed from the underlying stream - anything else, such as the CRC,
+     * padding or the end of the armor, is left to the character at a time code.
+     *
+     * @return the new position in b.
+     */
+    private int readAhead(
+        byte[] b,
+        int    pos,
+        int    end)
+        throws IOException
+    {
+        if (lookAhead == null)
+        {
+            lookAhead = new byte[LOOK_AHEAD_SIZE];
+        }
+
+        byte[] buf = lookAhead;
+
+        in.mark(buf.length);
+
+        int count = in.read(buf, 0, buf.length);
+        int used = 0;
+
+        while (end - pos >= 3)
+        {
+            int i = used;
+
+            while (i < count && isSpace(buf[i]))
+            {
+                i++;
+            }
+
+            if (i + 4 > count)
+            {
+                break;
+            }
+
+            int c0 = buf[i], c1 = buf[i + 1], c2 = buf[i + 2], c3 = buf[i + 3];
+
+            if ((c0 | c1 | c2 | c3) < 0 || c0 == '=' || c0 == '-' || c2 == '=' || c3 == '='
+                || isSpace(buf[i + 1]) || isSpace(buf[i + 2]) || isSpace(buf[i + 3]))
+            {
+                break;
+            }
+
+            int t = (decodingTable[c0] << 18) | (decodingTable[c1] << 12) | (decodingTable[c2] << 6) | decodingTable[c3];
+
+            b[pos]     = (byte)(t >>> 16);
+            b[pos + 1] = (byte)(t >>> 8);
+            b[pos + 2] = (byte)t;
+
+            pos += 3;
+            used = i + 4;
+        }
+
+        in.reset();
+
+        while (used > 0)
+        {
+            long skipped = in.skip(used);
+
+            if (skipped <= 0)
+            {
+                if (in.read() < 0)
                 {
-                    while ((c = in.read()) >= 0)
-                    {
-                        if (c == '\n' || c == '\r')
-                        {
-                            break;
-                        }
-                    }
+                    break;
+                }
+                skipped = 1;
+            }
 
-                    if (!crcFound)
-                    {
-                        throw new IOException("crc check not found.");
-                    }
+            used -= skipped;
+        }
 
-                    crcFound = false;
-                    start = true;
-                    bufPtr = 3;
+        return pos;
+    }
+
+    private static boolean isSpace(
+        byte c)
+    {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    /**
+     * decode the next group of data into outBuf, c is the first character of it.
+     *
+     * @return false if the end of the armored data has been reached.
+     */
+    private boolean fillBuffer(
+        int c)
+        throws IOException
+    {
+        if (c == '\r' || c == '\n')
+        {
+            c = readIgnoreSpace();
+            
+            while (c == '\n' || c == '\r')
+            {
+                c = readIgnoreSpace();
+            }
+
+            if (c < 0)                // EOF
+            {
+                isEndOfStream = true;
+                return false;
+            }
+
+            if (c == '=')            // crc reached
+            {
+                bufPtr = decode(readIgnoreSpace(), readIgnoreSpace(), readIgnoreSpace(), readIgnoreSpace(), outBuf);
+                if (bufPtr == 0)
+                {
+                    int i = ((outBuf[0] & 0xff) << 16)
+                            | ((outBuf[1] & 0xff) << 8)
+                            | (outBuf[2] & 0xff);
+
+                    crcFound = true;
 
-                    if (c < 0)
+                    if (i != crc.getValue())
                     {
-                        isEndOfStream = true;
+                        throw new IOException("crc check failed in armored message.");
                     }
-
-                    return -1;
+                    return fillBuffer(readIgnoreSpace());
                 }
-                else                   // data
+                else
                 {
-                    bufPtr = decode(c, readIgnoreSpace(), readIgnoreSpace(), readIgnoreSpace(), outBuf);
+                    throw new IOException("no crc found in armored message.");
                 }
             }
-            else
+            else if (c == '-')        // end of record reached
             {
-                if (c >= 0)
+                while ((c = in.read()) >= 0)
                 {
-                    bufPtr = decode(c, readIgnoreSpace(), readIgnoreSpace(), readIgnoreSpace(), outBuf);
+                    if (c == '\n' || c == '\r')
+                    {
+                        break;
+                    }
                 }
-                else
+
+                if (!crcFound)
+                {
+                    throw new IOException("crc check not found.");
+                }
+
+                crcFound = false;
+                start = true;
+                bufPtr = 3;
+
+                if (c < 0)
                 {
                     isEndOfStream = true;
-                    return -1;
                 }
+
+                return false;
+            }
+            else                   // data
+            {
+                bufPtr = decode(c, readIgnoreSpace(), readIgnoreSpace(), readIgnoreSpace(), outBuf);
+            }
+        }
+        else
+        {
+            if (c >= 0)
+            {
+                bufPtr = decode(c, readIgnoreSpace(), readIgnoreSpace(), readIgnoreSpace(), outBuf);
+            }
+            else
+            {
+                isEndOfStream = true;
+                return false;
             }
         }
 
-        c = outBuf[bufPtr++];
-
-        crc.update(c);
-
-        return c;
+        return true;
     }
     
     public void close()
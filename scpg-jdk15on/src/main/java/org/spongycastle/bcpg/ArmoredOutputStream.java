@@ -4,6 +4,9 @@ import java.io.*;
 import java.util.Enumeration;
 import java.util.Hashtable;
 
+import org.spongycastle.util.Strings;
+import org.spongycastle.util.encoders.Base64Encoder;
+
 /**
  * Basic output stream.
  */
@@ -73,8 +76,16 @@ public class ArmoredOutputStream
         }
     }
 
+    /*
+     * groups of 3 bytes encoded per line of output (64 characters).
+     */
+    private static final int LINE_GROUPS = 16;
+
+    private static final Base64Encoder lineEncoder = new Base64Encoder();
+
     OutputStream    out;
     int[]           buf = new int[3];
+    byte[]          line;
     int             bufPtr = 0;
     CRC24           crc = new CRC24();
     int             chunkCount = 0;
@@ -331,21 +342,128 @@ public class ArmoredOutputStream
 
         if (bufPtr == 3)
         {
-            encode(out, buf, bufPtr);
-            bufPtr = 0;
-            if ((++chunkCount & 0xf) == 0)
-            {
-                for (int i = 0; i != nl.length(); i++)
-                {
-                    out.write(nl.charAt(i));
-                }
-            }
+            writeGroup();
         }
 
         crc.update(b);
         buf[bufPtr++] = b & 0xff;
     }
     
+    /**
+     * Write len bytes from b starting at off. Armored data is checksummed and encoded a
+     * line at a time rather than a byte at a time.
+     */
+    public void write(
+        byte[] b,
+        int    off,
+        int    len)
+        throws IOException
+    {
+        if (start && len > 0)
+        {
+            write(b[off] & 0xff);      // writes the header
+            off++;
+            len--;
+        }
+
+        if (clearText)
+        {
+            for (int i = 0; i != len; i++)
+            {
+                write(b[off + i] & 0xff);
+            }
+            return;
+        }
+
+        if (len <= 0)
+        {
+            return;
+        }
+
+        crc.update(b, off, len);
+
+        while (bufPtr < 3 && len > 0)
+        {
+            buf[bufPtr++] = b[off++] & 0xff;
+            len--;
+        }
+
+        if (len == 0)
+        {
+            return;
+        }
+
+        //
+        // a full group is only encoded once more data follows it, so the last 1 to 3 bytes
+        // are always left in buf for the next write or close.
+        //
+        writeGroup();
+
+        int groups = (len - 1) / 3;
+
+        if (groups != 0)
+        {
+            writeGroups(b, off, groups);
+            off += groups * 3;
+            len -= groups * 3;
+        }
+
+        for (int i = 0; i != len; i++)
+        {
+            buf[i] = b[off + i] & 0xff;
+        }
+        bufPtr = len;
+    }
+
+    private void writeGroup()
+        throws IOException
+    {
+        encode(out, buf, bufPtr);
+        bufPtr = 0;
+        if ((++chunkCount & 0xf) == 0)
+        {
+            for (int i = 0; i != nl.length(); i++)
+            {
+                out.write(nl.charAt(i));
+            }
+        }
+    }
+
+    /*
+     * encode count complete groups of 3 bytes from b, a line at a time.
+     */
+    private void writeGroups(
+        byte[] b,
+        int    off,
+        int    count)
+        throws IOException
+    {
+        byte[] nlBytes = Strings.toByteArray(nl);
+
+        if (line == null || line.length != LINE_GROUPS * 4 + nlBytes.length)
+        {
+            line = new byte[LINE_GROUPS * 4 + nlBytes.length];
+        }
+
+        while (count > 0)
+        {
+            int n = Math.min(count, LINE_GROUPS - (chunkCount & 0xf));
+            int len = lineEncoder.encode(b, off, n * 3, line, 0);
+
+            chunkCount += n;
+            if ((chunkCount & 0xf) == 0)
+            {
+                System.arraycopy(nlBytes, 0, line, len, nlBytes.length);
+                len += nlBytes.length;
+            }
+
+            out.write(line, 0, len);
+
+            off += n * 3;
+            count -= n;
+        }
+    }
+
     public void flush()
         throws IOException
     {
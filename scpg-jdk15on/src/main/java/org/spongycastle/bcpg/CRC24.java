@@ -1,12 +1,53 @@
 package org.spongycastle.bcpg;
 
+/**
+ * The 24 bit CRC used for the checksum line of ASCII armored data (RFC 4880 section 6.1).
+ * <p>
+ * The CRC is table driven, bulk updates are processed 8 bytes at a time using eight tables
+ * ("slicing-by-8").
+ * </p>
+ */
 public class CRC24
 {
     private static final int CRC24_INIT = 0x0b704ce;
     private static final int CRC24_POLY = 0x1864cfb;
-                                                                                
+
+    /*
+     * TABLE[k][v] is the CRC register contribution of byte v followed by k zero bytes.
+     */
+    private static final int[][] TABLE = new int[8][256];
+
+    static
+    {
+        for (int v = 0; v != 256; v++)
+        {
+            int crc = v << 16;
+
+            for (int i = 0; i < 8; i++)
+            {
+                crc <<= 1;
+                if ((crc & 0x1000000) != 0)
+                {
+                    crc ^= CRC24_POLY;
+                }
+            }
+
+            TABLE[0][v] = crc;
+        }
+
+        for (int k = 1; k != TABLE.length; k++)
+        {
+            for (int v = 0; v != 256; v++)
+            {
+                int crc = TABLE[k - 1][v];
+
+                TABLE[k][v] = ((crc << 8) & 0xffffff) ^ TABLE[0][crc >>> 16];
+            }
+        }
+    }
+
     private int crc = CRC24_INIT;
-                                                                                
+
     public CRC24()
     {
     }
@@ -14,15 +55,43 @@ public class CRC24
     public void update(
         int b)
     {
-        crc ^= b << 16;
-        for (int i = 0; i < 8; i++)
+        crc = ((crc << 8) & 0xffffff) ^ TABLE[0][((crc >>> 16) ^ b) & 0xff];
+    }
+
+    /**
+     * Update the CRC with len bytes from buf starting at off.
+     *
+     * @param buf the data to add.
+     * @param off offset into buf the data starts at.
+     * @param len number of bytes to add.
+     */
+    public void update(
+        byte[] buf,
+        int    off,
+        int    len)
+    {
+        int[] t0 = TABLE[0], t1 = TABLE[1], t2 = TABLE[2], t3 = TABLE[3];
+        int[] t4 = TABLE[4], t5 = TABLE[5], t6 = TABLE[6], t7 = TABLE[7];
+        int   c = crc;
+        int   end = off + len;
+
+        while (end - off >= 8)
         {
-            crc <<= 1;
-            if ((crc & 0x1000000) != 0)
-            {
-                crc ^= CRC24_POLY;
-            }
+            // the 24 bit register lines up with the first three bytes of the 8.
+            int w = ((buf[off] & 0xff) << 24 | (buf[off + 1] & 0xff) << 16 | (buf[off + 2] & 0xff) << 8) ^ (c << 8);
+
+            c = t7[w >>> 24] ^ t6[(w >>> 16) & 0xff] ^ t5[(w >>> 8) & 0xff] ^ t4[buf[off + 3] & 0xff]
+              ^ t3[buf[off + 4] & 0xff] ^ t2[buf[off + 5] & 0xff] ^ t1[buf[off + 6] & 0xff] ^ t0[buf[off + 7] & 0xff];
+
+            off += 8;
         }
+
+        while (off < end)
+        {
+            c = ((c << 8) & 0xffffff) ^ t0[((c >>> 16) ^ buf[off++]) & 0xff];
+        }
+
+        crc = c;
     }
 
     public int getValue()
@@ -2,9 +2,13 @@ package org.spongycastle.openpgp.test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
 import org.spongycastle.bcpg.ArmoredOutputStream;
 import org.spongycastle.bcpg.ArmoredInputStream;
+import org.spongycastle.bcpg.CRC24;
 import org.spongycastle.util.Arrays;
 import org.spongycastle.util.Strings;
 import org.spongycastle.util.encoders.Base64;
@@ -108,6 +112,147 @@ public class PGPArmoredTest
         }
     }
 
+    private void crcTest()
+    {
+        byte[] data = new byte[1000];
+
+        for (int i = 0; i != data.length; i++)
+        {
+            data[i] = (byte)(i * 31 + 7);
+        }
+
+        CRC24 byteCrc = new CRC24();
+        CRC24 bulkCrc = new CRC24();
+
+        for (int len = 0; len < data.length; len += 37)
+        {
+            byteCrc.reset();
+            for (int i = 0; i != len; i++)
+            {
+                byteCrc.update(data[i] & 0xff);
+            }
+
+            for (int chunk = 1; chunk <= 17; chunk += 4)
+            {
+                bulkCrc.reset();
+                for (int off = 0; off < len; off += chunk)
+                {
+                    bulkCrc.update(data, off, Math.min(chunk, len - off));
+                }
+
+                if (byteCrc.getValue() != bulkCrc.getValue())
+                {
+                    fail("bulk CRC mismatch, length " + len + " chunk " + chunk);
+                }
+            }
+        }
+    }
+
+    /*
+     * the bulk read and write paths must produce the same armor as a byte at a time.
+     */
+    private void bulkTest()
+        throws Exception
+    {
+        int[] lengths = { 1, 2, 3, 4, 47, 48, 49, 50, 95, 96, 97, 1000, 5001 };
+        int[] chunks = { 2, 3, 5, 48, 49, 100, 4096 };
+
+        for (int l = 0; l != lengths.length; l++)
+        {
+            byte[] data = new byte[lengths[l]];
+
+            System.arraycopy(sample, 0, data, 0, Math.min(sample.length, data.length));
+            for (int i = sample.length; i < data.length; i++)
+            {
+                data[i] = (byte)(i * 13);
+            }
+
+            ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+            ArmoredOutputStream aOut = new ArmoredOutputStream(bOut);
+
+            for (int i = 0; i != data.length; i++)
+            {
+                aOut.write(data[i]);
+            }
+            aOut.close();
+
+            byte[] expected = bOut.toByteArray();
+
+            for (int c = 0; c != chunks.length; c++)
+            {
+                bOut = new ByteArrayOutputStream();
+                aOut = new ArmoredOutputStream(bOut);
+
+                for (int off = 0; off < data.length; off += chunks[c])
+                {
+                    aOut.write(data, off, Math.min(chunks[c], data.length - off));
+                }
+                aOut.close();
+
+                if (!Arrays.areEqual(expected, bOut.toByteArray()))
+                {
+                    fail("bulk write mismatch, length " + data.length + " chunk " + chunks[c]);
+                }
+
+                // with and without mark/reset support on the underlying stream
+                checkBulkRead(data, new ByteArrayInputStream(expected), chunks[c]);
+                checkBulkRead(data, new FilterInputStream(new ByteArrayInputStream(expected))
+                {
+                    public boolean markSupported()
+                    {
+                        return false;
+                    }
+                }, chunks[c]);
+            }
+
+            // a corrupted character must still fail the CRC check on the bulk path.
+            String nl = System.getProperty("line.separator");
+            byte[] corrupt = Arrays.clone(expected);
+            int    pos = Strings.fromByteArray(corrupt).indexOf(nl + nl) + 2 * nl.length();
+
+            corrupt[pos] = (byte)(corrupt[pos] == 'A' ? 'B' : 'A');
+
+            ArmoredInputStream aIn = new ArmoredInputStream(new ByteArrayInputStream(corrupt));
+            byte[] buf = new byte[100];
+
+            try
+            {
+                while (aIn.read(buf, 0, buf.length) >= 0)
+                {
+                    // read to the end
+                }
+
+                fail("corrupted armor not detected, length " + data.length);
+            }
+            catch (IOException e)
+            {
+                if (!"crc check failed in armored message.".equals(e.getMessage()))
+                {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void checkBulkRead(byte[] data, InputStream in, int chunk)
+        throws IOException
+    {
+        ArmoredInputStream aIn = new ArmoredInputStream(in);
+        ByteArrayOutputStream dOut = new ByteArrayOutputStream();
+        byte[] buf = new byte[chunk];
+        int len;
+
+        while ((len = aIn.read(buf, 0, buf.length)) >= 0)
+        {
+            dOut.write(buf, 0, len);
+        }
+
+        if (!Arrays.areEqual(data, dOut.toByteArray()))
+        {
+            fail("bulk read mismatch, length " + data.length + " chunk " + chunk);
+        }
+    }
+
     public void performTest()
         throws Exception
     {
@@ -240,6 +385,8 @@ public class PGPArmoredTest
         }
 
         blankLineTest();
+        crcTest();
+        bulkTest();
     }
 
     public String getName()
@@ -29,6 +29,8 @@ public class BCRSAPrivateCrtKey
     private BigInteger  primeExponentQ;
     private BigInteger  crtCoefficient;
 
+    private transient RSAPrivateCrtKeyParameters engineParameters;
+
     /**
      * construct a private key from it's org.spongycastle.crypto equivalent.
      *
@@ -109,6 +111,21 @@ public class BCRSAPrivateCrtKey
         this.crtCoefficient = key.getCoefficient();
     }
 
+    /**
+     * Return the lightweight form of this key. The same object is handed out each time so
+     * anything the engines cache against it, such as blinding factors, lasts as long as the key.
+     */
+    synchronized RSAPrivateCrtKeyParameters engineGetKeyParameters()
+    {
+        if (engineParameters == null)
+        {
+            engineParameters = new RSAPrivateCrtKeyParameters(getModulus(), getPublicExponent(), getPrivateExponent(),
+                getPrimeP(), getPrimeQ(), getPrimeExponentP(), getPrimeExponentQ(), getCrtCoefficient());
+        }
+
+        return engineParameters;
+    }
+
     /**
      * return the encoding format we produce in getEncoded().
      *
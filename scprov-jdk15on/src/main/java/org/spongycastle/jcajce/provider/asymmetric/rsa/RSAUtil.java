@@ -48,7 +48,11 @@ public class RSAUtil
     static RSAKeyParameters generatePrivateKeyParameter(
         RSAPrivateKey key)
     {
-        if (key instanceof RSAPrivateCrtKey)
+        if (key instanceof BCRSAPrivateCrtKey)
+        {
+            return ((BCRSAPrivateCrtKey)key).engineGetKeyParameters();
+        }
+        else if (key instanceof RSAPrivateCrtKey)
         {
             RSAPrivateCrtKey k = (RSAPrivateCrtKey)key;
 
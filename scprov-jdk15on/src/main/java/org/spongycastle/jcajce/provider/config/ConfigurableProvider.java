@@ -29,6 +29,16 @@ public interface ConfigurableProvider
      */
     static final String      DH_DEFAULT_PARAMS = "DhDefaultParams";
 
+    /**
+     * GCM multiplier type (a String: "basic", "8k" or "64k") - VM wide version
+     */
+    static final String      GCM_MULTIPLIER = "gcmMultiplier";
+
+    /**
+     * Number of GCM multiplier tables cached by hash key (an Integer, 0 to disable) - VM wide version
+     */
+    static final String      GCM_TABLE_CACHE_SIZE = "gcmTableCacheSize";
+
     void setParameter(String parameterName, Object parameter);
 
     void addAlgorithm(String key, String value);
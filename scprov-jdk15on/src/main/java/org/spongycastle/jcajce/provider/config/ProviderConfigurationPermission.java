@@ -31,13 +31,18 @@ public class ProviderConfigurationPermission
     private static final int  EC_IMPLICITLY_CA = 0x02;
     private static final int  THREAD_LOCAL_DH_DEFAULT_PARAMS = 0x04;
     private static final int  DH_DEFAULT_PARAMS = 0x08;
+    private static final int  GCM_MULTIPLIER = 0x10;
+    private static final int  GCM_TABLE_CACHE_SIZE = 0x20;
 
-    private static final int  ALL = THREAD_LOCAL_EC_IMPLICITLY_CA | EC_IMPLICITLY_CA | THREAD_LOCAL_DH_DEFAULT_PARAMS | DH_DEFAULT_PARAMS;
+    private static final int  ALL = THREAD_LOCAL_EC_IMPLICITLY_CA | EC_IMPLICITLY_CA | THREAD_LOCAL_DH_DEFAULT_PARAMS | DH_DEFAULT_PARAMS
+                                    | GCM_MULTIPLIER | GCM_TABLE_CACHE_SIZE;
 
     private static final String THREAD_LOCAL_EC_IMPLICITLY_CA_STR = "threadlocalecimplicitlyca";
     private static final String EC_IMPLICITLY_CA_STR = "ecimplicitlyca";
     private static final String THREAD_LOCAL_DH_DEFAULT_PARAMS_STR = "threadlocaldhdefaultparams";
     private static final String DH_DEFAULT_PARAMS_STR = "dhdefaultparams";
+    private static final String GCM_MULTIPLIER_STR = "gcmmultiplier";
+    private static final String GCM_TABLE_CACHE_SIZE_STR = "gcmtablecachesize";
 
     private static final String ALL_STR = "all";
 
@@ -84,6 +89,14 @@ public class ProviderConfigurationPermission
             {
                 mask |= DH_DEFAULT_PARAMS;
             }
+            else if (s.equals(GCM_MULTIPLIER_STR))
+            {
+                mask |= GCM_MULTIPLIER;
+            }
+            else if (s.equals(GCM_TABLE_CACHE_SIZE_STR))
+            {
+                mask |= GCM_TABLE_CACHE_SIZE;
+            }
             else if (s.equals(ALL_STR))
             {
                 mask |= ALL;
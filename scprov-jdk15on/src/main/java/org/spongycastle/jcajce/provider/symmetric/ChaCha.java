@@ -0,0 +1,109 @@
+package org.spongycastle.jcajce.provider.symmetric;
+
+import org.spongycastle.crypto.CipherKeyGenerator;
+import org.spongycastle.crypto.engines.ChaChaEngine;
+import org.spongycastle.crypto.macs.Poly1305;
+import org.spongycastle.crypto.modes.ChaCha20Poly1305;
+import org.spongycastle.jcajce.provider.config.ConfigurableProvider;
+import org.spongycastle.jcajce.provider.symmetric.util.BaseAEADCipher;
+import org.spongycastle.jcajce.provider.symmetric.util.BaseKeyGenerator;
+import org.spongycastle.jcajce.provider.symmetric.util.BaseMac;
+import org.spongycastle.jcajce.provider.symmetric.util.BaseStreamCipher;
+import org.spongycastle.jcajce.provider.symmetric.util.IvAlgorithmParameters;
+import org.spongycastle.jcajce.provider.util.AlgorithmProvider;
+
+public final class ChaCha
+{
+    private ChaCha()
+    {
+    }
+    
+    public static class Base
+        extends BaseStreamCipher
+    {
+        public Base()
+        {
+            super(new ChaChaEngine(), 8);
+        }
+    }
+
+    public static class Base7539
+        extends BaseStreamCipher
+    {
+        public Base7539()
+        {
+            super(new ChaChaEngine(), 12);
+        }
+    }
+
+    public static class BasePoly1305
+        extends BaseAEADCipher
+    {
+        public BasePoly1305()
+        {
+            super(new ChaCha20Poly1305(), 12);
+        }
+    }
+
+    public static class AlgParamsPoly1305
+        extends IvAlgorithmParameters
+    {
+        protected String engineToString()
+        {
+            return "ChaCha20-Poly1305 Nonce";
+        }
+    }
+
+    public static class KeyGen
+        extends BaseKeyGenerator
+    {
+        public KeyGen()
+        {
+            super("ChaCha", 256, new CipherKeyGenerator());
+        }
+    }
+
+    public static class Mac
+        extends BaseMac
+    {
+        public Mac()
+        {
+            super(new Poly1305());
+        }
+    }
+
+    public static class Poly1305KeyGen
+        extends BaseKeyGenerator
+    {
+        public Poly1305KeyGen()
+        {
+            super("Poly1305", 256, new CipherKeyGenerator());
+        }
+    }
+
+    public static class Mappings
+        extends AlgorithmProvider
+    {
+        private static final String PREFIX = ChaCha.class.getName();
+
+        public Mappings()
+        {
+        }
+
+        public void configure(ConfigurableProvider provider)
+        {
+
+            provider.addAlgorithm("Cipher.CHACHA", PREFIX + "$Base");
+            provider.addAlgorithm("Cipher.CHACHA7539", PREFIX + "$Base7539");
+            provider.addAlgorithm("Cipher.CHACHA20-POLY1305", PREFIX + "$BasePoly1305");
+            provider.addAlgorithm("AlgorithmParameters.CHACHA20-POLY1305", PREFIX + "$AlgParamsPoly1305");
+            provider.addAlgorithm("KeyGenerator.CHACHA", PREFIX + "$KeyGen");
+            provider.addAlgorithm("Alg.Alias.KeyGenerator.CHACHA7539", "CHACHA");
+            provider.addAlgorithm("Alg.Alias.KeyGenerator.CHACHA20-POLY1305", "CHACHA");
+
+            provider.addAlgorithm("Mac.POLY1305", PREFIX + "$Mac");
+            provider.addAlgorithm("KeyGenerator.POLY1305", PREFIX + "$Poly1305KeyGen");
+
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package org.spongycastle.jcajce.provider.symmetric.util;
+
+import java.nio.ByteBuffer;
+import java.security.AlgorithmParameters;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.InvalidParameterException;
+import java.security.Key;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
+
+import org.spongycastle.crypto.DataLengthException;
+import org.spongycastle.crypto.InvalidCipherTextException;
+import org.spongycastle.crypto.modes.AEADCipher;
+import org.spongycastle.crypto.params.KeyParameter;
+import org.spongycastle.crypto.params.ParametersWithIV;
+import org.spongycastle.jce.provider.BouncyCastleProvider;
+import org.spongycastle.util.Arrays;
+
+/**
+ * Cipher SPI for AEAD ciphers which aren't built on a block cipher, such as ChaCha20-Poly1305.
+ * The nonce is passed as an IvParameterSpec, and is generated if none is given for encryption.
+ * A nonce can only be used for one encryption, after doFinal the cipher must be initialised
+ * again with a new one, until then it throws IllegalStateException.
+ */
+public class BaseAEADCipher
+    extends BaseWrapCipher
+{
+    //
+    // specs we can handle.
+    //
+    private Class[]                 availableSpecs =
+                                    {
+                                        IvParameterSpec.class
+                                    };
+
+    private AEADCipher              cipher;
+    private ParametersWithIV        ivParam;
+
+    private int                     ivLength;
+
+    protected BaseAEADCipher(
+        AEADCipher  engine,
+        int         ivLength)
+    {
+        this.cipher = engine;
+        this.ivLength = ivLength;
+    }
+
+    protected int engineGetBlockSize()
+    {
+        return 0;
+    }
+
+    protected byte[] engineGetIV()
+    {
+        return (ivParam != null) ? ivParam.getIV() : null;
+    }
+
+    protected int engineGetKeySize(
+        Key     key)
+    {
+        return key.getEncoded().length * 8;
+    }
+
+    protected int engineGetOutputSize(
+        int     inputLen)
+    {
+        return cipher.getOutputSize(inputLen);
+    }
+
+    protected AlgorithmParameters engineGetParameters()
+    {
+        if (engineParams == null && ivParam != null)
+        {
+            try
+            {
+                engineParams = AlgorithmParameters.getInstance(cipher.getAlgorithmName(), BouncyCastleProvider.PROVIDER_NAME);
+                engineParams.init(new IvParameterSpec(ivParam.getIV()));
+            }
+            catch (Exception e)
+            {
+                throw new RuntimeException(e.toString());
+            }
+        }
+
+        return engineParams;
+    }
+
+    protected void engineSetMode(
+        String  mode)
+    {
+        if (!mode.equalsIgnoreCase("NONE") && !mode.equalsIgnoreCase("ECB"))
+        {
+            throw new IllegalArgumentException("can't support mode " + mode);
+        }
+    }
+
+    protected void engineSetPadding(
+        String  padding)
+    throws NoSuchPaddingException
+    {
+        if (!padding.equalsIgnoreCase("NoPadding"))
+        {
+            throw new NoSuchPaddingException("Padding " + padding + " unknown.");
+        }
+    }
+
+    protected void engineInit(
+        int                     opmode,
+        Key                     key,
+        AlgorithmParameterSpec  params,
+        SecureRandom            random)
+        throws InvalidKeyException, InvalidAlgorithmParameterException
+    {
+        this.engineParams = null;
+
+        //
+        // basic key check
+        //
+        if (!(key instanceof SecretKey))
+        {
+            throw new InvalidKeyException("Key for algorithm " + key.getAlgorithm() + " not suitable for symmetric enryption.");
+        }
+
+        KeyParameter keyParam = new KeyParameter(key.getEncoded());
+
+        if (params instanceof IvParameterSpec)
+        {
+            ivParam = new ParametersWithIV(keyParam, ((IvParameterSpec)params).getIV());
+        }
+        else if (params == null)
+        {
+            if ((opmode == Cipher.ENCRYPT_MODE) || (opmode == Cipher.WRAP_MODE))
+            {
+                SecureRandom    ivRandom = random;
+
+                if (ivRandom == null)
+                {
+                    ivRandom = new SecureRandom();
+                }
+
+                byte[]  iv = new byte[ivLength];
+
+                ivRandom.nextBytes(iv);
+                ivParam = new ParametersWithIV(keyParam, iv);
+            }
+            else
+            {
+                throw new InvalidAlgorithmParameterException("no IV set when one expected");
+            }
+        }
+        else
+        {
+            throw new InvalidAlgorithmParameterException("unknown parameter type.");
+        }
+
+        boolean forEncryption;
+
+        switch (opmode)
+        {
+        case Cipher.ENCRYPT_MODE:
+        case Cipher.WRAP_MODE:
+            forEncryption = true;
+            break;
+        case Cipher.DECRYPT_MODE:
+        case Cipher.UNWRAP_MODE:
+            forEncryption = false;
+            break;
+        default:
+            throw new InvalidParameterException("unknown opmode " + opmode + " passed");
+        }
+
+        try
+        {
+            cipher.init(forEncryption, ivParam);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new InvalidAlgorithmParameterException(e.getMessage());
+        }
+    }
+
+    protected void engineInit(
+        int                 opmode,
+        Key                 key,
+        AlgorithmParameters params,
+        SecureRandom        random)
+        throws InvalidKeyException, InvalidAlgorithmParameterException
+    {
+        AlgorithmParameterSpec  paramSpec = null;
+
+        if (params != null)
+        {
+            for (int i = 0; i != availableSpecs.length; i++)
+            {
+                try
+                {
+                    paramSpec = params.getParameterSpec(availableSpecs[i]);
+                    break;
+                }
+                catch (Exception e)
+                {
+                    continue;
+                }
+            }
+
+            if (paramSpec == null)
+            {
+                throw new InvalidAlgorithmParameterException("can't handle parameter " + params.toString());
+            }
+        }
+
+        engineInit(opmode, key, paramSpec, random);
+        engineParams = params;
+    }
+
+    protected void engineInit(
+        int                 opmode,
+        Key                 key,
+        SecureRandom        random)
+        throws InvalidKeyException
+    {
+        try
+        {
+            engineInit(opmode, key, (AlgorithmParameterSpec)null, random);
+        }
+        catch (InvalidAlgorithmParameterException e)
+        {
+            throw new InvalidKeyException(e.getMessage());
+        }
+    }
+
+    protected void engineUpdateAAD(
+        byte[]  input,
+        int     inputOffset,
+        int     inputLen)
+    {
+        cipher.processAADBytes(input, inputOffset, inputLen);
+    }
+
+    protected void engineUpdateAAD(
+        ByteBuffer  input)
+    {
+        if (input.hasArray())
+        {
+            cipher.processAADBytes(input.array(), input.arrayOffset() + input.position(), input.remaining());
+            input.position(input.limit());
+        }
+        else
+        {
+            byte[] aad = new byte[input.remaining()];
+
+            input.get(aad);
+            cipher.processAADBytes(aad, 0, aad.length);
+        }
+    }
+
+    protected byte[] engineUpdate(
+        byte[]  input,
+        int     inputOffset,
+        int     inputLen)
+    {
+        byte[]  out = new byte[cipher.getUpdateOutputSize(inputLen)];
+
+        int len = cipher.processBytes(input, inputOffset, inputLen, out, 0);
+
+        if (len == out.length)
+        {
+            return out;
+        }
+
+        return Arrays.copyOfRange(out, 0, len);
+    }
+
+    protected int engineUpdate(
+        byte[]  input,
+        int     inputOffset,
+        int     inputLen,
+        byte[]  output,
+        int     outputOffset)
+        throws ShortBufferException
+    {
+        if (outputOffset + cipher.getUpdateOutputSize(inputLen) > output.length)
+        {
+            throw new ShortBufferException("output buffer too short for input");
+        }
+
+        try
+        {
+            return cipher.processBytes(input, inputOffset, inputLen, output, outputOffset);
+        }
+        catch (DataLengthException e)
+        {
+            throw new ShortBufferException(e.getMessage());
+        }
+    }
+
+    protected byte[] engineDoFinal(
+        byte[]  input,
+        int     inputOffset,
+        int     inputLen)
+        throws IllegalBlockSizeException, BadPaddingException
+    {
+        byte[]  out = new byte[cipher.getOutputSize(inputLen)];
+        int     len;
+
+        try
+        {
+            len = doFinal(input, inputOffset, inputLen, out, 0);
+        }
+        catch (ShortBufferException e)
+        {
+            // can't happen, out is sized by the cipher
+            throw new IllegalBlockSizeException(e.getMessage());
+        }
+
+        if (len == out.length)
+        {
+            return out;
+        }
+
+        return Arrays.copyOfRange(out, 0, len);
+    }
+
+    protected int engineDoFinal(
+        byte[]  input,
+        int     inputOffset,
+        int     inputLen,
+        byte[]  output,
+        int     outputOffset)
+        throws ShortBufferException, IllegalBlockSizeException, BadPaddingException
+    {
+        if (outputOffset + cipher.getOutputSize(inputLen) > output.length)
+        {
+            throw new ShortBufferException("output buffer too short for input");
+        }
+
+        return doFinal(input, inputOffset, inputLen, output, outputOffset);
+    }
+
+    private int doFinal(
+        byte[]  input,
+        int     inputOffset,
+        int     inputLen,
+        byte[]  output,
+        int     outputOffset)
+        throws ShortBufferException, IllegalBlockSizeException, BadPaddingException
+    {
+        try
+        {
+            int len = 0;
+
+            if (inputLen != 0)
+            {
+                len = cipher.processBytes(input, inputOffset, inputLen, output, outputOffset);
+            }
+
+            return len + cipher.doFinal(output, outputOffset + len);
+        }
+        catch (DataLengthException e)
+        {
+            throw new ShortBufferException(e.getMessage());
+        }
+        catch (InvalidCipherTextException e)
+        {
+            throw new BadPaddingException(e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.spongycastle.jcajce.provider.symmetric.util;
 
+import java.nio.ByteBuffer;
 import java.security.AlgorithmParameters;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
@@ -49,15 +50,20 @@ import org.spongycastle.crypto.params.ParametersWithRandom;
 import org.spongycastle.crypto.params.ParametersWithSBox;
 import org.spongycastle.crypto.params.RC2Parameters;
 import org.spongycastle.crypto.params.RC5Parameters;
+import org.spongycastle.crypto.util.ByteBuffers;
 import org.spongycastle.jce.provider.BouncyCastleProvider;
 import org.spongycastle.jce.spec.GOST28147ParameterSpec;
 import org.spongycastle.jce.spec.RepeatedSecretKeySpec;
+import org.spongycastle.util.Arrays;
 import org.spongycastle.util.Strings;
 
 public class BaseBlockCipher
     extends BaseWrapCipher
     implements PBE
 {
+    // largest padded decryption output collected in the reused buffer.
+    private static final int MAX_OUT_BUF = 1024;
+
     //
     // specs we can handle.
     //
@@ -83,6 +89,11 @@ public class BaseBlockCipher
 
     private String                  modeName = null;
 
+    private boolean                 decrypting;
+
+    // working space for padded decryption in the byte[] returning doFinal(), wiped after use.
+    private byte[]                  outBuf;
+
     protected BaseBlockCipher(
         org.spongycastle.crypto.BlockCipher engine)
     {
@@ -538,10 +549,12 @@ public class BaseBlockCipher
             case Cipher.ENCRYPT_MODE:
             case Cipher.WRAP_MODE:
                 cipher.init(true, param);
+                decrypting = false;
                 break;
             case Cipher.DECRYPT_MODE:
             case Cipher.UNWRAP_MODE:
                 cipher.init(false, param);
+                decrypting = true;
                 break;
             default:
                 throw new InvalidParameterException("unknown opmode " + opmode + " passed");
@@ -613,24 +626,24 @@ public class BaseBlockCipher
 
         if (length > 0)
         {
-                byte[]  out = new byte[length];
-
-                int len = cipher.processBytes(input, inputOffset, inputLen, out, 0);
-
-                if (len == 0)
-                {
-                    return null;
-                }
-                else if (len != out.length)
-                {
-                    byte[]  tmp = new byte[len];
+            //
+            // the update output size is exact for all our modes, so the result can
+            // normally be written straight into the array we return.
+            //
+            byte[]  out = new byte[length];
 
-                    System.arraycopy(out, 0, tmp, 0, len);
+            int len = cipher.processBytes(input, inputOffset, inputLen, out, 0);
 
-                    return tmp;
-                }
+            if (len == 0)
+            {
+                return null;
+            }
+            else if (len != out.length)
+            {
+                return Arrays.copyOfRange(out, 0, len);
+            }
 
-                return out;
+            return out;
         }
 
         cipher.processBytes(input, inputOffset, inputLen, null, 0);
@@ -662,17 +675,28 @@ public class BaseBlockCipher
         int     inputLen) 
         throws IllegalBlockSizeException, BadPaddingException
     {
+        //
+        // getOutputSize() is exact except for padded decryption, where it is an upper bound.
+        // Only then is the output collected in a small reused buffer and copied out, otherwise
+        // the array written to is the one returned. Anything not returned is wiped.
+        //
+        int     outSize = engineGetOutputSize(inputLen);
+        byte[]  tmp = (decrypting && padded && outSize <= MAX_OUT_BUF) ? getOutBuf() : new byte[outSize];
+        byte[]  out = null;
         int     len = 0;
-        byte[]  tmp = new byte[engineGetOutputSize(inputLen)];
-
-        if (inputLen != 0)
-        {
-            len = cipher.processBytes(input, inputOffset, inputLen, tmp, 0);
-        }
 
         try
         {
+            if (inputLen != 0)
+            {
+                len = cipher.processBytes(input, inputOffset, inputLen, tmp, 0);
+            }
+
             len += cipher.doFinal(tmp, len);
+
+            out = (tmp != outBuf && len == tmp.length) ? tmp : Arrays.copyOfRange(tmp, 0, len);
+
+            return out;
         }
         catch (DataLengthException e)
         {
@@ -682,17 +706,23 @@ public class BaseBlockCipher
         {
             throw new BadPaddingException(e.getMessage());
         }
-
-        if (len == tmp.length)
+        finally
         {
-            return tmp;
+            if (out != tmp)
+            {
+                Arrays.fill(tmp, (byte)0);
+            }
         }
+    }
 
-        byte[]  out = new byte[len];
-
-        System.arraycopy(tmp, 0, out, 0, len);
+    private byte[] getOutBuf()
+    {
+        if (outBuf == null)
+        {
+            outBuf = new byte[MAX_OUT_BUF];
+        }
 
-        return out;
+        return outBuf;
     }
 
     protected int engineDoFinal(
@@ -724,6 +754,64 @@ public class BaseBlockCipher
         }
     }
 
+    protected int engineUpdate(
+        ByteBuffer  input,
+        ByteBuffer  output)
+        throws ShortBufferException
+    {
+        if (output.remaining() < cipher.getUpdateOutputSize(input.remaining()))
+        {
+            throw new ShortBufferException("output buffer too short for input");
+        }
+
+        try
+        {
+            return cipher.processBytes(input, output);
+        }
+        catch (DataLengthException e)
+        {
+            throw new ShortBufferException(e.getMessage());
+        }
+    }
+
+    protected int engineDoFinal(
+        ByteBuffer  input,
+        ByteBuffer  output)
+        throws ShortBufferException, IllegalBlockSizeException, BadPaddingException
+    {
+        if (output.remaining() < engineGetOutputSize(input.remaining()))
+        {
+            throw new ShortBufferException("output buffer too short for input");
+        }
+
+        int     len = 0;
+
+        try
+        {
+            if (input.hasRemaining())
+            {
+                len = cipher.processBytes(input, output);
+            }
+        }
+        catch (DataLengthException e)
+        {
+            throw new ShortBufferException(e.getMessage());
+        }
+
+        try
+        {
+            return len + cipher.doFinal(output);
+        }
+        catch (DataLengthException e)
+        {
+            throw new IllegalBlockSizeException(e.getMessage());
+        }
+        catch (InvalidCipherTextException e)
+        {
+            throw new BadPaddingException(e.getMessage());
+        }
+    }
+
     private boolean isAEADModeName(
         String modeName)
     {
@@ -757,6 +845,12 @@ public class BaseBlockCipher
 
         public int doFinal(byte[] out, int outOff)
             throws IllegalStateException, InvalidCipherTextException;
+
+        public int processBytes(ByteBuffer in, ByteBuffer out)
+            throws DataLengthException;
+
+        public int doFinal(ByteBuffer out)
+            throws IllegalStateException, InvalidCipherTextException;
     }
 
     private static class BufferedGenericBlockCipher
@@ -824,6 +918,16 @@ public class BaseBlockCipher
         {
             return cipher.doFinal(out, outOff);
         }
+
+        public int processBytes(ByteBuffer in, ByteBuffer out) throws DataLengthException
+        {
+            return ByteBuffers.processBytes(cipher, in, out);
+        }
+
+        public int doFinal(ByteBuffer out) throws IllegalStateException, InvalidCipherTextException
+        {
+            return ByteBuffers.doFinal(cipher, out);
+        }
     }
 
     private static class AEADGenericBlockCipher
@@ -881,5 +985,15 @@ public class BaseBlockCipher
         {
             return cipher.doFinal(out, outOff);
         }
+
+        public int processBytes(ByteBuffer in, ByteBuffer out) throws DataLengthException
+        {
+            return ByteBuffers.processBytes(cipher, in, out);
+        }
+
+        public int doFinal(ByteBuffer out) throws IllegalStateException, InvalidCipherTextException
+        {
+            return ByteBuffers.doFinal(cipher, out);
+        }
     }
 }
@@ -1,5 +1,6 @@
 package org.spongycastle.jcajce.provider.symmetric.util;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.Key;
@@ -33,6 +34,7 @@ import org.spongycastle.crypto.macs.OldHMac;
 import org.spongycastle.crypto.paddings.ISO7816d4Padding;
 import org.spongycastle.crypto.params.KeyParameter;
 import org.spongycastle.crypto.params.ParametersWithIV;
+import org.spongycastle.crypto.util.ByteBuffers;
 
 public class BaseMac
     extends MacSpi implements PBE
@@ -130,6 +132,12 @@ public class BaseMac
         macEngine.update(input, offset, len);
     }
 
+    protected void engineUpdate(
+        ByteBuffer  input)
+    {
+        ByteBuffers.update(macEngine, input);
+    }
+
     protected byte[] engineDoFinal() 
     {
         byte[]  out = new byte[engineGetMacLength()];
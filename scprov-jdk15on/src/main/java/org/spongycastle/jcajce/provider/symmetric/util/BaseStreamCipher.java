@@ -1,5 +1,6 @@
 package org.spongycastle.jcajce.provider.symmetric.util;
 
+import java.nio.ByteBuffer;
 import java.security.AlgorithmParameters;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
@@ -23,6 +24,7 @@ import org.spongycastle.crypto.StreamBlockCipher;
 import org.spongycastle.crypto.StreamCipher;
 import org.spongycastle.crypto.params.KeyParameter;
 import org.spongycastle.crypto.params.ParametersWithIV;
+import org.spongycastle.crypto.util.ByteBuffers;
 import org.spongycastle.jce.provider.BouncyCastleProvider;
 
 public class BaseStreamCipher
@@ -359,4 +361,31 @@ public class BaseStreamCipher
         
         return inputLen;
     }
+
+    protected int engineUpdate(
+        ByteBuffer  input,
+        ByteBuffer  output)
+        throws ShortBufferException
+    {
+        try
+        {
+            return ByteBuffers.processBytes(cipher, input, output);
+        }
+        catch (DataLengthException e)
+        {
+            throw new ShortBufferException(e.getMessage());
+        }
+    }
+
+    protected int engineDoFinal(
+        ByteBuffer  input,
+        ByteBuffer  output)
+        throws ShortBufferException
+    {
+        int len = engineUpdate(input, output);
+
+        cipher.reset();
+
+        return len;
+    }
 }
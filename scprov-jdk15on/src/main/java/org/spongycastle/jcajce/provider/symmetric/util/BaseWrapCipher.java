@@ -264,7 +264,7 @@ public abstract class BaseWrapCipher
         int     inputLen,
         byte[]  output,
         int     outputOffset)
-        throws IllegalBlockSizeException, BadPaddingException
+        throws ShortBufferException, IllegalBlockSizeException, BadPaddingException
     {
         return 0;
     }
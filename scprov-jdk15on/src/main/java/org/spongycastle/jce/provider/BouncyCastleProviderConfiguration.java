@@ -4,6 +4,7 @@ import java.security.Permission;
 
 import javax.crypto.spec.DHParameterSpec;
 
+import org.spongycastle.crypto.modes.gcm.GCMMultiplierPolicy;
 import org.spongycastle.jcajce.provider.asymmetric.ec.EC5Util;
 import org.spongycastle.jcajce.provider.config.ConfigurableProvider;
 import org.spongycastle.jcajce.provider.config.ProviderConfiguration;
@@ -21,6 +22,10 @@ class BouncyCastleProviderConfiguration
         BouncyCastleProvider.PROVIDER_NAME, ConfigurableProvider.THREAD_LOCAL_DH_DEFAULT_PARAMS);
     private static Permission BC_DH_PERMISSION = new ProviderConfigurationPermission(
         BouncyCastleProvider.PROVIDER_NAME, ConfigurableProvider.DH_DEFAULT_PARAMS);
+    private static Permission BC_GCM_PERMISSION = new ProviderConfigurationPermission(
+        BouncyCastleProvider.PROVIDER_NAME, ConfigurableProvider.GCM_MULTIPLIER);
+    private static Permission BC_GCM_CACHE_PERMISSION = new ProviderConfigurationPermission(
+        BouncyCastleProvider.PROVIDER_NAME, ConfigurableProvider.GCM_TABLE_CACHE_SIZE);
 
     private ThreadLocal ecThreadSpec = new ThreadLocal();
     private ThreadLocal dhThreadSpec = new ThreadLocal();
@@ -118,6 +123,38 @@ class BouncyCastleProviderConfiguration
                 throw new IllegalArgumentException("not a valid DHParameterSpec");
             }
         }
+        else if (parameterName.equals(ConfigurableProvider.GCM_MULTIPLIER))
+        {
+            if (securityManager != null)
+            {
+                securityManager.checkPermission(BC_GCM_PERMISSION);
+            }
+
+            if (parameter instanceof String)
+            {
+                GCMMultiplierPolicy.setDefaultType((String)parameter);
+            }
+            else
+            {
+                throw new IllegalArgumentException("GCM multiplier type must be a String");
+            }
+        }
+        else if (parameterName.equals(ConfigurableProvider.GCM_TABLE_CACHE_SIZE))
+        {
+            if (securityManager != null)
+            {
+                securityManager.checkPermission(BC_GCM_CACHE_PERMISSION);
+            }
+
+            if (parameter instanceof Integer)
+            {
+                GCMMultiplierPolicy.setTableCacheSize(((Integer)parameter).intValue());
+            }
+            else
+            {
+                throw new IllegalArgumentException("GCM table cache size must be an Integer");
+            }
+        }
     }
 
     public ECParameterSpec getEcImplicitlyCa()
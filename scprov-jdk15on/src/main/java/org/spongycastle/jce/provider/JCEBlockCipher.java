@@ -60,12 +60,16 @@ import org.spongycastle.jcajce.provider.symmetric.util.BCPBEKey;
 import org.spongycastle.jcajce.provider.symmetric.util.PBE;
 import org.spongycastle.jce.spec.GOST28147ParameterSpec;
 import org.spongycastle.jce.spec.RepeatedSecretKeySpec;
+import org.spongycastle.util.Arrays;
 import org.spongycastle.util.Strings;
 
 public class JCEBlockCipher
     extends CipherSpi
     implements PBE
 {
+    // largest padded decryption output collected in the reused buffer.
+    private static final int MAX_OUT_BUF = 1024;
+
     //
     // specs we can handle.
     //
@@ -93,6 +97,11 @@ public class JCEBlockCipher
 
     private AlgorithmParameters engineParams;
 
+    private boolean                 decrypting;
+
+    // working space for padded decryption in the byte[] returning doFinal(), wiped after use.
+    private byte[]                  outBuf;
+
     protected JCEBlockCipher(
         BlockCipher engine)
     {
@@ -548,10 +557,12 @@ public class JCEBlockCipher
             case Cipher.ENCRYPT_MODE:
             case Cipher.WRAP_MODE:
                 cipher.init(true, param);
+                decrypting = false;
                 break;
             case Cipher.DECRYPT_MODE:
             case Cipher.UNWRAP_MODE:
                 cipher.init(false, param);
+                decrypting = true;
                 break;
             default:
                 throw new InvalidParameterException("unknown opmode " + opmode + " passed");
@@ -623,24 +634,24 @@ public class JCEBlockCipher
 
         if (length > 0)
         {
-                byte[]  out = new byte[length];
-
-                int len = cipher.processBytes(input, inputOffset, inputLen, out, 0);
-
-                if (len == 0)
-                {
-                    return null;
-                }
-                else if (len != out.length)
-                {
-                    byte[]  tmp = new byte[len];
+            //
+            // the update output size is exact for all our modes, so the result can
+            // normally be written straight into the array we return.
+            //
+            byte[]  out = new byte[length];
 
-                    System.arraycopy(out, 0, tmp, 0, len);
+            int len = cipher.processBytes(input, inputOffset, inputLen, out, 0);
 
-                    return tmp;
-                }
+            if (len == 0)
+            {
+                return null;
+            }
+            else if (len != out.length)
+            {
+                return Arrays.copyOfRange(out, 0, len);
+            }
 
-                return out;
+            return out;
         }
 
         cipher.processBytes(input, inputOffset, inputLen, null, 0);
@@ -672,17 +683,28 @@ public class JCEBlockCipher
         int     inputLen) 
         throws IllegalBlockSizeException, BadPaddingException
     {
+        //
+        // getOutputSize() is exact except for padded decryption, where it is an upper bound.
+        // Only then is the output collected in a small reused buffer and copied out, otherwise
+        // the array written to is the one returned. Anything not returned is wiped.
+        //
+        int     outSize = engineGetOutputSize(inputLen);
+        byte[]  tmp = (decrypting && padded && outSize <= MAX_OUT_BUF) ? getOutBuf() : new byte[outSize];
+        byte[]  out = null;
         int     len = 0;
-        byte[]  tmp = new byte[engineGetOutputSize(inputLen)];
-
-        if (inputLen != 0)
-        {
-            len = cipher.processBytes(input, inputOffset, inputLen, tmp, 0);
-        }
 
         try
         {
+            if (inputLen != 0)
+            {
+                len = cipher.processBytes(input, inputOffset, inputLen, tmp, 0);
+            }
+
             len += cipher.doFinal(tmp, len);
+
+            out = (tmp != outBuf && len == tmp.length) ? tmp : Arrays.copyOfRange(tmp, 0, len);
+
+            return out;
         }
         catch (DataLengthException e)
         {
@@ -692,17 +714,23 @@ public class JCEBlockCipher
         {
             throw new BadPaddingException(e.getMessage());
         }
-
-        if (len == tmp.length)
+        finally
         {
-            return tmp;
+            if (out != tmp)
+            {
+                Arrays.fill(tmp, (byte)0);
+            }
         }
+    }
 
-        byte[]  out = new byte[len];
-
-        System.arraycopy(tmp, 0, out, 0, len);
+    private byte[] getOutBuf()
+    {
+        if (outBuf == null)
+        {
+            outBuf = new byte[MAX_OUT_BUF];
+        }
 
-        return out;
+        return outBuf;
     }
 
     protected int engineDoFinal(
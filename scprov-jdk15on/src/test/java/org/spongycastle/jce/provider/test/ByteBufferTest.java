@@ -0,0 +1,207 @@
+package org.spongycastle.jce.provider.test;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.Security;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.spongycastle.jce.provider.BouncyCastleProvider;
+import org.spongycastle.util.test.SimpleTest;
+
+/**
+ * check the ByteBuffer versions of update/doFinal on the cipher, MAC and digest SPIs
+ * against the byte[] versions.
+ */
+public class ByteBufferTest
+    extends SimpleTest
+{
+    private SecureRandom random = new SecureRandom();
+
+    public String getName()
+    {
+        return "ByteBuffer";
+    }
+
+    public void performTest()
+        throws Exception
+    {
+        int[] sizes = { 0, 1, 16, 1000, 5000 };
+
+        for (int i = 0; i != sizes.length; i++)
+        {
+            byte[] data = randomBytes(sizes[i]);
+
+            for (int direct = 0; direct != 2; direct++)
+            {
+                cipherTest("AES/CBC/PKCS5Padding", "AES", new IvParameterSpec(randomBytes(16)), data, direct == 1);
+                cipherTest("AES/CTR/NoPadding", "AES", new IvParameterSpec(randomBytes(16)), data, direct == 1);
+                cipherTest("RC4", "RC4", null, data, direct == 1);
+                digestTest("SHA-256", data, direct == 1);
+                macTest("HMACSHA256", data, direct == 1);
+            }
+        }
+
+        shortBufferTest();
+        overlapTest();
+    }
+
+    private void cipherTest(String algorithm, String keyAlgorithm, IvParameterSpec spec, byte[] data, boolean direct)
+        throws Exception
+    {
+        Cipher cipher = Cipher.getInstance(algorithm, "SC");
+        SecretKeySpec key = new SecretKeySpec(randomBytes(16), keyAlgorithm);
+
+        if (spec != null)
+        {
+            cipher.init(Cipher.ENCRYPT_MODE, key, spec);
+        }
+        else
+        {
+            cipher.init(Cipher.ENCRYPT_MODE, key);
+        }
+
+        byte[] expected = cipher.doFinal(data);
+
+        ByteBuffer in = buffer(data, direct);
+        ByteBuffer out = direct ? ByteBuffer.allocateDirect(expected.length) : ByteBuffer.allocate(expected.length);
+
+        // split across an update and a doFinal
+        ByteBuffer first = in.duplicate();
+        first.limit(first.position() + data.length / 2);
+        in.position(first.limit());
+
+        int len = cipher.update(first, out);
+        len += cipher.doFinal(in, out);
+
+        if (len != expected.length || !areEqual(expected, contents(out)))
+        {
+            fail(algorithm + " ByteBuffer output differs from byte[]");
+        }
+    }
+
+    private void digestTest(String algorithm, byte[] data, boolean direct)
+        throws Exception
+    {
+        MessageDigest digest = MessageDigest.getInstance(algorithm, "SC");
+        byte[] expected = digest.digest(data);
+
+        digest.update(buffer(data, direct));
+
+        if (!areEqual(expected, digest.digest()))
+        {
+            fail(algorithm + " ByteBuffer update failed");
+        }
+    }
+
+    private void macTest(String algorithm, byte[] data, boolean direct)
+        throws Exception
+    {
+        Mac mac = Mac.getInstance(algorithm, "SC");
+
+        mac.init(new SecretKeySpec(randomBytes(32), algorithm));
+
+        byte[] expected = mac.doFinal(data);
+
+        mac.update(buffer(data, direct));
+
+        if (!areEqual(expected, mac.doFinal()))
+        {
+            fail(algorithm + " ByteBuffer update failed");
+        }
+    }
+
+    private void shortBufferTest()
+        throws Exception
+    {
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding", "SC");
+
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(randomBytes(16), "AES"), new IvParameterSpec(randomBytes(16)));
+
+        ByteBuffer in = ByteBuffer.allocateDirect(32);
+
+        try
+        {
+            cipher.doFinal(in, ByteBuffer.allocateDirect(32));
+            fail("short buffer not detected");
+        }
+        catch (ShortBufferException e)
+        {
+            // expected
+        }
+    }
+
+    private void overlapTest()
+        throws Exception
+    {
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding", "SC");
+        SecretKeySpec key = new SecretKeySpec(randomBytes(16), "AES");
+        IvParameterSpec spec = new IvParameterSpec(randomBytes(16));
+        byte[] data = randomBytes(100);
+
+        cipher.init(Cipher.ENCRYPT_MODE, key, spec);
+
+        byte[] expected = cipher.doFinal(data);
+
+        // output starting inside the input, in the same array
+        byte[] shared = new byte[expected.length + 9];
+        System.arraycopy(data, 0, shared, 0, data.length);
+
+        ByteBuffer in = ByteBuffer.wrap(shared, 0, data.length);
+        ByteBuffer out = ByteBuffer.wrap(shared, 9, expected.length);
+
+        cipher.init(Cipher.ENCRYPT_MODE, key, spec);
+
+        int len = cipher.doFinal(in, out);
+
+        byte[] result = new byte[len];
+        System.arraycopy(shared, 9, result, 0, len);
+
+        if (!areEqual(expected, result))
+        {
+            fail("overlapping ByteBuffers gave wrong output");
+        }
+    }
+
+    private ByteBuffer buffer(byte[] data, boolean direct)
+    {
+        ByteBuffer buf = direct ? ByteBuffer.allocateDirect(data.length) : ByteBuffer.allocate(data.length);
+
+        buf.put(data);
+        buf.flip();
+
+        return buf;
+    }
+
+    private byte[] contents(ByteBuffer buf)
+    {
+        byte[] bytes = new byte[buf.position()];
+
+        buf.flip();
+        buf.get(bytes);
+
+        return bytes;
+    }
+
+    private byte[] randomBytes(int length)
+    {
+        byte[] bytes = new byte[length];
+
+        random.nextBytes(bytes);
+
+        return bytes;
+    }
+
+    public static void main(
+        String[]    args)
+    {
+        Security.addProvider(new BouncyCastleProvider());
+
+        runTest(new ByteBufferTest());
+    }
+}
@@ -44,6 +44,33 @@ public class CipherStreamTest
         + "2B4F97E0FF16924A52DF269515110A07"
         + "F9E460BC65EF95DA58F740B7D1DBB0AA");
 
+    private static final byte[] CCK = new byte[32];
+    private static final byte[] CCIV = new byte[8];
+    private static final byte[] CCIV7539 = new byte[12];
+    private static final byte[] CCOUT = Hex.decode(
+          "76b8e0ada0f13d90405d6ae55386bd28"
+        + "bdd219b8a08ded1aa836efcc8b770dc7"
+        + "da41597c5157488d7724e03fb8d84a37"
+        + "6a43b8f41518a11cc387b669b2ee6586");
+
+    // RFC 7539 section 2.8.2 without the associated data.
+    private static final byte[] CCPK = Hex.decode("808182838485868788898a8b8c8d8e8f909192939495969798999a9b9c9d9e9f");
+    private static final byte[] CCPIV = Hex.decode("070000004041424344454647");
+    private static final byte[] CCPIN = Hex.decode(
+          "4c616469657320616e642047656e746c656d656e206f662074686520636c6173"
+        + "73206f66202739393a204966204920636f756c64206f6666657220796f75206f"
+        + "6e6c79206f6e652074697020666f7220746865206675747572652c2073756e73"
+        + "637265656e20776f756c642062652069742e");
+    private static final byte[] CCPOUT = Hex.decode(
+          "d31a8d34648e60db7b86afbc53ef7ec2a4aded51296e08fea9e2b5a736ee62d6"
+        + "3dbea45e8ca9671282fafb69da92728b1a71de0a9e060b2905d6a5b67ecd3b36"
+        + "92ddbd7f2d778b8c9803aee328091b58fab324e4fad675945585808b4831d7bc"
+        + "3ff4def08e4b7a9de576d26586cec64b6116"
+        + "6a23a4681fd59456aea1d29f82477216");
+    // the same with the associated data, given through updateAAD().
+    private static final byte[] CCPAAD = Hex.decode("50515253c0c1c2c3c4c5c6c7");
+    private static final byte[] CCPTAG = Hex.decode("1ae10b594f09e26a7e902ecbd0600691");
+
     private static final byte[] HCIN = new byte[64];
     private static final byte[] HCIV = new byte[32];
 
@@ -162,6 +189,83 @@ public class CipherStreamTest
         }
     }
 
+    private void testChaCha20Poly1305()
+        throws Exception
+    {
+        SecretKey key = new SecretKeySpec(CCPK, "ChaCha20-Poly1305");
+        Cipher    in = Cipher.getInstance("ChaCha20-Poly1305", "SC");
+        Cipher    out = Cipher.getInstance("ChaCha20-Poly1305", "SC");
+
+        // associated data
+        in.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(CCPIV));
+        in.updateAAD(CCPAAD);
+
+        byte[] enc = in.doFinal(CCPIN);
+
+        if (!areEqual(CCPTAG, copy(enc, enc.length - CCPTAG.length, CCPTAG.length)))
+        {
+            fail("ChaCha20-Poly1305: tag with associated data doesn't match");
+        }
+
+        out.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(CCPIV));
+        out.updateAAD(CCPAAD, 0, 4);
+        out.updateAAD(CCPAAD, 4, CCPAAD.length - 4);
+
+        if (!areEqual(CCPIN, out.doFinal(enc)))
+        {
+            fail("ChaCha20-Poly1305: plain text with associated data doesn't match");
+        }
+
+        // the nonce is used up by the encryption
+        try
+        {
+            in.doFinal(CCPIN);
+            fail("ChaCha20-Poly1305: no exception on re-use after encryption");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+
+        // a generated nonce must be available from the parameters
+        in.init(Cipher.ENCRYPT_MODE, key);
+        enc = in.doFinal(CCPIN);
+
+        if (in.getParameters() == null)
+        {
+            fail("ChaCha20-Poly1305: no parameters for generated nonce");
+        }
+
+        out.init(Cipher.DECRYPT_MODE, key, in.getParameters());
+
+        if (!areEqual(CCPIN, out.doFinal(enc)))
+        {
+            fail("ChaCha20-Poly1305: plain text with generated nonce doesn't match");
+        }
+
+        // output too small for the tag
+        in.init(Cipher.ENCRYPT_MODE, key);
+
+        try
+        {
+            in.doFinal(CCPIN, 0, CCPIN.length, new byte[CCPIN.length], 0);
+            fail("ChaCha20-Poly1305: no exception on short output buffer");
+        }
+        catch (ShortBufferException e)
+        {
+            // expected
+        }
+    }
+
+    private byte[] copy(byte[] data, int off, int len)
+    {
+        byte[] res = new byte[len];
+
+        System.arraycopy(data, off, res, 0, len);
+
+        return res;
+    }
+
     private void testException(
         String  name)
     {
@@ -296,6 +400,14 @@ public class CipherStreamTest
         runTest("Salsa20");
         testException("Salsa20");
         testAlgorithm("Salsa20", SK, SIV, SIN, SOUT);
+        runTest("ChaCha");
+        testException("ChaCha");
+        testAlgorithm("ChaCha", CCK, CCIV, SIN, CCOUT);
+        runTest("ChaCha7539");
+        testAlgorithm("ChaCha7539", CCK, CCIV7539, SIN, CCOUT);
+        runTest("ChaCha20-Poly1305");
+        testAlgorithm("ChaCha20-Poly1305", CCPK, CCPIV, CCPIN, CCPOUT);
+        testChaCha20Poly1305();
         runTest("HC128");
         testException("HC128");
         testAlgorithm("HC128", HCK128A, HCIV, HCIN, HC128A);
@@ -37,6 +37,12 @@ public class MacTest
     static byte[]   inputDesEDE64 = "Hello World !!!!".getBytes(); 
     
     static byte[]   outputDesEDE64 = Hex.decode("862304d33af01096");
+
+    static byte[]   keyBytesPoly1305 = Hex.decode("85d6be7857556d337f4452fe42d506a80103808afb0db2fd4abff6af4149f51b");
+
+    static byte[]   inputPoly1305 = "Cryptographic Forum Research Group".getBytes();
+
+    static byte[]   outputPoly1305 = Hex.decode("a8061dc1305136c6c22b8baf0c0127a9");
     
     public MacTest()
     {
@@ -161,6 +167,24 @@ public class MacTest
             fail("Failed - expected " + new String(Hex.encode(outputDesEDE64)) + " got " + new String(Hex.encode(out)));
         }
 
+        //
+        // Poly1305, RFC 7539 section 2.5.2
+        //
+        key = new SecretKeySpec(keyBytesPoly1305, "Poly1305");
+
+        mac = Mac.getInstance("Poly1305", "SC");
+
+        mac.init(key);
+
+        mac.update(inputPoly1305, 0, inputPoly1305.length);
+
+        out = mac.doFinal();
+
+        if (!areEqual(out, outputPoly1305))
+        {
+            fail("Failed - expected " + new String(Hex.encode(outputPoly1305)) + " got " + new String(Hex.encode(out)));
+        }
+
         aliasTest(new SecretKeySpec(keyBytesISO9797, "DESede"), "DESedeMac64withISO7816-4Padding",
             new String[] { "DESEDE64WITHISO7816-4PADDING", "DESEDEISO9797ALG1MACWITHISO7816-4PADDING", "DESEDEISO9797ALG1WITHISO7816-4PADDING" });
 
@@ -41,6 +41,7 @@ public class RegressionTest
         new PSSTest(),
         new WrapTest(),
         new DoFinalTest(),
+        new ByteBufferTest(),
         new CipherStreamTest(),
         new NamedCurveTest(),
         new PKIXTest(),